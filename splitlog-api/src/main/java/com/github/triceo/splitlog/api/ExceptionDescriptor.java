@@ -8,6 +8,12 @@ import java.util.List;
  */
 public interface ExceptionDescriptor {
 
+    /**
+     * How many of the topmost frames of {@link #getStackTrace()} make up
+     * {@link #getFingerprint()}.
+     */
+    int FINGERPRINT_DEPTH = 5;
+
     /**
      * Returns the cause for this exception.
      *
@@ -26,6 +32,28 @@ public interface ExceptionDescriptor {
 
     String getExceptionClassName();
 
+    /**
+     * Identifies the exceptions that are the same, even though they were
+     * thrown at different times and with different messages. Made of
+     * {@link #getExceptionClassName()} and of the class and the method of up
+     * to {@link #FINGERPRINT_DEPTH} topmost frames. The message, the line
+     * numbers and the cause are left out, so that the fingerprint stays the
+     * same from one run of the application to the next.
+     *
+     * @return Such as
+     *         <code>java.lang.IllegalStateException at a.B.c at a.B.d</code>.
+     */
+    default String getFingerprint() {
+        final StringBuilder builder = new StringBuilder(this.getExceptionClassName());
+        final List<StackTraceElement> stackTrace = this.getStackTrace();
+        final int depth = Math.min(stackTrace.size(), ExceptionDescriptor.FINGERPRINT_DEPTH);
+        for (int i = 0; i < depth; i++) {
+            final StackTraceElement element = stackTrace.get(i);
+            builder.append(" at ").append(element.getClassName()).append('.').append(element.getMethodName());
+        }
+        return builder.toString();
+    }
+
     String getMessage();
 
     /**
@@ -0,0 +1,52 @@
+package com.github.triceo.splitlog.api;
+
+/**
+ * How many times an exception occurs in the messages that are currently
+ * stored, see {@link LogWatch#getExceptionOccurrences()} and
+ * {@link Follower#getExceptionOccurrences()}. Exceptions are considered the
+ * same when they have the same {@link ExceptionDescriptor#getFingerprint()}.
+ *
+ * The values are current as of the time that the instance was obtained.
+ * Messages that have since been discarded are not counted.
+ */
+public interface ExceptionOccurrences {
+
+    /**
+     * @return How many of the messages have the exception. Always at least 1.
+     */
+    int getCount();
+
+    /**
+     * @return The same as {@link ExceptionDescriptor#getExceptionClassName()}.
+     */
+    String getExceptionClassName();
+
+    /**
+     * @return The same as {@link ExceptionDescriptor#getFingerprint()}.
+     */
+    String getFingerprint();
+
+    /**
+     * @return The message that the exception occurred in first.
+     */
+    Message getFirstMessage();
+
+    /**
+     * @return When the exception was first seen; the same as
+     *         {@link Message#getTimestamp()} of {@link #getFirstMessage()}.
+     */
+    long getFirstTimestamp();
+
+    /**
+     * @return The message that the exception occurred in last. The same as
+     *         {@link #getFirstMessage()} when {@link #getCount()} is 1.
+     */
+    Message getLastMessage();
+
+    /**
+     * @return When the exception was last seen; the same as
+     *         {@link Message#getTimestamp()} of {@link #getLastMessage()}.
+     */
+    long getLastTimestamp();
+
+}
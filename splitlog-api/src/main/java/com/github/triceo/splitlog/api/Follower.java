@@ -1,5 +1,6 @@
 package com.github.triceo.splitlog.api;
 
+import java.util.Map;
 
 /**
  * On top of the {@link CommonFollower}'s functions, this allows for merging
@@ -7,6 +8,26 @@ package com.github.triceo.splitlog.api;
  */
 public interface Follower extends CommonFollower<Follower, LogWatch>, MessageProducer<Follower> {
 
+    /**
+     * How many times each exception occurs in the messages that this follower
+     * has been notified of. Does not go through the messages.
+     *
+     * @return Never null. Unmodifiable, keyed by
+     *         {@link ExceptionOccurrences#getFingerprint()}, in the order in
+     *         which the exceptions first occurred.
+     */
+    Map<String, ExceptionOccurrences> getExceptionOccurrences();
+
+    /**
+     * How many times a particular exception occurs in the messages that this
+     * follower has been notified of. Does not go through the messages.
+     *
+     * @param fingerprint
+     *            See {@link ExceptionDescriptor#getFingerprint()}.
+     * @return Null if there is no such exception.
+     */
+    ExceptionOccurrences getExceptionOccurrences(String fingerprint);
+
     /**
      * Retrieve the log watch that is being followed.
      *
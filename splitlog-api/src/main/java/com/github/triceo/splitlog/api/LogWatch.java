@@ -1,6 +1,7 @@
 package com.github.triceo.splitlog.api;
 
 import java.io.File;
+import java.util.Map;
 
 /**
  * The primary point of interaction with this tool. Allows users to start
@@ -8,10 +9,40 @@ import java.io.File;
  */
 public interface LogWatch extends MessageProducer<LogWatch> {
 
+    /**
+     * How many times each exception occurs in the messages that are stored
+     * for the followers. Does not go through the messages.
+     *
+     * @return Never null. Unmodifiable, keyed by
+     *         {@link ExceptionOccurrences#getFingerprint()}, in the order in
+     *         which the exceptions first occurred.
+     */
+    Map<String, ExceptionOccurrences> getExceptionOccurrences();
+
+    /**
+     * How many times a particular exception occurs in the messages that are
+     * stored for the followers. Does not go through the messages.
+     *
+     * @param fingerprint
+     *            See {@link ExceptionDescriptor#getFingerprint()}.
+     * @return Null if there is no such exception.
+     */
+    ExceptionOccurrences getExceptionOccurrences(String fingerprint);
+
+    /**
+     * Information on how the file is being read.
+     *
+     * @return Never null. Will keep providing current values for as long as
+     *         the log watch is being used.
+     */
+    TailingStatistics getTailingStatistics();
+
     /**
      * The file that is being tracked by this class.
      *
-     * @return Never null
+     * @return Never null. When watching all files matching a pattern, see
+     *         {@link LogWatchBuilder#watchedFiles(File, String)}, the directory
+     *         in which they are found.
      */
     File getWatchedFile();
 
@@ -1,6 +1,7 @@
 package com.github.triceo.splitlog.api;
 
 import java.io.File;
+import java.nio.file.FileSystems;
 import java.util.ServiceLoader;
 import java.util.concurrent.TimeUnit;
 
@@ -10,14 +11,42 @@ import java.util.concurrent.TimeUnit;
  * have the following properties:
  *
  * <dl>
+ * <dt>Watches all files matching a pattern?</dt>
+ * <dd>No, only a single file.</dd>
  * <dt>Reads file from beginning?</dt>
  * <dd>Yes.</dd>
- * <dt>Closes file when the reading is finished?</dt>
+ * <dt>Closes file as soon as it is rotated away?</dt>
+ * <dd>No, only once a new file takes its place.</dd>
+ * <dt>Reads file through {@link java.nio.channels.FileChannel}?</dt>
  * <dd>No.</dd>
+ * <dt>Reads pre-existing content through memory mapping?</dt>
+ * <dd>No.</dd>
+ * <dt>Reads pre-existing content in parallel?</dt>
+ * <dd>No.</dd>
+ * <dt>Reads only the last few messages of the pre-existing content?</dt>
+ * <dd>No, reads all of it.</dd>
+ * <dt>Infers the metadata of a message as soon as the message is read?</dt>
+ * <dd>No, only once it is first asked for, such as through
+ * {@link Message#getSeverity()}.</dd>
+ * <dt>Processes what was read on a thread other than the one reading?</dt>
+ * <dd>No, the thread that reads the file also turns the lines into messages
+ * and notifies of them.</dd>
+ * <dt>Reads file as soon as the file system reports a change?</dt>
+ * <dd>No.</dd>
+ * <dt>Remembers how far the file was read, so that it can resume from there?</dt>
+ * <dd>No.</dd>
+ * <dt>Shares tailing threads with other log watches?</dt>
+ * <dd>No, every log watch has threads of its own.</dd>
+ * <dt>Tails on virtual threads?</dt>
+ * <dd>No, unless requested for all of Splitlog by setting the
+ * <code>splitlog.threads</code> system property to <code>virtual</code>.</dd>
  * <dt>The default interval between each read</dt>
- * <dd>See {@link #DEFAULT_DELAY_BETWEEN_READS_IN_MILLISECONDS}.</dd>
+ * <dd>See {@link #DEFAULT_DELAY_BETWEEN_READS_IN_MILLISECONDS}. Does not
+ * adapt to how often the file is written to.</dd>
  * <dt>The buffer size for reading</dt>
  * <dd>See {@link #DEFAULT_READ_BUFFER_SIZE_IN_BYTES}.</dd>
+ * <dt>The most bytes read in a single read</dt>
+ * <dd>Unlimited, every read continues until the end of the file.</dd>
  * <dt>Default message capacity</dt>
  * <dd>{@link Integer#MAX_VALUE}, the maximum possible.</dd>
  * <dt>Interval between two sweeps for unreachable messages.</dt>
@@ -71,14 +100,29 @@ public abstract class LogWatchBuilder {
 
     private boolean autoStarting = true;
     private int bufferSize = LogWatchBuilder.DEFAULT_READ_BUFFER_SIZE_IN_BYTES;
+    private boolean catchingUpThroughMemoryMapping;
+    private File checkpointFile;
     private boolean closingBetweenReads;
     private long delayBetweenReads = LogWatchBuilder.DEFAULT_DELAY_BETWEEN_READS_IN_MILLISECONDS;
     private long delayBetweenSweeps = LogWatchBuilder.DEFAULT_DELAY_BETWEEN_SWEEPS_IN_MILLISECONDS;
+    private int maxBytesPerRead;
+    private long maxDelayBetweenReads;
+    private long minDelayBetweenReads;
+    private int pipelineCapacity;
+    private PipelineWaitStrategy pipelineWaitStrategy;
+    private String filePattern;
     private File fileToWatch;
     private SimpleMessageCondition gateCondition;
+    private boolean ingestingPreexistingContentInParallel;
+    private boolean parsingMetadataEagerly;
     private int limitCapacityTo = Integer.MAX_VALUE;
     private boolean readingFromBeginning = true;
+    private boolean readingThroughFileChannel;
+    private int sharedTailingThreadCount;
+    private int startingMessageCount;
     private SimpleMessageCondition storageCondition;
+    private boolean tailingOnVirtualThreads;
+    private boolean usingFileSystemNotifications;
 
     /**
      * Build the log watch with previously defined properties, or defaults where
@@ -133,9 +177,54 @@ public abstract class LogWatchBuilder {
      */
     public abstract LogWatch buildWith(final TailSplitter splitter);
 
+    /**
+     * Change the default behavior of the future log watch so that the content
+     * already present in the file when the tailing starts is read by mapping
+     * the file into memory, as opposed to going through the regular reading
+     * buffer. This makes catching up with large files considerably faster.
+     * Has no effect when {@link #ignoringPreexistingContent()} is used.
+     *
+     * @return This.
+     */
+    public LogWatchBuilder catchingUpThroughMemoryMapping() {
+        this.catchingUpThroughMemoryMapping = true;
+        return this;
+    }
+
+    /**
+     * Change the default behavior of the future log watch so that it
+     * remembers how far it has read the watched file. The position will be
+     * stored in a given file, together with information identifying the
+     * watched file, periodically and whenever the tailing stops.
+     *
+     * When the tailing starts and the watched file is still the same and has
+     * not been truncated since, the reading will resume from the stored
+     * position. This overrides {@link #ignoringPreexistingContent()}: no
+     * content is read twice and none written in between is missed. If the
+     * log watch was terminated abruptly, the {@link Message} that was being
+     * read at the time may be cut short.
+     *
+     * @param checkpoint
+     *            File to store the position in. Must not be shared with other
+     *            log watches.
+     * @return This.
+     */
+    public LogWatchBuilder checkpointingReadOffsetTo(final File checkpoint) {
+        if (checkpoint == null) {
+            throw new IllegalArgumentException("Checkpoint file can not be null.");
+        }
+        this.checkpointFile = checkpoint;
+        return this;
+    }
+
     /**
      * Change the default behavior of the future log watch to close the watched
-     * file after each reading.
+     * file as soon as it is rotated away or deleted, instead of only once a
+     * new file takes its place. Either way, the file stays open between reads,
+     * so that it does not need to be opened again for every read, which is
+     * costly on network file systems. It is only reopened when it is found to
+     * have been replaced, as told by its identity (such as the inode number)
+     * and length.
      *
      * @return This.
      */
@@ -181,6 +270,28 @@ public abstract class LogWatchBuilder {
         return this.delayBetweenSweeps;
     }
 
+    /**
+     * Get the file where the future log watch will store how far it has read
+     * the watched file.
+     *
+     * @return Null unless {@link #checkpointingReadOffsetTo(File)} was called.
+     */
+    public File getCheckpointFile() {
+        return this.checkpointFile;
+    }
+
+    /**
+     * Get the pattern that the files watched by the future log watch will
+     * match.
+     *
+     * @return Null unless {@link #watchedFiles(File, String)} was called, in
+     *         which case {@link #getFileToWatch()} is the directory where the
+     *         files are.
+     */
+    public String getFilePattern() {
+        return this.filePattern;
+    }
+
     /**
      * Get the file that the log watch will be watching.
      *
@@ -199,6 +310,65 @@ public abstract class LogWatchBuilder {
         return this.gateCondition;
     }
 
+    /**
+     * Get the most bytes that the future log watch will read from the file at
+     * once.
+     *
+     * @return In bytes. 0 unless {@link #withMaxBytesPerRead(int)} was
+     *         called, meaning unlimited.
+     */
+    public int getMaxBytesPerRead() {
+        return this.maxBytesPerRead;
+    }
+
+    /**
+     * Get the longest that the future log watch will wait between two reads
+     * of the file, when adapting the delay.
+     *
+     * @return In milliseconds. 0 unless
+     *         {@link #withAdaptiveDelayBetweenReads(int, int, TimeUnit)} was
+     *         called.
+     */
+    public long getMaxDelayBetweenReads() {
+        return this.maxDelayBetweenReads;
+    }
+
+    /**
+     * Get the shortest that the future log watch will wait between two reads
+     * of the file, when adapting the delay.
+     *
+     * @return In milliseconds. 0 unless
+     *         {@link #withAdaptiveDelayBetweenReads(int, int, TimeUnit)} was
+     *         called.
+     */
+    public long getMinDelayBetweenReads() {
+        return this.minDelayBetweenReads;
+    }
+
+    /**
+     * Get how many batches of lines can wait between reading and processing
+     * in the future log watch.
+     *
+     * @return 0 unless
+     *         {@link #processingOnSeparateThread(int, PipelineWaitStrategy)}
+     *         was called.
+     */
+    public int getPipelineCapacity() {
+        return this.pipelineCapacity;
+    }
+
+    /**
+     * Get how reading and processing will wait for one another in the future
+     * log watch.
+     *
+     * @return Null unless
+     *         {@link #processingOnSeparateThread(int, PipelineWaitStrategy)}
+     *         was called.
+     */
+    public PipelineWaitStrategy getPipelineWaitStrategy() {
+        return this.pipelineWaitStrategy;
+    }
+
     /**
      * Get the buffer size for the log watch.
      *
@@ -208,6 +378,27 @@ public abstract class LogWatchBuilder {
         return this.bufferSize;
     }
 
+    /**
+     * Get the number of threads that the future log watch will share with other
+     * log watches for tailing.
+     *
+     * @return 0 if the log watch will use threads of its own.
+     */
+    public int getSharedTailingThreadCount() {
+        return this.sharedTailingThreadCount;
+    }
+
+    /**
+     * Get the number of the most recent pre-existing messages that the future
+     * log watch will start with.
+     *
+     * @return 0 if the pre-existing content will be read in full, or ignored
+     *         altogether.
+     */
+    public int getStartingMessageCount() {
+        return this.startingMessageCount;
+    }
+
     /**
      * The condition that will be used for storing a {@link Message} within
      * {@link LogWatch}.
@@ -231,12 +422,72 @@ public abstract class LogWatchBuilder {
     }
 
     /**
-     * @return Whether or not the file will be closed after it is read from.
+     * Change the default behavior of the future log watch so that the content
+     * already present in the file when the tailing starts is turned into
+     * {@link Message}s in parallel, using all available processors, before
+     * the tailing starts. Starting the log watch will wait until then. This
+     * makes catching up with large files considerably faster. Has no effect
+     * when {@link #ignoringPreexistingContent()} is used, unless resuming
+     * from a checkpoint.
+     *
+     * The {@link TailSplitter} will then be used by several threads at once
+     * and must therefore be thread-safe.
+     *
+     * @return This.
+     */
+    public LogWatchBuilder ingestingPreexistingContentInParallel() {
+        this.ingestingPreexistingContentInParallel = true;
+        return this;
+    }
+
+    /**
+     * @return True if the pre-existing content of the file will be read by
+     *         mapping the file into memory.
+     */
+    public boolean isCatchingUpThroughMemoryMapping() {
+        return this.catchingUpThroughMemoryMapping;
+    }
+
+    /**
+     * @return True if the delay between reads will change based on whether the
+     *         file is being written to.
+     */
+    public boolean isAdaptingDelayBetweenReads() {
+        return this.maxDelayBetweenReads > 0;
+    }
+
+    /**
+     * @return Whether or not the file will be closed as soon as it is rotated
+     *         away or deleted.
      */
     public boolean isClosingBetweenReads() {
         return this.closingBetweenReads;
     }
 
+    /**
+     * @return True if the pre-existing content of the file will be turned
+     *         into messages in parallel before the tailing starts.
+     */
+    public boolean isIngestingPreexistingContentInParallel() {
+        return this.ingestingPreexistingContentInParallel;
+    }
+
+    /**
+     * @return True if the metadata of a message will be inferred as soon as
+     *         the message is read, rather than when first asked for.
+     */
+    public boolean isParsingMetadataEagerly() {
+        return this.parsingMetadataEagerly;
+    }
+
+    /**
+     * @return True if the lines will be turned into messages on a thread other
+     *         than the one reading the file.
+     */
+    public boolean isProcessingOnSeparateThread() {
+        return this.pipelineCapacity > 0;
+    }
+
     /**
      * @return True if the file will be read from the beginning, false if just
      *         the additions made post starting the log watch.
@@ -245,6 +496,30 @@ public abstract class LogWatchBuilder {
         return this.readingFromBeginning;
     }
 
+    /**
+     * @return True if the file will be read in bulk through
+     *         {@link java.nio.channels.FileChannel}, false if byte by byte.
+     */
+    public boolean isReadingThroughFileChannel() {
+        return this.readingThroughFileChannel;
+    }
+
+    /**
+     * @return True if the tailing threads of the future log watch will be
+     *         virtual, where the JDK supports it.
+     */
+    public boolean isTailingOnVirtualThreads() {
+        return this.tailingOnVirtualThreads;
+    }
+
+    /**
+     * @return True if the file will be read as soon as the file system
+     *         reports a change to it, false if only periodically.
+     */
+    public boolean isUsingFileSystemNotifications() {
+        return this.usingFileSystemNotifications;
+    }
+
     /**
      * Limit capacity of the log watch to a given amount of messages.
      *
@@ -260,26 +535,215 @@ public abstract class LogWatchBuilder {
         return this;
     }
 
+    /**
+     * Change the default behavior of the future log watch so that the
+     * metadata of every {@link Message}, such as its {@link Message#getDate()}
+     * or {@link Message#getExceptionDescriptor()}, is inferred by the
+     * {@link TailSplitter} as soon as the message is read. By default, every
+     * piece of metadata is only inferred when first asked for, by whichever
+     * thread asks; metadata that nobody asks for is never inferred at all.
+     *
+     * Regardless of this setting, messages ingested in parallel (see
+     * {@link #ingestingPreexistingContentInParallel()}) have their metadata
+     * inferred in parallel too.
+     *
+     * @return This.
+     */
+    public LogWatchBuilder parsingMetadataEagerly() {
+        this.parsingMetadataEagerly = true;
+        return this;
+    }
+
+    /**
+     * Change the default behavior of the future log watch so that the thread
+     * reading the file does nothing more than hand the lines over to another
+     * thread, which turns them into messages, stores them and notifies of
+     * them. Therefore, a slow {@link MessageListener} will no longer delay the
+     * reading of the file, unless the processing falls behind so far that
+     * there is no more room for lines. In that case, the reading will wait,
+     * as reported by {@link TailingStatistics#getNumberOfPipelineStalls()}.
+     *
+     * With {@link PipelineWaitStrategy#BUSY_SPIN}, the processing thread keeps
+     * a CPU core fully busy for as long as the log watch runs, even when the
+     * file is not being written to. Busy spinning on a virtual thread would
+     * also keep its carrier thread from running any other virtual thread,
+     * therefore it can not be combined with
+     * {@link #tailingOnVirtualThreads()}.
+     *
+     * @param capacity
+     *            How many batches of lines, as read at once, can wait to be
+     *            processed. Will be rounded up to the nearest power of two.
+     * @param waitStrategy
+     *            How the reading and the processing wait for one another.
+     * @return This.
+     */
+    public LogWatchBuilder processingOnSeparateThread(final int capacity, final PipelineWaitStrategy waitStrategy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("There must be room for at least one batch of lines.");
+        } else if (capacity > (1 << 30)) {
+            throw new IllegalArgumentException("There must be room for at most 2^30 batches of lines.");
+        } else if (waitStrategy == null) {
+            throw new IllegalArgumentException("Wait strategy must not be null.");
+        } else if ((waitStrategy == PipelineWaitStrategy.BUSY_SPIN) && this.tailingOnVirtualThreads) {
+            throw new IllegalArgumentException("Busy spinning can not be combined with virtual threads.");
+        }
+        this.pipelineCapacity = capacity;
+        this.pipelineWaitStrategy = waitStrategy;
+        return this;
+    }
+
+    /**
+     * Change the default behavior of the future log watch to read the watched
+     * file in bulk through a {@link java.nio.channels.FileChannel}, decoding
+     * lines straight from a reusable direct buffer. This considerably reduces
+     * the amount of copying and allocation for busy log files.
+     *
+     * @return This.
+     */
+    public LogWatchBuilder readingThroughFileChannel() {
+        this.readingThroughFileChannel = true;
+        return this;
+    }
+
+    /**
+     * Change the default behavior of the future log watch so that, of the
+     * content already present in the file when the tailing first starts, only
+     * the given amount of the most recent messages is read. The file is
+     * searched backwards from its end for the lines that start a message,
+     * therefore the time that it takes does not depend on the size of the
+     * file. Takes precedence over {@link #ignoringPreexistingContent()}, but
+     * not over a checkpoint; see {@link #checkpointingReadOffsetTo(File)}.
+     *
+     * Lines are told apart by the bytes of LF and CR, terminated the same way
+     * as when tailing: by LF, by CRLF or by a lone CR. Therefore the search
+     * only works when the default charset encodes these the same way as
+     * ASCII, such as UTF-8 or ISO-8859-1. In charsets such as UTF-16, the
+     * search is not done and this option has no effect.
+     *
+     * @param messageCount
+     *            How many of the most recent messages to read. If the file
+     *            has fewer, it will be read from the beginning.
+     * @return This.
+     */
+    public LogWatchBuilder startingWithLastMessages(final int messageCount) {
+        if (messageCount < 1) {
+            throw new IllegalArgumentException("There must be at least one message to start with.");
+        }
+        this.startingMessageCount = messageCount;
+        return this;
+    }
+
+    /**
+     * Change the default behavior of the future log watch so that it does not
+     * use threads of its own for tailing. Instead, it will be tailed by a fixed
+     * number of threads, shared with all the other log watches that request
+     * the same number of threads. The shared threads take turns over all of
+     * their log watches, in the order in which the log watches become due for
+     * reading.
+     *
+     * This is intended for cases when a large number of files is being
+     * watched at the same time.
+     *
+     * @param threadCount
+     *            Number of threads to share.
+     * @return This.
+     */
+    public LogWatchBuilder tailingOnSharedThreads(final int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("There must be at least one tailing thread.");
+        }
+        this.sharedTailingThreadCount = threadCount;
+        return this;
+    }
+
+    /**
+     * Change the default behavior of the future log watch so that the threads
+     * of its own, that is the threads tailing the files and the thread
+     * processing what was read (see
+     * {@link #processingOnSeparateThread(int, PipelineWaitStrategy)}), are
+     * virtual. As such, they are not bound to a thread of the operating
+     * system, and a large amount of them can therefore be running at the same
+     * time. Has no effect on the threads shared with other log watches, see
+     * {@link #tailingOnSharedThreads(int)}. Where the JDK does not support
+     * virtual threads, platform threads are used regardless.
+     *
+     * For all of Splitlog, including the threads that wait for
+     * {@link SupportsExpectations#expect(Object)} and run
+     * {@link MessageAction}s, virtual threads are used when the
+     * <code>splitlog.threads</code> system property is set to
+     * <code>virtual</code>.
+     *
+     * Can not be combined with {@link PipelineWaitStrategy#BUSY_SPIN}; see
+     * {@link #processingOnSeparateThread(int, PipelineWaitStrategy)}.
+     *
+     * @return This.
+     */
+    public LogWatchBuilder tailingOnVirtualThreads() {
+        if ((this.pipelineCapacity > 0) && (this.pipelineWaitStrategy == PipelineWaitStrategy.BUSY_SPIN)) {
+            throw new IllegalStateException("Busy spinning can not be combined with virtual threads.");
+        }
+        this.tailingOnVirtualThreads = true;
+        return this;
+    }
+
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
-        builder.append("LogWatchBuilder [bufferSize=").append(this.bufferSize).append(", closingBetweenReads=")
+        builder.append("LogWatchBuilder [bufferSize=").append(this.bufferSize)
+        .append(", catchingUpThroughMemoryMapping=").append(this.catchingUpThroughMemoryMapping).append(", ");
+        if (this.checkpointFile != null) {
+            builder.append("checkpointFile=").append(this.checkpointFile).append(", ");
+        }
+        builder.append("closingBetweenReads=")
         .append(this.closingBetweenReads).append(", delayBetweenReads=").append(this.delayBetweenReads)
         .append(", delayBetweenSweeps=").append(this.delayBetweenSweeps).append(", ");
+        if (this.filePattern != null) {
+            builder.append("filePattern=").append(this.filePattern).append(", ");
+        }
         if (this.fileToWatch != null) {
             builder.append("fileToWatch=").append(this.fileToWatch).append(", ");
         }
         if (this.gateCondition != null) {
             builder.append("gateCondition=").append(this.gateCondition).append(", ");
         }
-        builder.append("limitCapacityTo=").append(this.limitCapacityTo).append(", readingFromBeginning=")
-        .append(this.readingFromBeginning).append(", ");
+        builder.append("ingestingPreexistingContentInParallel=").append(this.ingestingPreexistingContentInParallel)
+        .append(", limitCapacityTo=").append(this.limitCapacityTo).append(", maxBytesPerRead=")
+        .append(this.maxBytesPerRead).append(", maxDelayBetweenReads=")
+        .append(this.maxDelayBetweenReads).append(", minDelayBetweenReads=").append(this.minDelayBetweenReads)
+        .append(", parsingMetadataEagerly=").append(this.parsingMetadataEagerly)
+        .append(", pipelineCapacity=").append(this.pipelineCapacity).append(", ");
+        if (this.pipelineWaitStrategy != null) {
+            builder.append("pipelineWaitStrategy=").append(this.pipelineWaitStrategy).append(", ");
+        }
+        builder.append("readingFromBeginning=")
+        .append(this.readingFromBeginning).append(", readingThroughFileChannel=")
+        .append(this.readingThroughFileChannel).append(", sharedTailingThreadCount=")
+        .append(this.sharedTailingThreadCount).append(", startingMessageCount=")
+        .append(this.startingMessageCount).append(", ");
         if (this.storageCondition != null) {
-            builder.append("storageCondition=").append(this.storageCondition);
+            builder.append("storageCondition=").append(this.storageCondition).append(", ");
         }
+        builder.append("tailingOnVirtualThreads=").append(this.tailingOnVirtualThreads)
+        .append(", usingFileSystemNotifications=").append(this.usingFileSystemNotifications);
         builder.append("]");
         return builder.toString();
     }
+
+    /**
+     * Change the default behavior of the future log watch so that the file is
+     * read as soon as the file system reports a change to it, through
+     * {@link java.nio.file.WatchService}. {@link #getDelayBetweenReads()} will
+     * then only serve as a safety net for changes that were not reported, and
+     * can therefore be considerably longer. Where the file system cannot be
+     * watched, the file will only be read periodically.
+     *
+     * @return This.
+     */
+    public LogWatchBuilder usingFileSystemNotifications() {
+        this.usingFileSystemNotifications = true;
+        return this;
+    }
+
     /**
      * Set the file that the future {@link LogWatch} will be tailing.
      *
@@ -292,6 +756,42 @@ public abstract class LogWatchBuilder {
             throw new IllegalArgumentException("File can not be null.");
         }
         this.fileToWatch = f;
+        this.filePattern = null;
+        return this;
+    }
+
+    /**
+     * Set the future {@link LogWatch} to be tailing every file in a directory
+     * that matches a pattern, including files that only appear there later.
+     * All the files will be read by a single thread (unless
+     * {@link #tailingOnSharedThreads(int)} is called) and their
+     * {@link Message}s will end up in the same storage, each with
+     * {@link Message#getSource()} of its own. The directory is checked for new
+     * files after every {@link #getDelayBetweenReads()}; files that appear
+     * there are read from the beginning, regardless of
+     * {@link #isReadingFromBeginning()}. Files are never dropped from the
+     * watch; if one is deleted, it will be read again once it reappears.
+     * {@link #getCheckpointFile()} has no effect on such log watch.
+     *
+     * @param directory
+     *            Directory where to look for the files; subdirectories are not
+     *            searched.
+     * @param glob
+     *            Pattern that the file names must match, in the syntax of
+     *            {@link java.nio.file.FileSystem#getPathMatcher(String)}, such
+     *            as <code>*.log</code>.
+     * @return This.
+     */
+    public LogWatchBuilder watchedFiles(final File directory, final String glob) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory can not be null.");
+        } else if ((glob == null) || glob.isEmpty()) {
+            throw new IllegalArgumentException("Pattern can not be empty.");
+        }
+        // fail early on a malformed pattern
+        FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        this.fileToWatch = directory;
+        this.filePattern = glob;
         return this;
     }
 
@@ -302,6 +802,33 @@ public abstract class LogWatchBuilder {
         return this.autoStarting;
     }
 
+    /**
+     * Change the default behavior of the future log watch so that the delay
+     * between reads adapts to how often the file is being written to. Every
+     * read that finds new content halves the delay, every read that does not
+     * doubles it, within the given bounds. The delay will start at
+     * {@link #getDelayBetweenReads()}, or the nearest bound.
+     *
+     * @param minLength
+     *            The shortest possible delay, at least 1 ms.
+     * @param maxLength
+     *            The longest possible delay, no shorter than the shortest.
+     * @param unit
+     *            The unit of time that both lengths are in.
+     * @return This.
+     */
+    public LogWatchBuilder withAdaptiveDelayBetweenReads(final int minLength, final int maxLength,
+        final TimeUnit unit) {
+        final long min = LogWatchBuilder.getDelay(minLength, unit);
+        final long max = LogWatchBuilder.getDelay(maxLength, unit);
+        if (max < min) {
+            throw new IllegalArgumentException("The longest delay must not be shorter than the shortest delay.");
+        }
+        this.minDelayBetweenReads = min;
+        this.maxDelayBetweenReads = max;
+        return this;
+    }
+
     /**
      * Specify the delay between attempts to read the file.
      *
@@ -350,6 +877,26 @@ public abstract class LogWatchBuilder {
         return this;
     }
 
+    /**
+     * Limit how much the future log watch reads from the file at once. When
+     * more has been written to the file, the rest is read right after the
+     * reads of all other log watches that are due on the same threads; see
+     * {@link #tailingOnSharedThreads(int)}. This way, a file that suddenly
+     * grows large does not hold up the others. How often this happens is
+     * reported by {@link TailingStatistics#getNumberOfThrottledReads()}.
+     *
+     * @param maxBytes
+     *            In bytes. Will be exceeded when a single line is longer.
+     * @return This.
+     */
+    public LogWatchBuilder withMaxBytesPerRead(final int maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Maximum bytes per read must be at least 1.");
+        }
+        this.maxBytesPerRead = maxBytes;
+        return this;
+    }
+
     /**
      * Specify the buffer size that will be used for reading changes made to the
      * watched file.
@@ -1,5 +1,6 @@
 package com.github.triceo.splitlog.api;
 
+import java.io.File;
 import java.util.Date;
 import java.util.List;
 
@@ -61,6 +62,27 @@ public interface Message extends Comparable<Message> {
 
     MessageSeverity getSeverity();
 
+    /**
+     * The file that this message was read from. Of interest when the
+     * {@link LogWatch} watches several files, see
+     * {@link LogWatchBuilder#watchedFiles(File, String)}.
+     *
+     * @return Null if the message was not read from a file, such as when
+     *         <code>{@link #getType()} == {@link MessageType#TAG}</code>.
+     */
+    File getSource();
+
+    /**
+     * Get the time that this message was logged at, without constructing a
+     * {@link Date}.
+     *
+     * @return The same as {@link #getDate()}, in milliseconds since January
+     *         1st 1970.
+     */
+    default long getTimestamp() {
+        return this.getDate().getTime();
+    }
+
     MessageType getType();
 
     /**
@@ -0,0 +1,156 @@
+package com.github.triceo.splitlog.api;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Everything that {@link TailSplitter#parse(List)} has learned about a
+ * message, other than its exception. Immutable.
+ *
+ * For every line of the message, it may also carry where the information being
+ * logged starts and ends within that line, so that the line can be stripped of
+ * metadata without parsing it again; see {@link #getBodyStart(int)}.
+ */
+public final class MessageMetadata {
+
+    /**
+     * Returned by {@link #getTimestamp()} when the message contains no date.
+     */
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    /**
+     * Returned by {@link #getBodyStart(int)} and {@link #getBodyEnd(int)}
+     * when the body of the line is not known.
+     */
+    public static final int UNKNOWN_OFFSET = -1;
+
+    private final int[] bodyEnds;
+    private final int[] bodyStarts;
+    private final String logger;
+    private final MessageSeverity severity;
+    private final long timestamp;
+    private final MessageType type;
+
+    /**
+     * Metadata with no information on where the bodies of the lines are.
+     *
+     * @param timestamp
+     *            In milliseconds since January 1st 1970, or
+     *            {@link #NO_TIMESTAMP}.
+     * @param logger
+     *            What logged the message, null if not known.
+     * @param severity
+     *            Severity of the message.
+     * @param type
+     *            Type of the message.
+     */
+    public MessageMetadata(final long timestamp, final String logger, final MessageSeverity severity,
+        final MessageType type) {
+        this(timestamp, logger, severity, type, null, null);
+    }
+
+    /**
+     * @param timestamp
+     *            In milliseconds since January 1st 1970, or
+     *            {@link #NO_TIMESTAMP}.
+     * @param logger
+     *            What logged the message, null if not known.
+     * @param severity
+     *            Severity of the message.
+     * @param type
+     *            Type of the message.
+     * @param bodyStarts
+     *            For every line, index of the first character of its body, or
+     *            {@link #UNKNOWN_OFFSET}. Null if not known for any line. Will
+     *            not be copied, so must not be modified afterwards.
+     * @param bodyEnds
+     *            For every line, index after the last character of its body.
+     *            Null if and only if bodyStarts is null.
+     */
+    public MessageMetadata(final long timestamp, final String logger, final MessageSeverity severity,
+        final MessageType type, final int[] bodyStarts, final int[] bodyEnds) {
+        if (severity == null) {
+            throw new IllegalArgumentException("Severity must not be null.");
+        } else if (type == null) {
+            throw new IllegalArgumentException("Type must not be null.");
+        } else if ((bodyStarts == null) != (bodyEnds == null)) {
+            throw new IllegalArgumentException("Body starts and ends must both be provided, or neither.");
+        } else if ((bodyStarts != null) && (bodyStarts.length != bodyEnds.length)) {
+            throw new IllegalArgumentException("There must be as many body starts as there are body ends.");
+        }
+        this.timestamp = timestamp;
+        this.logger = logger;
+        this.severity = severity;
+        this.type = type;
+        this.bodyStarts = bodyStarts;
+        this.bodyEnds = bodyEnds;
+    }
+
+    /**
+     * @param lineIndex
+     *            Index of the line within the message.
+     * @return Index after the last character of the body of that line, or
+     *         {@link #UNKNOWN_OFFSET} when not known.
+     */
+    public int getBodyEnd(final int lineIndex) {
+        return this.hasBody(lineIndex) ? this.bodyEnds[lineIndex] : MessageMetadata.UNKNOWN_OFFSET;
+    }
+
+    /**
+     * The body of a line is what {@link TailSplitter#stripOfMetadata(String)}
+     * would return for that line, found between {@link #getBodyStart(int)}
+     * and {@link #getBodyEnd(int)}.
+     *
+     * @param lineIndex
+     *            Index of the line within the message.
+     * @return Index of the first character of the body of that line, or
+     *         {@link #UNKNOWN_OFFSET} when not known.
+     */
+    public int getBodyStart(final int lineIndex) {
+        return this.hasBody(lineIndex) ? this.bodyStarts[lineIndex] : MessageMetadata.UNKNOWN_OFFSET;
+    }
+
+    /**
+     * @return What logged the message, null if not known.
+     */
+    public String getLogger() {
+        return this.logger;
+    }
+
+    public MessageSeverity getSeverity() {
+        return this.severity;
+    }
+
+    /**
+     * @return In milliseconds since January 1st 1970, or {@link #NO_TIMESTAMP}
+     *         when the message contains no date.
+     */
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    public MessageType getType() {
+        return this.type;
+    }
+
+    /**
+     * @param lineIndex
+     *            Index of the line within the message.
+     * @return True if {@link #getBodyStart(int)} and {@link #getBodyEnd(int)}
+     *         are known for the line.
+     */
+    public boolean hasBody(final int lineIndex) {
+        return (this.bodyStarts != null) && (lineIndex >= 0) && (lineIndex < this.bodyStarts.length)
+                && (this.bodyStarts[lineIndex] != MessageMetadata.UNKNOWN_OFFSET);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("MessageMetadata [bodyEnds=").append(Arrays.toString(this.bodyEnds)).append(", bodyStarts=")
+                .append(Arrays.toString(this.bodyStarts)).append(", logger=").append(this.logger)
+                .append(", severity=").append(this.severity).append(", timestamp=").append(this.timestamp)
+                .append(", type=").append(this.type).append("]");
+        return builder.toString();
+    }
+
+}
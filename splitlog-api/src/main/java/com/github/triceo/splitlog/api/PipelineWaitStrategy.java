@@ -0,0 +1,32 @@
+package com.github.triceo.splitlog.api;
+
+/**
+ * How the reading and the processing of a log file wait for one another, when
+ * they happen on separate threads; see
+ * {@link LogWatchBuilder#processingOnSeparateThread(int, PipelineWaitStrategy)}.
+ * The processing waits for lines to be read, while the reading waits for the
+ * processing to make room for more lines.
+ */
+public enum PipelineWaitStrategy {
+
+    /**
+     * The waiting thread is suspended until woken up by the other one. Uses
+     * no CPU while waiting, at the cost of the latency of waking up.
+     */
+    BLOCKING,
+    /**
+     * The waiting thread keeps checking without any pause. The lowest
+     * possible latency, yet the processing thread keeps a CPU core busy for as
+     * long as the log watch runs, even when there is nothing to read. Only
+     * sensible when there are cores to spare. Not available with virtual
+     * threads, whose carriers it would hold on to.
+     */
+    BUSY_SPIN,
+    /**
+     * The waiting thread keeps checking, giving way to other threads between
+     * the checks. Lower latency than {@link #BLOCKING}, yet keeps a CPU busy
+     * unless other threads need it.
+     */
+    YIELDING
+
+}
@@ -2,12 +2,16 @@ package com.github.triceo.splitlog.api;
 
 import java.util.Date;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * The purpose of classes implementing this interface is to interpret the log
  * files. Each implementation should be familiar with one type of log file (i.e.
  * JBoss logging or Logback) and be able to interpret the messages and their
  * lines.
+ *
+ * The metadata of a message is only inferred when first asked for, possibly
+ * by several threads at once; implementations must therefore be thread-safe.
  */
 public interface TailSplitter {
 
@@ -29,6 +33,24 @@ public interface TailSplitter {
      */
     ExceptionDescriptor determineException(final List<String> raw);
 
+    /**
+     * For a message whose lines are read from the log over time, and whose
+     * exception is therefore looked for every time that more of them have been
+     * read. The function returned is given all the lines read so far, every
+     * time; it may remember what it found in them before, so that it only
+     * needs to read the new ones. It will not be called by more than one
+     * thread at a time.
+     *
+     * This default implementation calls {@link #determineException(List)} on
+     * all the lines every time.
+     *
+     * @return Function that does what {@link #determineException(List)} does,
+     *         for a single message whose lines only ever grow.
+     */
+    default Function<List<String>, ExceptionDescriptor> determineExceptionIncrementally() {
+        return this::determineException;
+    }
+
     /**
      * Messages in the log can contain information as to what logged them. This
      * would typically be a Java package name. This method will try to return
@@ -71,6 +93,77 @@ public interface TailSplitter {
      */
     boolean isStartingLine(final String line);
 
+    /**
+     * Read the message and find all its metadata at once, other than the
+     * exception. Implementations that can find everything in a single pass
+     * over the lines should override this.
+     *
+     * This default implementation calls {@link #determineDate(List)},
+     * {@link #determineLogger(List)}, {@link #determineSeverity(List)} and
+     * {@link #determineType(List)} in turn, and leaves it to
+     * {@link #stripOfMetadata(String)} to find the bodies of the lines.
+     *
+     * @param raw
+     *            Raw, untreated lines of the message.
+     * @return Metadata, the same as if the other methods had been called.
+     */
+    default MessageMetadata parse(final List<String> raw) {
+        final Date date = this.determineDate(raw);
+        return new MessageMetadata((date == null) ? MessageMetadata.NO_TIMESTAMP : date.getTime(),
+                this.determineLogger(raw), this.determineSeverity(raw), this.determineType(raw));
+    }
+
+    /**
+     * Read the message and find all its metadata at once, other than the
+     * exception, knowing when the message was read from the log. A log that
+     * only includes the time of day, and not the date, needs that to tell
+     * which day the message is from; a message read just before midnight is
+     * from the day before the one on which its metadata is asked for.
+     * Implementations that decode such timestamps should override this, as it
+     * is what {@link Message} uses.
+     *
+     * This default implementation calls {@link #parse(List)}.
+     *
+     * @param raw
+     *            Raw, untreated lines of the message.
+     * @param readTimestamp
+     *            When the message was read, in milliseconds since January 1st
+     *            1970.
+     * @return Metadata, the same as if {@link #parse(List)} had been called
+     *         when the message was read.
+     */
+    default MessageMetadata parse(final List<String> raw, final long readTimestamp) {
+        return this.parse(raw);
+    }
+
+    /**
+     * Read the message and find all its metadata at once, other than the
+     * exception, knowing what {@link #parse(List, long)} found in the message
+     * before more lines were read into it. Messages whose lines are read from
+     * the log over time call this every time that more of them have been
+     * read. Implementations that find the metadata of a message in its first
+     * line should override this, so that they only need to read the new
+     * lines.
+     *
+     * This default implementation calls {@link #parse(List, long)}.
+     *
+     * @param raw
+     *            Raw, untreated lines of the message.
+     * @param readTimestamp
+     *            When the message was read, in milliseconds since January 1st
+     *            1970.
+     * @param previousLineCount
+     *            How many of the lines had been read before.
+     * @param previous
+     *            What this returned for those lines; null if none.
+     * @return Metadata, the same as if {@link #parse(List, long)} had been
+     *         called.
+     */
+    default MessageMetadata parse(final List<String> raw, final long readTimestamp, final int previousLineCount,
+        final MessageMetadata previous) {
+        return this.parse(raw, readTimestamp);
+    }
+
     /**
      * Take a line from the log and attempt to strip it of metadata, such as
      * severity, type and date.
@@ -0,0 +1,54 @@
+package com.github.triceo.splitlog.api;
+
+/**
+ * Information about how a {@link LogWatch} is reading its file. All the values
+ * are current as of the time of the call.
+ */
+public interface TailingStatistics {
+
+    /**
+     * The current interval between two reads of the file. Unless
+     * {@link LogWatchBuilder#withAdaptiveDelayBetweenReads(int, int, java.util.concurrent.TimeUnit)}
+     * was used, this will always be {@link LogWatchBuilder#getDelayBetweenReads()}.
+     * When several files are being watched, the shortest of their intervals.
+     *
+     * @return In milliseconds.
+     */
+    long getCurrentDelayBetweenReads();
+
+    /**
+     * How many times the reading of the file had to wait for the processing
+     * to make room for more lines. A number that keeps growing means that the
+     * messages are processed slower than the file is being written to, and
+     * the reading has been slowed down to match.
+     *
+     * @return 0 unless
+     *         {@link LogWatchBuilder#processingOnSeparateThread(int, PipelineWaitStrategy)}
+     *         was used.
+     */
+    long getNumberOfPipelineStalls();
+
+    /**
+     * How many reads of the file stopped before reaching its end, as they had
+     * read as much as {@link LogWatchBuilder#withMaxBytesPerRead(int)} allows.
+     * A number that keeps growing means that the file is being written to
+     * faster than it is allowed to be read. When several files are being
+     * watched, the reads of all of them are counted.
+     *
+     * @return 0 unless the reads are limited.
+     */
+    long getNumberOfThrottledReads();
+
+    /**
+     * How many batches of lines have been read from the file and wait to be
+     * processed.
+     *
+     * @return 0 unless
+     *         {@link LogWatchBuilder#processingOnSeparateThread(int, PipelineWaitStrategy)}
+     *         was used; never more than
+     *         {@link LogWatchBuilder#getPipelineCapacity()}, rounded up to
+     *         the nearest power of two.
+     */
+    int getPipelineOccupancy();
+
+}
@@ -0,0 +1,67 @@
+package com.github.triceo.splitlog;
+
+import com.github.triceo.splitlog.api.ExceptionOccurrences;
+import com.github.triceo.splitlog.api.Message;
+
+final class DefaultExceptionOccurrences implements ExceptionOccurrences {
+
+    private final int count;
+    private final String exceptionClassName;
+    private final String fingerprint;
+    private final Message firstMessage;
+    private final Message lastMessage;
+
+    public DefaultExceptionOccurrences(final String fingerprint, final String exceptionClassName, final int count,
+        final Message firstMessage, final Message lastMessage) {
+        this.fingerprint = fingerprint;
+        this.exceptionClassName = exceptionClassName;
+        this.count = count;
+        this.firstMessage = firstMessage;
+        this.lastMessage = lastMessage;
+    }
+
+    @Override
+    public int getCount() {
+        return this.count;
+    }
+
+    @Override
+    public String getExceptionClassName() {
+        return this.exceptionClassName;
+    }
+
+    @Override
+    public String getFingerprint() {
+        return this.fingerprint;
+    }
+
+    @Override
+    public Message getFirstMessage() {
+        return this.firstMessage;
+    }
+
+    @Override
+    public long getFirstTimestamp() {
+        return this.firstMessage.getTimestamp();
+    }
+
+    @Override
+    public Message getLastMessage() {
+        return this.lastMessage;
+    }
+
+    @Override
+    public long getLastTimestamp() {
+        return this.lastMessage.getTimestamp();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("DefaultExceptionOccurrences [fingerprint=").append(this.fingerprint).append(", count=")
+                .append(this.count).append(", firstMessage=").append(this.firstMessage).append(", lastMessage=")
+                .append(this.lastMessage).append("]");
+        return builder.toString();
+    }
+
+}
@@ -14,6 +14,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 
+import com.github.triceo.splitlog.api.ExceptionOccurrences;
 import com.github.triceo.splitlog.api.Follower;
 import com.github.triceo.splitlog.api.LogWatch;
 import com.github.triceo.splitlog.api.MergingFollower;
@@ -66,6 +67,16 @@ final class DefaultFollower extends AbstractCommonFollower<Follower, LogWatch> i
         return NoopMessageFormatter.INSTANCE;
     }
 
+    @Override
+    public Map<String, ExceptionOccurrences> getExceptionOccurrences() {
+        return this.getWatch().getExceptionOccurrences(this);
+    }
+
+    @Override
+    public ExceptionOccurrences getExceptionOccurrences(final String fingerprint) {
+        return this.getWatch().getExceptionOccurrences(this, fingerprint);
+    }
+
     @Override
     public LogWatch getFollowed() {
         return this.getWatch();
@@ -35,8 +35,12 @@ final class DefaultLogWatch implements LogWatch {
     private final BidiMap<String, MessageMeasure<? extends Number, Follower>> handingDown = new DualHashBidiMap<>();
     private final AtomicBoolean isStarted = new AtomicBoolean(false);
     private final AtomicBoolean isStopped = new AtomicBoolean(false);
+    /**
+     * Null unless the lines are to be processed on a thread of their own.
+     */
+    private final LogWatchPipeline pipeline;
     private final LogWatchStorageManager storage;
-    private final LogWatchTailingManager tailing;
+    private final LogWatchTailing tailing;
     private final long uniqueId = DefaultLogWatch.ID_GENERATOR.getAndIncrement();
     private final File watchedFile;
 
@@ -44,7 +48,14 @@ final class DefaultLogWatch implements LogWatch {
         this.gateCondition = builder.getGateCondition();
         this.storage = new LogWatchStorageManager(this, builder);
         this.watchedFile = builder.getFileToWatch();
-        this.tailing = new LogWatchTailingManager(this, builder, splitter);
+        this.pipeline = builder.isProcessingOnSeparateThread() ? new LogWatchPipeline(
+                builder.getPipelineCapacity(), builder.getPipelineWaitStrategy(), builder.isTailingOnVirtualThreads())
+                : null;
+        if (builder.getFilePattern() == null) {
+            this.tailing = new LogWatchTailingManager(this, builder, splitter);
+        } else {
+            this.tailing = new LogWatchDirectoryTailingManager(this, builder, splitter);
+        }
     }
 
     @Override
@@ -83,6 +94,44 @@ final class DefaultLogWatch implements LogWatch {
         return this.storage.getAllMessages(follower);
     }
 
+    @Override
+    public Map<String, ExceptionOccurrences> getExceptionOccurrences() {
+        return this.storage.getExceptionOccurrences();
+    }
+
+    /**
+     * How many times each exception occurs in the messages that have been
+     * sent to a given {@link Follower}; see {@link #getAllMessages(Follower)}.
+     *
+     * @param follower
+     *            The follower in question.
+     * @return Unmodifiable, keyed by
+     *         {@link ExceptionOccurrences#getFingerprint()}.
+     */
+    protected Map<String, ExceptionOccurrences> getExceptionOccurrences(final Follower follower) {
+        return this.storage.getExceptionOccurrences(follower);
+    }
+
+    /**
+     * How many times a particular exception occurs in the messages that have
+     * been sent to a given {@link Follower}; see
+     * {@link #getAllMessages(Follower)}.
+     *
+     * @param follower
+     *            The follower in question.
+     * @param fingerprint
+     *            See {@link ExceptionOccurrences#getFingerprint()}.
+     * @return Null if there is no such exception.
+     */
+    protected ExceptionOccurrences getExceptionOccurrences(final Follower follower, final String fingerprint) {
+        return this.storage.getExceptionOccurrences(follower, fingerprint);
+    }
+
+    @Override
+    public ExceptionOccurrences getExceptionOccurrences(final String fingerprint) {
+        return this.storage.getExceptionOccurrences(fingerprint);
+    }
+
     @Override
     public MessageMetric<? extends Number, LogWatch> getMetric(final String id) {
         return this.consumers.getMetric(id);
@@ -93,6 +142,15 @@ final class DefaultLogWatch implements LogWatch {
         return this.consumers.getMetricId(measure);
     }
 
+    LogWatchPipeline getPipeline() {
+        return this.pipeline;
+    }
+
+    @Override
+    public TailingStatistics getTailingStatistics() {
+        return this.tailing;
+    }
+
     public long getUniqueId() {
         return this.uniqueId;
     }
@@ -200,6 +258,9 @@ final class DefaultLogWatch implements LogWatch {
         if (!this.isStarted.compareAndSet(false, true)) {
             return false;
         }
+        if (this.pipeline != null) {
+            this.pipeline.start();
+        }
         this.tailing.start();
         return true;
     }
@@ -271,6 +332,9 @@ final class DefaultLogWatch implements LogWatch {
         }
         DefaultLogWatch.LOGGER.info("Terminating {}.", this);
         this.tailing.stop();
+        if (this.pipeline != null) {
+            this.pipeline.stop();
+        }
         this.consumers.stop();
         this.handingDown.clear();
         this.storage.logWatchTerminated();
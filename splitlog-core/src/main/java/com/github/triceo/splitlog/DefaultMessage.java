@@ -3,17 +3,18 @@ package com.github.triceo.splitlog;
 import it.unimi.dsi.fastutil.longs.AbstractLongComparator;
 import it.unimi.dsi.fastutil.longs.LongComparator;
 
+import java.io.File;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import com.github.triceo.splitlog.api.CommonFollower;
 import com.github.triceo.splitlog.api.ExceptionDescriptor;
 import com.github.triceo.splitlog.api.Message;
+import com.github.triceo.splitlog.api.MessageMetadata;
 import com.github.triceo.splitlog.api.MessageSeverity;
 import com.github.triceo.splitlog.api.MessageType;
 import com.github.triceo.splitlog.api.TailSplitter;
@@ -21,6 +22,113 @@ import com.github.triceo.splitlog.splitters.SimpleTailSplitter;
 
 final class DefaultMessage implements Message {
 
+    /**
+     * Metadata of a message, inferred from its lines only when first asked
+     * for, and then remembered. Several threads asking at once may each infer
+     * the same value, yet all of them will get an equal result; the
+     * {@link TailSplitter} must therefore be thread-safe. Shared by a message
+     * and its copies, so that nothing is inferred twice.
+     *
+     * Everything but the exception comes from a single
+     * {@link TailSplitter#parse(List, long)}, given when the message was
+     * read, so that a time of day in the log is decoded into the day on which
+     * the message was read rather than the one on which the metadata is first
+     * asked for. The parser may be shared with other messages, that differ
+     * from this one in the lines at the end; see
+     * {@link IncrementalMessageParser}. It is forgotten once it is no longer
+     * needed.
+     */
+    private static final class Metadata {
+
+        /**
+         * Stands for the exception descriptor not yet having been inferred,
+         * as null means that there is no exception.
+         */
+        private static final Object UNKNOWN = new Object();
+
+        private volatile Object exceptionDescriptor = Metadata.UNKNOWN;
+        private final List<String> lines;
+        private volatile MessageMetadata parsed;
+        private volatile IncrementalMessageParser parser;
+        private final long timestamp;
+
+        public Metadata(final List<String> lines, final IncrementalMessageParser parser, final long timestamp) {
+            this.lines = lines;
+            this.parser = parser;
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * Metadata of a {@link MessageType#TAG}, known up front.
+         */
+        public Metadata(final long timestamp) {
+            this.lines = null;
+            this.parser = null;
+            this.timestamp = timestamp;
+            this.exceptionDescriptor = null;
+            this.parsed = new MessageMetadata(timestamp, null, MessageSeverity.UNKNOWN, MessageType.TAG);
+        }
+
+        /**
+         * Forget the parser once everything has been inferred. Until then, it
+         * is there for whatever has not.
+         */
+        private void forgetParserIfDone() {
+            if ((this.parsed != null) && (this.exceptionDescriptor != Metadata.UNKNOWN)) {
+                this.parser = null;
+            }
+        }
+
+        public long getTimestamp() {
+            final long result = this.getParsed().getTimestamp();
+            return (result == MessageMetadata.NO_TIMESTAMP) ? this.timestamp : result;
+        }
+
+        public ExceptionDescriptor getExceptionDescriptor() {
+            Object result = this.exceptionDescriptor;
+            if (result == Metadata.UNKNOWN) {
+                final IncrementalMessageParser parser = this.parser;
+                if (parser == null) {
+                    // forgotten, as another thread has inferred everything in the meantime
+                    return (ExceptionDescriptor) this.exceptionDescriptor;
+                }
+                result = parser.determineException(this.lines);
+                this.exceptionDescriptor = result;
+                this.forgetParserIfDone();
+            }
+            return (ExceptionDescriptor) result;
+        }
+
+        public String getLogger() {
+            final String result = this.getParsed().getLogger();
+            return (result == null) ? "" : result;
+        }
+
+        public MessageMetadata getParsed() {
+            MessageMetadata result = this.parsed;
+            if (result == null) {
+                final IncrementalMessageParser parser = this.parser;
+                if (parser == null) {
+                    // forgotten, as another thread has inferred everything in the meantime
+                    return this.parsed;
+                }
+                result = parser.parse(this.lines, this.timestamp);
+                this.parsed = result;
+                this.forgetParserIfDone();
+            }
+            return result;
+        }
+
+        public MessageSeverity getSeverity() {
+            return this.getParsed().getSeverity();
+        }
+
+        public MessageType getType() {
+            return this.getParsed().getType();
+        }
+
+    }
+
     private static final LongComparator COMPARATOR = new AbstractLongComparator() {
 
         @Override
@@ -37,14 +145,11 @@ final class DefaultMessage implements Message {
     };
     private static final TailSplitter DEFAULT_SPLITTER = new SimpleTailSplitter();
 
-    private final ExceptionDescriptor exceptionDescriptor;
     private final List<String> lines;
-    private final String logger;
-    private final long millisecondsSinceJanuary1st1970;
+    private final Metadata metadata;
     private final WeakReference<Message> previousMessage;
-    private final MessageSeverity severity;
+    private final File source;
     private final TailSplitter splitter;
-    private final MessageType type;
 
     private final long uniqueId;
 
@@ -63,7 +168,9 @@ final class DefaultMessage implements Message {
     }
 
     /**
-     * Form a new message and infer its metadata using a given splitter.
+     * Will call
+     * {@link #DefaultMessage(long, Collection, long, TailSplitter, Message, File)}
+     * with no source.
      *
      * @param id
      *            Unique ID for the message. No other instance may have this ID,
@@ -81,9 +188,60 @@ final class DefaultMessage implements Message {
      */
     protected DefaultMessage(final long id, final Collection<String> raw, final long timestamp,
         final TailSplitter splitter, final Message previousMessage) {
+        this(id, raw, timestamp, splitter, previousMessage, null);
+    }
+
+    /**
+     * Form a new message, whose metadata will be inferred using a given
+     * splitter once first asked for; see {@link #determineMetadata()}.
+     *
+     * @param id
+     *            Unique ID for the message. No other instance may have this ID,
+     *            or else they will be considered equal.
+     * @param raw
+     *            DefaultMessage lines, expected without any pre-processing.
+     * @param timestamp
+     *            In milliseconds since January 1st 1970. Will be overriden if
+     *            {@link TailSplitter} can decode the timestamp from the log.
+     * @param splitter
+     *            Used to extract metadata out of the raw lines.
+     * @param previousMessage
+     *            DefaultMessage that preceded this one in the log file. Should
+     *            not include tags from {@link CommonFollower}.
+     * @param source
+     *            File that the message was read from, null if not known.
+     */
+    protected DefaultMessage(final long id, final Collection<String> raw, final long timestamp,
+        final TailSplitter splitter, final Message previousMessage, final File source) {
+        this(id, raw, timestamp, new IncrementalMessageParser(splitter), previousMessage, source);
+    }
+
+    /**
+     * Form a new message, whose metadata will be inferred using a given parser
+     * once first asked for; see {@link #determineMetadata()}.
+     *
+     * @param id
+     *            Unique ID for the message. No other instance may have this ID,
+     *            or else they will be considered equal.
+     * @param raw
+     *            DefaultMessage lines, expected without any pre-processing.
+     * @param timestamp
+     *            In milliseconds since January 1st 1970. Will be overriden if
+     *            {@link TailSplitter} can decode the timestamp from the log.
+     * @param parser
+     *            Used to extract metadata out of the raw lines. May be shared
+     *            with the messages that had fewer of the lines.
+     * @param previousMessage
+     *            DefaultMessage that preceded this one in the log file. Should
+     *            not include tags from {@link CommonFollower}.
+     * @param source
+     *            File that the message was read from, null if not known.
+     */
+    DefaultMessage(final long id, final Collection<String> raw, final long timestamp,
+        final IncrementalMessageParser parser, final Message previousMessage, final File source) {
         if ((raw == null) || raw.isEmpty()) {
             throw new IllegalArgumentException("DefaultMessage must not be null.");
-        } else if (splitter == null) {
+        } else if (parser == null) {
             throw new IllegalArgumentException("DefaultMessage requires a TailSplitter.");
         }
         if (previousMessage == null) {
@@ -92,20 +250,33 @@ final class DefaultMessage implements Message {
             this.previousMessage = new WeakReference<>(previousMessage);
         }
         this.uniqueId = id;
-        this.splitter = splitter;
+        this.splitter = parser.getSplitter();
+        this.source = source;
         this.lines = Collections.unmodifiableList(new ArrayList<>(raw));
-        final String logger = splitter.determineLogger(this.lines);
-        this.logger = (logger == null) ? "" : logger;
-        this.severity = splitter.determineSeverity(this.lines);
-        this.type = splitter.determineType(this.lines);
-        this.exceptionDescriptor = splitter.determineException(this.lines);
-        // determine message timestamp
-        final Date d = splitter.determineDate(this.lines);
-        if (d == null) {
-            this.millisecondsSinceJanuary1st1970 = timestamp;
+        this.metadata = new Metadata(this.lines, parser, timestamp);
+    }
+
+    /**
+     * Form a copy of a message that only differs in the message that preceded
+     * it. The metadata is taken over from the original, not inferred again.
+     *
+     * @param original
+     *            Message to copy.
+     * @param previousMessage
+     *            DefaultMessage that preceded this one in the log file. Should
+     *            not include tags from {@link CommonFollower}.
+     */
+    protected DefaultMessage(final DefaultMessage original, final Message previousMessage) {
+        if (previousMessage == null) {
+            this.previousMessage = null;
         } else {
-            this.millisecondsSinceJanuary1st1970 = d.getTime();
+            this.previousMessage = new WeakReference<>(previousMessage);
         }
+        this.uniqueId = original.uniqueId;
+        this.splitter = original.splitter;
+        this.source = original.source;
+        this.lines = original.lines;
+        this.metadata = original.metadata;
     }
 
     /**
@@ -139,15 +310,12 @@ final class DefaultMessage implements Message {
         if ((message == null) || (message.length() == 0)) {
             throw new IllegalArgumentException("DefaultMessage must not be empty.");
         }
-        this.logger = "";
         this.uniqueId = id;
         this.previousMessage = null;
         this.splitter = null;
+        this.source = null;
         this.lines = Collections.singletonList(message.trim());
-        this.severity = MessageSeverity.UNKNOWN;
-        this.type = MessageType.TAG;
-        this.millisecondsSinceJanuary1st1970 = System.currentTimeMillis();
-        this.exceptionDescriptor = null;
+        this.metadata = new Metadata(System.currentTimeMillis());
     }
 
     @Override
@@ -155,6 +323,17 @@ final class DefaultMessage implements Message {
         return DefaultMessage.COMPARATOR.compare(this.getUniqueId(), o.getUniqueId());
     }
 
+    /**
+     * Infer all the metadata right away, rather than when first asked for.
+     *
+     * @return This.
+     */
+    DefaultMessage determineMetadata() {
+        this.metadata.getParsed();
+        this.metadata.getExceptionDescriptor();
+        return this;
+    }
+
     @Override
     public boolean equals(final Object obj) {
         if (this == obj) {
@@ -172,12 +351,12 @@ final class DefaultMessage implements Message {
 
     @Override
     public Date getDate() {
-        return new Date(this.millisecondsSinceJanuary1st1970);
+        return new Date(this.metadata.getTimestamp());
     }
 
     @Override
     public ExceptionDescriptor getExceptionDescriptor() {
-        return this.exceptionDescriptor;
+        return this.metadata.getExceptionDescriptor();
     }
 
     @Override
@@ -187,17 +366,27 @@ final class DefaultMessage implements Message {
 
     @Override
     public List<String> getLinesWithoutMetadata() {
-        if (this.type == MessageType.TAG) {
+        if (this.getType() == MessageType.TAG) {
             // nothing to split for tags
             return this.lines;
         }
-        final List<String> stripped = this.lines.stream().map(this.splitter::stripOfMetadata).collect(Collectors.toList());
+        final MessageMetadata parsed = this.metadata.getParsed();
+        final int lineCount = this.lines.size();
+        final List<String> stripped = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            final String line = this.lines.get(i);
+            if (parsed.hasBody(i)) {
+                stripped.add(line.substring(parsed.getBodyStart(i), parsed.getBodyEnd(i)));
+            } else {
+                stripped.add(this.splitter.stripOfMetadata(line));
+            }
+        }
         return Collections.unmodifiableList(stripped);
     }
 
     @Override
     public String getLogger() {
-        return this.logger;
+        return this.metadata.getLogger();
     }
 
     @Override
@@ -210,12 +399,22 @@ final class DefaultMessage implements Message {
 
     @Override
     public MessageSeverity getSeverity() {
-        return this.severity;
+        return this.metadata.getSeverity();
+    }
+
+    @Override
+    public File getSource() {
+        return this.source;
+    }
+
+    @Override
+    public long getTimestamp() {
+        return this.metadata.getTimestamp();
     }
 
     @Override
     public MessageType getType() {
-        return this.type;
+        return this.metadata.getType();
     }
 
     @Override
@@ -225,7 +424,7 @@ final class DefaultMessage implements Message {
 
     @Override
     public boolean hasException() {
-        return this.exceptionDescriptor != null;
+        return this.getExceptionDescriptor() != null;
     }
 
     @Override
@@ -243,13 +442,13 @@ final class DefaultMessage implements Message {
         sb.append(this.getUniqueId());
         sb.append(" ");
         sb.append(" [");
-        sb.append(this.logger);
+        sb.append(this.getLogger());
         sb.append("] ");
         sb.append(this.getDate());
         sb.append(" (");
-        sb.append(this.type);
+        sb.append(this.getType());
         sb.append(") ");
-        sb.append(this.severity);
+        sb.append(this.getSeverity());
         sb.append(" '");
         sb.append(this.lines.get(0));
         sb.append("'");
@@ -0,0 +1,211 @@
+package com.github.triceo.splitlog;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectAVLTreeMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.github.triceo.splitlog.api.ExceptionDescriptor;
+import com.github.triceo.splitlog.api.ExceptionOccurrences;
+import com.github.triceo.splitlog.api.Message;
+
+/**
+ * Keeps track of the exceptions in the messages of a {@link MessageStore}, by
+ * their {@link ExceptionDescriptor#getFingerprint()}, so that they can be
+ * counted without going through the messages.
+ *
+ * Every fingerprint has the positions of its messages, in the order in which
+ * they were stored. Messages are only ever discarded from the start of the
+ * store, and therefore the positions of a fingerprint are too. A range that
+ * starts before the first position of a fingerprint and ends after its last,
+ * such as all the messages stored, is looked up without searching the
+ * positions.
+ *
+ * The index does not look for the exceptions itself, as that may mean parsing
+ * the lines of the message; {@link MessageStore} does, without holding its
+ * lock.
+ *
+ * This class is not thread-safe; {@link MessageStore} guards it.
+ */
+final class ExceptionIndex {
+
+    /**
+     * The messages of a single fingerprint.
+     */
+    private static final class Occurrences {
+
+        private final String exceptionClassName;
+        private final String fingerprint;
+        /**
+         * Index of the first message that has not been discarded. Discarded
+         * messages are only removed from the lists once they make up half of
+         * them, so that discarding one message does not move all the rest.
+         */
+        private int head = 0;
+        private final ObjectArrayList<Message> messages = new ObjectArrayList<>();
+        private final IntArrayList positions = new IntArrayList();
+
+        public Occurrences(final String fingerprint, final String exceptionClassName) {
+            this.fingerprint = fingerprint;
+            this.exceptionClassName = exceptionClassName;
+        }
+
+        public void add(final int position, final Message message) {
+            this.positions.add(position);
+            this.messages.add(message);
+        }
+
+        /**
+         * @return True if there are no more messages.
+         */
+        public boolean discardFirst() {
+            this.messages.set(this.head, null);
+            this.head++;
+            final int size = this.positions.size();
+            if (this.head == size) {
+                this.positions.clear();
+                this.messages.clear();
+                this.head = 0;
+                return true;
+            } else if ((this.head * 2) >= size) {
+                this.positions.removeElements(0, this.head);
+                this.messages.removeElements(0, this.head);
+                this.head = 0;
+            }
+            return false;
+        }
+
+        /**
+         * Index of the first message on the given position or after it.
+         */
+        private int findIndex(final int position) {
+            if (position <= this.positions.getInt(this.head)) {
+                return this.head;
+            }
+            final int size = this.positions.size();
+            if (position > this.positions.getInt(size - 1)) {
+                return size;
+            }
+            final int index = IntArrays.binarySearch(this.positions.elements(), this.head, size, position);
+            return (index < 0) ? -(index + 1) : index;
+        }
+
+        /**
+         * @param startPosition
+         *            Least position, inclusive.
+         * @param endPosition
+         *            Greatest position, exclusive.
+         * @return Null if there are no messages in the range.
+         */
+        public ExceptionOccurrences get(final int startPosition, final int endPosition) {
+            final int start = this.findIndex(startPosition);
+            final int end = this.findIndex(endPosition);
+            if (start >= end) {
+                return null;
+            }
+            return new DefaultExceptionOccurrences(this.fingerprint, this.exceptionClassName, end - start,
+                    this.messages.get(start), this.messages.get(end - 1));
+        }
+
+        /**
+         * @return Position of the first message on the given position or after
+         *         it. Only valid if {@link #get(int, int)} is not null.
+         */
+        public int getFirstPosition(final int startPosition) {
+            return this.positions.getInt(this.findIndex(startPosition));
+        }
+
+    }
+
+    private final Map<String, Occurrences> byFingerprint = new HashMap<>();
+    private final Int2ObjectMap<Occurrences> byPosition = new Int2ObjectOpenHashMap<>();
+
+    /**
+     * Index a message that has an exception.
+     *
+     * @param position
+     *            Position of the message, greater than that of any message
+     *            added before.
+     * @param message
+     *            The message.
+     * @param exception
+     *            What {@link Message#getExceptionDescriptor()} returns.
+     */
+    public void add(final int position, final Message message, final ExceptionDescriptor exception) {
+        final String fingerprint = exception.getFingerprint();
+        Occurrences occurrences = this.byFingerprint.get(fingerprint);
+        if (occurrences == null) {
+            occurrences = new Occurrences(fingerprint, exception.getExceptionClassName());
+            this.byFingerprint.put(fingerprint, occurrences);
+        }
+        occurrences.add(position, message);
+        this.byPosition.put(position, occurrences);
+    }
+
+    /**
+     * Forget all the messages.
+     */
+    public void clear() {
+        this.byFingerprint.clear();
+        this.byPosition.clear();
+    }
+
+    /**
+     * Forget a message.
+     *
+     * @param position
+     *            Position of the message, less than that of any message not
+     *            discarded yet.
+     */
+    public void discard(final int position) {
+        final Occurrences occurrences = this.byPosition.remove(position);
+        if ((occurrences != null) && occurrences.discardFirst()) {
+            this.byFingerprint.remove(occurrences.fingerprint);
+        }
+    }
+
+    /**
+     * @param fingerprint
+     *            See {@link ExceptionDescriptor#getFingerprint()}.
+     * @param startPosition
+     *            Least position, inclusive.
+     * @param endPosition
+     *            Greatest position, exclusive.
+     * @return Null if no message in the range has such exception.
+     */
+    public ExceptionOccurrences get(final String fingerprint, final int startPosition, final int endPosition) {
+        final Occurrences occurrences = this.byFingerprint.get(fingerprint);
+        return (occurrences == null) ? null : occurrences.get(startPosition, endPosition);
+    }
+
+    /**
+     * @param startPosition
+     *            Least position, inclusive.
+     * @param endPosition
+     *            Greatest position, exclusive.
+     * @return Unmodifiable, in the order in which the exceptions first occur
+     *         in the range.
+     */
+    public Map<String, ExceptionOccurrences> getAll(final int startPosition, final int endPosition) {
+        // no two fingerprints share a position
+        final Int2ObjectSortedMap<ExceptionOccurrences> byFirstPosition = new Int2ObjectAVLTreeMap<>();
+        for (final Occurrences occurrences : this.byFingerprint.values()) {
+            final ExceptionOccurrences found = occurrences.get(startPosition, endPosition);
+            if (found != null) {
+                byFirstPosition.put(occurrences.getFirstPosition(startPosition), found);
+            }
+        }
+        final Map<String, ExceptionOccurrences> result = new LinkedHashMap<>();
+        byFirstPosition.values().forEach(found -> result.put(found.getFingerprint(), found));
+        return Collections.unmodifiableMap(result);
+    }
+
+}
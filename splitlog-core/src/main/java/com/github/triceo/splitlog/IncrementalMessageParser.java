@@ -0,0 +1,80 @@
+package com.github.triceo.splitlog;
+
+import java.util.List;
+import java.util.function.Function;
+
+import com.github.triceo.splitlog.api.ExceptionDescriptor;
+import com.github.triceo.splitlog.api.MessageMetadata;
+import com.github.triceo.splitlog.api.TailSplitter;
+
+/**
+ * Infers the metadata of a message whose lines are read from the log over
+ * time, and which is therefore built again every time that more of them have
+ * been read; see {@link MessageBuilder#buildIntermediate(TailSplitter)}. All
+ * the messages built share it, so that the {@link TailSplitter} only needs to
+ * read the lines that were not there the last time.
+ *
+ * Every message built has all the lines of the messages built before it. A
+ * message that asks after one with more lines already did has its metadata
+ * inferred from scratch.
+ */
+final class IncrementalMessageParser {
+
+    private Function<List<String>, ExceptionDescriptor> exceptionDeterminer;
+    private int exceptionLineCount = 0;
+    private MessageMetadata parsed;
+    private int parsedLineCount = 0;
+    private final TailSplitter splitter;
+
+    /**
+     * @param splitter
+     *            Used to extract metadata out of the raw lines.
+     */
+    public IncrementalMessageParser(final TailSplitter splitter) {
+        if (splitter == null) {
+            throw new IllegalArgumentException("DefaultMessage requires a TailSplitter.");
+        }
+        this.splitter = splitter;
+    }
+
+    /**
+     * @param lines
+     *            All the lines of the message.
+     * @return See {@link TailSplitter#determineException(List)}.
+     */
+    public synchronized ExceptionDescriptor determineException(final List<String> lines) {
+        final int lineCount = lines.size();
+        if (lineCount < this.exceptionLineCount) {
+            // a later message was here first
+            return this.splitter.determineException(lines);
+        } else if (this.exceptionDeterminer == null) {
+            this.exceptionDeterminer = this.splitter.determineExceptionIncrementally();
+        }
+        this.exceptionLineCount = lineCount;
+        return this.exceptionDeterminer.apply(lines);
+    }
+
+    public TailSplitter getSplitter() {
+        return this.splitter;
+    }
+
+    /**
+     * @param lines
+     *            All the lines of the message.
+     * @param readTimestamp
+     *            When the message was read.
+     * @return See {@link TailSplitter#parse(List, long)}.
+     */
+    public synchronized MessageMetadata parse(final List<String> lines, final long readTimestamp) {
+        final int lineCount = lines.size();
+        if (lineCount < this.parsedLineCount) {
+            // a later message was here first
+            return this.splitter.parse(lines, readTimestamp);
+        } else if (lineCount > this.parsedLineCount) {
+            this.parsed = this.splitter.parse(lines, readTimestamp, this.parsedLineCount, this.parsed);
+            this.parsedLineCount = lineCount;
+        }
+        return this.parsed;
+    }
+
+}
@@ -0,0 +1,310 @@
+package com.github.triceo.splitlog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+import org.apache.commons.io.input.fork.BatchingTailerListener;
+import org.apache.commons.io.input.fork.ChannelLineReader;
+import org.apache.commons.io.input.fork.Tailer;
+import org.slf4j.Logger;
+
+import com.github.triceo.splitlog.api.Message;
+import com.github.triceo.splitlog.api.TailSplitter;
+import com.github.triceo.splitlog.logging.SplitlogLoggerFactory;
+
+/**
+ * Has a sole responsibility of turning the content that already exists in the
+ * watched file into {@link Message}s, using all the processors available.
+ *
+ * The file is processed in waves. Every wave is cut into byte ranges that
+ * start at line boundaries, one range per thread of the {@link ForkJoinPool}.
+ * The ranges are read and split into messages in parallel. Lines at the
+ * beginning of a range that do not start a message (see
+ * {@link TailSplitter#isStartingLine(String)}) belong to the last message of
+ * the previous range, and are handed over to it. The messages are then built
+ * in parallel again, with IDs in the order of the file, and finally handed
+ * over one by one, in the order of the file.
+ *
+ * The last message of the file is never handed over, as it may still be
+ * continued by lines written later; it is left for the tailer instead. Also,
+ * the splitter will be used by several threads at once, therefore it must be
+ * thread-safe.
+ *
+ * When the ingest fails partway, some messages may have been handed over
+ * already; {@link #getResumePosition()} tells where the first of the others
+ * starts.
+ */
+final class LogWatchBulkIngest {
+
+    /**
+     * Collects all the lines that it is given.
+     */
+    private static final class LineCollector implements BatchingTailerListener {
+
+        private final List<String> lines = new ArrayList<>();
+
+        @Override
+        public void begin() {
+            // nothing to do
+        }
+
+        @Override
+        public void commit() {
+            // nothing to do
+        }
+
+        @Override
+        public void destroy() {
+            // nothing to do
+        }
+
+        @Override
+        public void fileNotFound() {
+            // nothing to do
+        }
+
+        @Override
+        public void fileRotated() {
+            // nothing to do
+        }
+
+        public List<String> getLines() {
+            return this.lines;
+        }
+
+        @Override
+        public void handle(final Exception ex) {
+            // nothing to do
+        }
+
+        @Override
+        public void handle(final List<String> lines) {
+            this.lines.addAll(lines);
+        }
+
+        @Override
+        public void handle(final String line) {
+            this.lines.add(line);
+        }
+
+        @Override
+        public void init(final Tailer tailer) {
+            // nothing to do
+        }
+
+    }
+
+    /**
+     * Lines from a single range, split into messages.
+     */
+    private static final class Range {
+
+        /**
+         * Lines from the beginning of the range, before the first message
+         * starts.
+         */
+        private final List<String> leadingLines = new ArrayList<>();
+        /**
+         * Lines of every message that starts in the range.
+         */
+        private final List<List<String>> messages = new ArrayList<>();
+        /**
+         * Where the first incomplete line begins, or the end of the range.
+         */
+        private long end;
+
+    }
+
+    private static final Logger LOGGER = SplitlogLoggerFactory.getLogger(LogWatchBulkIngest.class);
+    /**
+     * Amount of bytes that a single thread reads at a time. Together with the
+     * number of threads, this limits how much of the file is held in memory
+     * at once.
+     */
+    private static final long RANGE_SIZE = 8 * 1024 * 1024;
+
+    private final int bufferSize;
+    private final Charset charset;
+    private File file;
+    /**
+     * How many of the messages in the lines up to {@link #splitEnd} have not
+     * been handed over yet, including the unfinished one.
+     */
+    private int notHandedOver = 0;
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+    private final long rangeSize;
+    /**
+     * Where the lines end that have been split into messages so far.
+     */
+    private long splitEnd = -1;
+    private final TailSplitter splitter;
+    /**
+     * Lines of the last message, which may be continued later. Null if no
+     * message has started yet.
+     */
+    private List<String> unfinishedMessage;
+
+    public LogWatchBulkIngest(final TailSplitter splitter, final Charset charset, final int bufferSize) {
+        this(splitter, charset, bufferSize, LogWatchBulkIngest.RANGE_SIZE);
+    }
+
+    LogWatchBulkIngest(final TailSplitter splitter, final Charset charset, final int bufferSize,
+        final long rangeSize) {
+        this.splitter = splitter;
+        this.charset = charset;
+        this.bufferSize = bufferSize;
+        this.rangeSize = rangeSize;
+    }
+
+    private Message[] build(final List<List<String>> messages, final File source) {
+        final int count = messages.size();
+        final long firstId = MessageBuilder.reserveIds(count);
+        final long timestamp = System.currentTimeMillis();
+        final Message[] result = new Message[count];
+        final int parallelism = this.pool.getParallelism();
+        final int sliceSize = Math.max(1, (count + parallelism - 1) / parallelism);
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int sliceStart = 0; sliceStart < count; sliceStart += sliceSize) {
+            final int from = sliceStart;
+            final int to = Math.min(count, sliceStart + sliceSize);
+            tasks.add(this.pool.submit(() -> {
+                // the first of the slice gets its previous message when handed over
+                Message previous = null;
+                for (int i = from; i < to; i++) {
+                    // inferring the metadata is what makes building the messages worth doing in parallel
+                    previous = new DefaultMessage(firstId + i, messages.get(i), timestamp, this.splitter, previous,
+                            source).determineMetadata();
+                    result[i] = previous;
+                }
+            }));
+        }
+        tasks.forEach(ForkJoinTask::join);
+        return result;
+    }
+
+    /**
+     * Where the tailer should continue after {@link #ingest(File, long, Consumer)}
+     * failed, so that no message is handed over twice and none is skipped.
+     *
+     * @return Where the first message starts that has not been handed over,
+     *         or where the lines split so far end if there is no such message.
+     * @throws IOException
+     *             If the file cannot be read.
+     * @throws IllegalArgumentException
+     *             If the charset is not supported by
+     *             {@link LogWatchReverseSeek#isSupported(Charset)}.
+     */
+    public long getResumePosition() throws IOException {
+        if (this.notHandedOver == 0) {
+            return this.splitEnd;
+        }
+        // the ranges are no longer known, yet the messages can be counted backwards from where they end
+        final LogWatchReverseSeek seek = new LogWatchReverseSeek(this.splitter, this.charset, this.bufferSize);
+        return seek.seek(this.file, this.notHandedOver, this.splitEnd);
+    }
+
+    /**
+     * @return Lines of the last message found, which has not been handed over
+     *         as it may yet be continued. Empty if there is no such message.
+     */
+    public List<String> getUnfinishedMessage() {
+        return (this.unfinishedMessage == null) ? Collections.emptyList() : this.unfinishedMessage;
+    }
+
+    /**
+     * Turn the content of the file into messages.
+     *
+     * @param file
+     *            File to read.
+     * @param from
+     *            Where in the file to start.
+     * @param receiver
+     *            Will be given every complete message, one by one, in the
+     *            order of the file.
+     * @return Where in the file the reading stopped, after the last complete
+     *         line.
+     * @throws IOException
+     *             If the file cannot be read.
+     */
+    public long ingest(final File file, final long from, final Consumer<Message> receiver) throws IOException {
+        this.file = file;
+        this.splitEnd = from;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // whatever is written from now on is left for the tailer
+            final long size = channel.size();
+            final int parallelism = this.pool.getParallelism();
+            long position = from;
+            while (position < size) {
+                long waveEnd = position + (this.rangeSize * parallelism);
+                waveEnd = (waveEnd < size) ? ChannelLineReader.nextLineStart(channel, waveEnd, size) : size;
+                final List<ForkJoinTask<Range>> tasks = new ArrayList<>();
+                long rangeStart = position;
+                while (rangeStart < waveEnd) {
+                    final long nominalEnd = rangeStart + this.rangeSize;
+                    final long rangeEnd = (nominalEnd < waveEnd) ? ChannelLineReader.nextLineStart(channel,
+                            nominalEnd, waveEnd) : waveEnd;
+                    final long start = rangeStart;
+                    tasks.add(this.pool.submit(() -> this.read(channel, start, rangeEnd)));
+                    rangeStart = rangeEnd;
+                }
+                final List<List<String>> completeMessages = new ArrayList<>();
+                for (final ForkJoinTask<Range> task : tasks) {
+                    final Range range = task.join();
+                    if (this.unfinishedMessage != null) {
+                        this.unfinishedMessage.addAll(range.leadingLines);
+                    } // otherwise just garbage before the first message
+                    for (final List<String> message : range.messages) {
+                        if (this.unfinishedMessage != null) {
+                            completeMessages.add(this.unfinishedMessage);
+                        }
+                        this.unfinishedMessage = message;
+                    }
+                    position = range.end;
+                }
+                this.splitEnd = position;
+                this.notHandedOver = completeMessages.size() + ((this.unfinishedMessage == null) ? 0 : 1);
+                for (final Message message : this.build(completeMessages, file)) {
+                    receiver.accept(message);
+                    this.notHandedOver--;
+                }
+                LogWatchBulkIngest.LOGGER.info("Ingested {} messages from {} in parallel, {} of {} bytes read.",
+                        completeMessages.size(), file, position, size);
+                if (waveEnd == size) {
+                    // only an incomplete line may be left
+                    break;
+                }
+            }
+            return position;
+        }
+    }
+
+    private Range read(final FileChannel channel, final long start, final long end) throws IOException {
+        final LineCollector collector = new LineCollector();
+        final ChannelLineReader reader = new ChannelLineReader(this.charset, collector, this.bufferSize);
+        final Range range = new Range();
+        range.end = reader.readMapped(channel, start, end, ChannelLineReader.MAPPING_WINDOW_SIZE);
+        List<String> message = null;
+        for (final String line : collector.getLines()) {
+            if (this.splitter.isStartingLine(line)) {
+                message = new ArrayList<>();
+                range.messages.add(message);
+                message.add(line);
+            } else if (message == null) {
+                range.leadingLines.add(line);
+            } else {
+                message.add(line);
+            }
+        }
+        return range;
+    }
+
+}
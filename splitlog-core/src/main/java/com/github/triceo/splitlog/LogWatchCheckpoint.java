@@ -0,0 +1,171 @@
+package com.github.triceo.splitlog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+
+import com.github.triceo.splitlog.logging.SplitlogLoggerFactory;
+
+/**
+ * Has a sole responsibility of remembering how far the watched file has been
+ * read, across restarts of the application. The position is stored in a
+ * properties file, together with the watched file's identity (path, file key
+ * such as the inode number, if the file system has one) and size at the time.
+ *
+ * The stored position is only used when the watched file is still the same
+ * file as before and has not shrunk since. Otherwise, the file was most likely
+ * rotated or truncated and the position means nothing anymore.
+ */
+final class LogWatchCheckpoint {
+
+    private static final String FILE = "file";
+    private static final String FILE_KEY = "fileKey";
+    private static final Logger LOGGER = SplitlogLoggerFactory.getLogger(LogWatchCheckpoint.class);
+    private static final long MIN_DELAY_BETWEEN_SAVES = TimeUnit.SECONDS.toNanos(1);
+    private static final String OFFSET = "offset";
+    private static final String SIZE = "size";
+
+    private static String getFileKey(final BasicFileAttributes attrs) {
+        final Object key = attrs.fileKey();
+        return (key == null) ? "" : key.toString();
+    }
+
+    private final Path checkpoint;
+    private long lastSavedAt;
+    private long lastSavedOffset = -1;
+    private final Path watched;
+
+    public LogWatchCheckpoint(final File checkpoint, final File watched) {
+        this.checkpoint = checkpoint.getAbsoluteFile().toPath();
+        this.watched = watched.getAbsoluteFile().toPath();
+        this.lastSavedAt = System.nanoTime() - LogWatchCheckpoint.MIN_DELAY_BETWEEN_SAVES;
+    }
+
+    /**
+     * Retrieve the previously stored position, if it still applies to the
+     * watched file.
+     *
+     * @return Position in bytes, or -1 when there is none or it does not
+     *         apply.
+     */
+    public synchronized long load() {
+        if (!Files.exists(this.checkpoint)) {
+            return -1;
+        }
+        final Properties props = new Properties();
+        final BasicFileAttributes attrs;
+        try (InputStream in = Files.newInputStream(this.checkpoint)) {
+            props.load(in);
+            attrs = Files.readAttributes(this.watched, BasicFileAttributes.class);
+        } catch (final NoSuchFileException ex) {
+            LogWatchCheckpoint.LOGGER.info("Watched file {} not found, checkpoint ignored.", this.watched);
+            return -1;
+        } catch (final IOException ex) {
+            LogWatchCheckpoint.LOGGER.warn("Failed reading checkpoint {}.", this.checkpoint, ex);
+            return -1;
+        }
+        final long offset, size;
+        try {
+            offset = Long.parseLong(props.getProperty(LogWatchCheckpoint.OFFSET));
+            size = Long.parseLong(props.getProperty(LogWatchCheckpoint.SIZE));
+        } catch (final NumberFormatException ex) {
+            LogWatchCheckpoint.LOGGER.warn("Checkpoint {} is corrupted, ignored.", this.checkpoint, ex);
+            return -1;
+        }
+        if (!this.watched.toString().equals(props.getProperty(LogWatchCheckpoint.FILE))) {
+            LogWatchCheckpoint.LOGGER.info("Checkpoint {} belongs to a different file, ignored.", this.checkpoint);
+            return -1;
+        } else if (!Objects.equals(LogWatchCheckpoint.getFileKey(attrs),
+                props.getProperty(LogWatchCheckpoint.FILE_KEY))) {
+            LogWatchCheckpoint.LOGGER.info("File {} was replaced since checkpoint {}, ignored.", this.watched,
+                    this.checkpoint);
+            return -1;
+        } else if (attrs.size() < size || size < offset) {
+            LogWatchCheckpoint.LOGGER.info("File {} was truncated since checkpoint {}, ignored.", this.watched,
+                    this.checkpoint);
+            return -1;
+        }
+        this.lastSavedOffset = offset;
+        return offset;
+    }
+
+    /**
+     * Store the position, unless it has not changed since last time.
+     *
+     * @param offset
+     *            Position in bytes. Negative when not known, in which case
+     *            nothing will be stored.
+     */
+    public synchronized void save(final long offset) {
+        if (offset < 0 || offset == this.lastSavedOffset) {
+            return;
+        }
+        final BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(this.watched, BasicFileAttributes.class);
+        } catch (final IOException ex) {
+            LogWatchCheckpoint.LOGGER.info("Watched file {} not available, checkpoint not stored.", this.watched);
+            return;
+        }
+        final Properties props = new Properties();
+        props.setProperty(LogWatchCheckpoint.FILE, this.watched.toString());
+        props.setProperty(LogWatchCheckpoint.FILE_KEY, LogWatchCheckpoint.getFileKey(attrs));
+        props.setProperty(LogWatchCheckpoint.OFFSET, String.valueOf(offset));
+        props.setProperty(LogWatchCheckpoint.SIZE, String.valueOf(attrs.size()));
+        try {
+            final Path parent = this.checkpoint.getParent();
+            Files.createDirectories(parent);
+            // write elsewhere first, so that a crash never leaves a half-written checkpoint
+            final Path temp = Files.createTempFile(parent, this.checkpoint.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    props.store(out, "Splitlog read offset checkpoint");
+                }
+                try {
+                    Files.move(temp, this.checkpoint, StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                } catch (final AtomicMoveNotSupportedException ex) {
+                    Files.move(temp, this.checkpoint, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp); // only still there when the move failed
+            }
+        } catch (final IOException ex) {
+            LogWatchCheckpoint.LOGGER.warn("Failed storing checkpoint {}.", this.checkpoint, ex);
+            return;
+        }
+        this.lastSavedOffset = offset;
+        this.lastSavedAt = System.nanoTime();
+        LogWatchCheckpoint.LOGGER.debug("Stored position {} of {} in {}.", offset, this.watched, this.checkpoint);
+    }
+
+    /**
+     * Store the position, unless it has not changed or it has been stored too
+     * recently.
+     *
+     * @param offset
+     *            Determines the position in bytes; only called when it is time
+     *            to store it, as that may mean reading the file. Negative when
+     *            not known, in which case nothing will be stored.
+     */
+    public synchronized void saveIfDue(final LongSupplier offset) {
+        if (System.nanoTime() - this.lastSavedAt < LogWatchCheckpoint.MIN_DELAY_BETWEEN_SAVES) {
+            return;
+        }
+        this.save(offset.getAsLong());
+    }
+
+}
@@ -0,0 +1,247 @@
+package com.github.triceo.splitlog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+
+import com.github.triceo.splitlog.api.LogWatchBuilder;
+import com.github.triceo.splitlog.api.TailSplitter;
+import com.github.triceo.splitlog.logging.SplitlogLoggerFactory;
+import com.github.triceo.splitlog.util.SplitlogThreadFactory;
+
+/**
+ * Has a sole responsibility of tailing every file that matches
+ * {@link LogWatchBuilder#getFilePattern()}, when told so by the
+ * {@link DefaultLogWatch}. Every file has a {@link LogWatchTailingManager} of
+ * its own, so that messages are assembled from the lines of one file only.
+ * Yet all their tailers are scheduled on a single thread, as is the periodic
+ * search for new files, so that the amount of files does not affect the amount
+ * of threads. Also reports on how the tailing is going, for all the files
+ * together.
+ *
+ * Files are told apart by their identity, such as the inode number, where the
+ * file system provides one, and by their name elsewhere. A file that is
+ * renamed, as when the log is rotated, therefore keeps its manager, which
+ * keeps reading it where it left off. A file that disappears, or is renamed so
+ * that it no longer matches the pattern, has its manager stopped, once it has
+ * read what is left of the file.
+ */
+final class LogWatchDirectoryTailingManager implements LogWatchTailing {
+
+    private static final Logger LOGGER = SplitlogLoggerFactory.getLogger(LogWatchDirectoryTailingManager.class);
+    private static final ThreadFactory THREAD_FACTORY = new SplitlogThreadFactory("directory-tails");
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = new SplitlogThreadFactory("virtual-directory-tails",
+            true);
+
+    private final LogWatchBuilder builder;
+    private final long delayBetweenReads;
+    private final File directory;
+    private ScheduledExecutorService executor;
+    private final AtomicBoolean isStopped = new AtomicBoolean(false);
+    private final AtomicBoolean isTailing = new AtomicBoolean(false);
+    /**
+     * By the identity of the file; see {@link #findFiles()}.
+     */
+    private final Map<Object, LogWatchTailingManager> managers = new ConcurrentHashMap<>();
+    private final PathMatcher matcher;
+    /**
+     * Throttled reads of the managers that have already been stopped.
+     */
+    private final AtomicLong numberOfThrottledReadsBefore = new AtomicLong(0);
+    private ScheduledFuture<?> search;
+    private final int sharedThreadCount;
+    private final TailSplitter splitter;
+    private final DefaultLogWatch watch;
+
+    public LogWatchDirectoryTailingManager(final DefaultLogWatch watch, final LogWatchBuilder builder,
+        final TailSplitter splitter) {
+        this.watch = watch;
+        this.builder = builder;
+        this.splitter = splitter;
+        this.directory = builder.getFileToWatch();
+        this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + builder.getFilePattern());
+        this.delayBetweenReads = builder.getDelayBetweenReads();
+        this.sharedThreadCount = builder.getSharedTailingThreadCount();
+    }
+
+    /**
+     * Stop tailing every file that is gone, and start tailing every matching
+     * file that is not yet being tailed.
+     *
+     * @param isFirstSearch
+     *            True if the files were there when the tailing started, and
+     *            the search happens on a thread other than {@link #executor}.
+     */
+    private synchronized void discover(final boolean isFirstSearch) {
+        if (this.isStopped.get()) {
+            return;
+        }
+        final Map<Object, File> files = this.findFiles();
+        if (files == null) {
+            // not knowing what is there, nothing is gone
+            return;
+        }
+        for (final Iterator<Map.Entry<Object, LogWatchTailingManager>> managers = this.managers.entrySet()
+                .iterator(); managers.hasNext();) {
+            final Map.Entry<Object, LogWatchTailingManager> entry = managers.next();
+            if (files.containsKey(entry.getKey())) {
+                continue;
+            }
+            final LogWatchTailingManager manager = entry.getValue();
+            managers.remove();
+            // the file may have been written to since the last read, and can still be read through the open channel
+            manager.stopAfterReadingToEnd();
+            this.numberOfThrottledReadsBefore.addAndGet(manager.getNumberOfThrottledReads());
+            LogWatchDirectoryTailingManager.LOGGER.info("{} is gone, no longer tailing it in {}.", manager.getFile(),
+                    this.watch);
+        }
+        for (final Map.Entry<Object, File> entry : files.entrySet()) {
+            if (this.managers.containsKey(entry.getKey())) {
+                // possibly under another name, yet read by the same manager
+                continue;
+            }
+            final File file = entry.getValue();
+            // files that appear later are new, therefore nothing of them may be ignored
+            final boolean readingFromBeginning = !isFirstSearch || this.builder.isReadingFromBeginning();
+            final LogWatchTailingManager manager = new LogWatchTailingManager(this.watch, this.builder,
+                    this.splitter, file, this.executor, readingFromBeginning);
+            this.managers.put(entry.getKey(), manager);
+            LogWatchDirectoryTailingManager.LOGGER.info("Found {} to tail in {}.", file, this.watch);
+            manager.start(isFirstSearch);
+        }
+    }
+
+    /**
+     * @return Regular files in {@link #directory} that match the pattern, in
+     *         the order of their names, by their
+     *         {@link BasicFileAttributes#fileKey()}, or by the file itself
+     *         where the file system provides no key. Empty when the directory
+     *         does not exist, null when it cannot be read.
+     */
+    private Map<Object, File> findFiles() {
+        final List<File> files = new ArrayList<>();
+        final DirectoryStream.Filter<Path> filter = path -> Files.isRegularFile(path)
+                && this.matcher.matches(path.getFileName());
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(this.directory.toPath(), filter)) {
+            for (final Path path : paths) {
+                files.add(path.toFile());
+            }
+        } catch (final NoSuchFileException ex) {
+            LogWatchDirectoryTailingManager.LOGGER.debug("Directory not found: {}.", this.directory);
+            return Collections.emptyMap();
+        } catch (final IOException | DirectoryIteratorException ex) {
+            LogWatchDirectoryTailingManager.LOGGER.warn("Failed searching {} for files to tail.", this.directory, ex);
+            return null;
+        }
+        Collections.sort(files);
+        final Map<Object, File> result = new LinkedHashMap<>();
+        for (final File file : files) {
+            final Object key;
+            try {
+                key = Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey();
+            } catch (final NoSuchFileException ex) {
+                // gone in the meantime
+                continue;
+            } catch (final IOException ex) {
+                LogWatchDirectoryTailingManager.LOGGER.warn("Failed reading attributes of {}.", file, ex);
+                return null;
+            }
+            result.put((key == null) ? file : key, file);
+        }
+        return result;
+    }
+
+    @Override
+    public long getCurrentDelayBetweenReads() {
+        // the files that are written to the most are the ones that matter
+        return this.managers.values().stream().mapToLong(LogWatchTailingManager::getCurrentDelayBetweenReads).min()
+                .orElse(this.delayBetweenReads);
+    }
+
+    @Override
+    public long getNumberOfThrottledReads() {
+        return this.numberOfThrottledReadsBefore.get()
+                + this.managers.values().stream().mapToLong(LogWatchTailingManager::getNumberOfThrottledReads).sum();
+    }
+
+    @Override
+    public DefaultLogWatch getWatch() {
+        return this.watch;
+    }
+
+    /**
+     * Start tailing the files that are already there, and keep searching for
+     * new ones after every {@link LogWatchBuilder#getDelayBetweenReads()}.
+     *
+     * @return True if the start was scheduled, false if scheduled already.
+     */
+    @Override
+    public boolean start() {
+        if (!this.isTailing.compareAndSet(false, true)) {
+            return false;
+        }
+        if (this.sharedThreadCount > 0) {
+            this.executor = LogWatchTailingManager.getSharedExecutor(this.sharedThreadCount);
+        } else {
+            this.executor = new ScheduledThreadPoolExecutor(1,
+                    this.builder.isTailingOnVirtualThreads() ? LogWatchDirectoryTailingManager.VIRTUAL_THREAD_FACTORY
+                            : LogWatchDirectoryTailingManager.THREAD_FACTORY);
+        }
+        this.discover(true);
+        LogWatchDirectoryTailingManager.LOGGER.info("Tailing {} files matching '{}' in {} for {}.",
+                this.managers.size(), this.builder.getFilePattern(), this.directory, this.watch);
+        this.search = this.executor.scheduleWithFixedDelay(() -> this.discover(false), this.delayBetweenReads,
+                this.delayBetweenReads, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /**
+     * Stop tailing all the files and searching for new ones.
+     *
+     * @return True if stopped, false if never running.
+     */
+    @Override
+    public boolean stop() {
+        if (!this.isTailing.get()) {
+            LogWatchDirectoryTailingManager.LOGGER.debug("Tailers not running, therefore not terminating.");
+            return false;
+        }
+        synchronized (this) {
+            // no new files after this point
+            this.isStopped.set(true);
+        }
+        this.search.cancel(false);
+        this.managers.values().forEach(LogWatchTailingManager::stop);
+        if (this.sharedThreadCount == 0) {
+            // the tailers release their resources on the executor; let them
+            this.executor.shutdown();
+        }
+        LogWatchDirectoryTailingManager.LOGGER.info("Terminated tailing of {} files for {}.", this.managers.size(),
+                this.watch);
+        return true;
+    }
+
+}
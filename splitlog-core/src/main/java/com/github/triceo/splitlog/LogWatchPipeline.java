@@ -0,0 +1,309 @@
+package com.github.triceo.splitlog;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+
+import com.github.triceo.splitlog.api.LogWatchBuilder;
+import com.github.triceo.splitlog.api.PipelineWaitStrategy;
+import com.github.triceo.splitlog.logging.SplitlogLoggerFactory;
+import com.github.triceo.splitlog.util.SplitlogThreadFactory;
+
+/**
+ * Has a sole responsibility of handing what the tailers read over to a
+ * processing thread, which passes it on to the {@link LogWatchTailingManager}s
+ * in the order in which it was read. See
+ * {@link LogWatchBuilder#processingOnSeparateThread(int, PipelineWaitStrategy)}.
+ *
+ * The events travel through a ring of slots, all allocated up front and then
+ * reused, so that the reading does not allocate anything. There is only ever
+ * one thread taking events out of the ring. Usually, there is also only one
+ * thread putting them in; should there be more, such as when tailing on
+ * shared threads, they take turns.
+ *
+ * Once stopped, the processing thread finishes whatever is left in the ring.
+ * Events that arrive afterwards, such as those of tailers that are only just
+ * terminating, are processed right away by the thread that brings them.
+ */
+final class LogWatchPipeline {
+
+    private enum EventType {
+
+        LINES_READ, READING_FINISHED, READING_STARTED, TAILING_FINISHED
+
+    }
+
+    /**
+     * A single event, waiting in the ring to be processed.
+     */
+    private static final class Slot {
+
+        private final List<String> lines = new ArrayList<>();
+        private LogWatchTailingManager manager;
+        private long position;
+        private EventType type;
+
+    }
+
+    private static final Logger LOGGER = SplitlogLoggerFactory.getLogger(LogWatchPipeline.class);
+    /**
+     * <code>Thread#onSpinWait()</code>, null before Java 9.
+     */
+    private static final MethodHandle ON_SPIN_WAIT;
+    private static final SplitlogThreadFactory THREAD_FACTORY = new SplitlogThreadFactory("pipelines");
+    private static final SplitlogThreadFactory VIRTUAL_THREAD_FACTORY = new SplitlogThreadFactory(
+            "virtual-pipelines", true);
+    static {
+        MethodHandle onSpinWait = null;
+        try {
+            onSpinWait = MethodHandles.publicLookup().findStatic(Thread.class, "onSpinWait",
+                    MethodType.methodType(void.class));
+        } catch (final ReflectiveOperationException ex) {
+            // busy spinning will do without the hint
+        }
+        ON_SPIN_WAIT = onSpinWait;
+    }
+
+    /**
+     * Let the processor know that the thread is busy spinning, so that it can
+     * spend less power and leave more to the other hardware thread of the
+     * core, where supported.
+     */
+    private static void onSpinWait() {
+        final MethodHandle onSpinWait = LogWatchPipeline.ON_SPIN_WAIT;
+        if (onSpinWait == null) {
+            return;
+        }
+        try {
+            onSpinWait.invokeExact();
+        } catch (final Throwable t) {
+            // the method declares nothing and does nothing
+            throw new IllegalStateException("Failed spinning.", t);
+        }
+    }
+
+    private static void process(final LogWatchTailingManager manager, final EventType type,
+        final List<String> lines, final long position) {
+        switch (type) {
+            case READING_STARTED:
+                manager.readingStarted();
+                break;
+            case LINES_READ:
+                manager.readLines(lines);
+                break;
+            case READING_FINISHED:
+                manager.readingFinished(position);
+                break;
+            case TAILING_FINISHED:
+                manager.tailingFinished(position);
+                break;
+            default:
+                throw new IllegalStateException("Unknown event: " + type);
+        }
+    }
+
+    /**
+     * How many events have been taken out of the ring. Only ever written by
+     * the processing thread.
+     */
+    private final AtomicLong consumed = new AtomicLong(0);
+    private volatile boolean isConsumerWaiting;
+    /**
+     * Whether the processing thread has stopped taking events out of the ring.
+     * Only ever accessed by the thread that holds the lock on this instance.
+     */
+    private boolean isFinished;
+    private volatile boolean isStopped;
+    private final int mask;
+    private final AtomicLong numberOfStalls = new AtomicLong(0);
+    /**
+     * How many events have been put into the ring. Only ever written by the
+     * thread that holds the lock on this instance.
+     */
+    private final AtomicLong published = new AtomicLong(0);
+    private final Slot[] slots;
+    private final Thread thread;
+    private final PipelineWaitStrategy waitStrategy;
+    private volatile Thread waitingProducer;
+
+    public LogWatchPipeline(final int capacity, final PipelineWaitStrategy waitStrategy, final boolean isVirtual) {
+        // round up to a power of two, so that the position in the ring is a mere mask away
+        final int size = (capacity == 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            this.slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.waitStrategy = waitStrategy;
+        final SplitlogThreadFactory factory = isVirtual ? LogWatchPipeline.VIRTUAL_THREAD_FACTORY
+                : LogWatchPipeline.THREAD_FACTORY;
+        if ((waitStrategy == PipelineWaitStrategy.BUSY_SPIN) && factory.isVirtual()) {
+            // such as when virtual threads are requested for all of Splitlog
+            throw new IllegalArgumentException("Busy spinning would hold on to the carrier of a virtual thread.");
+        }
+        this.thread = factory.newThread(this::consume);
+    }
+
+    private void consume() {
+        LogWatchPipeline.LOGGER.info("Processing thread started.");
+        while (true) {
+            final long sequence = this.consumed.get();
+            if (sequence == this.published.get()) {
+                if (this.isStopped) {
+                    synchronized (this) {
+                        // no publisher is mid-way now; from here on, they will process the events themselves
+                        if (sequence == this.published.get()) {
+                            this.isFinished = true;
+                            break;
+                        }
+                    }
+                    continue;
+                }
+                this.waitForEvents(sequence);
+                continue;
+            }
+            final Slot slot = this.slots[(int) (sequence & this.mask)];
+            try {
+                LogWatchPipeline.process(slot.manager, slot.type, slot.lines, slot.position);
+            } catch (final RuntimeException ex) {
+                LogWatchPipeline.LOGGER.warn("Failed processing {} from {}.", slot.type, slot.manager.getFile(), ex);
+            } finally {
+                slot.lines.clear();
+                slot.manager = null;
+            }
+            this.consumed.set(sequence + 1);
+            final Thread producer = this.waitingProducer;
+            if (producer != null) {
+                LockSupport.unpark(producer);
+            }
+        }
+        LogWatchPipeline.LOGGER.info("Processing thread stopped.");
+    }
+
+    public long getNumberOfStalls() {
+        return this.numberOfStalls.get();
+    }
+
+    public int getOccupancy() {
+        return (int) (this.published.get() - this.consumed.get());
+    }
+
+    public void linesRead(final LogWatchTailingManager manager, final List<String> lines) {
+        this.publish(manager, EventType.LINES_READ, lines, -1);
+    }
+
+    private synchronized void publish(final LogWatchTailingManager manager, final EventType type,
+        final List<String> lines, final long position) {
+        if (this.isFinished) {
+            // whatever was in the ring has already been processed
+            LogWatchPipeline.process(manager, type, lines, position);
+            return;
+        }
+        final long sequence = this.published.get();
+        if ((sequence - this.consumed.get()) == this.slots.length) {
+            this.numberOfStalls.incrementAndGet();
+            this.waitForRoom(sequence);
+        }
+        final Slot slot = this.slots[(int) (sequence & this.mask)];
+        slot.manager = manager;
+        slot.type = type;
+        slot.position = position;
+        if (lines != null) {
+            // the tailer will reuse the list
+            slot.lines.addAll(lines);
+        }
+        this.published.set(sequence + 1);
+        if (this.isConsumerWaiting) {
+            LockSupport.unpark(this.thread);
+        }
+    }
+
+    public void readingFinished(final LogWatchTailingManager manager, final long position) {
+        this.publish(manager, EventType.READING_FINISHED, null, position);
+    }
+
+    public void readingStarted(final LogWatchTailingManager manager) {
+        this.publish(manager, EventType.READING_STARTED, null, -1);
+    }
+
+    public void start() {
+        this.thread.start();
+    }
+
+    /**
+     * Have the processing thread finish once it has processed everything that
+     * is already in the ring.
+     */
+    public void stop() {
+        this.isStopped = true;
+        LockSupport.unpark(this.thread);
+    }
+
+    public void tailingFinished(final LogWatchTailingManager manager, final long position) {
+        this.publish(manager, EventType.TAILING_FINISHED, null, position);
+    }
+
+    /**
+     * Wait until the processing thread has taken something out of the ring.
+     *
+     * @param sequence
+     *            The event that has no room yet.
+     */
+    private void waitForRoom(final long sequence) {
+        final long limit = sequence - this.slots.length;
+        switch (this.waitStrategy) {
+            case BLOCKING:
+                this.waitingProducer = Thread.currentThread();
+                // the processing thread could have made room before it saw the producer waiting
+                while (this.consumed.get() == limit) {
+                    LockSupport.park(this);
+                }
+                this.waitingProducer = null;
+                break;
+            case YIELDING:
+                while (this.consumed.get() == limit) {
+                    Thread.yield();
+                }
+                break;
+            default:
+                while (this.consumed.get() == limit) {
+                    LogWatchPipeline.onSpinWait();
+                }
+        }
+    }
+
+    /**
+     * Wait until there is something in the ring, or until stopped.
+     *
+     * @param sequence
+     *            The event that is not there yet.
+     */
+    private void waitForEvents(final long sequence) {
+        switch (this.waitStrategy) {
+            case BLOCKING:
+                this.isConsumerWaiting = true;
+                // the producer could have published before it saw the consumer waiting
+                while ((this.published.get() == sequence) && !this.isStopped) {
+                    LockSupport.park(this);
+                }
+                this.isConsumerWaiting = false;
+                break;
+            case YIELDING:
+                while ((this.published.get() == sequence) && !this.isStopped) {
+                    Thread.yield();
+                }
+                break;
+            default:
+                while ((this.published.get() == sequence) && !this.isStopped) {
+                    LogWatchPipeline.onSpinWait();
+                }
+        }
+    }
+
+}
@@ -0,0 +1,197 @@
+package com.github.triceo.splitlog;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.nio.file.StandardOpenOption;
+
+import com.github.triceo.splitlog.api.TailSplitter;
+
+/**
+ * Has a sole responsibility of finding where the most recent messages of the
+ * watched file begin, without reading the file from the beginning.
+ *
+ * The file is read backwards from its end, block by block. Every line found
+ * on the way is given to {@link TailSplitter#isStartingLine(String)}, until
+ * enough lines that start a message have been found. Therefore, the amount
+ * of work depends on the size of the messages sought, not on the size of the
+ * file.
+ *
+ * Lines are terminated the same way as in the tailer: by LF, by CRLF or by a
+ * lone CR. This only works for charsets that encode both of these characters
+ * as the single bytes of ASCII, such as UTF-8 or ISO-8859-1; other charsets,
+ * such as UTF-16, are refused.
+ */
+final class LogWatchReverseSeek {
+
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    /**
+     * Whether lines of a file in the given charset can be told apart by
+     * looking for single CR and LF bytes.
+     *
+     * @param charset
+     *            Charset of the file.
+     * @return True if the charset encodes CR and LF the same way as ASCII.
+     */
+    public static boolean isSupported(final Charset charset) {
+        return Arrays.equals("\r".getBytes(charset), new byte[] { LogWatchReverseSeek.CR })
+                && Arrays.equals("\n".getBytes(charset), new byte[] { LogWatchReverseSeek.LF });
+    }
+
+    private static void read(final FileChannel channel, final ByteBuffer buffer, final long position)
+            throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, current);
+            if (read < 0) {
+                throw new EOFException("File shrank while being read: " + position);
+            }
+            current += read;
+        }
+    }
+
+    private final int blockSize;
+    private final Charset charset;
+    private final TailSplitter splitter;
+
+    public LogWatchReverseSeek(final TailSplitter splitter, final Charset charset, final int blockSize) {
+        if (!LogWatchReverseSeek.isSupported(charset)) {
+            throw new IllegalArgumentException("Lines cannot be searched for backwards in charset: " + charset);
+        }
+        this.splitter = splitter;
+        this.charset = charset;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Decide whether a given line starts a message.
+     *
+     * @param channel
+     *            Channel to read the line from, unless it is in the block.
+     * @param block
+     *            Block last read from the channel.
+     * @param blockStart
+     *            Where in the file the block starts.
+     * @param blockEnd
+     *            Where in the file the block ends, exclusive.
+     * @param lineStart
+     *            Where in the file the line starts.
+     * @param lineEnd
+     *            Where in the file the line ends, exclusive, not including
+     *            the byte that terminates it.
+     * @param endsWithLineFeed
+     *            Whether the line is terminated by LF, in which case a single
+     *            CR before it is not part of the line.
+     * @return True if the line starts a message.
+     */
+    private boolean isStartingLine(final FileChannel channel, final ByteBuffer block, final long blockStart,
+        final long blockEnd, final long lineStart, final long lineEnd, final boolean endsWithLineFeed)
+        throws IOException {
+        final byte[] bytes;
+        final int offset;
+        if ((lineStart >= blockStart) && (lineEnd <= blockEnd)) {
+            bytes = block.array();
+            offset = (int) (lineStart - blockStart);
+        } else { // the line spans several blocks
+            final ByteBuffer line = ByteBuffer.allocate((int) (lineEnd - lineStart));
+            LogWatchReverseSeek.read(channel, line, lineStart);
+            bytes = line.array();
+            offset = 0;
+        }
+        int length = (int) (lineEnd - lineStart);
+        if (endsWithLineFeed && (length > 0) && (bytes[(offset + length) - 1] == LogWatchReverseSeek.CR)) {
+            length--;
+        }
+        return this.splitter.isStartingLine(new String(bytes, offset, length, this.charset));
+    }
+
+    /**
+     * Find where the most recent messages of the file begin.
+     *
+     * @param file
+     *            File to search.
+     * @param messageCount
+     *            How many messages to find, including the last one, which may
+     *            not yet be complete.
+     * @return Where in the file the first of these messages starts, or 0 when
+     *         the file has fewer messages than requested.
+     * @throws IOException
+     *             If the file cannot be read.
+     */
+    public long seek(final File file, final int messageCount) throws IOException {
+        return this.seek(file, messageCount, Long.MAX_VALUE);
+    }
+
+    /**
+     * Find where the most recent messages of the file begin, that begin
+     * before a given position.
+     *
+     * @param file
+     *            File to search.
+     * @param messageCount
+     *            How many messages to find, including the last one, which may
+     *            not yet be complete.
+     * @param end
+     *            Where to start searching backwards from, such as how far the
+     *            file has been read. Past the end of the file means the end.
+     * @return Where in the file the first of these messages starts, or 0 when
+     *         the file has fewer messages than requested before the position.
+     * @throws IOException
+     *             If the file cannot be read.
+     */
+    public long seek(final File file, final int messageCount, final long end) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = Math.min(channel.size(), end);
+            final ByteBuffer block = ByteBuffer.allocate(this.blockSize);
+            final byte[] bytes = block.array();
+            int found = 0;
+            long lineEnd = size;
+            // the last line is not yet terminated; a CR at its end may still turn out to be followed by LF
+            boolean endsWithLineFeed = true;
+            // byte right after the one being looked at, -1 past the end of the searched range
+            int following = -1;
+            long blockEnd = size;
+            while (blockEnd > 0) {
+                final long blockStart = Math.max(0, blockEnd - this.blockSize);
+                final int length = (int) (blockEnd - blockStart);
+                ((Buffer) block).clear();
+                ((Buffer) block).limit(length);
+                LogWatchReverseSeek.read(channel, block, blockStart);
+                for (int i = length - 1; i >= 0; i--) {
+                    final byte current = bytes[i];
+                    final boolean isLineFeed = current == LogWatchReverseSeek.LF;
+                    // a CR followed by LF or by another CR does not terminate the line
+                    final boolean isLoneCarriageReturn = (current == LogWatchReverseSeek.CR) && (following >= 0)
+                            && (following != LogWatchReverseSeek.LF) && (following != LogWatchReverseSeek.CR);
+                    following = current & 0xFF;
+                    if (!isLineFeed && !isLoneCarriageReturn) {
+                        continue;
+                    }
+                    final long lineStart = blockStart + i + 1;
+                    // there is no line after the line feed that ends the file
+                    final boolean isLine = (lineStart < lineEnd) || (lineEnd < size);
+                    if (isLine && this.isStartingLine(channel, block, blockStart, blockEnd, lineStart, lineEnd,
+                            endsWithLineFeed)) {
+                        found++;
+                        if (found == messageCount) {
+                            return lineStart;
+                        }
+                    }
+                    lineEnd = lineStart - 1;
+                    endsWithLineFeed = isLineFeed;
+                }
+                blockEnd = blockStart;
+            }
+            // the first line of the file is not preceded by a line terminator; either way, start from the beginning
+            return 0;
+        }
+    }
+
+}
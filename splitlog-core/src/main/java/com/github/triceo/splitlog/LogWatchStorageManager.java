@@ -15,6 +15,7 @@ import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 
+import com.github.triceo.splitlog.api.ExceptionOccurrences;
 import com.github.triceo.splitlog.api.Follower;
 import com.github.triceo.splitlog.api.LogWatch;
 import com.github.triceo.splitlog.api.LogWatchBuilder;
@@ -130,6 +131,71 @@ final class LogWatchStorageManager {
         }
     }
 
+    /**
+     * How many times each exception occurs in the messages that are stored.
+     * Not synchronized, as the message store may need to parse the messages;
+     * the same goes for the other variants of this method, which only
+     * synchronize on determining the range of the messages.
+     *
+     * @return See {@link MessageStore#getExceptionOccurrences(int, int)}.
+     */
+    public Map<String, ExceptionOccurrences> getExceptionOccurrences() {
+        return this.messages.getExceptionOccurrences(MessageStore.INITIAL_MESSAGE_POSITION,
+                this.messages.getNextPosition());
+    }
+
+    /**
+     * How many times each exception occurs in the messages that have been sent
+     * to the follower, as returned by {@link #getAllMessages(Follower)}.
+     *
+     * @param follower
+     *            The follower in question.
+     * @return See {@link MessageStore#getExceptionOccurrences(int, int)}.
+     */
+    protected Map<String, ExceptionOccurrences> getExceptionOccurrences(final Follower follower) {
+        final int start;
+        final int end;
+        synchronized (this) {
+            start = this.getStartingMessageId(follower);
+            end = this.getEndingMessageId(follower) + 1;
+        }
+        return this.messages.getExceptionOccurrences(start, end);
+    }
+
+    /**
+     * How many times a particular exception occurs in the messages that have
+     * been sent to the follower, as returned by
+     * {@link #getAllMessages(Follower)}.
+     *
+     * @param follower
+     *            The follower in question.
+     * @param fingerprint
+     *            See {@link ExceptionOccurrences#getFingerprint()}.
+     * @return See {@link MessageStore#getExceptionOccurrences(String, int, int)}.
+     */
+    protected ExceptionOccurrences getExceptionOccurrences(final Follower follower, final String fingerprint) {
+        final int start;
+        final int end;
+        synchronized (this) {
+            start = this.getStartingMessageId(follower);
+            end = this.getEndingMessageId(follower) + 1;
+        }
+        return this.messages.getExceptionOccurrences(fingerprint, start, end);
+    }
+
+    /**
+     * How many times a particular exception occurs in the messages that are
+     * stored.
+     *
+     * @param fingerprint
+     *            See {@link ExceptionOccurrences#getFingerprint()}.
+     * @return See {@link MessageStore#getExceptionOccurrences(String, int, int)}.
+     */
+    public ExceptionOccurrences getExceptionOccurrences(final String fingerprint) {
+        return this.messages.getExceptionOccurrences(fingerprint, MessageStore.INITIAL_MESSAGE_POSITION,
+                this.messages.getNextPosition());
+    }
+
     /**
      * Will crawl the weak hash maps and make sure we always have the latest
      * information on the availability of messages.
@@ -1,63 +1,91 @@
 package com.github.triceo.splitlog;
 
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.input.fork.BatchingTailerListener;
 import org.apache.commons.io.input.fork.Tailer;
-import org.apache.commons.io.input.fork.TailerListener;
 import org.slf4j.Logger;
 
 import com.github.triceo.splitlog.logging.SplitlogLoggerFactory;
 
-final class LogWatchTailerListener implements TailerListener {
+final class LogWatchTailerListener implements BatchingTailerListener {
 
     private static final Logger LOGGER = SplitlogLoggerFactory.getLogger(LogWatchTailerListener.class);
 
     private final LogWatchTailingManager manager;
+    /**
+     * Null unless the lines are to be processed on a thread of their own.
+     */
+    private final LogWatchPipeline pipeline;
+    private Tailer tailer;
 
     public LogWatchTailerListener(final LogWatchTailingManager watcher) {
         this.manager = watcher;
+        this.pipeline = watcher.getWatch().getPipeline();
     }
 
     @Override
     public void begin() {
-        this.manager.readingStarted();
+        if (this.pipeline == null) {
+            this.manager.readingStarted();
+        } else {
+            this.pipeline.readingStarted(this.manager);
+        }
     }
 
     @Override
     public void commit() {
-        this.manager.readingFinished();
+        if (this.pipeline == null) {
+            this.manager.readingFinished(this.tailer.getPosition());
+        } else {
+            this.pipeline.readingFinished(this.manager, this.tailer.getPosition());
+        }
     }
 
     @Override
     public void destroy() {
-        this.manager.tailingFinished();
+        if (this.pipeline == null) {
+            this.manager.tailingFinished(this.tailer.getPosition());
+        } else {
+            this.pipeline.tailingFinished(this.manager, this.tailer.getPosition());
+        }
     }
 
     @Override
     public void fileNotFound() {
-        LogWatchTailerListener.LOGGER.info("Log file not found: {}.", this.manager.getWatch().getWatchedFile());
+        LogWatchTailerListener.LOGGER.info("Log file not found: {}.", this.manager.getFile());
     }
 
     @Override
     public void fileRotated() {
-        LogWatchTailerListener.LOGGER.info("Log file rotated: {}.", this.manager.getWatch().getWatchedFile());
+        LogWatchTailerListener.LOGGER.info("Log file rotated: {}.", this.manager.getFile());
     }
 
     @Override
     public void handle(final Exception ex) {
-        LogWatchTailerListener.LOGGER.warn("Exception from the log tailer for file: {}.", this.manager.getWatch()
-                .getWatchedFile(), ex);
+        LogWatchTailerListener.LOGGER.warn("Exception from the log tailer for file: {}.", this.manager.getFile(), ex);
+    }
+
+    @Override
+    public void handle(final List<String> lines) {
+        LogWatchTailerListener.LOGGER.info("Tailer for {} received {} lines.", this.manager.getFile(), lines.size());
+        if (this.pipeline == null) {
+            this.manager.readLines(lines);
+        } else {
+            this.pipeline.linesRead(this.manager, lines);
+        }
     }
 
     @Override
     public void handle(final String line) {
-        LogWatchTailerListener.LOGGER.info("Tailer for {} received line '{}'.", this.manager.getWatch()
-                .getWatchedFile(), line);
-        this.manager.readLine(line);
+        this.handle(Collections.singletonList(line));
     }
 
     @Override
     public void init(final Tailer tailer) {
-        LogWatchTailerListener.LOGGER.info("Tailer {} initialized for file: {}.", tailer, this.manager.getWatch()
-                .getWatchedFile());
+        this.tailer = tailer;
+        LogWatchTailerListener.LOGGER.info("Tailer {} initialized for file: {}.", tailer, this.manager.getFile());
     }
 
 }
@@ -0,0 +1,48 @@
+package com.github.triceo.splitlog;
+
+import com.github.triceo.splitlog.api.Follower;
+import com.github.triceo.splitlog.api.LogWatchBuilder;
+import com.github.triceo.splitlog.api.Message;
+import com.github.triceo.splitlog.api.TailingStatistics;
+
+/**
+ * Starts and stops the tailing of whatever {@link DefaultLogWatch} is
+ * watching, and reports on how it is going.
+ */
+interface LogWatchTailing extends TailingStatistics {
+
+    @Override
+    default long getNumberOfPipelineStalls() {
+        final LogWatchPipeline pipeline = this.getWatch().getPipeline();
+        return (pipeline == null) ? 0 : pipeline.getNumberOfStalls();
+    }
+
+    @Override
+    default int getPipelineOccupancy() {
+        final LogWatchPipeline pipeline = this.getWatch().getPipeline();
+        return (pipeline == null) ? 0 : pipeline.getOccupancy();
+    }
+
+    /**
+     * @return The log watch whose {@link LogWatchBuilder#getFileToWatch()} is
+     *         being tailed.
+     */
+    DefaultLogWatch getWatch();
+
+    /**
+     * Start the tailing. Only when it runs can {@link Follower}s be notified of
+     * new {@link Message}s from the log.
+     *
+     * @return True if the start was scheduled, false if scheduled already.
+     */
+    boolean start();
+
+    /**
+     * Stop the tailing, preventing any {@link Follower}s from receiving
+     * {@link Message}s.
+     *
+     * @return True if stopped, false if never running.
+     */
+    boolean stop();
+
+}
@@ -4,53 +4,179 @@ import com.github.triceo.splitlog.api.*;
 import com.github.triceo.splitlog.logging.SplitlogLoggerFactory;
 import com.github.triceo.splitlog.util.SplitlogTailer;
 import com.github.triceo.splitlog.util.SplitlogThreadFactory;
-import org.apache.commons.io.input.Tailer;
+import org.apache.commons.io.input.fork.Tailer;
 import org.slf4j.Logger;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Has a sole responsibility of starting and stopping {@link Tailer} thread when
- * told so by the {@link DefaultLogWatch}.
+ * told so by the {@link DefaultLogWatch}. Also reports on how the tailing is
+ * going.
  */
-final class LogWatchTailingManager {
+final class LogWatchTailingManager implements LogWatchTailing {
 
     private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new SplitlogThreadFactory("tails"));
+    /**
+     * For the executors that the tailers create for themselves, where the
+     * reading actually happens.
+     */
+    private static final ThreadFactory READING_THREAD_FACTORY = new SplitlogThreadFactory("tail-reads");
+    private static final ExecutorService VIRTUAL_EXECUTOR = Executors.newCachedThreadPool(new SplitlogThreadFactory(
+            "virtual-tails", true));
+    private static final ThreadFactory VIRTUAL_READING_THREAD_FACTORY = new SplitlogThreadFactory(
+            "virtual-tail-reads", true);
+    /**
+     * Executors shared by all log watches that use the same amount of tailing
+     * threads.
+     */
+    private static final Map<Integer, ScheduledExecutorService> SHARED_EXECUTORS = new ConcurrentHashMap<>();
 
     private static final Logger LOGGER = SplitlogLoggerFactory.getLogger(LogWatchTailingManager.class);
     private final int bufferSize;
+    /**
+     * Null unless the tailer is to be scheduled on an executor given by the
+     * owner of this manager.
+     */
+    private final ScheduledExecutorService executor;
+    private final File file;
+    /**
+     * Whether the file is told apart from others by its identity rather than
+     * by its name, as is the case when the log watch watches several; see
+     * {@link Tailer.Builder#followingRenames(boolean)}.
+     */
+    private final boolean followingRenames;
+    private final int maxBytesPerRead;
+    /**
+     * Null unless the read offset is being checkpointed.
+     */
+    private final LogWatchCheckpoint checkpoint;
     private MessageBuilder currentlyProcessedMessage;
-    private final long delayBetweenReads;
+    private final long delayBetweenReads, minDelayBetweenReads, maxDelayBetweenReads;
     private final AtomicBoolean isReading = new AtomicBoolean(false);
     private final AtomicBoolean isTailing = new AtomicBoolean(false);
     private final AtomicLong numberOfTimesThatTailerWasStarted = new AtomicLong(0);
+    /**
+     * Throttled reads of the tailers that have already been replaced.
+     */
+    private final AtomicLong numberOfThrottledReadsBefore = new AtomicLong(0);
     private WeakReference<Message> previousAcceptedMessage;
-    private final boolean reopenBetweenReads, ignoreExistingContent;
+    private final boolean reopenBetweenReads, ignoreExistingContent, readThroughChannel, catchUpThroughMapping,
+            useNotifications, ingestInParallel, parseMetadataEagerly;
+    private final int sharedThreadCount;
     private final TailSplitter splitter;
-    private SplitlogTailer tailer;
+    private final int startingMessageCount;
+    private final boolean tailOnVirtualThread;
+    private volatile SplitlogTailer tailer;
 
     private final DefaultLogWatch watch;
 
     public LogWatchTailingManager(final DefaultLogWatch watch, final LogWatchBuilder builder,
         final TailSplitter splitter) {
+        this(watch, builder, splitter, builder.getFileToWatch(), null, builder.isReadingFromBeginning());
+    }
+
+    /**
+     * Tail one of the files of a log watch that watches several.
+     *
+     * @param watch
+     *            Log watch to deliver messages to.
+     * @param builder
+     *            Configuration of the log watch.
+     * @param splitter
+     *            Splitter of the log watch.
+     * @param file
+     *            File to tail.
+     * @param executor
+     *            Where to schedule the tailer. Null to schedule according to
+     *            the builder.
+     * @param readingFromBeginning
+     *            Whether to read the content that already exists in the file,
+     *            in place of {@link LogWatchBuilder#isReadingFromBeginning()}.
+     */
+    LogWatchTailingManager(final DefaultLogWatch watch, final LogWatchBuilder builder, final TailSplitter splitter,
+        final File file, final ScheduledExecutorService executor, final boolean readingFromBeginning) {
         this.watch = watch;
+        this.file = file;
+        this.executor = executor;
         this.splitter = splitter;
         this.delayBetweenReads = builder.getDelayBetweenReads();
+        this.minDelayBetweenReads = builder.getMinDelayBetweenReads();
+        this.maxDelayBetweenReads = builder.getMaxDelayBetweenReads();
         this.bufferSize = builder.getReadingBufferSize();
+        this.maxBytesPerRead = builder.getMaxBytesPerRead();
         this.reopenBetweenReads = builder.isClosingBetweenReads();
-        this.ignoreExistingContent = !builder.isReadingFromBeginning();
+        this.ignoreExistingContent = !readingFromBeginning;
+        this.readThroughChannel = builder.isReadingThroughFileChannel();
+        this.catchUpThroughMapping = builder.isCatchingUpThroughMemoryMapping();
+        this.useNotifications = builder.isUsingFileSystemNotifications();
+        this.ingestInParallel = builder.isIngestingPreexistingContentInParallel();
+        this.parseMetadataEagerly = builder.isParsingMetadataEagerly();
+        this.sharedThreadCount = builder.getSharedTailingThreadCount();
+        this.startingMessageCount = builder.getStartingMessageCount();
+        this.tailOnVirtualThread = builder.isTailingOnVirtualThreads();
+        final File checkpointFile = builder.getCheckpointFile();
+        // there is only one checkpoint file, while there may be many files
+        this.checkpoint = ((checkpointFile == null) || (builder.getFilePattern() != null)) ? null
+                : new LogWatchCheckpoint(checkpointFile, file);
+        this.followingRenames = builder.getFilePattern() != null;
+    }
+
+    @Override
+    public long getCurrentDelayBetweenReads() {
+        final SplitlogTailer currentTailer = this.tailer;
+        return (currentTailer == null) ? this.delayBetweenReads : currentTailer.getCurrentDelay();
+    }
+
+    @Override
+    public long getNumberOfThrottledReads() {
+        final SplitlogTailer currentTailer = this.tailer;
+        final long current = (currentTailer == null) ? 0 : currentTailer.getThrottledReadCount();
+        return this.numberOfThrottledReadsBefore.get() + current;
+    }
+
+    static ScheduledExecutorService getSharedExecutor(final int threadCount) {
+        return LogWatchTailingManager.SHARED_EXECUTORS.computeIfAbsent(threadCount, count -> {
+            final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(count,
+                    new SplitlogThreadFactory("shared-tails"));
+            executor.setRemoveOnCancelPolicy(true); // many watches come and go
+            return executor;
+        });
     }
 
+    public File getFile() {
+        return this.file;
+    }
+
+    @Override
     public DefaultLogWatch getWatch() {
         return this.watch;
     }
 
-    protected void readingFinished() {
+    /**
+     * A burst of reading is over.
+     *
+     * @param position
+     *            Where in the file the tailer stopped reading.
+     */
+    protected void readingFinished(final long position) {
         if (!this.isReading.compareAndSet(true, false)) {
             return;
         }
@@ -63,6 +189,11 @@ final class LogWatchTailingManager {
              */
             this.getWatch().messageIncoming(this.currentlyProcessedMessage.buildIntermediate(this.splitter));
         }
+        if (this.checkpoint != null) {
+            // the lines of the unfinished message must be read again after a restart, from its first one
+            final boolean isMessagePending = this.currentlyProcessedMessage != null;
+            this.checkpoint.saveIfDue(() -> isMessagePending ? this.seekCurrentMessage(position) : position);
+        }
     }
 
     protected void readingStarted() {
@@ -72,35 +203,191 @@ final class LogWatchTailingManager {
         LogWatchTailingManager.LOGGER.info("Tailing will now start submitting lines.");
     }
 
+    /**
+     * Process a single line from the tailer.
+     *
+     * @param line
+     *            Line in question.
+     */
     protected void readLine(final String line) {
+        this.readLines(Collections.singletonList(line));
+    }
+
+    /**
+     * Process all the lines that the tailer found in one read, assembling
+     * messages out of them in a single pass.
+     *
+     * @param lines
+     *            Lines in question, in the order in which they appear in the
+     *            file.
+     */
+    protected void readLines(final List<String> lines) {
         if (!this.isReading.get()) {
-            LogWatchTailingManager.LOGGER.warn("Line '{}' received when the tailer shouldn't have been sending: {}.",
-                    line, this);
+            LogWatchTailingManager.LOGGER.warn("{} lines received when the tailer shouldn't have been sending: {}.",
+                    lines.size(), this);
             return;
         }
+        for (final String line : lines) {
+            this.processLine(line);
+        }
+        LogWatchTailingManager.LOGGER.debug("Processing of {} lines over.", lines.size());
+    }
+
+    private void deliver(final Message completeMessage) {
+        final MessageDeliveryStatus accepted = this.getWatch().messageArrived(completeMessage);
+        if (accepted == null) {
+            LogWatchTailingManager.LOGGER.info("Message {} rejected at the gate to {}.", completeMessage, this);
+        } else if (accepted == MessageDeliveryStatus.ACCEPTED) {
+            this.previousAcceptedMessage = new WeakReference<>(completeMessage);
+        } else {
+            LogWatchTailingManager.LOGGER.info("Message {} rejected from storage in {}.", completeMessage, this);
+        }
+    }
+
+    private Message getPreviousAcceptedMessage() {
+        return (this.previousAcceptedMessage == null) ? null : this.previousAcceptedMessage.get();
+    }
+
+    /**
+     * @param ingest
+     *            The ingest that failed, possibly after having delivered some
+     *            messages.
+     * @param from
+     *            Where in the file the ingest started.
+     * @return Where the tailer should continue.
+     */
+    private long getResumePosition(final LogWatchBulkIngest ingest, final long from) {
+        if (!LogWatchReverseSeek.isSupported(Charset.defaultCharset())) {
+            LogWatchTailingManager.LOGGER.warn("Cannot search {} for where the ingest stopped in charset {},"
+                    + " messages may be delivered twice.", this.file, Charset.defaultCharset());
+            return from;
+        }
+        try {
+            return ingest.getResumePosition();
+        } catch (final IOException ex) {
+            LogWatchTailingManager.LOGGER.warn("Failed searching {} for where the ingest stopped, messages may be"
+                    + " delivered twice.", this.file, ex);
+            return from;
+        }
+    }
+
+    /**
+     * Read the content that already exists in the file in parallel, before the
+     * tailer starts.
+     *
+     * @param from
+     *            Where in the file to start.
+     * @return Where the tailer should continue.
+     */
+    private long ingest(final long from) {
+        final File file = this.file;
+        // same charset as the tailer's
+        final LogWatchBulkIngest ingest = new LogWatchBulkIngest(this.splitter, Charset.defaultCharset(),
+                this.bufferSize);
+        final long end;
+        try {
+            end = ingest.ingest(file, from, message -> {
+                // the ingest could not know which messages would be accepted
+                final Message previous = this.getPreviousAcceptedMessage();
+                this.deliver((message.getPreviousMessage() == previous) ? message : new DefaultMessage(
+                        (DefaultMessage) message, previous));
+            });
+        } catch (final NoSuchFileException ex) {
+            LogWatchTailingManager.LOGGER.info("Log file not found, nothing to ingest: {}.", file);
+            return from;
+        } catch (final IOException | RuntimeException ex) {
+            LogWatchTailingManager.LOGGER.warn("Failed ingesting {} in parallel, the tailer will take over.", file,
+                    ex);
+            return this.getResumePosition(ingest, from);
+        }
+        final List<String> unfinished = ingest.getUnfinishedMessage();
+        if (!unfinished.isEmpty()) {
+            // the tailer will continue the message
+            this.prepareMessage(unfinished.get(0));
+            this.currentlyProcessedMessage.add(unfinished.subList(1, unfinished.size()));
+            this.getWatch().messageIncoming(this.currentlyProcessedMessage.buildIntermediate(this.splitter));
+        }
+        return end;
+    }
+
+    /**
+     * Find where the message that has not been finished yet starts.
+     *
+     * @param end
+     *            Where in the file the message was last read up to.
+     * @return Where the message starts, or -1 if not known.
+     */
+    private long seekCurrentMessage(final long end) {
+        if ((end < 0) || !LogWatchReverseSeek.isSupported(Charset.defaultCharset())) {
+            return -1;
+        }
+        // same charset as the tailer's
+        final LogWatchReverseSeek seek = new LogWatchReverseSeek(this.splitter, Charset.defaultCharset(),
+                this.bufferSize);
+        try {
+            return seek.seek(this.file, 1, end);
+        } catch (final ClosedByInterruptException ex) {
+            LogWatchTailingManager.LOGGER.debug("Interrupted searching {} for the start of the current message.",
+                    this.file);
+            return -1;
+        } catch (final IOException ex) {
+            LogWatchTailingManager.LOGGER.warn("Failed searching {} for the start of the current message.",
+                    this.file, ex);
+            return -1;
+        }
+    }
+
+    /**
+     * Find where the most recent messages start, as requested by
+     * {@link LogWatchBuilder#startingWithLastMessages(int)}.
+     *
+     * @return Where the tailer should start, or -1 if not known.
+     */
+    private long seekLastMessages() {
+        final File file = this.file;
+        if (!LogWatchReverseSeek.isSupported(Charset.defaultCharset())) {
+            LogWatchTailingManager.LOGGER.warn("Cannot search {} for last messages in charset {}.", file,
+                    Charset.defaultCharset());
+            return -1;
+        }
+        // same charset as the tailer's
+        final LogWatchReverseSeek seek = new LogWatchReverseSeek(this.splitter, Charset.defaultCharset(),
+                this.bufferSize);
+        try {
+            final long position = seek.seek(file, this.startingMessageCount);
+            LogWatchTailingManager.LOGGER.info("Last {} messages of {} start at position {}.",
+                    this.startingMessageCount, file, position);
+            return position;
+        } catch (final NoSuchFileException ex) {
+            LogWatchTailingManager.LOGGER.info("Log file not found, no messages to start with: {}.", file);
+            return -1;
+        } catch (final IOException ex) {
+            LogWatchTailingManager.LOGGER.warn("Failed searching {} for last messages.", file, ex);
+            return -1;
+        }
+    }
+
+    private void prepareMessage(final String firstLine) {
+        this.currentlyProcessedMessage = new MessageBuilder(firstLine).setSource(this.file).setParsingMetadataEagerly(
+                this.parseMetadataEagerly);
+        if (this.previousAcceptedMessage != null) {
+            this.currentlyProcessedMessage.setPreviousMessage(this.previousAcceptedMessage.get());
+        }
+    }
+
+    private void processLine(final String line) {
         final boolean isMessageBeingProcessed = this.currentlyProcessedMessage != null;
         if (this.splitter.isStartingLine(line)) {
             // new message begins
             if (isMessageBeingProcessed) { // finish old message
                 LogWatchTailingManager.LOGGER.debug("Existing message will be finished.");
                 final Message completeMessage = this.currentlyProcessedMessage.buildFinal(this.splitter);
-                final MessageDeliveryStatus accepted = this.getWatch().messageArrived(completeMessage);
                 this.currentlyProcessedMessage = null;
-                if (accepted == null) {
-                    LogWatchTailingManager.LOGGER.info("Message {} rejected at the gate to {}.", completeMessage, this);
-                } else if (accepted == MessageDeliveryStatus.ACCEPTED) {
-                    this.previousAcceptedMessage = new WeakReference<>(completeMessage);
-                } else {
-                    LogWatchTailingManager.LOGGER
-                    .info("Message {} rejected from storage in {}.", completeMessage, this);
-                }
+                this.deliver(completeMessage);
             }
             // prepare for new message
             LogWatchTailingManager.LOGGER.debug("New message is being prepared.");
-            this.currentlyProcessedMessage = new MessageBuilder(line);
-            if (this.previousAcceptedMessage != null) {
-                this.currentlyProcessedMessage.setPreviousMessage(this.previousAcceptedMessage.get());
-            }
+            this.prepareMessage(line);
         } else {
             // continue present message
             if (!isMessageBeingProcessed) {
@@ -108,10 +395,8 @@ final class LogWatchTailingManager {
                 // most likely just a garbage immediately after start
                 return;
             }
-            LogWatchTailingManager.LOGGER.debug("Existing message is being updated.");
             this.currentlyProcessedMessage.add(line);
         }
-        LogWatchTailingManager.LOGGER.debug("Line processing over.");
     }
 
     /**
@@ -120,23 +405,80 @@ final class LogWatchTailingManager {
      *
      * @return True if the start was scheduled, false if scheduled already.
      */
+    @Override
     public boolean start() {
+        return this.start(true);
+    }
+
+    /**
+     * Start the tailer on a separate thread.
+     *
+     * @param waitUntilStarted
+     *            Whether to block until the tailer has first read the file.
+     *            Must be false when called from the thread that the tailer
+     *            will be scheduled on.
+     * @return True if the start was scheduled, false if scheduled already.
+     */
+    boolean start(final boolean waitUntilStarted) {
         if (!this.isTailing.compareAndSet(false, true)) {
             return false;
         }
         final boolean willReadFromEnd = this.willReadFromEnd();
         LogWatchTailingManager.LOGGER.debug("Tailer {} ignore existing file contents.", willReadFromEnd ? "will"
                 : "won't");
-        this.tailer = new SplitlogTailer(this.watch.getWatchedFile(), new LogWatchTailerListener(this),
-                this.delayBetweenReads, this.willReadFromEnd(), this.reopenBetweenReads, this.bufferSize);
-        LogWatchTailingManager.EXECUTOR.submit(this.tailer);
-        final long start = System.nanoTime();
-        this.tailer.waitUntilStarted();
-        final long duration = System.nanoTime() - start;
-        LogWatchTailingManager.LOGGER.debug("It took {} ms for the tailing to actually start.",
-                TimeUnit.NANOSECONDS.toMillis(duration));
+        final Tailer.Builder tailerBuilder = new Tailer.Builder(this.file,
+                new LogWatchTailerListener(this)).withDelay(this.delayBetweenReads).readingFromEnd(willReadFromEnd)
+                .reopeningBetweenReads(this.reopenBetweenReads).withBufferSize(this.bufferSize)
+                .readingThroughChannel(this.readThroughChannel).catchingUpThroughMapping(this.catchUpThroughMapping)
+                .usingFileSystemNotifications(this.useNotifications).followingRenames(this.followingRenames);
+        if (this.maxDelayBetweenReads > 0) {
+            tailerBuilder.withAdaptiveDelay(this.minDelayBetweenReads, this.maxDelayBetweenReads);
+        }
+        if (this.maxBytesPerRead > 0) {
+            tailerBuilder.withReadBudget(this.maxBytesPerRead);
+        }
+        long resumeFrom = (this.checkpoint == null) ? -1 : this.checkpoint.load();
+        if (resumeFrom >= 0) {
+            LogWatchTailingManager.LOGGER.info("Tailer will resume from checkpointed position {}.", resumeFrom);
+        } else if ((this.startingMessageCount > 0) && (this.numberOfTimesThatTailerWasStarted.get() == 0)) {
+            resumeFrom = this.seekLastMessages();
+        }
+        if (this.ingestInParallel && ((resumeFrom >= 0) || !willReadFromEnd)) {
+            resumeFrom = this.ingest(Math.max(0, resumeFrom));
+        }
+        if (resumeFrom >= 0) {
+            tailerBuilder.startingAt(resumeFrom);
+        }
+        final ScheduledExecutorService scheduledExecutor = this.getScheduledExecutor();
+        if (scheduledExecutor != null) {
+            tailerBuilder.schedulingOn(scheduledExecutor);
+        } else {
+            tailerBuilder.withThreadFactory(this.tailOnVirtualThread
+                    ? LogWatchTailingManager.VIRTUAL_READING_THREAD_FACTORY
+                    : LogWatchTailingManager.READING_THREAD_FACTORY);
+        }
+        final SplitlogTailer previousTailer = this.tailer;
+        if (previousTailer != null) {
+            this.numberOfThrottledReadsBefore.addAndGet(previousTailer.getThrottledReadCount());
+        }
+        this.tailer = new SplitlogTailer(tailerBuilder);
+        if (scheduledExecutor != null) {
+            // no thread of its own; the tailer will only ever run on the scheduled executor
+            this.tailer.start();
+        } else if (this.tailOnVirtualThread) {
+            LogWatchTailingManager.VIRTUAL_EXECUTOR.submit(this.tailer);
+        } else {
+            LogWatchTailingManager.EXECUTOR.submit(this.tailer);
+        }
+        if (waitUntilStarted) {
+            final long start = System.nanoTime();
+            this.tailer.waitUntilStarted();
+            final long duration = System.nanoTime() - start;
+            LogWatchTailingManager.LOGGER.debug("It took {} ms for the tailing to actually start.",
+                    TimeUnit.NANOSECONDS.toMillis(duration));
+        }
         final long iterationNum = this.numberOfTimesThatTailerWasStarted.incrementAndGet();
-        LogWatchTailingManager.LOGGER.info("Tailing #{} started for {}.", iterationNum, this.watch);
+        LogWatchTailingManager.LOGGER.info("Tailing #{} of {} started for {}.", iterationNum, this.file, this.watch);
         return true;
     }
 
@@ -146,7 +488,18 @@ final class LogWatchTailingManager {
      *
      * @return True if stopped, false if never running.
      */
+    @Override
     public boolean stop() {
+        return this.stop(false);
+    }
+
+    /**
+     * @param readingToEnd
+     *            Whether to read whatever is left in the file before
+     *            stopping; see {@link #stopAfterReadingToEnd()}.
+     * @return True if stopped, false if never running.
+     */
+    private boolean stop(final boolean readingToEnd) {
         if (!this.isTailing.get()) {
             LogWatchTailingManager.LOGGER.debug("Tailer not running, therefore not terminating.");
             return false;
@@ -155,23 +508,65 @@ final class LogWatchTailingManager {
          * terminate tailer; we stop the scheduler and the task will therefore
          * never be started again
          */
-        this.tailer.stop();
+        if (readingToEnd) {
+            this.tailer.stopAfterReadingToEnd();
+        } else {
+            this.tailer.stop();
+        }
         LogWatchTailingManager.LOGGER.info("Terminated tailing #{} for {}.",
                 this.numberOfTimesThatTailerWasStarted.get(), this.watch);
         return true;
     }
 
-    protected void tailingFinished() {
+    /**
+     * Stop the tailer once it has read the rest of the file, so that the last
+     * lines written before the file was renamed or deleted are not lost. The
+     * message still being read then arrives as any other, once the tailing
+     * has finished.
+     *
+     * @return True if stopped, false if never running.
+     */
+    boolean stopAfterReadingToEnd() {
+        return this.stop(true);
+    }
+
+    /**
+     * The tailer will read no more.
+     *
+     * @param position
+     *            Where in the file the tailer stopped reading.
+     */
+    protected void tailingFinished(final long position) {
         this.isReading.set(false);
         LogWatchTailingManager.LOGGER.info("Tailing terminated.");
-        if (this.currentlyProcessedMessage != null) {
-            /*
-             * there will be no more lines. the last message must be accepted or
-             * rejected as well.
-             */
-            this.getWatch().messageArrived(this.currentlyProcessedMessage.buildFinal(this.splitter));
-            this.currentlyProcessedMessage = null;
-            this.previousAcceptedMessage = null;
+        try {
+            if (this.currentlyProcessedMessage != null) {
+                /*
+                 * there will be no more lines. the last message must be accepted
+                 * or rejected as well.
+                 */
+                this.getWatch().messageArrived(this.currentlyProcessedMessage.buildFinal(this.splitter));
+                this.currentlyProcessedMessage = null;
+                this.previousAcceptedMessage = null;
+            }
+        } finally {
+            if (this.checkpoint != null) {
+                // every line up to the position is now part of a finished message, even if nobody was left to get it
+                this.checkpoint.save(position);
+            }
+        }
+    }
+
+    /**
+     * @return Null if the tailer should have a thread of its own.
+     */
+    private ScheduledExecutorService getScheduledExecutor() {
+        if (this.executor != null) {
+            return this.executor;
+        } else if (this.sharedThreadCount > 0) {
+            return LogWatchTailingManager.getSharedExecutor(this.sharedThreadCount);
+        } else {
+            return null;
         }
     }
 
@@ -1,8 +1,9 @@
 package com.github.triceo.splitlog;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -10,15 +11,39 @@ import com.github.triceo.splitlog.api.Message;
 import com.github.triceo.splitlog.api.TailSplitter;
 import com.github.triceo.splitlog.splitters.SimpleTailSplitter;
 
+/**
+ * Assembles a message out of the lines read from the log. While the message is
+ * still being read, it can be built again and again, every time with more
+ * lines; all the messages built share an {@link IncrementalMessageParser}, so
+ * that no line has its metadata inferred twice.
+ */
 final class MessageBuilder {
 
     private static final TailSplitter DEFAULT_TAIL_SPLITTER = new SimpleTailSplitter();
     private static final AtomicLong MESSAGE_ID_GENERATOR = new AtomicLong(0);
     private static final long NO_MESSAGE_ID_SET = -1;
 
+    /**
+     * Reserve a range of consecutive message IDs, for when the messages are
+     * not assembled through this class.
+     *
+     * @param count
+     *            How many IDs to reserve.
+     * @return The first of the reserved IDs.
+     */
+    public static long reserveIds(final int count) {
+        return MessageBuilder.MESSAGE_ID_GENERATOR.getAndAdd(count);
+    }
+
     private long futureMessageId = MessageBuilder.NO_MESSAGE_ID_SET;
-    private final List<String> lines = new LinkedList<>();
+    private final List<String> lines = new ArrayList<>();
+    /**
+     * Shared by all the messages built with the same splitter.
+     */
+    private IncrementalMessageParser parser;
+    private boolean parsingMetadataEagerly;
     private Message previousMessage;
+    private File source;
     private long timestamp;
 
     /**
@@ -59,6 +84,16 @@ final class MessageBuilder {
         return this.add(Collections.singletonList(line));
     }
 
+    private Message build(final TailSplitter splitter) {
+        if ((this.parser == null) || (this.parser.getSplitter() != splitter)) {
+            this.parser = new IncrementalMessageParser(splitter);
+        }
+        // the message copies the lines, so that they can be added to independently
+        final DefaultMessage msg = new DefaultMessage(this.futureMessageId, this.lines, this.getTimestamp(),
+                this.parser, this.previousMessage, this.source);
+        return this.parsingMetadataEagerly ? msg.determineMetadata() : msg;
+    }
+
     public Message buildFinal() {
         return this.buildFinal(MessageBuilder.DEFAULT_TAIL_SPLITTER);
     }
@@ -68,8 +103,7 @@ final class MessageBuilder {
             // no ID acquired yet
             this.futureMessageId = MessageBuilder.MESSAGE_ID_GENERATOR.getAndIncrement();
         }
-        final Message msg = new DefaultMessage(this.futureMessageId, this.getLines(), this.getTimestamp(), splitter,
-                this.previousMessage);
+        final Message msg = this.build(splitter);
         // next message will have to acquire new ID
         this.futureMessageId = MessageBuilder.NO_MESSAGE_ID_SET;
         return msg;
@@ -84,8 +118,7 @@ final class MessageBuilder {
             // no ID acquired yet
             this.futureMessageId = MessageBuilder.MESSAGE_ID_GENERATOR.getAndIncrement();
         }
-        return new DefaultMessage(this.futureMessageId, this.getLines(), this.getTimestamp(), splitter,
-                this.previousMessage);
+        return this.build(splitter);
     }
 
     public synchronized Message buildTag() {
@@ -107,28 +140,48 @@ final class MessageBuilder {
         return this.lines.get(0);
     }
 
-    /**
-     *
-     * @return Raw lines from the server log that have had no pre-processing. This will create a new list every time it
-     * is called, so that {@link #lines} can be modified independently of this new collection's iteration.
-     */
-    private synchronized List<String> getLines() {
-        return Collections.unmodifiableList(new LinkedList<>(this.lines));
-    }
-
     public Message getPreviousMessage() {
         return this.previousMessage;
     }
 
+    public File getSource() {
+        return this.source;
+    }
+
     public long getTimestamp() {
         return this.timestamp;
     }
 
+    /**
+     * Whether the messages built should infer their metadata right away,
+     * rather than when first asked for.
+     *
+     * @param parsingMetadataEagerly
+     *            True to infer right away.
+     * @return This.
+     */
+    public MessageBuilder setParsingMetadataEagerly(final boolean parsingMetadataEagerly) {
+        this.parsingMetadataEagerly = parsingMetadataEagerly;
+        return this;
+    }
+
     public MessageBuilder setPreviousMessage(final Message previousMessage) {
         this.previousMessage = previousMessage;
         return this;
     }
 
+    /**
+     * Assign the file that this message is being read from.
+     *
+     * @param source
+     *            File in question, null if not known.
+     * @return This.
+     */
+    public MessageBuilder setSource(final File source) {
+        this.source = source;
+        return this;
+    }
+
     /**
      * Assign a timestamp to this message.
      *
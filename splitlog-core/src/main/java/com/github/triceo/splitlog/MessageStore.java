@@ -1,19 +1,29 @@
 package com.github.triceo.splitlog;
 
 import it.unimi.dsi.fastutil.ints.Int2ObjectAVLTreeMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 
+import com.github.triceo.splitlog.api.ExceptionDescriptor;
+import com.github.triceo.splitlog.api.ExceptionOccurrences;
 import com.github.triceo.splitlog.api.LogWatch;
 import com.github.triceo.splitlog.api.Message;
 import com.github.triceo.splitlog.logging.SplitlogLoggerFactory;
 
 /**
- * Data storage for a particular {@link LogWatch}.
+ * Data storage for a particular {@link LogWatch}. Keeps an
+ * {@link ExceptionIndex} of the messages that it holds. Messages are only
+ * indexed once the exceptions are first asked for, and their exceptions are
+ * looked for outside of the lock, so that storing a message neither waits for
+ * its lines to be parsed nor for anyone else's.
  *
  * This class is thread-safe.
  */
@@ -22,6 +32,18 @@ final class MessageStore {
     public static final int INITIAL_MESSAGE_POSITION = 0;
     private static final Logger LOGGER = SplitlogLoggerFactory.getLogger(MessageStore.class);
 
+    private final ExceptionIndex exceptions = new ExceptionIndex();
+    /**
+     * Held throughout {@link #indexExceptions()}, so that the messages are
+     * indexed in the order of their positions. Always taken before the lock on
+     * the store itself, never after.
+     */
+    private final Object exceptionsIndexing = new Object();
+    /**
+     * Position of the first message that has not been indexed yet; guarded by
+     * {@link #exceptionsIndexing}.
+     */
+    private int firstPositionNotIndexed = MessageStore.INITIAL_MESSAGE_POSITION;
     private final int messageLimit;
     private final AtomicInteger nextMessagePosition = new AtomicInteger(MessageStore.INITIAL_MESSAGE_POSITION);
     private final Int2ObjectSortedMap<Message> store = new Int2ObjectAVLTreeMap<>();
@@ -66,7 +88,9 @@ final class MessageStore {
         this.nextMessagePosition.incrementAndGet();
         if (this.store.size() > this.messageLimit) {
             // discard first message if we're over limit
-            this.store.remove(this.store.firstKey());
+            final int firstKey = this.store.firstIntKey();
+            this.store.remove(firstKey);
+            this.exceptions.discard(firstKey);
         }
         return nextKey;
     }
@@ -108,13 +132,17 @@ final class MessageStore {
                     firstPositionNotToDiscard);
             final int size = this.store.size();
             this.store.clear();
+            this.exceptions.clear();
             return size;
         }
         // and now actually discard
         MessageStore.LOGGER.info("Discarding messages in positions <{},{}).", firstMessagePosition,
                 firstPositionNotToDiscard);
-        final SortedMap<Integer, Message> toDiscard = this.store.headMap(firstPositionNotToDiscard);
+        final Int2ObjectSortedMap<Message> toDiscard = this.store.headMap(firstPositionNotToDiscard);
         final int size = toDiscard.size();
+        for (final IntIterator positions = toDiscard.keySet().iterator(); positions.hasNext();) {
+            this.exceptions.discard(positions.nextInt());
+        }
         toDiscard.clear();
         return size;
     }
@@ -132,6 +160,46 @@ final class MessageStore {
         return this.getFrom(firstMessagePosition);
     }
 
+    /**
+     * How many times each exception occurs in the messages on positions in the
+     * given range. Does not go through the messages.
+     *
+     * @param startPosition
+     *            Least position, inclusive.
+     * @param endPosition
+     *            Greatest position, exclusive.
+     * @return Unmodifiable, keyed by
+     *         {@link ExceptionDescriptor#getFingerprint()}, in the order in
+     *         which the exceptions first occur in the range.
+     */
+    public Map<String, ExceptionOccurrences> getExceptionOccurrences(final int startPosition,
+        final int endPosition) {
+        this.indexExceptions();
+        synchronized (this) {
+            return this.exceptions.getAll(startPosition, endPosition);
+        }
+    }
+
+    /**
+     * How many times a particular exception occurs in the messages on
+     * positions in the given range. Does not go through the messages.
+     *
+     * @param fingerprint
+     *            See {@link ExceptionDescriptor#getFingerprint()}.
+     * @param startPosition
+     *            Least position, inclusive.
+     * @param endPosition
+     *            Greatest position, exclusive.
+     * @return Null if no message in the range has such exception.
+     */
+    public ExceptionOccurrences getExceptionOccurrences(final String fingerprint, final int startPosition,
+        final int endPosition) {
+        this.indexExceptions();
+        synchronized (this) {
+            return this.exceptions.get(fingerprint, startPosition, endPosition);
+        }
+    }
+
     /**
      * The first position that is occupied by a message.
      *
@@ -205,6 +273,43 @@ final class MessageStore {
         return this.nextMessagePosition.get();
     }
 
+    /**
+     * Look for the exceptions in the messages stored since the last time, and
+     * index those that have any. The lines of the messages are parsed without
+     * holding the lock on the store; messages discarded in the meantime are
+     * not indexed.
+     */
+    private void indexExceptions() {
+        synchronized (this.exceptionsIndexing) {
+            final IntArrayList positions = new IntArrayList();
+            final ObjectArrayList<Message> messages = new ObjectArrayList<>();
+            synchronized (this) {
+                final Int2ObjectSortedMap<Message> toIndex = this.store.tailMap(this.firstPositionNotIndexed);
+                for (final Int2ObjectMap.Entry<Message> entry : toIndex.int2ObjectEntrySet()) {
+                    positions.add(entry.getIntKey());
+                    messages.add(entry.getValue());
+                }
+                this.firstPositionNotIndexed = this.getNextPosition();
+            }
+            if (positions.isEmpty()) {
+                return;
+            }
+            final int size = positions.size();
+            final ExceptionDescriptor[] exceptions = new ExceptionDescriptor[size];
+            for (int i = 0; i < size; i++) {
+                exceptions[i] = messages.get(i).getExceptionDescriptor();
+            }
+            synchronized (this) {
+                for (int i = 0; i < size; i++) {
+                    final int position = positions.getInt(i);
+                    if ((exceptions[i] != null) && !this.store.isEmpty() && (position >= this.store.firstIntKey())) {
+                        this.exceptions.add(position, messages.get(i), exceptions[i]);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Whether or not this message store currently holds any messages.
      *
@@ -4,7 +4,7 @@ import com.github.triceo.splitlog.api.Message;
 import com.github.triceo.splitlog.api.MessageComparator;
 
 /**
- * Will sort messages in the order of increasing {@link Message#getDate()}.
+ * Will sort messages in the order of increasing {@link Message#getTimestamp()}.
  */
 public final class TimestampOrderingMessageComparator implements MessageComparator {
 
@@ -17,7 +17,7 @@ public final class TimestampOrderingMessageComparator implements MessageComparat
 
     @Override
     public int compare(final Message o1, final Message o2) {
-        return o1.getDate().compareTo(o2.getDate());
+        return Long.compare(o1.getTimestamp(), o2.getTimestamp());
     }
 
 }
@@ -1,16 +1,92 @@
 package com.github.triceo.splitlog.splitters;
 
 import java.util.List;
+import java.util.function.Function;
 
 import com.github.triceo.splitlog.api.ExceptionDescriptor;
+import com.github.triceo.splitlog.api.MessageMetadata;
+import com.github.triceo.splitlog.api.MessageSeverity;
 import com.github.triceo.splitlog.api.TailSplitter;
 import com.github.triceo.splitlog.splitters.exceptions.DefaultExceptionDescriptor;
+import com.github.triceo.splitlog.splitters.exceptions.IncrementalExceptionParser;
 
 abstract class AbstractTailSplitter implements TailSplitter {
 
+    /**
+     * Take over the bodies of the lines that were parsed before, for
+     * {@link TailSplitter#parse(List, long, int, MessageMetadata)}.
+     *
+     * @param previous
+     *            What was found in the lines parsed before; null if none.
+     * @param previousLineCount
+     *            How many lines were parsed before.
+     * @param bodyStarts
+     *            Where to put the starts of the bodies of all the lines.
+     * @param bodyEnds
+     *            Where to put the ends of the bodies of all the lines.
+     * @return False if there is nothing to take over, and the message must be
+     *         parsed starting with its first line.
+     */
+    static boolean copyBodies(final MessageMetadata previous, final int previousLineCount, final int[] bodyStarts,
+        final int[] bodyEnds) {
+        if ((previous == null) || (previousLineCount < 1) || (previousLineCount > bodyStarts.length)) {
+            return false;
+        }
+        for (int i = 0; i < previousLineCount; i++) {
+            bodyStarts[i] = previous.getBodyStart(i);
+            bodyEnds[i] = previous.getBodyEnd(i);
+        }
+        return true;
+    }
+
+    /**
+     * Map the severity, as printed by the common logging frameworks, to the
+     * one that Splitlog understands.
+     *
+     * @param line
+     *            Line containing the severity.
+     * @param start
+     *            Where the severity starts.
+     * @param end
+     *            Where the severity ends.
+     * @return {@link MessageSeverity#UNKNOWN} if not recognized.
+     */
+    static MessageSeverity toSeverity(final String line, final int start, final int end) {
+        switch (end - start) {
+            case 4:
+                if (line.startsWith("INFO", start)) {
+                    return MessageSeverity.INFO;
+                } else if (line.startsWith("WARN", start)) {
+                    return MessageSeverity.WARNING;
+                }
+                return MessageSeverity.UNKNOWN;
+            case 5:
+                if (line.startsWith("DEBUG", start)) {
+                    return MessageSeverity.DEBUG;
+                } else if (line.startsWith("ERROR", start)) {
+                    return MessageSeverity.ERROR;
+                } else if (line.startsWith("TRACE", start)) {
+                    return MessageSeverity.TRACE;
+                }
+                return MessageSeverity.UNKNOWN;
+            default:
+                return MessageSeverity.UNKNOWN;
+        }
+    }
+
     @Override
     public ExceptionDescriptor determineException(final List<String> raw) {
         return DefaultExceptionDescriptor.parseStackTrace(raw);
     }
 
+    /**
+     * Only scans the lines that were not there the last time; see
+     * {@link IncrementalExceptionParser}.
+     */
+    @Override
+    public Function<List<String>, ExceptionDescriptor> determineExceptionIncrementally() {
+        final IncrementalExceptionParser parser = new IncrementalExceptionParser();
+        return parser::parse;
+    }
+
 }
@@ -0,0 +1,57 @@
+package com.github.triceo.splitlog.splitters;
+
+/**
+ * Starting line of a message in the JBossAS server.log format, broken into its
+ * parts. Text parts are given as indexes into {@link #getLine()}, so that
+ * nothing needs to be copied out of the line unless asked for.
+ */
+interface JBossServerLogLine {
+
+    /**
+     * @return Index after the last character of the body, the information
+     *         being logged. Untrimmed.
+     */
+    int getBodyEnd();
+
+    /**
+     * @return Index of the first character of the body, the information being
+     *         logged. Untrimmed.
+     */
+    int getBodyStart();
+
+    int getHours();
+
+    /**
+     * @return The whole line.
+     */
+    String getLine();
+
+    int getMillis();
+
+    int getMinutes();
+
+    int getSeconds();
+
+    /**
+     * @return Index after the last character of the severity.
+     */
+    int getSeverityEnd();
+
+    /**
+     * @return Index of the first character of the severity.
+     */
+    int getSeverityStart();
+
+    /**
+     * @return Index after the last character of the type, which is either a
+     *         logger or stdout/stderr.
+     */
+    int getTypeEnd();
+
+    /**
+     * @return Index of the first character of the type, which is either a
+     *         logger or stdout/stderr.
+     */
+    int getTypeStart();
+
+}
@@ -0,0 +1,346 @@
+package com.github.triceo.splitlog.splitters;
+
+/**
+ * Recognizes starting lines of the JBossAS server.log format one character at
+ * a time, without regular expressions. Accepts exactly the lines that
+ * {@link JBossServerLogTailSplitter}'s regular expression does, and breaks
+ * them into the same parts:
+ *
+ * <pre>
+ * ^\s*(hh:mm:ss,mmm)\s+([A-Z]+)\s+\[(type)\]\s+(.+)\s*
+ * </pre>
+ *
+ * Whitespace is what <code>\s</code> matches, that is ASCII whitespace only;
+ * the body, like <code>.</code>, may contain no line terminators.
+ */
+final class JBossServerLogScanner implements JBossServerLogLine {
+
+    private static final int NO_MATCH = -1;
+
+    private static int digit(final String line, final int index) {
+        return line.charAt(index) - '0';
+    }
+
+    /**
+     * @return Index of the first line terminator at or after the given index,
+     *         or the length of the line.
+     */
+    private static int findBodyEnd(final String line, final int from) {
+        final int length = line.length();
+        int i = from;
+        while ((i < length) && !JBossServerLogScanner.isLineTerminator(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Find where the body starts, backtracking the same way as
+     * <code>\s+(.+)\s*</code> would.
+     *
+     * @param line
+     *            Line to scan.
+     * @param from
+     *            Index right after the closing bracket of the type.
+     * @return Index of the first character of the body, or
+     *         {@link #NO_MATCH}.
+     */
+    private static int findBodyStart(final String line, final int from) {
+        final int whitespaceEnd = JBossServerLogScanner.skipWhitespace(line, from);
+        // the longest whitespace is tried first, then it gives back one character at a time
+        for (int bodyStart = whitespaceEnd; bodyStart > from; bodyStart--) {
+            final int bodyEnd = JBossServerLogScanner.findBodyEnd(line, bodyStart);
+            if ((bodyEnd > bodyStart) && (JBossServerLogScanner.skipWhitespace(line, bodyEnd) == line.length())) {
+                return bodyStart;
+            }
+        }
+        return JBossServerLogScanner.NO_MATCH;
+    }
+
+    private static boolean isDigit(final char c) {
+        return (c >= '0') && (c <= '9');
+    }
+
+    /**
+     * @return True for what <code>.</code> does not match.
+     */
+    private static boolean isLineTerminator(final char c) {
+        return (c == '\n') || (c == '\r') || (c == '\u0085') || (c == '\u2028') || (c == '\u2029');
+    }
+
+    /**
+     * @return True if the two characters at the index match
+     *         <code>[0-5][0-9]</code>.
+     */
+    private static boolean isSexagesimal(final String line, final int index) {
+        final char tens = line.charAt(index);
+        return (tens >= '0') && (tens <= '5') && JBossServerLogScanner.isDigit(line.charAt(index + 1));
+    }
+
+    /**
+     * Recognize a starting line without breaking it into parts.
+     *
+     * @param line
+     *            Line to scan.
+     * @return True if the line is a starting line.
+     */
+    public static boolean isStartingLine(final String line) {
+        final int dateStart = JBossServerLogScanner.skipWhitespace(line, 0);
+        final int dateEnd = JBossServerLogScanner.scanDate(line, dateStart);
+        if (dateEnd == JBossServerLogScanner.NO_MATCH) {
+            return false;
+        }
+        final int severityEnd = JBossServerLogScanner.scanSeverity(line, dateEnd);
+        if (severityEnd == JBossServerLogScanner.NO_MATCH) {
+            return false;
+        }
+        final int typeEnd = JBossServerLogScanner.scanType(line, JBossServerLogScanner.skipWhitespace(line,
+                severityEnd) + 1);
+        if (typeEnd == JBossServerLogScanner.NO_MATCH) {
+            return false;
+        }
+        return JBossServerLogScanner.findBodyStart(line, typeEnd + 1) != JBossServerLogScanner.NO_MATCH;
+    }
+
+    private static boolean isTypeCharacter(final char c) {
+        return JBossServerLogScanner.isTypeFirstCharacter(c) || JBossServerLogScanner.isDigit(c);
+    }
+
+    private static boolean isTypeFirstCharacter(final char c) {
+        return ((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')) || (c == '_') || (c == '$');
+    }
+
+    /**
+     * @return True for what <code>\s</code> matches.
+     */
+    private static boolean isWhitespace(final char c) {
+        return (c == ' ') || (c == '\t') || (c == '\n') || (c == '\u000B') || (c == '\f') || (c == '\r');
+    }
+
+    /**
+     * Break a starting line into its parts.
+     *
+     * @param line
+     *            Line to scan.
+     * @return Null if the line is not a starting line.
+     */
+    public static JBossServerLogScanner scan(final String line) {
+        final int dateStart = JBossServerLogScanner.skipWhitespace(line, 0);
+        final int dateEnd = JBossServerLogScanner.scanDate(line, dateStart);
+        if (dateEnd == JBossServerLogScanner.NO_MATCH) {
+            return null;
+        }
+        final int severityEnd = JBossServerLogScanner.scanSeverity(line, dateEnd);
+        if (severityEnd == JBossServerLogScanner.NO_MATCH) {
+            return null;
+        }
+        final int typeStart = JBossServerLogScanner.skipWhitespace(line, severityEnd) + 1;
+        final int typeEnd = JBossServerLogScanner.scanType(line, typeStart);
+        if (typeEnd == JBossServerLogScanner.NO_MATCH) {
+            return null;
+        }
+        final int bodyStart = JBossServerLogScanner.findBodyStart(line, typeEnd + 1);
+        if (bodyStart == JBossServerLogScanner.NO_MATCH) {
+            return null;
+        }
+        // hours have either one or two digits, the rest of the date is fixed
+        final int hoursLength = dateEnd - dateStart - 10;
+        final int hours = (hoursLength == 1) ? JBossServerLogScanner.digit(line, dateStart)
+                : (JBossServerLogScanner.digit(line, dateStart) * 10)
+                        + JBossServerLogScanner.digit(line, dateStart + 1);
+        final int minutesStart = dateStart + hoursLength + 1;
+        return new JBossServerLogScanner(line, hours, minutesStart, severityEnd, typeStart, typeEnd, bodyStart,
+                JBossServerLogScanner.findBodyEnd(line, bodyStart));
+    }
+
+    /**
+     * Scan <code>(([01]?[0-9])|(2[0-3])):([0-5][0-9]):([0-5][0-9]),([0-9]{3})</code>.
+     *
+     * @return Index right after the date, or {@link #NO_MATCH}.
+     */
+    private static int scanDate(final String line, final int from) {
+        final int length = line.length();
+        if ((from + 1) >= length) {
+            return JBossServerLogScanner.NO_MATCH;
+        }
+        final char first = line.charAt(from);
+        final char second = line.charAt(from + 1);
+        if (!JBossServerLogScanner.isDigit(first)) {
+            return JBossServerLogScanner.NO_MATCH;
+        }
+        int i;
+        if (second == ':') {
+            i = from + 1;
+        } else if (JBossServerLogScanner.isDigit(second) && ((first <= '1') || ((first == '2') && (second <= '3')))) {
+            i = from + 2;
+        } else {
+            return JBossServerLogScanner.NO_MATCH;
+        }
+        // i points to the colon after hours; ":mm:ss,mmm" follows
+        if ((i + 10) > length) {
+            return JBossServerLogScanner.NO_MATCH;
+        }
+        if ((line.charAt(i) != ':') || !JBossServerLogScanner.isSexagesimal(line, i + 1) || (line.charAt(i + 3) != ':')
+                || !JBossServerLogScanner.isSexagesimal(line, i + 4) || (line.charAt(i + 6) != ',')
+                || !JBossServerLogScanner.isDigit(line.charAt(i + 7))
+                || !JBossServerLogScanner.isDigit(line.charAt(i + 8))
+                || !JBossServerLogScanner.isDigit(line.charAt(i + 9))) {
+            return JBossServerLogScanner.NO_MATCH;
+        }
+        return i + 10;
+    }
+
+    /**
+     * Scan <code>\s+([A-Z]+)\s+\[</code>.
+     *
+     * @return Index right after the severity, or {@link #NO_MATCH}.
+     */
+    private static int scanSeverity(final String line, final int from) {
+        final int length = line.length();
+        final int severityStart = JBossServerLogScanner.skipWhitespace(line, from);
+        if (severityStart == from) {
+            return JBossServerLogScanner.NO_MATCH;
+        }
+        int severityEnd = severityStart;
+        while ((severityEnd < length) && (line.charAt(severityEnd) >= 'A') && (line.charAt(severityEnd) <= 'Z')) {
+            severityEnd++;
+        }
+        if (severityEnd == severityStart) {
+            return JBossServerLogScanner.NO_MATCH;
+        }
+        final int bracket = JBossServerLogScanner.skipWhitespace(line, severityEnd);
+        if ((bracket == severityEnd) || (bracket == length) || (line.charAt(bracket) != '[')) {
+            return JBossServerLogScanner.NO_MATCH;
+        }
+        return severityEnd;
+    }
+
+    /**
+     * Scan <code>([a-zA-Z_$][a-zA-Z\d_$]*\.)*[a-zA-Z_$][a-zA-Z\d_$]+\]</code>.
+     *
+     * @return Index of the closing bracket, or {@link #NO_MATCH}.
+     */
+    private static int scanType(final String line, final int from) {
+        final int length = line.length();
+        int i = from;
+        while (true) {
+            // one segment of a class name
+            final int segmentStart = i;
+            if ((i == length) || !JBossServerLogScanner.isTypeFirstCharacter(line.charAt(i))) {
+                return JBossServerLogScanner.NO_MATCH;
+            }
+            i++;
+            while ((i < length) && JBossServerLogScanner.isTypeCharacter(line.charAt(i))) {
+                i++;
+            }
+            if (i == length) {
+                return JBossServerLogScanner.NO_MATCH;
+            }
+            final char c = line.charAt(i);
+            if (c == '.') {
+                i++;
+            } else if ((c == ']') && ((i - segmentStart) > 1)) {
+                // the last segment must have at least two characters
+                return i;
+            } else {
+                return JBossServerLogScanner.NO_MATCH;
+            }
+        }
+    }
+
+    /**
+     * @return Index of the first character that is not whitespace, at or
+     *         after the given index, or the length of the line.
+     */
+    private static int skipWhitespace(final String line, final int from) {
+        final int length = line.length();
+        int i = from;
+        while ((i < length) && JBossServerLogScanner.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private final int bodyEnd;
+    private final int bodyStart;
+    private final int hours;
+    private final String line;
+    private final int minutesStart;
+    private final int severityEnd;
+    private final int typeEnd;
+    private final int typeStart;
+
+    private JBossServerLogScanner(final String line, final int hours, final int minutesStart, final int severityEnd,
+        final int typeStart, final int typeEnd, final int bodyStart, final int bodyEnd) {
+        this.line = line;
+        this.hours = hours;
+        this.minutesStart = minutesStart;
+        this.severityEnd = severityEnd;
+        this.typeStart = typeStart;
+        this.typeEnd = typeEnd;
+        this.bodyStart = bodyStart;
+        this.bodyEnd = bodyEnd;
+    }
+
+    @Override
+    public int getBodyEnd() {
+        return this.bodyEnd;
+    }
+
+    @Override
+    public int getBodyStart() {
+        return this.bodyStart;
+    }
+
+    @Override
+    public int getHours() {
+        return this.hours;
+    }
+
+    @Override
+    public String getLine() {
+        return this.line;
+    }
+
+    @Override
+    public int getMillis() {
+        final int millisStart = this.minutesStart + 6;
+        return (JBossServerLogScanner.digit(this.line, millisStart) * 100)
+                + (JBossServerLogScanner.digit(this.line, millisStart + 1) * 10)
+                + JBossServerLogScanner.digit(this.line, millisStart + 2);
+    }
+
+    @Override
+    public int getMinutes() {
+        return (JBossServerLogScanner.digit(this.line, this.minutesStart) * 10)
+                + JBossServerLogScanner.digit(this.line, this.minutesStart + 1);
+    }
+
+    @Override
+    public int getSeconds() {
+        final int secondsStart = this.minutesStart + 3;
+        return (JBossServerLogScanner.digit(this.line, secondsStart) * 10)
+                + JBossServerLogScanner.digit(this.line, secondsStart + 1);
+    }
+
+    @Override
+    public int getSeverityEnd() {
+        return this.severityEnd;
+    }
+
+    @Override
+    public int getSeverityStart() {
+        return JBossServerLogScanner.skipWhitespace(this.line, this.minutesStart + 9);
+    }
+
+    @Override
+    public int getTypeEnd() {
+        return this.typeEnd;
+    }
+
+    @Override
+    public int getTypeStart() {
+        return this.typeStart;
+    }
+
+}
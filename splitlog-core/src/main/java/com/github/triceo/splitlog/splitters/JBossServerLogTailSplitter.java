@@ -1,20 +1,95 @@
 package com.github.triceo.splitlog.splitters;
 
-import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.github.triceo.splitlog.api.MessageMetadata;
 import com.github.triceo.splitlog.api.MessageSeverity;
 import com.github.triceo.splitlog.api.MessageType;
 
 /**
  * Provides a tail splitter capable of understanding the JBossAS server.log
  * format, specifically the severities and message types.
+ *
+ * By default, lines are recognized by a scanner that reads them one character
+ * at a time; the regular expression that it stands in for can still be
+ * selected, see {@link #JBossServerLogTailSplitter(boolean)}. Both accept the
+ * same lines and produce the same metadata.
  */
 final public class JBossServerLogTailSplitter extends AbstractTailSplitter {
 
+    /**
+     * Parts of a line, as matched by {@link JBossServerLogTailSplitter#pattern}.
+     */
+    private static final class RegexLine implements JBossServerLogLine {
+
+        private final String line;
+        private final Matcher m;
+
+        public RegexLine(final String line, final Matcher m) {
+            this.line = line;
+            this.m = m;
+        }
+
+        @Override
+        public int getBodyEnd() {
+            return this.m.end(JBossServerLogTailSplitter.BODY);
+        }
+
+        @Override
+        public int getBodyStart() {
+            return this.m.start(JBossServerLogTailSplitter.BODY);
+        }
+
+        @Override
+        public int getHours() {
+            return Integer.parseInt(this.m.group(JBossServerLogTailSplitter.HOURS));
+        }
+
+        @Override
+        public String getLine() {
+            return this.line;
+        }
+
+        @Override
+        public int getMillis() {
+            return Integer.parseInt(this.m.group(JBossServerLogTailSplitter.MILLIS));
+        }
+
+        @Override
+        public int getMinutes() {
+            return Integer.parseInt(this.m.group(JBossServerLogTailSplitter.MINUTES));
+        }
+
+        @Override
+        public int getSeconds() {
+            return Integer.parseInt(this.m.group(JBossServerLogTailSplitter.SECONDS));
+        }
+
+        @Override
+        public int getSeverityEnd() {
+            return this.m.end(JBossServerLogTailSplitter.SEVERITY);
+        }
+
+        @Override
+        public int getSeverityStart() {
+            return this.m.start(JBossServerLogTailSplitter.SEVERITY);
+        }
+
+        @Override
+        public int getTypeEnd() {
+            return this.m.end(JBossServerLogTailSplitter.TYPE);
+        }
+
+        @Override
+        public int getTypeStart() {
+            return this.m.start(JBossServerLogTailSplitter.TYPE);
+        }
+
+    }
+
     private static final int BODY = 11;
     // hh:mm:ss,mmm
     private static final String DATE_SUBPATTERN = "(([01]?[0-9])|(2[0-3])):([0-5][0-9]):([0-5][0-9]),([0-9][0-9][0-9])";
@@ -28,101 +103,226 @@ final public class JBossServerLogTailSplitter extends AbstractTailSplitter {
     private static final int TYPE = 9;
     // will match fully qualified Java class names, or stderr, stdout etc.
     private static final String TYPE_SUBPATTERN = "([a-zA-Z_$][a-zA-Z\\d_$]*\\.)*[a-zA-Z_$][a-zA-Z\\d_$]+";
+
+    private static String determineLogger(final JBossServerLogLine line) {
+        if (JBossServerLogTailSplitter.determineType(line) == MessageType.LOG) {
+            return line.getLine().substring(line.getTypeStart(), line.getTypeEnd());
+        } else {
+            return null;
+        }
+    }
+
+    private static MessageSeverity determineSeverity(final JBossServerLogLine line) {
+        return AbstractTailSplitter.toSeverity(line.getLine(), line.getSeverityStart(), line.getSeverityEnd());
+    }
+
+    private static MessageType determineType(final JBossServerLogLine line) {
+        final int start = line.getTypeStart();
+        if ((line.getTypeEnd() - start) != 6) {
+            return MessageType.LOG;
+        } else if (line.getLine().startsWith("stderr", start)) {
+            return MessageType.STDERR;
+        } else if (line.getLine().startsWith("stdout", start)) {
+            return MessageType.STDOUT;
+        } else {
+            return MessageType.LOG;
+        }
+    }
+
+    /**
+     * Find the body of a starting line the same way as
+     * {@link #stripOfMetadata(String)}.
+     *
+     * @param line
+     *            Starting line.
+     */
+    private static void findBody(final JBossServerLogLine line, final int[] bodyStarts, final int[] bodyEnds,
+        final int index) {
+        JBossServerLogTailSplitter.trim(line.getLine(), line.getBodyStart(), line.getBodyEnd(), bodyStarts, bodyEnds,
+                index);
+        if (JBossServerLogTailSplitter.determineType(line) != MessageType.LOG) {
+            return;
+        }
+        // the type is kept, separated by a single space, which only a part of the line will match
+        final int typeEnd = line.getTypeEnd();
+        if ((bodyStarts[index] == (typeEnd + 2)) && line.getLine().startsWith("] ", typeEnd)) {
+            bodyStarts[index] = line.getTypeStart() - 1;
+        } else {
+            bodyStarts[index] = MessageMetadata.UNKNOWN_OFFSET;
+            bodyEnds[index] = MessageMetadata.UNKNOWN_OFFSET;
+        }
+    }
+
+    /**
+     * Store the bounds of a part of the line, as {@link String#trim()} would
+     * leave them.
+     */
+    private static void trim(final String line, final int start, final int end, final int[] bodyStarts,
+        final int[] bodyEnds, final int index) {
+        int bodyStart = start;
+        int bodyEnd = end;
+        while ((bodyStart < bodyEnd) && (line.charAt(bodyStart) <= ' ')) {
+            bodyStart++;
+        }
+        while ((bodyStart < bodyEnd) && (line.charAt(bodyEnd - 1) <= ' ')) {
+            bodyEnd--;
+        }
+        bodyStarts[index] = bodyStart;
+        bodyEnds[index] = bodyEnd;
+    }
+
+    private final TimestampDecoder decoder = new TimestampDecoder();
     private final Pattern pattern = Pattern.compile("^\\s*(" + JBossServerLogTailSplitter.DATE_SUBPATTERN + ")\\s+("
             + JBossServerLogTailSplitter.SEVERITY_SUBPATTERN + ")\\s+\\[(" + JBossServerLogTailSplitter.TYPE_SUBPATTERN
             + ")\\]\\s+(.+)\\s*");
+    private final boolean usingRegex;
+
+    public JBossServerLogTailSplitter() {
+        this(false);
+    }
+
+    /**
+     * @param usingRegex
+     *            True to recognize lines with a regular expression, false to
+     *            use the faster scanner.
+     */
+    public JBossServerLogTailSplitter(final boolean usingRegex) {
+        this.usingRegex = usingRegex;
+    }
 
     @Override
     public Date determineDate(final List<String> raw) {
-        final Matcher m = this.pattern.matcher(raw.get(0));
-        m.matches();
-        final String hours = m.group(JBossServerLogTailSplitter.HOURS);
-        final String minutes = m.group(JBossServerLogTailSplitter.MINUTES);
-        final String seconds = m.group(JBossServerLogTailSplitter.SECONDS);
-        final String millis = m.group(JBossServerLogTailSplitter.MILLIS);
-        final Calendar c = Calendar.getInstance();
-        c.set(Calendar.HOUR_OF_DAY, Integer.parseInt(hours));
-        c.set(Calendar.MINUTE, Integer.parseInt(minutes));
-        c.set(Calendar.SECOND, Integer.parseInt(seconds));
-        c.set(Calendar.MILLISECOND, Integer.parseInt(millis));
-        return c.getTime();
+        return new Date(this.determineTimestamp(this.scanFirstLine(raw), System.currentTimeMillis()));
     }
 
     @Override
     public String determineLogger(final List<String> raw) {
-        return this.determineLogger(raw.get(0));
-    }
-
-    private String determineLogger(final CharSequence line) {
-        final Matcher m = this.pattern.matcher(line);
-        m.matches();
-        final String type = m.group(JBossServerLogTailSplitter.TYPE);
-        if (type.equals("stderr") || type.equals("stdout")) {
-            return null;
-        } else {
-            return type;
-        }
+        return JBossServerLogTailSplitter.determineLogger(this.scanFirstLine(raw));
     }
 
     @Override
     public MessageSeverity determineSeverity(final List<String> raw) {
-        final Matcher m = this.pattern.matcher(raw.get(0));
-        m.matches();
-        final String severity = m.group(JBossServerLogTailSplitter.SEVERITY);
-        switch (severity) {
-            case "INFO":
-                return MessageSeverity.INFO;
-            case "DEBUG":
-                return MessageSeverity.DEBUG;
-            case "WARN":
-                return MessageSeverity.WARNING;
-            case "ERROR":
-                return MessageSeverity.ERROR;
-            case "TRACE":
-                return MessageSeverity.TRACE;
-            default:
-                return MessageSeverity.UNKNOWN;
-        }
+        return JBossServerLogTailSplitter.determineSeverity(this.scanFirstLine(raw));
+    }
+
+    /**
+     * @param reference
+     *            When the line was read; the log only has the time of day.
+     */
+    private long determineTimestamp(final JBossServerLogLine line, final long reference) {
+        return this.decoder.decode(reference, line.getHours(), line.getMinutes(), line.getSeconds(),
+                line.getMillis());
     }
 
     @Override
     public MessageType determineType(final List<String> raw) {
-        return this.determineType(raw.get(0));
+        return JBossServerLogTailSplitter.determineType(this.scanFirstLine(raw));
     }
 
-    private MessageType determineType(final CharSequence line) {
-        final Matcher m = this.pattern.matcher(line);
-        m.matches();
-        final String type = m.group(JBossServerLogTailSplitter.TYPE);
-        switch (type) {
-            case "stderr":
-                return MessageType.STDERR;
-            case "stdout":
-                return MessageType.STDOUT;
-            default:
-                return MessageType.LOG;
+    /**
+     * Find the bodies of the lines, starting with the given one.
+     */
+    private void findBodies(final List<String> raw, final int from, final int[] bodyStarts, final int[] bodyEnds) {
+        final int lineCount = raw.size();
+        for (int i = from; i < lineCount; i++) {
+            final String line = raw.get(i);
+            final JBossServerLogLine scanned = this.scan(line);
+            if (scanned == null) {
+                JBossServerLogTailSplitter.trim(line, 0, line.length(), bodyStarts, bodyEnds, i);
+            } else {
+                JBossServerLogTailSplitter.findBody(scanned, bodyStarts, bodyEnds, i);
+            }
         }
     }
 
     @Override
     public boolean isStartingLine(final String line) {
-        return this.pattern.matcher(line).matches();
+        if (this.usingRegex) {
+            return this.pattern.matcher(line).matches();
+        } else {
+            return JBossServerLogScanner.isStartingLine(line);
+        }
+    }
+
+    public boolean isUsingRegex() {
+        return this.usingRegex;
     }
 
+    /**
+     * Scans every line once. For the first line, that is where all the
+     * metadata comes from; for all the lines, that is where their bodies are
+     * found. See {@link #stripOfMetadata(String)} for what the body is.
+     */
     @Override
-    public String stripOfMetadata(final String line) {
-        if (this.isStartingLine(line)) {
+    public MessageMetadata parse(final List<String> raw) {
+        return this.parse(raw, System.currentTimeMillis());
+    }
+
+    @Override
+    public MessageMetadata parse(final List<String> raw, final long readTimestamp) {
+        return this.parse(raw, readTimestamp, 0, null);
+    }
+
+    /**
+     * Scans only the lines that were not there before, as the metadata comes
+     * from the first line.
+     */
+    @Override
+    public MessageMetadata parse(final List<String> raw, final long readTimestamp, final int previousLineCount,
+        final MessageMetadata previous) {
+        final int lineCount = raw.size();
+        final int[] bodyStarts = new int[lineCount];
+        final int[] bodyEnds = new int[lineCount];
+        if (AbstractTailSplitter.copyBodies(previous, previousLineCount, bodyStarts, bodyEnds)) {
+            this.findBodies(raw, previousLineCount, bodyStarts, bodyEnds);
+            return new MessageMetadata(previous.getTimestamp(), previous.getLogger(), previous.getSeverity(),
+                    previous.getType(), bodyStarts, bodyEnds);
+        }
+        final JBossServerLogLine first = this.scanFirstLine(raw);
+        JBossServerLogTailSplitter.findBody(first, bodyStarts, bodyEnds, 0);
+        this.findBodies(raw, 1, bodyStarts, bodyEnds);
+        return new MessageMetadata(this.determineTimestamp(first, readTimestamp),
+                JBossServerLogTailSplitter.determineLogger(first), JBossServerLogTailSplitter.determineSeverity(first),
+                JBossServerLogTailSplitter.determineType(first), bodyStarts, bodyEnds);
+    }
+
+    /**
+     * @return Null if not a starting line.
+     */
+    private JBossServerLogLine scan(final String line) {
+        if (this.usingRegex) {
             final Matcher m = this.pattern.matcher(line);
-            m.matches();
-            if (this.determineType(line) == MessageType.LOG) {
-                return "[" + m.group(JBossServerLogTailSplitter.TYPE) + "] "
-                        + m.group(JBossServerLogTailSplitter.BODY).trim();
-            } else {
-                return m.group(JBossServerLogTailSplitter.BODY).trim();
-            }
+            return m.matches() ? new RegexLine(line, m) : null;
         } else {
+            return JBossServerLogScanner.scan(line);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException
+     *             When the message does not start with a starting line.
+     */
+    private JBossServerLogLine scanFirstLine(final List<String> raw) {
+        final String line = raw.get(0);
+        final JBossServerLogLine scanned = this.scan(line);
+        if (scanned == null) {
+            throw new IllegalStateException("Message does not start with a starting line: " + line);
+        }
+        return scanned;
+    }
+
+    @Override
+    public String stripOfMetadata(final String line) {
+        final JBossServerLogLine scanned = this.scan(line);
+        if (scanned == null) {
             return line.trim();
         }
+        final String body = line.substring(scanned.getBodyStart(), scanned.getBodyEnd()).trim();
+        if (JBossServerLogTailSplitter.determineType(scanned) == MessageType.LOG) {
+            return "[" + line.substring(scanned.getTypeStart(), scanned.getTypeEnd()) + "] " + body;
+        } else {
+            return body;
+        }
     }
 
 }
@@ -0,0 +1,725 @@
+package com.github.triceo.splitlog.splitters;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Logging pattern layout, in the syntax of Logback's and Log4j's
+ * PatternLayout, compiled into a sequence of elements that recognize the
+ * lines it produces one character at a time.
+ *
+ * Supports literal text and the following conversions:
+ *
+ * <dl>
+ * <dt><code>%d</code>, <code>%date</code></dt>
+ * <dd>With an optional date pattern made of <code>yyyy</code>,
+ * <code>MM</code>, <code>MMM</code> (English), <code>dd</code>,
+ * <code>HH</code>, <code>mm</code>, <code>ss</code>, <code>SSS</code> and
+ * literal text; or one of <code>ISO8601</code> (the default),
+ * <code>ABSOLUTE</code> and <code>DATE</code>. Optionally followed by a time
+ * zone, such as <code>%d{"HH:mm:ss,SSS", UTC}</code>.</dd>
+ * <dt><code>%p</code>, <code>%le</code>, <code>%level</code></dt>
+ * <dd>Severity.</dd>
+ * <dt><code>%c</code>, <code>%lo</code>, <code>%logger</code></dt>
+ * <dd>Logger.</dd>
+ * <dt><code>%m</code>, <code>%msg</code>, <code>%message</code></dt>
+ * <dd>The information being logged.</dd>
+ * <dt><code>%n</code> and the exception conversions</dt>
+ * <dd>Ignored, as they produce no text on the line itself.</dd>
+ * </dl>
+ *
+ * Any other conversion, such as <code>%thread</code>, matches any text. Since
+ * the length of such text is not known up front, every conversion other than
+ * the date must be followed by literal text, or be the last one. Format
+ * modifiers, such as in <code>%-5level</code>, are supported; padding is
+ * ignored. Composite conversions, such as <code>%highlight(...)</code>, are
+ * not supported.
+ */
+final class PatternLayout {
+
+    /**
+     * Matches literal text.
+     */
+    private static final class Literal implements Element {
+
+        private final String text;
+
+        public Literal(final String text) {
+            this.text = text;
+        }
+
+        @Override
+        public boolean isSelfDelimiting() {
+            return true;
+        }
+
+        @Override
+        public int scan(final String line, final int from, final int end, final ScannedLine into) {
+            return line.startsWith(this.text, from) ? from + this.text.length() : PatternLayout.NO_MATCH;
+        }
+
+    }
+
+    /**
+     * Matches any text up to where the literal text that follows starts.
+     */
+    private static final class Field implements Element {
+
+        private final FieldKind kind;
+        private final boolean padded;
+
+        public Field(final FieldKind kind, final boolean padded) {
+            this.kind = kind;
+            this.padded = padded;
+        }
+
+        @Override
+        public boolean isSelfDelimiting() {
+            return false;
+        }
+
+        @Override
+        public int scan(final String line, final int from, final int end, final ScannedLine into) {
+            int start = from;
+            int stop = end;
+            if (this.padded) {
+                while ((start < stop) && (line.charAt(start) == ' ')) {
+                    start++;
+                }
+                while ((stop > start) && (line.charAt(stop - 1) == ' ')) {
+                    stop--;
+                }
+            }
+            switch (this.kind) {
+                case LEVEL:
+                    if (start == stop) {
+                        return PatternLayout.NO_MATCH;
+                    } else if (into != null) {
+                        into.levelStart = start;
+                        into.levelEnd = stop;
+                    }
+                    break;
+                case LOGGER:
+                    if (start == stop) {
+                        return PatternLayout.NO_MATCH;
+                    } else if (into != null) {
+                        into.loggerStart = start;
+                        into.loggerEnd = stop;
+                    }
+                    break;
+                case MESSAGE:
+                    if (into != null) {
+                        into.bodyStart = start;
+                        into.bodyEnd = stop;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return end;
+        }
+
+    }
+
+    /**
+     * Matches a date of a given pattern.
+     */
+    private static final class DateElement implements Element {
+
+        private final DateField[] fields;
+        private final boolean hasDate;
+        private final String[] literals;
+
+        /**
+         * @param fields
+         *            Fields of the date in the order that they appear in. Null
+         *            where the date has literal text.
+         * @param literals
+         *            Literal text, where fields are null.
+         */
+        public DateElement(final DateField[] fields, final String[] literals) {
+            this.fields = fields;
+            this.literals = literals;
+            this.hasDate = Arrays.asList(fields).contains(DateField.DAY);
+        }
+
+        @Override
+        public boolean isSelfDelimiting() {
+            return true;
+        }
+
+        @Override
+        public int scan(final String line, final int from, final int end, final ScannedLine into) {
+            final int length = line.length();
+            int i = from;
+            int year = 0, month = 1, day = 1;
+            for (int f = 0; f < this.fields.length; f++) {
+                final DateField field = this.fields[f];
+                if (field == null) {
+                    final String literal = this.literals[f];
+                    if (!line.startsWith(literal, i)) {
+                        return PatternLayout.NO_MATCH;
+                    }
+                    i += literal.length();
+                    continue;
+                }
+                final int fieldEnd = i + field.width;
+                if (fieldEnd > length) {
+                    return PatternLayout.NO_MATCH;
+                }
+                final int value = (field == DateField.MONTH_NAME) ? PatternLayout.monthOf(line, i) : PatternLayout
+                        .digits(line, i, fieldEnd);
+                if ((value < field.min) || (value > field.max)) {
+                    return PatternLayout.NO_MATCH;
+                }
+                i = fieldEnd;
+                switch (field) {
+                    case YEAR:
+                        year = value;
+                        break;
+                    case MONTH:
+                    case MONTH_NAME:
+                        month = value;
+                        break;
+                    case DAY:
+                        day = value;
+                        break;
+                    default:
+                        if (into != null) {
+                            into.setTime(field, value);
+                        }
+                }
+            }
+            if (this.hasDate) {
+                if (day > PatternLayout.lengthOfMonth(year, month)) {
+                    return PatternLayout.NO_MATCH;
+                } else if (into != null) {
+                    into.year = year;
+                    into.month = month;
+                    into.day = day;
+                }
+            }
+            return i;
+        }
+
+    }
+
+    private enum DateField {
+
+        DAY(2, 1, 31), HOURS(2, 0, 23), MILLIS(3, 0, 999), MINUTES(2, 0, 59), MONTH(2, 1, 12), MONTH_NAME(3, 1, 12),
+        SECONDS(2, 0, 59), YEAR(4, 0, 9999);
+
+        private final int max;
+        private final int min;
+        private final int width;
+
+        DateField(final int width, final int min, final int max) {
+            this.width = width;
+            this.min = min;
+            this.max = max;
+        }
+
+    }
+
+    /**
+     * Part of the layout.
+     */
+    private interface Element {
+
+        /**
+         * @return True if the element knows where the text it matches ends,
+         *         false if it must be told by the literal text that follows.
+         */
+        boolean isSelfDelimiting();
+
+        /**
+         * @param line
+         *            Line to scan.
+         * @param from
+         *            Where the element starts.
+         * @param end
+         *            Where the element ends, if not
+         *            {@link #isSelfDelimiting()}.
+         * @param into
+         *            Where to record the parts of the line, null if not
+         *            needed.
+         * @return Index right after the element, or {@link #NO_MATCH}.
+         */
+        int scan(String line, int from, int end, ScannedLine into);
+
+    }
+
+    private enum FieldKind {
+        LEVEL, LOGGER, MESSAGE, OTHER
+    }
+
+    /**
+     * Parts of a line that the layout recognized. Indexes are -1 when the
+     * layout does not have the part.
+     */
+    static final class ScannedLine {
+
+        int bodyEnd = -1;
+        int bodyStart = -1;
+        int day;
+        int hours;
+        int levelEnd = -1;
+        int levelStart = -1;
+        int loggerEnd = -1;
+        int loggerStart = -1;
+        int millis;
+        int minutes;
+        int month;
+        int seconds;
+        int year;
+
+        private void setTime(final DateField field, final int value) {
+            switch (field) {
+                case HOURS:
+                    this.hours = value;
+                    break;
+                case MINUTES:
+                    this.minutes = value;
+                    break;
+                case SECONDS:
+                    this.seconds = value;
+                    break;
+                case MILLIS:
+                    this.millis = value;
+                    break;
+                default:
+                    throw new IllegalStateException("Not a time field: " + field);
+            }
+        }
+
+    }
+
+    private static final String MONTH_NAMES = "JanFebMarAprMayJunJulAugSepOctNovDec";
+    private static final int NO_MATCH = -1;
+
+    /**
+     * Compile a layout.
+     *
+     * @param layout
+     *            Such as <code>%d{ISO8601} %-5level [%thread] %logger - %msg%n</code>.
+     * @return Never null.
+     * @throws IllegalArgumentException
+     *             When the layout is empty, or uses what is not supported.
+     */
+    public static PatternLayout compile(final String layout) {
+        if ((layout == null) || layout.isEmpty()) {
+            throw new IllegalArgumentException("Layout must not be empty.");
+        }
+        return new PatternLayoutCompiler(layout).compile();
+    }
+
+    private static int digits(final String line, final int start, final int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            final char c = line.charAt(i);
+            if ((c < '0') || (c > '9')) {
+                return PatternLayout.NO_MATCH;
+            }
+            result = (result * 10) + (c - '0');
+        }
+        return result;
+    }
+
+    private static int lengthOfMonth(final int year, final int month) {
+        switch (month) {
+            case 2:
+                final boolean isLeap = ((year % 4) == 0) && (((year % 100) != 0) || ((year % 400) == 0));
+                return isLeap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * @return 1 to 12, or {@link #NO_MATCH} if there is no English month
+     *         abbreviation at the index.
+     */
+    private static int monthOf(final String line, final int index) {
+        for (int month = 0; month < 12; month++) {
+            if (line.regionMatches(index, PatternLayout.MONTH_NAMES, month * 3, 3)) {
+                return month + 1;
+            }
+        }
+        return PatternLayout.NO_MATCH;
+    }
+
+    private final Element[] elements;
+    private final boolean hasDate;
+    private final boolean hasLevel;
+    private final boolean hasLogger;
+    private final boolean hasMessage;
+    private final boolean hasTime;
+    private final String layout;
+    private final ZoneId zone;
+
+    private PatternLayout(final String layout, final List<Element> elements, final ZoneId zone) {
+        this.layout = layout;
+        this.elements = elements.toArray(new Element[elements.size()]);
+        this.zone = zone;
+        boolean hasDate = false, hasTime = false, hasLevel = false, hasLogger = false, hasMessage = false;
+        for (final Element element : this.elements) {
+            if (element instanceof DateElement) {
+                final List<DateField> fields = Arrays.asList(((DateElement) element).fields);
+                hasDate = fields.contains(DateField.DAY);
+                hasTime = fields.contains(DateField.HOURS);
+            } else if (element instanceof Field) {
+                final FieldKind kind = ((Field) element).kind;
+                hasLevel |= (kind == FieldKind.LEVEL);
+                hasLogger |= (kind == FieldKind.LOGGER);
+                hasMessage |= (kind == FieldKind.MESSAGE);
+            }
+        }
+        this.hasDate = hasDate;
+        this.hasTime = hasTime;
+        this.hasLevel = hasLevel;
+        this.hasLogger = hasLogger;
+        this.hasMessage = hasMessage;
+    }
+
+    public String getLayout() {
+        return this.layout;
+    }
+
+    /**
+     * @return Time zone given with the date, null if none.
+     */
+    public ZoneId getZone() {
+        return this.zone;
+    }
+
+    /**
+     * @return True if the lines include the year, the month and the day.
+     */
+    public boolean hasDate() {
+        return this.hasDate;
+    }
+
+    public boolean hasLevel() {
+        return this.hasLevel;
+    }
+
+    public boolean hasLogger() {
+        return this.hasLogger;
+    }
+
+    public boolean hasMessage() {
+        return this.hasMessage;
+    }
+
+    /**
+     * @return True if the lines include at least the hours.
+     */
+    public boolean hasTime() {
+        return this.hasTime;
+    }
+
+    /**
+     * Recognize a line produced by the layout.
+     *
+     * @param line
+     *            Line to scan.
+     * @param into
+     *            Where to record the parts of the line, null if not needed.
+     * @return True if the line was produced by the layout.
+     */
+    public boolean scan(final String line, final ScannedLine into) {
+        final int length = line.length();
+        final int elementCount = this.elements.length;
+        int position = 0;
+        for (int i = 0; i < elementCount; i++) {
+            final Element element = this.elements[i];
+            int end = length;
+            if (!element.isSelfDelimiting() && (i < (elementCount - 1))) {
+                // the compiler makes sure that literal text follows
+                end = line.indexOf(((Literal) this.elements[i + 1]).text, position);
+                if (end < 0) {
+                    return false;
+                }
+            }
+            position = element.scan(line, position, end, into);
+            if (position == PatternLayout.NO_MATCH) {
+                return false;
+            }
+        }
+        return position == length;
+    }
+
+    @Override
+    public String toString() {
+        return this.layout;
+    }
+
+    /**
+     * Turns the layout string into elements.
+     */
+    private static final class PatternLayoutCompiler {
+
+        private final List<Element> elements = new ArrayList<>();
+        private final String layout;
+        private final StringBuilder literal = new StringBuilder();
+        private int position = 0;
+        private ZoneId zone;
+
+        public PatternLayoutCompiler(final String layout) {
+            this.layout = layout;
+        }
+
+        private void add(final Element element) {
+            this.flushLiteral();
+            if (!this.elements.isEmpty()) {
+                final Element previous = this.elements.get(this.elements.size() - 1);
+                if (!previous.isSelfDelimiting()) {
+                    throw new IllegalArgumentException("Conversion at " + this.position + " in '" + this.layout
+                            + "' must be preceded by literal text, as the preceding one has no fixed length.");
+                }
+            }
+            this.elements.add(element);
+        }
+
+        public PatternLayout compile() {
+            final int length = this.layout.length();
+            while (this.position < length) {
+                final char c = this.layout.charAt(this.position);
+                if (c == '%') {
+                    this.position++;
+                    this.compileConversion();
+                } else if ((c == '\\') && ((this.position + 1) < length)) {
+                    this.literal.append(this.layout.charAt(this.position + 1));
+                    this.position += 2;
+                } else {
+                    this.literal.append(c);
+                    this.position++;
+                }
+            }
+            this.flushLiteral();
+            if (this.elements.isEmpty()) {
+                throw new IllegalArgumentException("Layout '" + this.layout + "' produces no text.");
+            }
+            return new PatternLayout(this.layout, this.elements, this.zone);
+        }
+
+        private void compileConversion() {
+            final int length = this.layout.length();
+            if ((this.position < length) && (this.layout.charAt(this.position) == '%')) {
+                this.literal.append('%');
+                this.position++;
+                return;
+            }
+            // format modifiers; only whether there is any padding matters
+            boolean padded = false;
+            while ((this.position < length) && ("-.0123456789".indexOf(this.layout.charAt(this.position)) >= 0)) {
+                padded |= Character.isDigit(this.layout.charAt(this.position));
+                this.position++;
+            }
+            final int wordStart = this.position;
+            while ((this.position < length) && Character.isLetter(this.layout.charAt(this.position))) {
+                this.position++;
+            }
+            final String word = this.layout.substring(wordStart, this.position);
+            if (word.isEmpty() || ((this.position < length) && (this.layout.charAt(this.position) == '('))) {
+                throw new IllegalArgumentException("Unsupported conversion at " + wordStart + " in '" + this.layout
+                        + "'.");
+            }
+            String option = null;
+            if ((this.position < length) && (this.layout.charAt(this.position) == '{')) {
+                final int optionEnd = this.layout.indexOf('}', this.position);
+                if (optionEnd < 0) {
+                    throw new IllegalArgumentException("Unterminated option at " + this.position + " in '"
+                            + this.layout + "'.");
+                }
+                option = this.layout.substring(this.position + 1, optionEnd);
+                this.position = optionEnd + 1;
+            }
+            switch (word) {
+                case "d":
+                case "date":
+                    this.add(this.compileDate(option));
+                    break;
+                case "p":
+                case "le":
+                case "level":
+                    this.add(new Field(FieldKind.LEVEL, padded));
+                    break;
+                case "c":
+                case "lo":
+                case "logger":
+                    this.add(new Field(FieldKind.LOGGER, padded));
+                    break;
+                case "m":
+                case "msg":
+                case "message":
+                    this.add(new Field(FieldKind.MESSAGE, padded));
+                    break;
+                case "n":
+                case "ex":
+                case "exception":
+                case "throwable":
+                case "xEx":
+                case "xException":
+                case "xThrowable":
+                case "rEx":
+                case "rootException":
+                case "nopex":
+                case "nopexception":
+                    // nothing on the line itself
+                    break;
+                default:
+                    this.add(new Field(FieldKind.OTHER, padded));
+            }
+        }
+
+        private DateElement compileDate(final String option) {
+            String pattern = (option == null) ? "ISO8601" : option.trim();
+            final int comma = PatternLayoutCompiler.findZoneSeparator(pattern);
+            if (comma >= 0) {
+                try {
+                    this.zone = ZoneId.of(pattern.substring(comma + 1).trim());
+                    pattern = pattern.substring(0, comma).trim();
+                } catch (final DateTimeException ex) {
+                    // not a time zone, but a part of the pattern
+                }
+            }
+            if ((pattern.length() > 1) && pattern.startsWith("\"") && pattern.endsWith("\"")) {
+                pattern = pattern.substring(1, pattern.length() - 1);
+            }
+            switch (pattern) {
+                case "ISO8601":
+                    pattern = "yyyy-MM-dd HH:mm:ss,SSS";
+                    break;
+                case "ABSOLUTE":
+                    pattern = "HH:mm:ss,SSS";
+                    break;
+                case "DATE":
+                    pattern = "dd MMM yyyy HH:mm:ss,SSS";
+                    break;
+                default:
+                    break;
+            }
+            return PatternLayoutCompiler.compileDatePattern(pattern);
+        }
+
+        private static DateElement compileDatePattern(final String pattern) {
+            final List<DateField> fields = new ArrayList<>();
+            final List<String> literals = new ArrayList<>();
+            final StringBuilder literal = new StringBuilder();
+            final int length = pattern.length();
+            int i = 0;
+            while (i < length) {
+                final char c = pattern.charAt(i);
+                if (c == '\'') {
+                    final int quoteEnd = pattern.indexOf('\'', i + 1);
+                    if (quoteEnd < 0) {
+                        throw new IllegalArgumentException("Unterminated quote in date pattern '" + pattern + "'.");
+                    }
+                    literal.append((quoteEnd == (i + 1)) ? "'" : pattern.substring(i + 1, quoteEnd));
+                    i = quoteEnd + 1;
+                } else if (((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z'))) {
+                    int runEnd = i;
+                    while ((runEnd < length) && (pattern.charAt(runEnd) == c)) {
+                        runEnd++;
+                    }
+                    final DateField field = PatternLayoutCompiler.toDateField(c, runEnd - i);
+                    if ((field == null) || fields.contains(field)
+                            || ((field == DateField.MONTH_NAME) && fields.contains(DateField.MONTH))
+                            || ((field == DateField.MONTH) && fields.contains(DateField.MONTH_NAME))) {
+                        throw new IllegalArgumentException("Unsupported '" + pattern.substring(i, runEnd)
+                                + "' in date pattern '" + pattern + "'.");
+                    }
+                    if (literal.length() > 0) {
+                        fields.add(null);
+                        literals.add(literal.toString());
+                        literal.setLength(0);
+                    }
+                    fields.add(field);
+                    literals.add(null);
+                    i = runEnd;
+                } else {
+                    literal.append(c);
+                    i++;
+                }
+            }
+            if (literal.length() > 0) {
+                fields.add(null);
+                literals.add(literal.toString());
+            }
+            final boolean hasYear = fields.contains(DateField.YEAR);
+            final boolean hasMonth = fields.contains(DateField.MONTH) || fields.contains(DateField.MONTH_NAME);
+            final boolean hasDay = fields.contains(DateField.DAY);
+            final boolean hasTime = fields.contains(DateField.MINUTES) || fields.contains(DateField.SECONDS)
+                    || fields.contains(DateField.MILLIS);
+            if ((hasYear != hasMonth) || (hasYear != hasDay)) {
+                throw new IllegalArgumentException("Date pattern '" + pattern
+                        + "' must have all of the year, the month and the day, or none.");
+            } else if (hasTime && !fields.contains(DateField.HOURS)) {
+                throw new IllegalArgumentException("Date pattern '" + pattern + "' must have the hours.");
+            } else if (!hasYear && !fields.contains(DateField.HOURS)) {
+                throw new IllegalArgumentException("Date pattern '" + pattern + "' has neither date nor time.");
+            }
+            return new DateElement(fields.toArray(new DateField[fields.size()]), literals.toArray(new String[literals
+                    .size()]));
+        }
+
+        /**
+         * @return Index of the comma that separates the time zone from the
+         *         pattern, or -1. Commas in double quotes do not count.
+         */
+        private static int findZoneSeparator(final String option) {
+            boolean isQuoted = false;
+            int separator = -1;
+            for (int i = 0; i < option.length(); i++) {
+                final char c = option.charAt(i);
+                if (c == '"') {
+                    isQuoted = !isQuoted;
+                } else if ((c == ',') && !isQuoted) {
+                    separator = i;
+                }
+            }
+            return separator;
+        }
+
+        private void flushLiteral() {
+            if (this.literal.length() == 0) {
+                return;
+            }
+            final Literal element = new Literal(this.literal.toString());
+            this.literal.setLength(0);
+            this.elements.add(element);
+        }
+
+        private static DateField toDateField(final char c, final int count) {
+            switch (c) {
+                case 'y':
+                    return (count == 4) ? DateField.YEAR : null;
+                case 'M':
+                    return (count == 2) ? DateField.MONTH : (count == 3) ? DateField.MONTH_NAME : null;
+                case 'd':
+                    return (count == 2) ? DateField.DAY : null;
+                case 'H':
+                    return (count == 2) ? DateField.HOURS : null;
+                case 'm':
+                    return (count == 2) ? DateField.MINUTES : null;
+                case 's':
+                    return (count == 2) ? DateField.SECONDS : null;
+                case 'S':
+                    return (count == 3) ? DateField.MILLIS : null;
+                default:
+                    return null;
+            }
+        }
+
+    }
+
+}
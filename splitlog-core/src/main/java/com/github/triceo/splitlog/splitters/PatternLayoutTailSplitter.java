@@ -0,0 +1,209 @@
+package com.github.triceo.splitlog.splitters;
+
+import java.time.Clock;
+import java.util.Date;
+import java.util.List;
+
+import com.github.triceo.splitlog.api.MessageMetadata;
+import com.github.triceo.splitlog.api.MessageSeverity;
+import com.github.triceo.splitlog.api.MessageType;
+
+/**
+ * Provides a tail splitter for logs written through a Logback or Log4j
+ * PatternLayout, such as <code>%d{ISO8601} %-5level [%thread] %logger - %msg%n</code>.
+ * See {@link #compile(String)}.
+ *
+ * The layout is compiled once into a scanner that reads the lines one
+ * character at a time, without regular expressions. A line is a starting line
+ * when the layout could have produced it in full; the body of such line is
+ * what <code>%msg</code> produced. Other lines, such as those of stack traces,
+ * are kept whole.
+ */
+final public class PatternLayoutTailSplitter extends AbstractTailSplitter {
+
+    /**
+     * Compile a layout into a splitter.
+     *
+     * @param layout
+     *            Layout of the log, in the syntax of Logback's PatternLayout.
+     *            Supports literal text, the date (<code>%d</code>), the
+     *            severity (<code>%level</code>), the logger (
+     *            <code>%logger</code>) and the message (<code>%msg</code>);
+     *            any other conversion matches any text. Every conversion
+     *            other than the date must be followed by literal text, or be
+     *            the last one.
+     * @return Splitter for the layout.
+     * @throws IllegalArgumentException
+     *             When the layout is empty or uses what is not supported, such
+     *             as composite conversions or unusual date patterns.
+     */
+    public static PatternLayoutTailSplitter compile(final String layout) {
+        return new PatternLayoutTailSplitter(PatternLayout.compile(layout));
+    }
+
+    private final TimestampDecoder decoder;
+    private final PatternLayout layout;
+
+    private PatternLayoutTailSplitter(final PatternLayout layout) {
+        this.layout = layout;
+        this.decoder = new TimestampDecoder(layout.getZone() == null ? Clock.systemDefaultZone() : Clock.system(layout
+                .getZone()));
+    }
+
+    @Override
+    public Date determineDate(final List<String> raw) {
+        final long timestamp = this.determineTimestamp(this.scanFirstLine(raw), System.currentTimeMillis());
+        return (timestamp == MessageMetadata.NO_TIMESTAMP) ? null : new Date(timestamp);
+    }
+
+    private String determineLogger(final PatternLayout.ScannedLine scanned, final String line) {
+        return this.layout.hasLogger() ? line.substring(scanned.loggerStart, scanned.loggerEnd) : null;
+    }
+
+    @Override
+    public String determineLogger(final List<String> raw) {
+        return this.determineLogger(this.scanFirstLine(raw), raw.get(0));
+    }
+
+    private MessageSeverity determineSeverity(final PatternLayout.ScannedLine scanned, final String line) {
+        if (this.layout.hasLevel()) {
+            return AbstractTailSplitter.toSeverity(line, scanned.levelStart, scanned.levelEnd);
+        } else {
+            return MessageSeverity.UNKNOWN;
+        }
+    }
+
+    @Override
+    public MessageSeverity determineSeverity(final List<String> raw) {
+        return this.determineSeverity(this.scanFirstLine(raw), raw.get(0));
+    }
+
+    /**
+     * @param reference
+     *            When the line was read, for when the layout only has the time
+     *            of day.
+     */
+    private long determineTimestamp(final PatternLayout.ScannedLine scanned, final long reference) {
+        if (this.layout.hasDate()) {
+            return this.decoder.decode(scanned.year, scanned.month, scanned.day, scanned.hours, scanned.minutes,
+                    scanned.seconds, scanned.millis);
+        } else if (this.layout.hasTime()) {
+            return this.decoder.decode(reference, scanned.hours, scanned.minutes, scanned.seconds, scanned.millis);
+        } else {
+            return MessageMetadata.NO_TIMESTAMP;
+        }
+    }
+
+    @Override
+    public MessageType determineType(final List<String> raw) {
+        return MessageType.LOG;
+    }
+
+    public String getLayout() {
+        return this.layout.getLayout();
+    }
+
+    @Override
+    public boolean isStartingLine(final String line) {
+        return this.layout.scan(line, null);
+    }
+
+    /**
+     * Scans every line once. For the first line, that is where all the
+     * metadata comes from; for all the lines, that is where their bodies are
+     * found. See {@link #stripOfMetadata(String)} for what the body is.
+     */
+    @Override
+    public MessageMetadata parse(final List<String> raw) {
+        return this.parse(raw, System.currentTimeMillis());
+    }
+
+    @Override
+    public MessageMetadata parse(final List<String> raw, final long readTimestamp) {
+        return this.parse(raw, readTimestamp, 0, null);
+    }
+
+    /**
+     * Scans only the lines that were not there before, as the metadata comes
+     * from the first line.
+     */
+    @Override
+    public MessageMetadata parse(final List<String> raw, final long readTimestamp, final int previousLineCount,
+        final MessageMetadata previous) {
+        final int lineCount = raw.size();
+        final int[] bodyStarts = new int[lineCount];
+        final int[] bodyEnds = new int[lineCount];
+        if (AbstractTailSplitter.copyBodies(previous, previousLineCount, bodyStarts, bodyEnds)) {
+            this.findBodies(raw, previousLineCount, bodyStarts, bodyEnds);
+            return new MessageMetadata(previous.getTimestamp(), previous.getLogger(), previous.getSeverity(),
+                    MessageType.LOG, bodyStarts, bodyEnds);
+        }
+        final String firstLine = raw.get(0);
+        final PatternLayout.ScannedLine first = this.scanFirstLine(raw);
+        this.findBody(first, firstLine, bodyStarts, bodyEnds, 0);
+        this.findBodies(raw, 1, bodyStarts, bodyEnds);
+        return new MessageMetadata(this.determineTimestamp(first, readTimestamp),
+                this.determineLogger(first, firstLine), this.determineSeverity(first, firstLine), MessageType.LOG,
+                bodyStarts, bodyEnds);
+    }
+
+    /**
+     * Find the bodies of the lines, starting with the given one.
+     */
+    private void findBodies(final List<String> raw, final int from, final int[] bodyStarts, final int[] bodyEnds) {
+        final int lineCount = raw.size();
+        final PatternLayout.ScannedLine scanned = new PatternLayout.ScannedLine();
+        for (int i = from; i < lineCount; i++) {
+            final String line = raw.get(i);
+            if (this.layout.scan(line, scanned)) {
+                this.findBody(scanned, line, bodyStarts, bodyEnds, i);
+            } else {
+                bodyEnds[i] = line.length();
+            }
+        }
+    }
+
+    private void findBody(final PatternLayout.ScannedLine scanned, final String line, final int[] bodyStarts,
+        final int[] bodyEnds, final int index) {
+        if (this.layout.hasMessage()) {
+            bodyStarts[index] = scanned.bodyStart;
+            bodyEnds[index] = scanned.bodyEnd;
+        } else {
+            bodyEnds[index] = line.length();
+        }
+    }
+
+    /**
+     * @throws IllegalStateException
+     *             When the message does not start with a starting line.
+     */
+    private PatternLayout.ScannedLine scanFirstLine(final List<String> raw) {
+        final String line = raw.get(0);
+        final PatternLayout.ScannedLine scanned = new PatternLayout.ScannedLine();
+        if (!this.layout.scan(line, scanned)) {
+            throw new IllegalStateException("Message does not start with a starting line: " + line);
+        }
+        return scanned;
+    }
+
+    @Override
+    public String stripOfMetadata(final String line) {
+        if (!this.layout.hasMessage()) {
+            return line;
+        }
+        final PatternLayout.ScannedLine scanned = new PatternLayout.ScannedLine();
+        if (this.layout.scan(line, scanned)) {
+            return line.substring(scanned.bodyStart, scanned.bodyEnd);
+        } else {
+            return line;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("PatternLayoutTailSplitter [layout=").append(this.layout).append("]");
+        return builder.toString();
+    }
+
+}
@@ -3,6 +3,7 @@ package com.github.triceo.splitlog.splitters;
 import java.util.Date;
 import java.util.List;
 
+import com.github.triceo.splitlog.api.MessageMetadata;
 import com.github.triceo.splitlog.api.MessageSeverity;
 import com.github.triceo.splitlog.api.MessageType;
 
@@ -33,6 +34,21 @@ final public class SimpleTailSplitter extends AbstractTailSplitter {
         return true;
     }
 
+    /**
+     * Lines have no metadata, therefore their bodies are the whole lines.
+     */
+    @Override
+    public MessageMetadata parse(final List<String> raw) {
+        final int lineCount = raw.size();
+        final int[] bodyStarts = new int[lineCount];
+        final int[] bodyEnds = new int[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            bodyEnds[i] = raw.get(i).length();
+        }
+        return new MessageMetadata(MessageMetadata.NO_TIMESTAMP, null, MessageSeverity.UNKNOWN, MessageType.LOG,
+                bodyStarts, bodyEnds);
+    }
+
     @Override
     public String stripOfMetadata(final String line) {
         return line;
@@ -0,0 +1,215 @@
+package com.github.triceo.splitlog.splitters;
+
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+
+import com.github.triceo.splitlog.api.TailSplitter;
+
+/**
+ * Turns the time of day found in a log into a timestamp, unless the log
+ * includes the date, assuming the latest day on which that time of day has
+ * already come; a line stamped 23:59:59 and decoded at 00:00:01 is from the
+ * day before. For use by {@link TailSplitter}s.
+ *
+ * The start of the current day is computed once and remembered until the day
+ * is over, so that decoding is plain arithmetic and allocates nothing. The
+ * same goes for the day before, for the times of day that have not come yet,
+ * and for the day that was last decoded into, as consecutive messages in a
+ * log that includes the date will mostly share it. Only on days when the
+ * time zone changes its offset, such as at the start or the end of daylight
+ * saving time, is every timestamp computed through the time zone rules.
+ *
+ * Thread-safe.
+ */
+public final class TimestampDecoder {
+
+    /**
+     * The day that the timestamps are currently decoded into.
+     */
+    private static final class Day {
+
+        private final LocalDate date;
+        private final long end;
+        private final boolean isRegular;
+        private final long start;
+
+        public Day(final LocalDate date, final ZoneId zone) {
+            this.date = date;
+            this.start = date.atStartOfDay(zone).toInstant().toEpochMilli();
+            this.end = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            final ZoneOffsetTransition transition = zone.getRules().nextTransition(Instant.ofEpochMilli(this.start));
+            this.isRegular = (transition == null) || ((transition.toEpochSecond() * 1000) >= this.end);
+        }
+
+        public boolean contains(final long timestamp) {
+            return (timestamp >= this.start) && (timestamp < this.end);
+        }
+
+        public boolean is(final int year, final int month, final int dayOfMonth) {
+            return (this.date.getDayOfMonth() == dayOfMonth) && (this.date.getMonthValue() == month)
+                    && (this.date.getYear() == year);
+        }
+
+    }
+
+    private static void validate(final int hours, final int minutes, final int seconds, final int millis) {
+        if ((hours < 0) || (hours > 23) || (minutes < 0) || (minutes > 59) || (seconds < 0) || (seconds > 59)
+                || (millis < 0) || (millis > 999)) {
+            throw new IllegalArgumentException("Invalid time of day: " + hours + ":" + minutes + ":" + seconds + ","
+                    + millis);
+        }
+    }
+
+    private final Clock clock;
+    /**
+     * The day before {@link #today}.
+     */
+    private volatile Day dayBefore;
+    private volatile Day lastDay;
+    /**
+     * The day of the latest instant that the times of day were decoded
+     * relative to.
+     */
+    private volatile Day today;
+
+    /**
+     * Decode timestamps relative to the current time in the system default
+     * time zone, as it is at the time of construction.
+     */
+    public TimestampDecoder() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param clock
+     *            Determines the current day and the time zone.
+     */
+    public TimestampDecoder(final Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock must not be null.");
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * Decode the time of day into the latest timestamp with that time of day,
+     * that is not in the future.
+     *
+     * @param hours
+     *            0 to 23.
+     * @param minutes
+     *            0 to 59.
+     * @param seconds
+     *            0 to 59.
+     * @param millis
+     *            0 to 999.
+     * @return In milliseconds since January 1st 1970.
+     */
+    public long decode(final int hours, final int minutes, final int seconds, final int millis) {
+        return this.decode(this.clock.millis(), hours, minutes, seconds, millis);
+    }
+
+    /**
+     * Decode the time of day into the latest timestamp with that time of day,
+     * that is not after the given instant, such as when the line was read.
+     *
+     * @param reference
+     *            In milliseconds since January 1st 1970.
+     * @param hours
+     *            0 to 23.
+     * @param minutes
+     *            0 to 59.
+     * @param seconds
+     *            0 to 59.
+     * @param millis
+     *            0 to 999.
+     * @return In milliseconds since January 1st 1970.
+     */
+    public long decode(final long reference, final int hours, final int minutes, final int seconds,
+        final int millis) {
+        TimestampDecoder.validate(hours, minutes, seconds, millis);
+        final Day day = this.getDay(reference);
+        final long result = this.decode(day, hours, minutes, seconds, millis);
+        if (result <= reference) {
+            return result;
+        }
+        // the time of day has not come yet on that day
+        return this.decode(this.getDayBefore(day), hours, minutes, seconds, millis);
+    }
+
+    private long decode(final Day day, final int hours, final int minutes, final int seconds, final int millis) {
+        if (day.isRegular) {
+            return day.start + (((((hours * 60L) + minutes) * 60L) + seconds) * 1000L) + millis;
+        }
+        final LocalTime time = LocalTime.of(hours, minutes, seconds, millis * 1000000);
+        return LocalDateTime.of(day.date, time).atZone(this.clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Decode the date and the time of day into a timestamp.
+     *
+     * @param year
+     *            Year, such as 2015.
+     * @param month
+     *            1 to 12.
+     * @param dayOfMonth
+     *            1 to 31, as long as the month has that many days.
+     * @param hours
+     *            0 to 23.
+     * @param minutes
+     *            0 to 59.
+     * @param seconds
+     *            0 to 59.
+     * @param millis
+     *            0 to 999.
+     * @return In milliseconds since January 1st 1970.
+     */
+    public long decode(final int year, final int month, final int dayOfMonth, final int hours, final int minutes,
+        final int seconds, final int millis) {
+        TimestampDecoder.validate(hours, minutes, seconds, millis);
+        Day day = this.lastDay;
+        if ((day == null) || !day.is(year, month, dayOfMonth)) {
+            final LocalDate date;
+            try {
+                date = LocalDate.of(year, month, dayOfMonth);
+            } catch (final DateTimeException ex) {
+                throw new IllegalArgumentException("Invalid date: " + year + "-" + month + "-" + dayOfMonth, ex);
+            }
+            day = new Day(date, this.clock.getZone());
+            this.lastDay = day;
+        }
+        return this.decode(day, hours, minutes, seconds, millis);
+    }
+
+    /**
+     * @return The day that the instant falls on.
+     */
+    private Day getDay(final long instant) {
+        final Day day = this.today;
+        if ((day != null) && day.contains(instant)) {
+            return day;
+        }
+        // another day; threads racing here will compute the same day
+        final ZoneId zone = this.clock.getZone();
+        final Day newDay = new Day(LocalDateTime.ofInstant(Instant.ofEpochMilli(instant), zone).toLocalDate(), zone);
+        this.today = newDay;
+        return newDay;
+    }
+
+    private Day getDayBefore(final Day day) {
+        final Day before = this.dayBefore;
+        if ((before != null) && (before.end == day.start)) {
+            return before;
+        }
+        final Day newDay = new Day(day.date.minusDays(1), this.clock.getZone());
+        this.dayBefore = newDay;
+        return newDay;
+    }
+
+}
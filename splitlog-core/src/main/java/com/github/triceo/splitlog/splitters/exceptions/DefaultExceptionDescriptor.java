@@ -56,6 +56,18 @@ public class DefaultExceptionDescriptor implements ExceptionDescriptor {
      *         null if none identified.
      */
     public static ExceptionDescriptor parseStackTrace(final Collection<String> lines) {
+        if ((lines == null) || lines.isEmpty()) {
+            throw new IllegalArgumentException("No stack trace provided.");
+        }
+        return StackTraceScanner.scan(lines);
+    }
+
+    /**
+     * The same as {@link #parseStackTrace(Collection)}, only using the
+     * {@link ExceptionParser} automaton and regular expressions instead of
+     * {@link StackTraceScanner}.
+     */
+    static ExceptionDescriptor parseStackTraceWithRegex(final Collection<String> lines) {
         if ((lines == null) || lines.isEmpty()) {
             throw new IllegalArgumentException("No stack trace provided.");
         }
@@ -78,9 +90,19 @@ public class DefaultExceptionDescriptor implements ExceptionDescriptor {
 
     private DefaultExceptionDescriptor(final String className, final String message,
             final List<StackTraceElement> elements, final ExceptionDescriptor cause) {
+        this(className, message, elements.toArray(new StackTraceElement[elements.size()]), cause);
+    }
+
+    /**
+     * @param stackTrace
+     *            Will not be copied, and therefore may be shared with other
+     *            instances; see {@link StackFrameInterner}.
+     */
+    DefaultExceptionDescriptor(final String className, final String message, final StackTraceElement[] stackTrace,
+            final ExceptionDescriptor cause) {
         this.exceptionClassName = className;
         this.message = message;
-        this.stackTrace = elements.toArray(new StackTraceElement[elements.size()]);
+        this.stackTrace = stackTrace;
         this.cause = cause;
     }
 
@@ -0,0 +1,83 @@
+package com.github.triceo.splitlog.splitters.exceptions;
+
+import java.util.List;
+
+import com.github.triceo.splitlog.api.ExceptionDescriptor;
+
+/**
+ * Finds the same exception as
+ * {@link DefaultExceptionDescriptor#parseStackTrace(java.util.Collection)} in
+ * a message whose lines are read from the log over time, without reading any
+ * line twice. Every time, it is given all the lines read so far, and only
+ * scans those it has not seen yet.
+ *
+ * The exception is only looked for in lines stripped of the prefix that they
+ * all have in common. Should the prefix change with the new lines, which only
+ * happens while each of the lines has something in common with the first, all
+ * the lines are scanned again.
+ *
+ * This class is not thread-safe.
+ */
+public final class IncrementalExceptionParser {
+
+    private final StackFrameInterner interner;
+    private boolean isPrefixKnown = false;
+    private int lineCount = 0;
+    private int prefixLength = 0;
+    private int scannedLineCount = 0;
+    private StackTraceScanner scanner;
+
+    public IncrementalExceptionParser() {
+        this(StackFrameInterner.INSTANCE);
+    }
+
+    /**
+     * @param interner
+     *            Where to share the frames and the stack traces with other
+     *            exceptions.
+     */
+    IncrementalExceptionParser(final StackFrameInterner interner) {
+        this.interner = interner;
+    }
+
+    /**
+     * Look for the first exception stack trace in the lines.
+     *
+     * @param lines
+     *            All the lines of the message read so far, starting with all
+     *            the lines given the last time.
+     * @return Null if none found.
+     */
+    public ExceptionDescriptor parse(final List<String> lines) {
+        final int lineCount = lines.size();
+        if (lineCount < this.lineCount) {
+            throw new IllegalArgumentException("Lines must not be removed from the message.");
+        }
+        if (!this.isPrefixKnown) {
+            final String first = lines.get(0);
+            for (int i = Math.max(1, this.lineCount); i < lineCount; i++) {
+                this.prefixLength = StackTraceScanner.findPrefixLength(first, lines.get(i - 1), lines.get(i));
+                if (this.prefixLength == 0) {
+                    // no line that follows can change that
+                    this.isPrefixKnown = true;
+                    break;
+                }
+            }
+        }
+        this.lineCount = lineCount;
+        if (lineCount < 2) {
+            // a single line can not hold both the cause and the stack trace
+            return null;
+        }
+        if ((this.scanner == null) || (this.scanner.getPrefixLength() != this.prefixLength)) {
+            this.scanner = new StackTraceScanner(this.interner, this.prefixLength);
+            this.scannedLineCount = 0;
+        }
+        while (!this.scanner.isFinished() && (this.scannedLineCount < lineCount)) {
+            this.scanner.add(lines.get(this.scannedLineCount));
+            this.scannedLineCount++;
+        }
+        return this.scanner.getResult();
+    }
+
+}
@@ -0,0 +1,324 @@
+package com.github.triceo.splitlog.splitters.exceptions;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Makes the stack traces parsed out of different messages share their frames,
+ * and whole stack traces where they are the same, so that an exception logged
+ * over and over is only kept in memory once. Used by
+ * {@link DefaultExceptionDescriptor#parseStackTrace(java.util.Collection)}.
+ *
+ * The frames and the stack traces are each kept in a table of fixed size,
+ * whose capacity can be set through a system property, whose name is
+ * specified in {@link #CAPACITY_PROPERTY_NAME}, and defaults to
+ * {@link #DEFAULT_CAPACITY}; 0 turns the interning off. Every frame has two
+ * places in the table where it may be kept; a newly found frame takes the one
+ * that is free, or the place of whatever frame was in the first one. A frame
+ * that is found is not parsed again, and none of its strings are created.
+ *
+ * Thread-safe and lock-free. Threads that find the same new frame at the same
+ * time may each create their own instance, which only costs the sharing.
+ */
+public final class StackFrameInterner {
+
+    /**
+     * A frame, together with the text in the stack trace that it was parsed
+     * from.
+     */
+    private static final class Frame {
+
+        private final StackTraceElement element;
+        private final int hash;
+        private final String text;
+
+        public Frame(final String text, final int hash, final StackTraceElement element) {
+            this.text = text;
+            this.hash = hash;
+            this.element = element;
+        }
+
+    }
+
+    /**
+     * Frames of a stack trace, together with their combined identity hash.
+     */
+    private static final class StackTrace {
+
+        private final StackTraceElement[] elements;
+        private final int hash;
+
+        public StackTrace(final StackTraceElement[] elements, final int hash) {
+            this.elements = elements;
+            this.hash = hash;
+        }
+
+    }
+
+    public static final String CAPACITY_PROPERTY_NAME = "splitlog.frames.capacity";
+    public static final int DEFAULT_CAPACITY = 4096;
+    /**
+     * The interner shared by all the stack traces parsed in the JVM.
+     */
+    public static final StackFrameInterner INSTANCE = new StackFrameInterner(Math.max(0,
+            Integer.getInteger(StackFrameInterner.CAPACITY_PROPERTY_NAME, StackFrameInterner.DEFAULT_CAPACITY)));
+    /**
+     * Estimated size of {@link StackTraceElement}, without the strings it
+     * refers to, on a 64-bit JVM with compressed references.
+     */
+    private static final int STACK_TRACE_ELEMENT_SIZE = 48;
+
+    private static int align(final long size) {
+        return (int) ((size + 7) & ~7);
+    }
+
+    private static int getSize(final StackTraceElement element) {
+        return StackFrameInterner.STACK_TRACE_ELEMENT_SIZE + StackFrameInterner.getSize(element.getClassName())
+                + StackFrameInterner.getSize(element.getMethodName())
+                + StackFrameInterner.getSize(element.getFileName());
+    }
+
+    /**
+     * Estimated size of a string of Latin-1 characters, including its array.
+     */
+    private static int getSize(final String text) {
+        if (text == null) {
+            return 0;
+        }
+        return 24 + StackFrameInterner.align(16 + text.length());
+    }
+
+    private static int hash(final List<StackTraceElement> elements) {
+        int hash = elements.size();
+        for (final StackTraceElement element : elements) {
+            hash = (31 * hash) + System.identityHashCode(element);
+        }
+        return hash;
+    }
+
+    private static int hash(final String line, final int from, final int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = (31 * hash) + line.charAt(i);
+        }
+        return hash;
+    }
+
+    private static boolean isSame(final Frame frame, final int hash, final String line, final int from,
+        final int to) {
+        if ((frame == null) || (frame.hash != hash)) {
+            return false;
+        }
+        final int length = to - from;
+        return (frame.text.length() == length) && line.regionMatches(from, frame.text, 0, length);
+    }
+
+    private static boolean isSame(final StackTrace stackTrace, final int hash, final List<StackTraceElement> elements) {
+        if ((stackTrace == null) || (stackTrace.hash != hash) || (stackTrace.elements.length != elements.size())) {
+            return false;
+        }
+        for (int i = 0; i < stackTrace.elements.length; i++) {
+            if (stackTrace.elements[i] != elements.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Spread the bits of the hash, so that the slots are used more evenly.
+     */
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private final LongAdder bytesSaved = new LongAdder();
+    private final LongAdder frameHits = new LongAdder();
+    private final LongAdder frameMisses = new LongAdder();
+    private final AtomicReferenceArray<Frame> frames;
+    private final int mask;
+    private final LongAdder stackTraceHits = new LongAdder();
+    private final LongAdder stackTraceMisses = new LongAdder();
+    private final AtomicReferenceArray<StackTrace> stackTraces;
+
+    /**
+     * @param capacity
+     *            How many frames, and separately how many stack traces, to keep
+     *            at most. Rounded up to the nearest power of two. 0 to not
+     *            intern at all.
+     */
+    StackFrameInterner(final int capacity) {
+        if ((capacity < 0) || (capacity > (1 << 30))) {
+            throw new IllegalArgumentException("Capacity must be between 0 and 2^30.");
+        }
+        if (capacity == 0) {
+            this.mask = -1;
+            this.frames = null;
+            this.stackTraces = null;
+        } else {
+            final int tableSize = Integer.highestOneBit(capacity) == capacity ? capacity : Integer
+                    .highestOneBit(capacity) << 1;
+            this.mask = tableSize - 1;
+            this.frames = new AtomicReferenceArray<>(tableSize);
+            this.stackTraces = new AtomicReferenceArray<>(tableSize);
+        }
+    }
+
+    /**
+     * Remember a frame that was not found.
+     *
+     * @param line
+     *            Line of the stack trace.
+     * @param from
+     *            Where the text that the frame was parsed from starts.
+     * @param to
+     *            Where the text ends.
+     * @param element
+     *            The frame.
+     */
+    void addFrame(final String line, final int from, final int to, final StackTraceElement element) {
+        this.frameMisses.increment();
+        if (this.frames == null) {
+            return;
+        }
+        final int hash = StackFrameInterner.hash(line, from, to);
+        final int slot = StackFrameInterner.spread(hash) & this.mask;
+        this.frames.set(this.findFreeSlot(this.frames, slot), new Frame(line.substring(from, to), hash, element));
+    }
+
+    /**
+     * Find a frame that has been parsed from the same text before.
+     *
+     * @param line
+     *            Line of the stack trace.
+     * @param from
+     *            Where the text that the frame is parsed from starts.
+     * @param to
+     *            Where the text ends.
+     * @return Null if not found.
+     */
+    StackTraceElement findFrame(final String line, final int from, final int to) {
+        if (this.frames == null) {
+            return null;
+        }
+        final int hash = StackFrameInterner.hash(line, from, to);
+        final int slot = StackFrameInterner.spread(hash) & this.mask;
+        Frame frame = this.frames.get(slot);
+        if (!StackFrameInterner.isSame(frame, hash, line, from, to)) {
+            frame = this.frames.get((slot + 1) & this.mask);
+        }
+        if (!StackFrameInterner.isSame(frame, hash, line, from, to)) {
+            return null;
+        }
+        this.frameHits.increment();
+        this.bytesSaved.add(StackFrameInterner.getSize(frame.element));
+        return frame.element;
+    }
+
+    /**
+     * @return The first of the two places for an item that is free, or the
+     *         first one if neither is.
+     */
+    private int findFreeSlot(final AtomicReferenceArray<?> table, final int slot) {
+        final int otherSlot = (slot + 1) & this.mask;
+        return ((table.get(slot) != null) && (table.get(otherSlot) == null)) ? otherSlot : slot;
+    }
+
+    /**
+     * @return Estimate of how many bytes of heap would have been taken by the
+     *         frames and the stack traces that were found, had they been
+     *         created again.
+     */
+    public long getBytesSaved() {
+        return this.bytesSaved.sum();
+    }
+
+    /**
+     * @return How many frames, and separately how many stack traces, are kept
+     *         at most. 0 if not interning.
+     */
+    public int getCapacity() {
+        return this.mask + 1;
+    }
+
+    /**
+     * @return Between 0 and 1, the share of frames that were found.
+     */
+    public double getFrameHitRate() {
+        final long hits = this.getFrameHits();
+        final long total = hits + this.getFrameMisses();
+        return (total == 0) ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return How many frames were found.
+     */
+    public long getFrameHits() {
+        return this.frameHits.sum();
+    }
+
+    /**
+     * @return How many frames were not found and had to be created.
+     */
+    public long getFrameMisses() {
+        return this.frameMisses.sum();
+    }
+
+    /**
+     * @return How many stack traces were found.
+     */
+    public long getStackTraceHits() {
+        return this.stackTraceHits.sum();
+    }
+
+    /**
+     * @return How many stack traces were not found and had to be created.
+     */
+    public long getStackTraceMisses() {
+        return this.stackTraceMisses.sum();
+    }
+
+    /**
+     * Find a stack trace with the very same frames, or create one.
+     *
+     * @param elements
+     *            Frames of the stack trace, each one as returned by
+     *            {@link #findFrame(String, int, int)} or given to
+     *            {@link #addFrame(String, int, int, StackTraceElement)}.
+     * @return The stack trace, possibly shared. Must not be modified.
+     */
+    StackTraceElement[] toStackTrace(final List<StackTraceElement> elements) {
+        if (this.stackTraces == null) {
+            this.stackTraceMisses.increment();
+            return elements.toArray(new StackTraceElement[elements.size()]);
+        }
+        final int hash = StackFrameInterner.hash(elements);
+        final int slot = StackFrameInterner.spread(hash) & this.mask;
+        StackTrace stackTrace = this.stackTraces.get(slot);
+        if (!StackFrameInterner.isSame(stackTrace, hash, elements)) {
+            stackTrace = this.stackTraces.get((slot + 1) & this.mask);
+        }
+        if (StackFrameInterner.isSame(stackTrace, hash, elements)) {
+            this.stackTraceHits.increment();
+            this.bytesSaved.add(StackFrameInterner.align(16 + (4L * elements.size())));
+            return stackTrace.elements;
+        }
+        this.stackTraceMisses.increment();
+        final StackTraceElement[] result = elements.toArray(new StackTraceElement[elements.size()]);
+        this.stackTraces.set(this.findFreeSlot(this.stackTraces, slot), new StackTrace(result, hash));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("StackFrameInterner [capacity=").append(this.getCapacity()).append(", frameHits=")
+                .append(this.getFrameHits()).append(", frameMisses=").append(this.getFrameMisses())
+                .append(", stackTraceHits=").append(this.getStackTraceHits()).append(", stackTraceMisses=")
+                .append(this.getStackTraceMisses()).append(", bytesSaved=").append(this.getBytesSaved())
+                .append("]");
+        return builder.toString();
+    }
+
+}
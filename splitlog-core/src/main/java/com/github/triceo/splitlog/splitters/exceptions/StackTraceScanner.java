@@ -0,0 +1,603 @@
+package com.github.triceo.splitlog.splitters.exceptions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import com.github.triceo.splitlog.api.ExceptionDescriptor;
+
+/**
+ * Recognizes a Java exception stack trace in a random text, reading every line
+ * once and one character at a time. Stands in for {@link ExceptionParser} and
+ * the regular expressions of its line parsers; for any text that they accept,
+ * it describes the same exception.
+ *
+ * Where they would fail with a runtime exception, such as on a stack trace
+ * line whose line number is 0 or does not fit into an int, or whose method is
+ * not in any class, the line is not considered part of a stack trace.
+ *
+ * Frames already known to the {@link StackFrameInterner} are not parsed again.
+ * The lines can also be given one at a time, as they are read from the log;
+ * see {@link IncrementalExceptionParser}.
+ */
+final class StackTraceScanner {
+
+    /**
+     * States of the automaton, as in {@link ExceptionParser}. There, the cause,
+     * the sub-cause and the lines following them before the stack trace are
+     * different states with the same transitions.
+     */
+    private enum State {
+        CAUSE, PRE_START, STACK_TRACE, STACK_TRACE_END
+    }
+
+    private static final String CAUSED_BY = "Caused by: ";
+    private static final String COMMON_FRAMES_OMITTED = " common frames omitted";
+    private static final String MORE = " more";
+    private static final String NATIVE_METHOD = "Native Method";
+    private static final String UNKNOWN_SOURCE = "Unknown Source";
+
+    private static int commonPrefixLength(final String a, final int aStart, final int aEnd, final String b,
+        final int bStart, final int bEnd) {
+        final int length = Math.min(aEnd - aStart, bEnd - bStart);
+        for (int i = 0; i < length; i++) {
+            if (a.charAt(aStart + i) != b.charAt(bStart + i)) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Whether a regular expression's <code>.</code> would not match anywhere
+     * in the given part of the line.
+     */
+    private static boolean containsLineTerminator(final String line, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            switch (line.charAt(i)) {
+                case '\n':
+                case '\r':
+                case '\u0085':
+                case '\u2028':
+                case '\u2029':
+                    return true;
+                default:
+                    break;
+            }
+        }
+        return false;
+    }
+
+    private static int countColons(final String line, final int from, final int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (line.charAt(i) == ':') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Parse the frame out of a line of the stack trace, whose structure has
+     * already been recognized.
+     *
+     * @param methodStart
+     *            Where the fully qualified name of the method starts.
+     * @param open
+     *            Where the parenthesis after the method is.
+     * @param close
+     *            Where the matching parenthesis is.
+     * @return Null if the line is not a part of a stack trace after all.
+     */
+    private static StackTraceElement createFrame(final String line, final int methodStart, final int open,
+        final int close) {
+        if (!StackTraceScanner.isJavaFqn(line, methodStart, open)) {
+            return null;
+        }
+        final int methodDot = line.lastIndexOf('.', open);
+        if (methodDot < methodStart) {
+            // method outside of any class
+            return null;
+        }
+        final String declaringClass = line.substring(methodStart, methodDot);
+        final String methodName = line.substring(methodDot + 1, open);
+        final int fileStart = open + 1;
+        final int fileLength = close - fileStart;
+        if ((fileLength == StackTraceScanner.UNKNOWN_SOURCE.length())
+                && line.startsWith(StackTraceScanner.UNKNOWN_SOURCE, fileStart)) {
+            return new StackTraceElement(declaringClass, methodName, null, -1);
+        } else if ((fileLength == StackTraceScanner.NATIVE_METHOD.length())
+                && line.startsWith(StackTraceScanner.NATIVE_METHOD, fileStart)) {
+            return new StackTraceElement(declaringClass, methodName, null, -1);
+        }
+        // file name and line number, separated by the only colon
+        final int fileEnd = StackTraceScanner.withoutTrailingColons(line, fileStart, close);
+        if (StackTraceScanner.countColons(line, fileStart, fileEnd) != 1) {
+            return null;
+        }
+        final int colon = StackTraceScanner.indexOf(line, ':', fileStart, fileEnd);
+        if ((colon == fileStart) || ((colon + 1) == fileEnd)) {
+            return null;
+        }
+        long lineNumber = 0;
+        for (int i = colon + 1; i < fileEnd; i++) {
+            final char c = line.charAt(i);
+            if ((c < '0') || (c > '9')) {
+                return null;
+            }
+            lineNumber = (lineNumber * 10) + (c - '0');
+            if (lineNumber > Integer.MAX_VALUE) {
+                return null;
+            }
+        }
+        if (lineNumber < 1) {
+            return null;
+        }
+        return new StackTraceElement(declaringClass, methodName, line.substring(fileStart, colon), (int) lineNumber);
+    }
+
+    /**
+     * @return If the closing parenthesis at the given index is followed by the
+     *         identification of the JAR, in square brackets and optionally
+     *         preceded by a tilde, up to the end of the line, then the index of
+     *         the opening square bracket. Otherwise -1.
+     */
+    private static int findJarIdentification(final String line, final int close, final int to) {
+        final int bracket;
+        if (line.charAt(close) != ')') {
+            return -1;
+        } else if (line.startsWith(" [", close + 1)) {
+            bracket = close + 2;
+        } else if (line.startsWith(" ~[", close + 1)) {
+            bracket = close + 3;
+        } else {
+            return -1;
+        }
+        return (bracket < (to - 1)) ? bracket : -1;
+    }
+
+    /**
+     * The same as {@link ExceptionParser}'s prefix removal: the prefix is what
+     * the first line has in common with the last two lines, unless any two
+     * consecutive lines have nothing in common.
+     *
+     * @return Length of the prefix, that all the lines, once trimmed, will be
+     *         stripped of.
+     */
+    private static int findPrefixLength(final Collection<String> lines) {
+        final Iterator<String> it = lines.iterator();
+        final String first = it.next();
+        String previous = first;
+        int result = 0;
+        while (it.hasNext()) {
+            final String current = it.next();
+            result = StackTraceScanner.findPrefixLength(first, previous, current);
+            if (result == 0) {
+                return 0;
+            }
+            previous = current;
+        }
+        return result;
+    }
+
+    /**
+     * A single step of {@link #findPrefixLength(Collection)}, for a line and
+     * the line before it.
+     *
+     * @return What the first line, once trimmed, has in common with both the
+     *         lines, once trimmed. If 0, the prefix is 0 however many lines
+     *         follow.
+     */
+    static int findPrefixLength(final String first, final String previous, final String current) {
+        final int firstStart = StackTraceScanner.trimStart(first);
+        final int firstEnd = StackTraceScanner.trimEnd(first, firstStart);
+        final int previousStart = StackTraceScanner.trimStart(previous);
+        final int previousEnd = StackTraceScanner.trimEnd(previous, previousStart);
+        final int currentStart = StackTraceScanner.trimStart(current);
+        final int currentEnd = StackTraceScanner.trimEnd(current, currentStart);
+        return Math.min(StackTraceScanner.commonPrefixLength(previous, previousStart, previousEnd, current,
+                currentStart, currentEnd), StackTraceScanner.commonPrefixLength(first, firstStart, firstEnd, previous,
+                previousStart, previousEnd));
+    }
+
+    private static int indexOf(final String line, final char c, final int from, final int to) {
+        final int index = line.indexOf(c, from);
+        return (index < to) ? index : -1;
+    }
+
+    private static boolean isIdentifierPart(final int codePoint) {
+        if (StackTraceScanner.isIdentifierStart(codePoint)) {
+            return true;
+        }
+        switch (Character.getType(codePoint)) {
+            case Character.DECIMAL_DIGIT_NUMBER:
+            case Character.LETTER_NUMBER:
+            case Character.OTHER_NUMBER:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isIdentifierStart(final int codePoint) {
+        return (codePoint == '_') || (codePoint == '$') || Character.isLetter(codePoint);
+    }
+
+    /**
+     * Whether the part of the line is a fully qualified Java name, as
+     * {@link ExceptionLineParser#JAVA_FQN_REGEX} would match it.
+     */
+    private static boolean isJavaFqn(final String line, final int from, final int to) {
+        if (from >= to) {
+            return false;
+        }
+        boolean isSegmentStart = true;
+        int i = from;
+        while (i < to) {
+            final char c = line.charAt(i);
+            final int codePoint;
+            if (Character.isHighSurrogate(c) && ((i + 1) < to) && Character.isLowSurrogate(line.charAt(i + 1))) {
+                codePoint = Character.toCodePoint(c, line.charAt(i + 1));
+                i += 2;
+            } else {
+                codePoint = c;
+                i++;
+            }
+            if (isSegmentStart) {
+                if (!StackTraceScanner.isIdentifierStart(codePoint)) {
+                    return false;
+                }
+                isSegmentStart = false;
+            } else if (codePoint == '.') {
+                isSegmentStart = true;
+            } else if (!StackTraceScanner.isIdentifierPart(codePoint)) {
+                return false;
+            }
+        }
+        return !isSegmentStart;
+    }
+
+    /**
+     * Recognize the end of the stack trace the same way as
+     * {@link StackTraceEndParser}: any three characters, a space and a number,
+     * followed by {@link #MORE} or {@link #COMMON_FRAMES_OMITTED}.
+     */
+    private static boolean isStackTraceEnd(final String line, final int from, final int to) {
+        final int digitsStart = from + 4;
+        if (((to - digitsStart) < 1) || (line.charAt(from + 3) != ' ')
+                || StackTraceScanner.containsLineTerminator(line, from, from + 3)) {
+            return false;
+        }
+        int digitsEnd = digitsStart;
+        while ((digitsEnd < to) && (line.charAt(digitsEnd) >= '0') && (line.charAt(digitsEnd) <= '9')) {
+            digitsEnd++;
+        }
+        if (digitsEnd == digitsStart) {
+            return false;
+        }
+        final int remaining = to - digitsEnd;
+        if (remaining == StackTraceScanner.MORE.length()) {
+            return line.startsWith(StackTraceScanner.MORE, digitsEnd);
+        } else if (remaining == StackTraceScanner.COMMON_FRAMES_OMITTED.length()) {
+            return line.startsWith(StackTraceScanner.COMMON_FRAMES_OMITTED, digitsEnd);
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Look for the first exception stack trace in the lines.
+     *
+     * @param lines
+     *            Any random log, separated into lines.
+     * @return Null if none found.
+     */
+    public static ExceptionDescriptor scan(final Collection<String> lines) {
+        return StackTraceScanner.scan(lines, StackFrameInterner.INSTANCE);
+    }
+
+    /**
+     * Look for the first exception stack trace in the lines.
+     *
+     * @param lines
+     *            Any random log, separated into lines.
+     * @param interner
+     *            Where to share the frames and the stack traces with other
+     *            exceptions.
+     * @return Null if none found.
+     */
+    static ExceptionDescriptor scan(final Collection<String> lines, final StackFrameInterner interner) {
+        if (lines.size() < 2) {
+            // a single line can not hold both the cause and the stack trace
+            return null;
+        }
+        final StackTraceScanner scanner = new StackTraceScanner(interner,
+                StackTraceScanner.findPrefixLength(lines));
+        final Iterator<String> it = lines.iterator();
+        while (!scanner.isFinished() && it.hasNext()) {
+            scanner.add(it.next());
+        }
+        return scanner.getResult();
+    }
+
+    /**
+     * @return Index of the first character that {@link String#trim()} would
+     *         leave out at the end.
+     */
+    private static int trimEnd(final String line, final int start) {
+        int end = line.length();
+        while ((end > start) && (line.charAt(end - 1) <= ' ')) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * @return Index of the first character that {@link String#trim()} would
+     *         keep.
+     */
+    private static int trimStart(final String line) {
+        final int length = line.length();
+        int start = 0;
+        while ((start < length) && (line.charAt(start) <= ' ')) {
+            start++;
+        }
+        return start;
+    }
+
+    /**
+     * @return Index that the part of the line ends at, if the colons at its
+     *         end were removed, as {@link String#split(String)} would.
+     */
+    private static int withoutTrailingColons(final String line, final int from, final int to) {
+        int end = to;
+        while ((end > from) && (line.charAt(end - 1) == ':')) {
+            end--;
+        }
+        return end;
+    }
+
+    private final List<String> classNames = new ArrayList<>();
+    private final List<Integer> firstFrames = new ArrayList<>();
+    private final List<StackTraceElement> frames = new ArrayList<>();
+    private final StackFrameInterner interner;
+    private boolean isFinished = false;
+    private final List<String> messages = new ArrayList<>();
+    private final int prefixLength;
+    /**
+     * Only valid once {@link #isFinished}.
+     */
+    private ExceptionDescriptor result;
+    private State state = State.PRE_START;
+
+    /**
+     * @param interner
+     *            Where to share the frames and the stack traces with other
+     *            exceptions.
+     * @param prefixLength
+     *            See {@link #findPrefixLength(Collection)}.
+     */
+    StackTraceScanner(final StackFrameInterner interner, final int prefixLength) {
+        this.interner = interner;
+        this.prefixLength = prefixLength;
+    }
+
+    /**
+     * Scan the line that follows the ones scanned before. Must not be called
+     * once {@link #isFinished()}.
+     *
+     * @param line
+     *            The line, prefix and all.
+     */
+    void add(final String line) {
+        final int start = StackTraceScanner.trimStart(line);
+        final int end = StackTraceScanner.trimEnd(line, start);
+        if ((end - start) < this.prefixLength) {
+            // too short to have the prefix; not a part of any stack trace
+            this.finish(null);
+            return;
+        }
+        final int from = start + this.prefixLength;
+        switch (this.state) {
+            case PRE_START:
+                if (this.scanCause(line, from, end)) {
+                    this.state = State.CAUSE;
+                }
+                break;
+            case CAUSE:
+                if (this.scanFrame(line, from, end)) {
+                    this.state = State.STACK_TRACE;
+                } else {
+                    // the message of the cause spans multiple lines
+                    this.appendToMessage(line.substring(from, end));
+                }
+                break;
+            case STACK_TRACE:
+                if (this.scanFrame(line, from, end)) {
+                    break;
+                } else if (StackTraceScanner.isStackTraceEnd(line, from, end)) {
+                    this.state = State.STACK_TRACE_END;
+                } else if (this.scanSubCause(line, from, end)) {
+                    this.state = State.CAUSE;
+                } else {
+                    this.finish(null);
+                }
+                break;
+            case STACK_TRACE_END:
+                if (this.scanSubCause(line, from, end)) {
+                    this.state = State.CAUSE;
+                } else {
+                    // the stack trace is over, whatever follows does not matter
+                    this.finish(this.build());
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unsupported state: " + this.state);
+        }
+    }
+
+    private void addCause(final String className, final String message) {
+        this.classNames.add(className);
+        this.messages.add(message);
+        this.firstFrames.add(this.frames.size());
+    }
+
+    private void appendToMessage(final String text) {
+        final int last = this.messages.size() - 1;
+        this.messages.set(last, this.messages.get(last) + "\n" + text);
+    }
+
+    private ExceptionDescriptor build() {
+        ExceptionDescriptor result = null;
+        int frameEnd = this.frames.size();
+        for (int i = this.classNames.size() - 1; i >= 0; i--) {
+            final int frameStart = this.firstFrames.get(i);
+            result = new DefaultExceptionDescriptor(this.classNames.get(i), this.messages.get(i),
+                    this.interner.toStackTrace(this.frames.subList(frameStart, frameEnd)), result);
+            frameEnd = frameStart;
+        }
+        return result;
+    }
+
+    private void finish(final ExceptionDescriptor result) {
+        this.result = result;
+        this.isFinished = true;
+    }
+
+    int getPrefixLength() {
+        return this.prefixLength;
+    }
+
+    /**
+     * @return The exception in the lines scanned so far, null if none.
+     */
+    ExceptionDescriptor getResult() {
+        if (this.isFinished) {
+            return this.result;
+        } else if ((this.state == State.STACK_TRACE) || (this.state == State.STACK_TRACE_END)) {
+            return this.build();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @return True if no more lines would change {@link #getResult()}.
+     */
+    boolean isFinished() {
+        return this.isFinished;
+    }
+
+    /**
+     * Recognize the cause the same way as {@link CauseParser}: the first of
+     * the colon-separated chunks that is a Java name is the class, the rest is
+     * the message.
+     */
+    private boolean scanCause(final String line, final int from, final int to) {
+        // trailing empty chunks do not count
+        final int end = StackTraceScanner.withoutTrailingColons(line, from, to);
+        if (StackTraceScanner.indexOf(line, ':', from, end) < 0) {
+            return false;
+        }
+        int chunkStart = from;
+        while (chunkStart <= end) {
+            int chunkEnd = StackTraceScanner.indexOf(line, ':', chunkStart, end);
+            if (chunkEnd < 0) {
+                chunkEnd = end;
+            }
+            int nameStart = chunkStart;
+            int nameEnd = chunkEnd;
+            while ((nameStart < nameEnd) && (line.charAt(nameStart) <= ' ')) {
+                nameStart++;
+            }
+            while ((nameStart < nameEnd) && (line.charAt(nameEnd - 1) <= ' ')) {
+                nameEnd--;
+            }
+            if (StackTraceScanner.isJavaFqn(line, nameStart, nameEnd)) {
+                final String message = (chunkEnd == end) ? "" : line.substring(chunkEnd + 1, end).trim();
+                this.addCause(line.substring(nameStart, nameEnd), message);
+                return true;
+            }
+            chunkStart = chunkEnd + 1;
+        }
+        return false;
+    }
+
+    /**
+     * Recognize a line of the stack trace the same way as
+     * {@link StackTraceParser}.
+     */
+    private boolean scanFrame(final String line, final int from, final int to) {
+        final int methodStart = from + 3;
+        if ((methodStart > to) || !line.startsWith("at ", from)) {
+            return false;
+        }
+        final int open = StackTraceScanner.indexOf(line, '(', methodStart, to);
+        if ((open < 0) || StackTraceScanner.containsLineTerminator(line, open + 1, to)) {
+            return false;
+        }
+        // the file name extends to the last closing parenthesis that the rest of the line allows
+        final int close;
+        final char last = line.charAt(to - 1);
+        if (last == ')') {
+            close = to - 1;
+        } else if (last == ']') {
+            int candidate = to - 2;
+            int bracket = -1;
+            while ((candidate > open)
+                    && ((bracket = StackTraceScanner.findJarIdentification(line, candidate, to)) < 0)) {
+                candidate--;
+            }
+            if (bracket < 0) {
+                return false;
+            }
+            // the JAR identification, if any, has two parts separated by the only colon
+            final int jarEnd = StackTraceScanner.withoutTrailingColons(line, bracket + 1, to - 1);
+            if (StackTraceScanner.countColons(line, bracket + 1, jarEnd) != 1) {
+                return false;
+            }
+            close = candidate;
+        } else {
+            return false;
+        }
+        // the JAR identification does not matter for the frame
+        final StackTraceElement known = this.interner.findFrame(line, methodStart, close + 1);
+        if (known != null) {
+            this.frames.add(known);
+            return true;
+        }
+        final StackTraceElement frame = StackTraceScanner.createFrame(line, methodStart, open, close);
+        if (frame == null) {
+            return false;
+        }
+        this.interner.addFrame(line, methodStart, close + 1, frame);
+        this.frames.add(frame);
+        return true;
+    }
+
+    /**
+     * Recognize the sub-cause the same way as {@link SubCauseParser}.
+     */
+    private boolean scanSubCause(final String line, final int from, final int to) {
+        final int nameStart = from + StackTraceScanner.CAUSED_BY.length();
+        if ((nameStart > to) || !line.startsWith(StackTraceScanner.CAUSED_BY, from)) {
+            return false;
+        }
+        final int colon = StackTraceScanner.indexOf(line, ':', nameStart, to);
+        final int nameEnd = (colon < 0) ? to : colon;
+        if (!StackTraceScanner.isJavaFqn(line, nameStart, nameEnd)) {
+            return false;
+        } else if (colon < 0) {
+            this.addCause(line.substring(nameStart, nameEnd), null);
+            return true;
+        } else if (((colon + 1) == to) || (line.charAt(colon + 1) != ' ')
+                || StackTraceScanner.containsLineTerminator(line, colon + 2, to)) {
+            return false;
+        }
+        this.addCause(line.substring(nameStart, nameEnd), line.substring(colon + 2, to));
+        return true;
+    }
+
+}
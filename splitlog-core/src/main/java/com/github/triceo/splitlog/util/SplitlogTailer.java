@@ -1,10 +1,8 @@
 package com.github.triceo.splitlog.util;
 
-import java.io.File;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.input.fork.Tailer;
-import org.apache.commons.io.input.fork.TailerListener;
 import org.slf4j.Logger;
 
 import com.github.triceo.splitlog.logging.SplitlogLoggerFactory;
@@ -19,9 +17,8 @@ public class SplitlogTailer extends Tailer {
 
     private static final Logger LOGGER = SplitlogLoggerFactory.getLogger(SplitlogTailer.class);
 
-    public SplitlogTailer(final File file, final TailerListener listener, final long delayMillis, final boolean end,
-            final boolean reOpen, final int bufSize) {
-        super(file, listener, delayMillis, end, reOpen, bufSize);
+    public SplitlogTailer(final Tailer.Builder builder) {
+        super(builder);
     }
 
     @Override
@@ -1,24 +1,138 @@
 package com.github.triceo.splitlog.util;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.slf4j.Logger;
+
+import com.github.triceo.splitlog.logging.SplitlogLoggerFactory;
+
+/**
+ * Creates the threads that Splitlog runs on. On a JDK that supports virtual
+ * threads, those can be used in place of platform threads, either for all of
+ * Splitlog by setting a system property, whose name is specified in
+ * {@link #THREADS_PROPERTY_NAME}, to the value specified in
+ * {@link #VIRTUAL_STATE}, or for particular threads only, see
+ * {@link #SplitlogThreadFactory(String, boolean)}. Where virtual threads are
+ * not supported, platform threads are used regardless.
+ *
+ * The virtual threads are created through reflection, so that Splitlog keeps
+ * running on JDKs that predate them.
+ */
 public class SplitlogThreadFactory implements ThreadFactory {
 
+    public static final String PLATFORM_STATE = "platform";
+    public static final String THREADS_PROPERTY_NAME = "splitlog.threads";
+    public static final String VIRTUAL_STATE = "virtual";
+
+    private static final Logger LOGGER = SplitlogLoggerFactory.getLogger(SplitlogThreadFactory.class);
     private static final AtomicLong UNIQUE_ID = new AtomicLong(0);
-    private final AtomicLong nextId = new AtomicLong(0);
+    /**
+     * <code>Thread.Builder.OfVirtual#name(String)</code>, null if virtual
+     * threads are not supported.
+     */
+    private static final Method VIRTUAL_NAME;
+    /**
+     * <code>Thread#ofVirtual()</code>, null if virtual threads are not
+     * supported.
+     */
+    private static final Method VIRTUAL_OF;
+    /**
+     * <code>Thread.Builder#unstarted(Runnable)</code>, null if virtual threads
+     * are not supported.
+     */
+    private static final Method VIRTUAL_UNSTARTED;
+    static {
+        Method of = null, name = null, unstarted = null;
+        try {
+            of = Thread.class.getMethod("ofVirtual");
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            name = builderClass.getMethod("name", String.class);
+            unstarted = builderClass.getMethod("unstarted", Runnable.class);
+            // where virtual threads are only a preview, this will fail unless previews are enabled
+            of.invoke(null);
+        } catch (final ReflectiveOperationException | RuntimeException ex) {
+            of = null;
+            name = null;
+            unstarted = null;
+        }
+        VIRTUAL_OF = of;
+        VIRTUAL_NAME = name;
+        VIRTUAL_UNSTARTED = unstarted;
+    }
+
+    /**
+     * Whether virtual threads have been requested for all of Splitlog, by
+     * setting the {@link #THREADS_PROPERTY_NAME} system property.
+     *
+     * @return True if virtual threads requested, regardless of whether they
+     *         are supported.
+     */
+    public static boolean isVirtualRequestedGlobally() {
+        final String propertyValue = System.getProperty(SplitlogThreadFactory.THREADS_PROPERTY_NAME,
+                SplitlogThreadFactory.PLATFORM_STATE);
+        return propertyValue.equals(SplitlogThreadFactory.VIRTUAL_STATE);
+    }
 
+    /**
+     * Whether the JDK that Splitlog runs on supports virtual threads.
+     *
+     * @return True if supported.
+     */
+    public static boolean isVirtualSupported() {
+        return SplitlogThreadFactory.VIRTUAL_OF != null;
+    }
+
+    private final AtomicLong nextId = new AtomicLong(0);
     private final ThreadGroup threadGroup;
     private final String threadGroupName;
+    private final boolean virtual;
 
     public SplitlogThreadFactory(final String threadGroupName) {
+        this(threadGroupName, false);
+    }
+
+    /**
+     * @param threadGroupName
+     *            Name of the threads, which will be given a unique suffix.
+     * @param virtual
+     *            Whether to create virtual threads, where supported, even if
+     *            not requested for all of Splitlog.
+     */
+    public SplitlogThreadFactory(final String threadGroupName, final boolean virtual) {
         this.threadGroupName = threadGroupName;
         this.threadGroup = new ThreadGroup(threadGroupName);
+        this.virtual = virtual;
+    }
+
+    /**
+     * Whether the threads from this factory will be virtual. As the system
+     * property may change, so may the result of this method.
+     *
+     * @return True if the next thread will be virtual.
+     */
+    public boolean isVirtual() {
+        return SplitlogThreadFactory.isVirtualSupported()
+                && (this.virtual || SplitlogThreadFactory.isVirtualRequestedGlobally());
     }
 
     @Override
     public Thread newThread(final Runnable r) {
-        final Thread t = new Thread(this.threadGroup, r, this.newThreadName());
+        final String name = this.newThreadName();
+        if (this.isVirtual()) {
+            try {
+                final Object builder = SplitlogThreadFactory.VIRTUAL_NAME.invoke(
+                        SplitlogThreadFactory.VIRTUAL_OF.invoke(null), name);
+                // virtual threads are always daemons
+                return (Thread) SplitlogThreadFactory.VIRTUAL_UNSTARTED.invoke(builder, r);
+            } catch (final IllegalAccessException | InvocationTargetException ex) {
+                SplitlogThreadFactory.LOGGER.warn("Failed creating virtual thread {}, using platform thread.",
+                        name, ex);
+            }
+        }
+        final Thread t = new Thread(this.threadGroup, r, name);
         t.setDaemon(true);
         return t;
     }
@@ -0,0 +1,26 @@
+package org.apache.commons.io.input.fork;
+
+import java.util.List;
+
+/**
+ * A {@link TailerListener} that receives lines in batches, rather than one by
+ * one. The tailer will call {@link #handle(List)} once for every read of the
+ * file, with all the complete lines that the read found. The
+ * {@link #handle(String)} method will not be called by the tailer.
+ */
+public interface BatchingTailerListener extends TailerListener {
+
+    /**
+     * Handles lines from a Tailer, in the order in which they appear in the
+     * file.
+     * <p>
+     * <b>Note:</b> this is called from the tailer thread. The list will be
+     * reused by the tailer once the method returns; it must not be modified,
+     * and it must not be kept.
+     *
+     * @param lines
+     *            the lines, never empty.
+     */
+    void handle(List<String> lines);
+
+}
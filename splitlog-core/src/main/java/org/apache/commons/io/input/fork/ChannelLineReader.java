@@ -0,0 +1,330 @@
+package org.apache.commons.io.input.fork;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+
+/**
+ * Splits the contents of a {@link FileChannel} into lines and hands them over
+ * to a {@link TailerListener}.
+ *
+ * Lines are terminated the same way as in {@link TailerRun}: by LF, by CRLF or
+ * by a lone CR. When several CRs follow each other, all but the last one are
+ * part of the line.
+ *
+ * The bytes are read in bulk into a direct buffer that is reused for the whole
+ * lifetime of the reader. Each line is decoded straight from its slice of that
+ * buffer, avoiding the intermediate copies of the byte-by-byte approach. The
+ * buffer only grows when a single line does not fit into it.
+ *
+ * Alternatively, a region of the file can be read by mapping it into memory,
+ * one window at a time. This avoids copying the bytes altogether and is
+ * intended for reading large amounts of content that already exist.
+ *
+ * A {@link BatchingTailerListener} receives the lines once per every call to
+ * {@link #readLines(FileChannel, long)} and once per every mapped window.
+ *
+ * Instances are not thread-safe. However, several instances may read
+ * different regions of the same channel at the same time.
+ */
+public final class ChannelLineReader {
+
+    /**
+     * Maximum amount of bytes to map into memory at once.
+     */
+    public static final int MAPPING_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final int SEARCH_BUFFER_SIZE = 8192;
+
+    /**
+     * Find where the first line starts that begins at or after a given
+     * position. Only LF is considered to terminate lines here, so that the
+     * result does not depend on bytes beyond it.
+     *
+     * @param channel
+     *            The file to look into. Its own position is neither used nor
+     *            changed.
+     * @param position
+     *            Where in the file to start looking.
+     * @param limit
+     *            Where in the file to stop looking, exclusive.
+     * @return Position right after the first LF found, or the position itself
+     *         if it already is right after one. The limit if there is no LF.
+     * @throws IOException
+     *             if an I/O error occurs.
+     */
+    public static long nextLineStart(final FileChannel channel, final long position, final long limit)
+            throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(ChannelLineReader.SEARCH_BUFFER_SIZE);
+        long bufferStart = position - 1; // the preceding byte may already be the LF
+        while (bufferStart < limit) {
+            ((Buffer) buffer).clear();
+            ((Buffer) buffer).limit((int) Math.min(buffer.capacity(), limit - bufferStart));
+            final int num = channel.read(buffer, bufferStart);
+            if (num <= 0) {
+                break;
+            }
+            for (int i = 0; i < num; i++) {
+                if (buffer.get(i) == '\n') {
+                    return bufferStart + i + 1;
+                }
+            }
+            bufferStart += num;
+        }
+        return limit;
+    }
+
+    /**
+     * Only allocated once {@link #readLines(FileChannel, long)} is first
+     * called.
+     */
+    private ByteBuffer buffer;
+    private final int bufSize;
+    private final LineDecoder decoder;
+    private final LineBatch lines;
+    /**
+     * Whether the latest {@link #readLines(FileChannel, long, long)} stopped
+     * before the end of the file.
+     */
+    private boolean stoppedShort;
+    /**
+     * Shares content with {@link #buffer}, so that lines can be decoded
+     * without disturbing the position of the buffer.
+     */
+    private ByteBuffer view;
+
+    /**
+     * @param cset
+     *            the Charset to be used for decoding the lines
+     * @param listener
+     *            the listener to hand the lines over to
+     * @param bufSize
+     *            initial size of the buffer for
+     *            {@link #readLines(FileChannel, long)}
+     */
+    public ChannelLineReader(final Charset cset, final TailerListener listener, final int bufSize) {
+        this.decoder = new LineDecoder(cset);
+        this.lines = new LineBatch(listener);
+        this.bufSize = bufSize;
+    }
+
+    private void allocate(final int bufSize) {
+        this.buffer = ByteBuffer.allocateDirect(bufSize);
+        this.view = this.buffer.duplicate();
+    }
+
+    /**
+     * Moves the unfinished line to the beginning of the buffer. If the
+     * unfinished line already starts there, the buffer will be enlarged.
+     *
+     * @param lineStart
+     *            Where in the buffer the unfinished line starts.
+     */
+    private void makeRoom(final int lineStart) {
+        final Buffer b = this.buffer;
+        if (lineStart > 0) {
+            b.limit(b.position());
+            b.position(lineStart);
+            this.buffer.compact();
+        } else {
+            final ByteBuffer old = this.buffer;
+            this.allocate(old.capacity() * 2);
+            ((Buffer) old).flip();
+            this.buffer.put(old);
+        }
+    }
+
+    private void emit(final ByteBuffer source, final int start, final int end) {
+        this.lines.add(this.decoder.decode(source, start, end));
+    }
+
+    /**
+     * @return Whether the latest {@link #readLines(FileChannel, long, long)}
+     *         stopped before the end of the file, as it has read as much as it
+     *         was allowed to.
+     */
+    public boolean hasStoppedShort() {
+        return this.stoppedShort;
+    }
+
+    /**
+     * Read new lines, starting at a given position.
+     *
+     * @param channel
+     *            The file to read. Its own position is neither used nor
+     *            changed.
+     * @param position
+     *            Where in the file to start reading.
+     * @return Position of the first byte that is not part of any complete line;
+     *         this is where the next read needs to start.
+     * @throws IOException
+     *             if an I/O error occurs.
+     */
+    public long readLines(final FileChannel channel, final long position) throws IOException {
+        return this.readLines(channel, position, Long.MAX_VALUE);
+    }
+
+    /**
+     * Read new lines, starting at a given position, until the end of the file
+     * or until a given amount of bytes has been read, whichever comes first.
+     *
+     * @param channel
+     *            The file to read. Its own position is neither used nor
+     *            changed.
+     * @param position
+     *            Where in the file to start reading.
+     * @param maxBytes
+     *            How many bytes to read at most. Will be exceeded when the
+     *            first line does not fit, so that there is always progress.
+     * @return Position of the first byte that is not part of any complete line;
+     *         this is where the next read needs to start.
+     * @throws IOException
+     *             if an I/O error occurs.
+     */
+    public long readLines(final FileChannel channel, final long position, final long maxBytes)
+            throws IOException {
+        long bufferStart = position; // file position of the first byte in the buffer
+        int lineStart = 0;
+        int scanned = 0;
+        this.stoppedShort = false;
+        if (this.buffer == null) {
+            this.allocate(this.bufSize);
+        }
+        ((Buffer) this.buffer).clear();
+        try {
+            while (true) {
+                if (!this.buffer.hasRemaining()) {
+                    this.makeRoom(lineStart);
+                    bufferStart += lineStart;
+                    scanned -= lineStart;
+                    lineStart = 0;
+                }
+                final int num = channel.read(this.buffer, bufferStart + this.buffer.position());
+                if (num <= 0) {
+                    break;
+                }
+                final int end = this.buffer.position();
+                final long budgetInBuffer = maxBytes - (bufferStart - position);
+                lineStart = this.split(this.buffer, this.view, lineStart, scanned, end,
+                        (int) Math.min(budgetInBuffer, Integer.MAX_VALUE));
+                if (lineStart >= budgetInBuffer) {
+                    // the rest is for the next time
+                    this.stoppedShort = bufferStart + lineStart < channel.size();
+                    break;
+                }
+                scanned = end;
+            }
+        } finally {
+            this.lines.flush();
+        }
+        return bufferStart + lineStart;
+    }
+
+    /**
+     * Read new lines from a region of the file by mapping it into memory.
+     * Lines that end beyond the region are not read.
+     *
+     * @param channel
+     *            The file to read. Its own position is neither used nor
+     *            changed.
+     * @param position
+     *            Where in the file the region starts.
+     * @param limit
+     *            Where in the file the region ends, exclusive.
+     * @param windowSize
+     *            Maximum amount of bytes to map at once. Will be exceeded when
+     *            a single line does not fit.
+     * @return Position of the first byte that is not part of any complete line
+     *         within the region; this is where the next read needs to start.
+     * @throws IOException
+     *             if an I/O error occurs.
+     */
+    public long readMapped(final FileChannel channel, final long position, final long limit, final int windowSize)
+            throws IOException {
+        long windowStart = position;
+        int maxWindowSize = windowSize;
+        while (windowStart < limit) {
+            final int size = (int) Math.min(maxWindowSize, limit - windowStart);
+            final MappedByteBuffer window = channel.map(MapMode.READ_ONLY, windowStart, size);
+            final int lineStart;
+            try {
+                lineStart = this.split(window, window.duplicate(), 0, 0, size, Integer.MAX_VALUE);
+            } finally {
+                this.lines.flush();
+            }
+            if (windowStart + size == limit) {
+                return windowStart + lineStart;
+            } else if (lineStart > 0) {
+                // next window starts with the first incomplete line
+                windowStart += lineStart;
+            } else if (maxWindowSize == Integer.MAX_VALUE) {
+                // line too long to be mapped; leave it to the regular reading
+                return windowStart;
+            } else {
+                // line does not fit into the window; enlarge it
+                maxWindowSize = (int) Math.min((long) maxWindowSize * 2, Integer.MAX_VALUE);
+            }
+        }
+        return windowStart;
+    }
+
+    /**
+     * Find complete lines within a part of the buffer and hand them over to
+     * the listener.
+     *
+     * @param source
+     *            The buffer to look into.
+     * @param sourceView
+     *            Shares content with the source, used for decoding the lines.
+     * @param lineStart
+     *            Where the first line begins.
+     * @param from
+     *            Where to start looking for line terminators. Bytes between
+     *            lineStart and this have already been looked at.
+     * @param to
+     *            Where to stop looking.
+     * @param stopAt
+     *            Stop as soon as a line ends here or later.
+     * @return Where the first incomplete line begins, or where the line
+     *         that ends at or after stopAt ends.
+     */
+    private int split(final ByteBuffer source, final ByteBuffer sourceView, final int lineStart, final int from,
+            final int to, final int stopAt) {
+        int start = lineStart;
+        boolean seenCR = (from > start) && (source.get(from - 1) == '\r');
+        for (int i = from; i < to; i++) {
+            final byte ch = source.get(i);
+            switch (ch) {
+                case '\n':
+                    this.emit(sourceView, start, seenCR ? i - 1 : i); // swallow CR before LF
+                    start = i + 1;
+                    seenCR = false;
+                    if (start >= stopAt) {
+                        return start;
+                    }
+                    break;
+                case '\r':
+                    seenCR = true;
+                    break;
+                default:
+                    if (seenCR) {
+                        this.emit(sourceView, start, i - 1); // swallow final CR
+                        start = i;
+                        seenCR = false;
+                        if (start >= stopAt) {
+                            return start;
+                        }
+                    }
+            }
+        }
+        return start;
+    }
+
+}
@@ -0,0 +1,156 @@
+package org.apache.commons.io.input.fork;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tells {@link Tailer}s about changes to their files as soon as the file
+ * system reports them, so that they do not need to wait for the next poll.
+ *
+ * A single {@link WatchService} and a single daemon thread are shared by all
+ * the tailers; each directory is registered with the service only once, no
+ * matter how many files in it are being watched.
+ */
+final class FileChangeNotifier implements Runnable {
+
+    private static FileChangeNotifier INSTANCE;
+
+    /**
+     * Retrieve the notifier, starting it if necessary.
+     *
+     * @return The notifier shared by all the tailers.
+     * @throws IOException
+     *             When the file system does not provide a watch service.
+     */
+    public static synchronized FileChangeNotifier getInstance() throws IOException {
+        if (FileChangeNotifier.INSTANCE == null) {
+            final FileChangeNotifier notifier = new FileChangeNotifier(FileSystems.getDefault().newWatchService());
+            final Thread thread = new Thread(notifier, "tailer-notifications");
+            thread.setDaemon(true);
+            thread.start();
+            FileChangeNotifier.INSTANCE = notifier;
+        }
+        return FileChangeNotifier.INSTANCE;
+    }
+
+    private final Map<Path, List<Runnable>> callbacks = new HashMap<>();
+    private final Map<Path, WatchKey> directories = new HashMap<>();
+    private final WatchService service;
+
+    private FileChangeNotifier(final WatchService service) {
+        this.service = service;
+    }
+
+    /**
+     * The directory can no longer be watched, most likely because it was
+     * deleted. Forget about it, so that it is registered anew next time.
+     */
+    private synchronized void directoryGone(final Path directory, final WatchKey key) {
+        if (this.directories.get(directory) == key) {
+            this.directories.remove(directory);
+        }
+    }
+
+    private synchronized List<Runnable> getCallbacks(final Path directory, final WatchEvent<?> event) {
+        final List<Runnable> result = new ArrayList<>();
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            // events were lost; everyone in the directory needs to check
+            for (final Map.Entry<Path, List<Runnable>> entry : this.callbacks.entrySet()) {
+                if (directory.equals(entry.getKey().getParent())) {
+                    result.addAll(entry.getValue());
+                }
+            }
+        } else {
+            final List<Runnable> forFile = this.callbacks.get(directory.resolve((Path) event.context()));
+            if (forFile != null) {
+                result.addAll(forFile);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Start notifying of changes to a given file.
+     *
+     * @param file
+     *            File in question.
+     * @param callback
+     *            Will be run on the notifier's thread whenever the file is
+     *            created or modified, therefore it should return quickly.
+     * @throws IOException
+     *             When the file's directory cannot be watched.
+     */
+    public synchronized void register(final File file, final Runnable callback) throws IOException {
+        final Path path = file.getAbsoluteFile().toPath();
+        final Path directory = path.getParent();
+        if (!this.directories.containsKey(directory)) {
+            this.directories.put(directory, directory.register(this.service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY));
+        }
+        List<Runnable> forFile = this.callbacks.get(path);
+        if (forFile == null) {
+            forFile = new ArrayList<>();
+            this.callbacks.put(path, forFile);
+        }
+        forFile.add(callback);
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            final WatchKey key;
+            try {
+                key = this.service.take();
+            } catch (final InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            final Path directory = (Path) key.watchable();
+            for (final WatchEvent<?> event : key.pollEvents()) {
+                this.getCallbacks(directory, event).forEach(Runnable::run);
+            }
+            if (!key.reset()) {
+                this.directoryGone(directory, key);
+            }
+        }
+    }
+
+    /**
+     * Stop notifying of changes to a given file.
+     *
+     * @param file
+     *            File in question.
+     * @param callback
+     *            Callback previously passed to {@link #register(File, Runnable)}.
+     */
+    public synchronized void unregister(final File file, final Runnable callback) {
+        final Path path = file.getAbsoluteFile().toPath();
+        final List<Runnable> forFile = this.callbacks.get(path);
+        if (forFile == null || !forFile.remove(callback) || !forFile.isEmpty()) {
+            return;
+        }
+        this.callbacks.remove(path);
+        final Path directory = path.getParent();
+        for (final Path remaining : this.callbacks.keySet()) {
+            if (directory.equals(remaining.getParent())) {
+                // directory still watched for other files
+                return;
+            }
+        }
+        final WatchKey key = this.directories.remove(directory);
+        if (key != null) {
+            key.cancel();
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package org.apache.commons.io.input.fork;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hands lines over to a {@link TailerListener}. If the listener is a
+ * {@link BatchingTailerListener}, lines are collected until {@link #flush()}
+ * and then handed over all at once. Otherwise, they are handed over
+ * immediately, one by one.
+ */
+final class LineBatch {
+
+    private final BatchingTailerListener batchingListener;
+    private final List<String> lines = new ArrayList<>();
+    private final TailerListener listener;
+
+    public LineBatch(final TailerListener listener) {
+        this.listener = listener;
+        this.batchingListener = (listener instanceof BatchingTailerListener) ? (BatchingTailerListener) listener
+                : null;
+    }
+
+    public void add(final String line) {
+        if (this.batchingListener == null) {
+            this.listener.handle(line);
+        } else {
+            this.lines.add(line);
+        }
+    }
+
+    /**
+     * Hand the lines collected so far over to the listener, if there are any.
+     */
+    public void flush() {
+        if (this.lines.isEmpty()) {
+            return;
+        }
+        try {
+            this.batchingListener.handle(this.lines);
+        } finally {
+            this.lines.clear();
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+package org.apache.commons.io.input.fork;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns the bytes of a line into a string, the same way that
+ * {@link String#String(byte[], Charset)} would.
+ *
+ * Lines that consist only of ASCII characters, which is what logs are mostly
+ * made of, are copied straight into the resulting string; for ISO-8859-1, this
+ * holds for every line. Only the other lines go through the
+ * {@link CharsetDecoder}. The decoder and all the buffers are reused between
+ * lines, so that the only thing allocated per line is the string itself.
+ *
+ * Instances are not thread-safe; every tailer has its own.
+ */
+final class LineDecoder {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Whether ASCII characters are encoded as single bytes of the same value
+     * in the charset.
+     */
+    private final boolean asciiCompatible;
+    private char[] chars = new char[LineDecoder.INITIAL_CAPACITY];
+    private final CharsetDecoder decoder;
+    /**
+     * Whether every byte is decoded to a character of the same value.
+     */
+    private final boolean latin1;
+    private CharBuffer out = CharBuffer.allocate(LineDecoder.INITIAL_CAPACITY);
+    private ByteBuffer wrapped = ByteBuffer.allocate(0);
+
+    public LineDecoder(final Charset cset) {
+        this.decoder = cset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.latin1 = cset.equals(StandardCharsets.ISO_8859_1);
+        this.asciiCompatible = this.latin1 || cset.equals(StandardCharsets.US_ASCII)
+                || cset.equals(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decode a part of a byte array.
+     *
+     * @param bytes
+     *            Bytes to decode.
+     * @param offset
+     *            Where the line starts.
+     * @param length
+     *            How many bytes the line has.
+     * @return The line.
+     */
+    public String decode(final byte[] bytes, final int offset, final int length) {
+        if (this.asciiCompatible) {
+            final char[] target = this.ensureChars(length);
+            int i = 0;
+            for (; i < length; i++) {
+                final byte b = bytes[offset + i];
+                if ((b < 0) && !this.latin1) {
+                    break;
+                }
+                target[i] = (char) (b & 0xFF);
+            }
+            if (i == length) {
+                return new String(target, 0, length);
+            }
+        }
+        if (this.wrapped.array() != bytes) {
+            this.wrapped = ByteBuffer.wrap(bytes);
+        }
+        return this.decodeSlowly(this.wrapped, offset, offset + length);
+    }
+
+    /**
+     * Decode a part of a byte buffer. The position and limit of the buffer
+     * will change.
+     *
+     * @param bytes
+     *            Bytes to decode.
+     * @param start
+     *            Where the line starts.
+     * @param end
+     *            Where the line ends, exclusive.
+     * @return The line.
+     */
+    public String decode(final ByteBuffer bytes, final int start, final int end) {
+        ((Buffer) bytes).clear(); // the limit may have been left over from the previous line
+        if (this.asciiCompatible) {
+            final int length = end - start;
+            final char[] target = this.ensureChars(length);
+            int i = 0;
+            for (; i < length; i++) {
+                final byte b = bytes.get(start + i);
+                if ((b < 0) && !this.latin1) {
+                    break;
+                }
+                target[i] = (char) (b & 0xFF);
+            }
+            if (i == length) {
+                return new String(target, 0, length);
+            }
+        }
+        return this.decodeSlowly(bytes, start, end);
+    }
+
+    private String decodeSlowly(final ByteBuffer bytes, final int start, final int end) {
+        final Buffer in = bytes;
+        in.clear();
+        in.position(start);
+        in.limit(end);
+        final int required = (int) Math.ceil((end - start) * (double) this.decoder.maxCharsPerByte());
+        if (this.out.capacity() < required) {
+            this.out = CharBuffer.allocate(required);
+        }
+        ((Buffer) this.out).clear();
+        this.decoder.reset();
+        // with REPLACE and enough room in the output, neither call can fail
+        this.decoder.decode(bytes, this.out, true);
+        this.decoder.flush(this.out);
+        ((Buffer) this.out).flip();
+        return this.out.toString();
+    }
+
+    private char[] ensureChars(final int length) {
+        if (this.chars.length < length) {
+            this.chars = new char[Math.max(length, this.chars.length * 2)];
+        }
+        return this.chars;
+    }
+
+}
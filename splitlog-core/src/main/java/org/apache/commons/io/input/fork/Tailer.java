@@ -19,12 +19,17 @@
 package org.apache.commons.io.input.fork;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.io.input.TailerListenerAdapter;
 
@@ -141,6 +146,315 @@ import org.apache.commons.io.input.TailerListenerAdapter;
  */
 public class Tailer implements Runnable {
 
+    /**
+     * Collects the settings of a {@link Tailer}. Unless overriden, the tailer
+     * will read the file from the beginning, using the default charset, a
+     * buffer of 4 KiB and with a delay of 1.0s between reads.
+     */
+    public static final class Builder {
+
+        private int bufSize = Tailer.DEFAULT_BUFSIZE;
+        private boolean catchUp;
+        private boolean channel;
+        private Charset cset = Tailer.DEFAULT_CHARSET;
+        private long delayMillis = Tailer.DEFAULT_DELAY_MILLIS;
+        private boolean end;
+        private ScheduledExecutorService executor;
+        private long maxDelayMillis;
+        private long minDelayMillis;
+        private final File file;
+        private boolean followingRenames;
+        private final TailerListener listener;
+        private boolean notifications;
+        private long readBudget;
+        private boolean reOpen;
+        private long startPosition = -1;
+        private ThreadFactory threadFactory = Executors.defaultThreadFactory();
+
+        /**
+         * @param file
+         *            the file to follow.
+         * @param listener
+         *            the TailerListener to use.
+         */
+        public Builder(final File file, final TailerListener listener) {
+            this.file = file;
+            this.listener = listener;
+        }
+
+        /**
+         * @return The new tailer.
+         */
+        public Tailer build() {
+            return new Tailer(this);
+        }
+
+        /**
+         * @param catchUp
+         *            Set to true to read the content that already exists in
+         *            the file by mapping the file into memory. Has no effect
+         *            when tailing from the end of the file.
+         * @return This.
+         */
+        public Builder catchingUpThroughMapping(final boolean catchUp) {
+            this.catchUp = catchUp;
+            return this;
+        }
+
+        /**
+         * @param followingRenames
+         *            Set to true to keep reading the file that was opened
+         *            after it has been renamed or deleted, rather than to
+         *            switch over to the file that takes its place. For when
+         *            the file is no longer expected under its name, but
+         *            still needs to be read to the end.
+         * @return This.
+         */
+        public Builder followingRenames(final boolean followingRenames) {
+            this.followingRenames = followingRenames;
+            return this;
+        }
+
+        int getBufferSize() {
+            return this.bufSize;
+        }
+
+        Charset getCharset() {
+            return this.cset;
+        }
+
+        long getDelay() {
+            return this.delayMillis;
+        }
+
+        ScheduledExecutorService getExecutor() {
+            return this.executor;
+        }
+
+        File getFile() {
+            return this.file;
+        }
+
+        TailerListener getListener() {
+            return this.listener;
+        }
+
+        long getMaxDelay() {
+            return this.maxDelayMillis;
+        }
+
+        long getMinDelay() {
+            return this.minDelayMillis;
+        }
+
+        long getReadBudget() {
+            return this.readBudget;
+        }
+
+        long getStartPosition() {
+            return this.startPosition;
+        }
+
+        ThreadFactory getThreadFactory() {
+            return this.threadFactory;
+        }
+
+        boolean isCatchingUpThroughMapping() {
+            return this.catchUp;
+        }
+
+        boolean isFollowingRenames() {
+            return this.followingRenames;
+        }
+
+        boolean isReadingFromEnd() {
+            return this.end;
+        }
+
+        boolean isReadingThroughChannel() {
+            return this.channel;
+        }
+
+        boolean isReopeningBetweenReads() {
+            return this.reOpen;
+        }
+
+        boolean isUsingFileSystemNotifications() {
+            return this.notifications;
+        }
+
+        /**
+         * @param end
+         *            Set to true to tail from the end of the file, false to
+         *            tail from the beginning of the file.
+         * @return This.
+         */
+        public Builder readingFromEnd(final boolean end) {
+            this.end = end;
+            return this;
+        }
+
+        /**
+         * @param channel
+         *            Set to true to read the file in bulk through a
+         *            {@link java.nio.channels.FileChannel} and a reusable
+         *            direct buffer, as opposed to byte by byte.
+         * @return This.
+         */
+        public Builder readingThroughChannel(final boolean channel) {
+            this.channel = channel;
+            return this;
+        }
+
+        /**
+         * @param reOpen
+         *            if true, let go of the file as soon as it disappears,
+         *            instead of holding on to it until a new file takes its
+         *            place. Either way, the file is kept open between reads
+         *            and only reopened when it is replaced, as told by its
+         *            identity and length.
+         * @return This.
+         */
+        public Builder reopeningBetweenReads(final boolean reOpen) {
+            this.reOpen = reOpen;
+            return this;
+        }
+
+        /**
+         * @param executor
+         *            Executor to schedule the reading on, possibly shared with
+         *            other tailers. The tailer will not shut it down. When not
+         *            set, the tailer will create an executor of its own.
+         * @return This.
+         */
+        public Builder schedulingOn(final ScheduledExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param position
+         *            Where in the file to start tailing, such as a position
+         *            previously reported by {@link Tailer#getPosition()}.
+         *            Overrides {@link #readingFromEnd(boolean)}, unless the
+         *            file is shorter than that.
+         * @return This.
+         */
+        public Builder startingAt(final long position) {
+            if (position < 0) {
+                throw new IllegalArgumentException("Position must not be negative.");
+            }
+            this.startPosition = position;
+            return this;
+        }
+
+        /**
+         * @param notifications
+         *            Set to true to read the file as soon as the file system
+         *            reports a change to it, through a
+         *            {@link java.nio.file.WatchService}. The delay between
+         *            checks then only serves as a safety net, in case some
+         *            changes are not reported. When the file system cannot be
+         *            watched, the tailer will fall back to only checking
+         *            periodically.
+         * @return This.
+         */
+        public Builder usingFileSystemNotifications(final boolean notifications) {
+            this.notifications = notifications;
+            return this;
+        }
+
+        /**
+         * Make the delay between checks adapt to how often the file is
+         * written to. Every check that finds new content halves the delay,
+         * every check that does not doubles it, within the given bounds.
+         *
+         * @param minDelayMillis
+         *            the shortest possible delay in milliseconds, at least 1.
+         * @param maxDelayMillis
+         *            the longest possible delay in milliseconds, at least the
+         *            shortest.
+         * @return This.
+         */
+        public Builder withAdaptiveDelay(final long minDelayMillis, final long maxDelayMillis) {
+            if (minDelayMillis < 1) {
+                throw new IllegalArgumentException("The shortest delay must be at least 1 ms.");
+            } else if (maxDelayMillis < minDelayMillis) {
+                throw new IllegalArgumentException("The longest delay must not be shorter than the shortest delay.");
+            }
+            this.minDelayMillis = minDelayMillis;
+            this.maxDelayMillis = maxDelayMillis;
+            return this;
+        }
+
+        /**
+         * @param bufSize
+         *            Buffer size
+         * @return This.
+         */
+        public Builder withBufferSize(final int bufSize) {
+            this.bufSize = bufSize;
+            return this;
+        }
+
+        /**
+         * @param cset
+         *            the Charset to be used for reading the file
+         * @return This.
+         */
+        public Builder withCharset(final Charset cset) {
+            this.cset = cset;
+            return this;
+        }
+
+        /**
+         * @param delayMillis
+         *            the delay between checks of the file for new content in
+         *            milliseconds.
+         * @return This.
+         */
+        public Builder withDelay(final long delayMillis) {
+            this.delayMillis = delayMillis;
+            return this;
+        }
+
+        /**
+         * Limit how much is read in a single check of the file. When there
+         * is more, the rest is read as soon as possible, but only after the
+         * other tasks waiting for the executor; this keeps a file that
+         * suddenly grows large from holding up the others on a shared
+         * executor.
+         *
+         * @param maxBytes
+         *            the maximum amount of bytes to read in a single check.
+         *            Will be exceeded when the first line does not fit.
+         * @return This.
+         */
+        public Builder withReadBudget(final long maxBytes) {
+            if (maxBytes < 1) {
+                throw new IllegalArgumentException("Read budget must be at least 1 byte.");
+            }
+            this.readBudget = maxBytes;
+            return this;
+        }
+
+        /**
+         * @param threadFactory
+         *            Creates the thread that the reading will happen on, when
+         *            the tailer creates an executor of its own. Has no effect
+         *            with {@link #schedulingOn(ScheduledExecutorService)}.
+         * @return This.
+         */
+        public Builder withThreadFactory(final ThreadFactory threadFactory) {
+            if (threadFactory == null) {
+                throw new IllegalArgumentException("Thread factory must not be null.");
+            }
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+    }
+
     private static final int DEFAULT_BUFSIZE = 4096;
 
     // The default charset used for reading files
@@ -164,7 +478,7 @@ public class Tailer implements Runnable {
      *            Set to true to tail from the end of the file, false to tail
      *            from the beginning of the file.
      * @param reOpen
-     *            whether to close/reopen the file between chunks
+     *            whether to let go of the file as soon as it disappears
      * @param bufSize
      *            buffer size.
      * @return The new tailer
@@ -243,7 +557,7 @@ public class Tailer implements Runnable {
      *            Set to true to tail from the end of the file, false to tail
      *            from the beginning of the file.
      * @param reOpen
-     *            whether to close/reopen the file between chunks
+     *            whether to let go of the file as soon as it disappears
      * @return The new tailer
      */
     public static Tailer create(final File file, final TailerListener listener, final long delayMillis,
@@ -265,7 +579,7 @@ public class Tailer implements Runnable {
      *            Set to true to tail from the end of the file, false to tail
      *            from the beginning of the file.
      * @param reOpen
-     *            whether to close/reopen the file between chunks
+     *            whether to let go of the file as soon as it disappears
      * @param bufSize
      *            buffer size.
      * @return The new tailer
@@ -302,7 +616,21 @@ public class Tailer implements Runnable {
      */
     private final long delayMillis;
 
-    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+    /**
+     * The amount of time currently being waited for the file to be updated.
+     * Only differs from {@link #delayMillis} when adapting the delay.
+     */
+    private volatile long currentDelayMillis;
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Whether {@link #run()} will wait for {@link #stop()}, as opposed to the
+     * tailer being started by {@link #start()}.
+     */
+    private volatile boolean blocking;
+
+    private boolean finished;
 
     /**
      * The file which will be tailed.
@@ -311,10 +639,44 @@ public class Tailer implements Runnable {
 
     private final TailerListener listener;
 
+    /**
+     * Bounds of {@link #currentDelayMillis}. Both 0 when not adapting the
+     * delay.
+     */
+    private final long maxDelayMillis, minDelayMillis;
+
+    private FileChangeNotifier notifier;
+
+    /**
+     * Whether {@link #executor} was created by this tailer, and therefore
+     * needs to be shut down by it.
+     */
+    private final boolean ownsExecutor;
+
+    private ScheduledFuture<?> periodicRead;
+
+    /**
+     * Whether to read the file one last time before stopping; see
+     * {@link #stopAfterReadingToEnd()}.
+     */
+    private volatile boolean readingToEnd;
+
     private final CountDownLatch runTrigger = new CountDownLatch(1);
 
     private final TailerRun scheduled;
 
+    /**
+     * Whether a read requested by {@link #trigger()} is waiting to be
+     * executed.
+     */
+    private final AtomicBoolean triggered = new AtomicBoolean(false);
+
+    private final Runnable triggerCallback = this::trigger;
+
+    private final Runnable triggeredRun = this::runTriggered;
+
+    private final boolean useNotifications;
+
     /**
      * Creates a Tailer for the given file, with a specified buffer size.
      *
@@ -331,17 +693,36 @@ public class Tailer implements Runnable {
      *            Set to true to tail from the end of the file, false to tail
      *            from the beginning of the file.
      * @param reOpen
-     *            if true, close and reopen the file between reading chunks
+     *            if true, let go of the file as soon as it disappears
      * @param bufSize
      *            Buffer size
      */
     public Tailer(final File file, final Charset cset, final TailerListener listener, final long delayMillis,
             final boolean end, final boolean reOpen, final int bufSize) {
-        this.file = file;
-        this.delayMillis = delayMillis;
-        this.listener = listener;
-        listener.init(this);
-        this.scheduled = new TailerRun(file, cset, listener, end, reOpen, bufSize);
+        this(new Builder(file, listener).withCharset(cset).withDelay(delayMillis).readingFromEnd(end)
+                .reopeningBetweenReads(reOpen).withBufferSize(bufSize));
+    }
+
+    /**
+     * Creates a Tailer with the settings from a given builder.
+     *
+     * @param builder
+     *            the settings to use.
+     */
+    protected Tailer(final Builder builder) {
+        this.file = builder.getFile();
+        this.delayMillis = builder.getDelay();
+        this.minDelayMillis = builder.getMinDelay();
+        this.maxDelayMillis = builder.getMaxDelay();
+        this.currentDelayMillis = this.isAdaptingDelay() ? Math.min(Math.max(this.delayMillis,
+                this.minDelayMillis), this.maxDelayMillis) : this.delayMillis;
+        this.listener = builder.getListener();
+        this.useNotifications = builder.isUsingFileSystemNotifications();
+        this.ownsExecutor = builder.getExecutor() == null;
+        this.executor = this.ownsExecutor ? new ScheduledThreadPoolExecutor(1, builder.getThreadFactory())
+                : builder.getExecutor();
+        this.listener.init(this);
+        this.scheduled = new TailerRun(builder);
     }
 
     /**
@@ -406,7 +787,7 @@ public class Tailer implements Runnable {
      *            Set to true to tail from the end of the file, false to tail
      *            from the beginning of the file.
      * @param reOpen
-     *            if true, close and reopen the file between reading chunks
+     *            if true, let go of the file as soon as it disappears
      */
     public Tailer(final File file, final TailerListener listener, final long delayMillis, final boolean end,
             final boolean reOpen) {
@@ -427,7 +808,7 @@ public class Tailer implements Runnable {
      *            Set to true to tail from the end of the file, false to tail
      *            from the beginning of the file.
      * @param reOpen
-     *            if true, close and reopen the file between reading chunks
+     *            if true, let go of the file as soon as it disappears
      * @param bufSize
      *            Buffer size
      */
@@ -466,6 +847,16 @@ public class Tailer implements Runnable {
         return this.delayMillis;
     }
 
+    /**
+     * Return the delay that is currently being waited between two checks of
+     * the file. Only differs from {@link #getDelay()} when adapting the delay.
+     *
+     * @return the delay in milliseconds.
+     */
+    public long getCurrentDelay() {
+        return this.currentDelayMillis;
+    }
+
     /**
      * Return the file.
      *
@@ -475,6 +866,27 @@ public class Tailer implements Runnable {
         return this.file;
     }
 
+    /**
+     * Return the position in the file up to which all the complete lines have
+     * been handed over to the listener.
+     *
+     * @return the position in bytes, or -1 if the file has not yet been
+     *         opened.
+     */
+    public long getPosition() {
+        return this.scheduled.getPosition();
+    }
+
+    /**
+     * Return how many checks of the file stopped short of its end, as they had
+     * read as much as {@link Builder#withReadBudget(long)} allows.
+     *
+     * @return the number of such checks.
+     */
+    public long getThrottledReadCount() {
+        return this.scheduled.getThrottledCount();
+    }
+
     /**
      * Gets whether to keep on running.
      *
@@ -485,31 +897,171 @@ public class Tailer implements Runnable {
         return this.runTrigger.getCount() > 0;
     }
 
+    private boolean isAdaptingDelay() {
+        return this.maxDelayMillis > 0;
+    }
+
     /**
      * Follows changes in the file, calling the TailerListener's handle method
      * for each new line.
      */
     @Override
     public void run() {
-        final ScheduledFuture<?> future = this.executor.scheduleWithFixedDelay(this.scheduled, 0, this.delayMillis,
-                TimeUnit.MILLISECONDS);
+        this.blocking = true;
+        this.start();
         try {
             this.runTrigger.await();
         } catch (final InterruptedException e) {
             this.listener.handle(e);
         } finally {
-            future.cancel(true); // stop the periodic reading
-            this.scheduled.cleanup();
+            this.finish();
+        }
+    }
+
+    /**
+     * Stop reading and release all resources. Only the first call has any
+     * effect.
+     */
+    private synchronized void finish() {
+        if (this.finished) {
+            return;
+        }
+        this.finished = true;
+        if (this.notifier != null) {
+            this.notifier.unregister(this.file, this.triggerCallback);
+        }
+        if (this.periodicRead != null) {
+            // don't interrupt threads of a shared executor, nor a reading that the last one will follow
+            this.periodicRead.cancel(this.ownsExecutor && !this.readingToEnd); // stop the periodic reading
+        }
+        if (this.readingToEnd) {
+            this.scheduled.readToEnd();
+        }
+        this.scheduled.cleanup();
+        if (this.ownsExecutor) {
             this.executor.shutdownNow();
-            this.listener.destroy();
         }
+        this.listener.destroy();
+    }
+
+    /**
+     * Check the file and schedule the next check, with the delay adjusted
+     * based on whether the file has changed.
+     */
+    private void runAdaptively() {
+        this.runScheduled();
+        final long delay = this.currentDelayMillis;
+        this.currentDelayMillis = this.scheduled.hasFoundNewContent() ? Math.max(delay / 2, this.minDelayMillis)
+                : Math.min(delay * 2, this.maxDelayMillis);
+        synchronized (this) {
+            if (!this.finished && this.getRun()) {
+                this.periodicRead = this.executor.schedule(this::runAdaptively, this.currentDelayMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Check the file. If the check ran out of budget, have the rest read as
+     * soon as the executor gets to it.
+     */
+    private void runScheduled() {
+        this.scheduled.run();
+        if (this.scheduled.wasThrottled()) {
+            this.trigger();
+        }
+    }
+
+    private void runTriggered() {
+        this.triggered.set(false);
+        this.runScheduled();
     }
 
     /**
-     * Allows the tailer to complete its current loop and return.
+     * Register for notifications of changes to the file.
+     *
+     * @return Null when the file system will not send the notifications.
+     */
+    private FileChangeNotifier startNotifications() {
+        try {
+            final FileChangeNotifier notifier = FileChangeNotifier.getInstance();
+            notifier.register(this.file, this.triggerCallback);
+            return notifier;
+        } catch (final IOException ex) {
+            // periodic reading will take care of the file
+            this.listener.handle(ex);
+            return null;
+        }
+    }
+
+    /**
+     * Start following changes in the file, without blocking the current thread
+     * the way {@link #run()} does. Intended for tailers that share their
+     * executor with others, so that no thread needs to be dedicated to the
+     * tailer.
+     *
+     * @return False if already started or stopped, true otherwise.
+     */
+    public synchronized boolean start() {
+        if ((this.periodicRead != null) || !this.getRun()) {
+            return false;
+        }
+        if (this.isAdaptingDelay()) {
+            this.periodicRead = this.executor.schedule(this::runAdaptively, 0, TimeUnit.MILLISECONDS);
+        } else {
+            this.periodicRead = this.executor.scheduleWithFixedDelay(this::runScheduled, 0, this.delayMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        if (this.useNotifications) {
+            this.notifier = this.startNotifications();
+        }
+        return true;
+    }
+
+    /**
+     * Allows the tailer to complete its current loop and return. When started
+     * through {@link #start()}, the resources will be released on the
+     * executor.
      */
     public void stop() {
         this.runTrigger.countDown();
+        if (this.blocking) {
+            // run() will take care of the rest
+            return;
+        }
+        try {
+            this.executor.execute(this::finish);
+        } catch (final RejectedExecutionException ex) {
+            // executor no longer running
+            this.finish();
+        }
+    }
+
+    /**
+     * Read whatever is left in the file, then stop as {@link #stop()} does.
+     * For a file that will not be written to any more, such as one that was
+     * renamed or deleted while {@link Builder#followingRenames(boolean)}, so
+     * that the lines written since the last check are not lost.
+     */
+    public void stopAfterReadingToEnd() {
+        this.readingToEnd = true;
+        this.stop();
+    }
+
+    /**
+     * Read the file as soon as possible, regardless of the delay between
+     * checks. Requests made before the file has actually been read will only
+     * result in a single read.
+     */
+    private void trigger() {
+        if (!this.getRun() || !this.triggered.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            this.executor.execute(this.triggeredRun);
+        } catch (final RejectedExecutionException ex) {
+            // tailer stopped in the meantime
+        }
     }
 
     public void waitUntilStarted() {
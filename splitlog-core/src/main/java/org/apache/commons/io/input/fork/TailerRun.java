@@ -4,45 +4,143 @@ package org.apache.commons.io.input.fork;
  * TODO remove once https://issues.apache.org/jira/browse/IO-444 is fixed
  */
 import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 
 class TailerRun implements Runnable {
 
-    private static final String RAF_MODE = "r";
+    /**
+     * Gives access to the bytes collected so far, without copying them.
+     */
+    private static final class LineBuffer extends ByteArrayOutputStream {
+
+        public LineBuffer() {
+            super(64);
+        }
+
+        public String decode(final LineDecoder decoder) {
+            return decoder.decode(this.buf, 0, this.count);
+        }
+
+    }
+
+    private static Object getFileKey(final BasicFileAttributes attrs) {
+        return (attrs == null) ? null : attrs.fileKey();
+    }
+
+    private static long getLastModified(final BasicFileAttributes attrs) {
+        return (attrs == null) ? 0 : attrs.lastModifiedTime().toMillis();
+    }
+
+    private static long getLength(final BasicFileAttributes attrs) {
+        return (attrs == null) ? 0 : attrs.size();
+    }
+
+    private final int bufSize;
+    /**
+     * The file being read. Opened through {@link FileChannel#open(Path,
+     * java.nio.file.OpenOption...)}, so that on some platforms (Windows) the
+     * file can still be renamed or deleted while open. Null until the file is
+     * first opened, or after it has been released.
+     */
+    private FileChannel channel = null;
+    /**
+     * Maximum amount of bytes to read in a single run; 0 when unlimited.
+     */
+    private final long budget;
+    /**
+     * Amount of bytes that the current run may still read.
+     */
+    private long budgetLeft;
+    /**
+     * Whether to read the pre-existing content of the file by mapping it into
+     * memory.
+     */
+    private final boolean catchUp;
+    /**
+     * Reads the file through its channel, if so requested. Null otherwise.
+     */
+    private final ChannelLineReader channelReader;
     /**
      * The character set that will be used to read the file.
      */
     private final Charset cset;
+
+    private final LineDecoder decoder;
     /**
      * Whether to tail from the end or start of file
      */
     private final boolean end;
 
     /**
-     * The file which will be tailed.
+     * The file which will be tailed, for looking up its attributes.
      */
-    private final File file;
+    private final Path path;
 
     private final AtomicBoolean finished = new AtomicBoolean(false);
 
     /**
-     * Buffer on top of RandomAccessFile.
+     * Identity of the file being read, such as its inode number. Null if the
+     * file system does not provide one.
+     */
+    private Object fileKey;
+
+    /**
+     * Whether to keep reading the file that was opened once something else,
+     * or nothing at all, is found under its name.
+     */
+    private final boolean followingRenames;
+
+    /**
+     * Whether the latest reading found anything new in the file.
      */
-    private final byte inbuf[];
+    private volatile boolean foundNewContent;
+
+    /**
+     * Buffer for reading byte by byte. Null when reading through the channel
+     * reader.
+     */
+    private final ByteBuffer inbuf;
 
     /**
      * The last time the file was checked for changes.
      */
     private long last = 0;
 
+    /**
+     * Whether the file has ever been opened and the position therefore
+     * determined.
+     */
+    private volatile boolean opened;
+
+    /**
+     * Whether a run was requested that has not yet started reading.
+     */
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+
+    /**
+     * Reused between reads; only in use when not reading through the channel.
+     */
+    private final LineBuffer lineBuf;
+
+    /**
+     * Lines read in the current burst; only in use when not reading through
+     * the channel.
+     */
+    private final LineBatch lines;
+
     /**
      * The listener to notify of events when tailing.
      */
@@ -51,32 +149,118 @@ class TailerRun implements Runnable {
     /**
      * position within the file
      */
-    private long position = 0;
-    private RandomAccessFile reader = null;
+    private volatile long position = 0;
 
     /**
-     * Whether to close and reopen the file whilst waiting for more input.
+     * Whether to let go of the file as soon as it disappears, as opposed to
+     * holding on to it until a new file takes its place.
      */
     private final boolean reOpen;
 
+    /**
+     * Whether some thread is currently reading the file.
+     */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Where to start tailing; negative unless set explicitly.
+     */
+    private final long start;
+
     private final AtomicBoolean startedOnce = new AtomicBoolean(false);
 
-    public TailerRun(final File file, final Charset cset, final TailerListener listener, final boolean end,
-            final boolean reOpen, final int bufSize) {
-        this.file = file;
-        this.cset = cset;
-        this.end = end;
-        this.reOpen = reOpen;
-        this.inbuf = new byte[bufSize];
-        this.listener = listener;
+    /**
+     * Whether the latest reading stopped short of the end of the file, as it
+     * ran out of {@link #budget}.
+     */
+    private volatile boolean throttled;
+
+    /**
+     * How many times the reading ran out of {@link #budget}. Only ever changed
+     * by the thread that is reading.
+     */
+    private volatile long throttledCount;
+
+    public TailerRun(final Tailer.Builder builder) {
+        this.path = builder.getFile().toPath();
+        this.cset = builder.getCharset();
+        this.end = builder.isReadingFromEnd();
+        this.reOpen = builder.isReopeningBetweenReads();
+        this.followingRenames = builder.isFollowingRenames();
+        this.listener = builder.getListener();
+        this.bufSize = builder.getBufferSize();
+        this.catchUp = builder.isCatchingUpThroughMapping();
+        this.start = builder.getStartPosition();
+        this.budget = builder.getReadBudget();
+        if (builder.isReadingThroughChannel()) {
+            this.channelReader = new ChannelLineReader(this.cset, this.listener, this.bufSize);
+            this.decoder = null;
+            this.inbuf = null;
+            this.lineBuf = null;
+            this.lines = null;
+        } else {
+            this.channelReader = null;
+            this.decoder = new LineDecoder(this.cset);
+            this.inbuf = ByteBuffer.allocate(this.bufSize);
+            this.lineBuf = new LineBuffer();
+            this.lines = new LineBatch(this.listener);
+        }
+    }
+
+    /**
+     * Read the lines that are already present in the file, by mapping the file
+     * into memory window by window. The size of the file is determined once,
+     * at the beginning; whatever is written to the file afterwards is left for
+     * the regular reading.
+     *
+     * @param channel
+     *            The file to read
+     * @param from
+     *            Where in the file to start
+     * @return The position where the regular reading should continue
+     * @throws java.io.IOException
+     *             if an I/O error occurs.
+     */
+    private long catchUp(final FileChannel channel, final long from) throws IOException {
+        final long length = channel.size();
+        final long limit = (length - from > this.budgetLeft) ? from + this.budgetLeft : length;
+        final ChannelLineReader mappingReader = (this.channelReader == null) ? new ChannelLineReader(this.cset,
+                this.listener, this.bufSize) : this.channelReader;
+        final long position = mappingReader.readMapped(channel, from, limit, ChannelLineReader.MAPPING_WINDOW_SIZE);
+        this.spend(position - from, limit < length);
+        return position;
     }
 
-    public void cleanup() {
-        IOUtils.closeQuietly(this.reader);
-        this.reader = null;
+    /**
+     * Close the file. Will wait for the reading currently in progress, if any,
+     * and prevent any further reading.
+     */
+    public synchronized void cleanup() {
+        IOUtils.closeQuietly(this.channel);
+        this.channel = null;
         this.finished.set(true);
     }
 
+    /**
+     * Where in the file the next reading will start.
+     *
+     * @return Offset of the first byte not yet read, or -1 if the file has
+     *         not been opened yet.
+     */
+    public long getPosition() {
+        return this.opened ? this.position : -1;
+    }
+
+    /**
+     * Whether the latest reading found anything new in the file.
+     *
+     * @return True if the position in the file changed, or the file was
+     *         rotated.
+     */
+    public boolean hasFoundNewContent() {
+        return this.foundNewContent;
+    }
+
     public boolean hasFinished() {
         return this.finished.get();
     }
@@ -85,137 +269,292 @@ class TailerRun implements Runnable {
         return this.startedOnce.get();
     }
 
+    /**
+     * @return How many times the reading stopped short of the end of the file,
+     *         as it ran out of its budget.
+     */
+    public long getThrottledCount() {
+        return this.throttledCount;
+    }
+
+    /**
+     * Whether the latest reading stopped short of the end of the file, as it
+     * ran out of its budget. If so, the rest of the file should be read as
+     * soon as possible.
+     *
+     * @return True if there is more to read.
+     */
+    public boolean wasThrottled() {
+        return this.throttled;
+    }
+
+    /**
+     * Determine the modification time of the file that has just been read,
+     * without looking at the file again.
+     *
+     * @param lastModified
+     *            Modification time from before the reading.
+     * @param length
+     *            Length of the file from before the reading.
+     * @return The modification time from before the reading, unless the file
+     *         was written to during the reading. In that case, the current
+     *         time, since the write must have happened before now.
+     */
+    private long getLastModifiedAfterReading(final long lastModified, final long length) {
+        return (this.position > length) ? Math.max(lastModified, System.currentTimeMillis()) : lastModified;
+    }
+
+    /**
+     * Open the file for reading.
+     *
+     * @return Null when the file does not exist or cannot be read.
+     * @throws IOException
+     *             When the file cannot be opened for any other reason.
+     */
+    private FileChannel open() throws IOException {
+        try {
+            return FileChannel.open(this.path, StandardOpenOption.READ);
+        } catch (final NoSuchFileException | AccessDeniedException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Retrieve everything there is to know about the file at once; a single
+     * system call per check.
+     *
+     * @return Null when the file does not exist.
+     * @throws IOException
+     *             When the attributes cannot be read.
+     */
+    private BasicFileAttributes readAttributes() throws IOException {
+        try {
+            return Files.readAttributes(this.path, BasicFileAttributes.class);
+        } catch (final NoSuchFileException ex) {
+            return null;
+        }
+    }
+
     /**
      * Read new lines.
      *
-     * @param reader
+     * @param channel
      *            The file to read
+     * @param startPos
+     *            Where in the file to start
      * @return The new position after the lines have been read
      * @throws java.io.IOException
      *             if an I/O error occurs.
      */
-    private long readLines(final RandomAccessFile reader) throws IOException {
-        final ByteArrayOutputStream lineBuf = new ByteArrayOutputStream(64);
-        long pos = reader.getFilePointer();
+    private long readLines(final FileChannel channel, final long startPos) throws IOException {
+        if (this.channelReader != null) {
+            final long rePos = this.channelReader.readLines(channel, startPos, this.budgetLeft);
+            this.spend(rePos - startPos, this.channelReader.hasStoppedShort());
+            return rePos;
+        }
+        final LineBuffer lineBuf = this.lineBuf;
+        lineBuf.reset();
+        final byte[] bytes = this.inbuf.array();
+        long pos = startPos;
         long rePos = pos; // position to re-read
         int num;
         boolean seenCR = false;
-        // FIXME replace -1 with EOF when we're merging back into commons-io
-        while ((num = reader.read(this.inbuf)) != -1) {
-            for (int i = 0; i < num; i++) {
-                final byte ch = this.inbuf[i];
-                switch (ch) {
-                    case '\n':
-                        seenCR = false; // swallow CR before LF
-                        this.listener.handle(new String(lineBuf.toByteArray(), this.cset));
-                        lineBuf.reset();
-                        rePos = pos + i + 1;
-                        break;
-                    case '\r':
-                        if (seenCR) {
-                            lineBuf.write('\r');
-                        }
-                        seenCR = true;
-                        break;
-                    default:
-                        if (seenCR) {
-                            seenCR = false; // swallow final CR
-                            this.listener.handle(new String(lineBuf.toByteArray(), this.cset));
+        boolean outOfBudget = false;
+        try {
+            while (!outOfBudget) {
+                ((Buffer) this.inbuf).clear();
+                num = channel.read(this.inbuf, pos);
+                if (num <= 0) {
+                    break;
+                }
+                for (int i = 0; (i < num) && !outOfBudget; i++) {
+                    final byte ch = bytes[i];
+                    switch (ch) {
+                        case '\n':
+                            seenCR = false; // swallow CR before LF
+                            this.lines.add(lineBuf.decode(this.decoder));
                             lineBuf.reset();
                             rePos = pos + i + 1;
-                        }
-                        lineBuf.write(ch);
+                            outOfBudget = rePos - startPos >= this.budgetLeft;
+                            break;
+                        case '\r':
+                            if (seenCR) {
+                                lineBuf.write('\r');
+                            }
+                            seenCR = true;
+                            break;
+                        default:
+                            if (seenCR) {
+                                seenCR = false; // swallow final CR
+                                this.lines.add(lineBuf.decode(this.decoder));
+                                lineBuf.reset();
+                                rePos = pos + i + 1;
+                            }
+                            lineBuf.write(ch);
+                    }
                 }
+                pos += num;
             }
-            pos = reader.getFilePointer();
+        } finally {
+            this.lines.flush();
         }
-        IOUtils.closeQuietly(lineBuf); // not strictly necessary
-        reader.seek(rePos); // Ensure we can re-read if necessary
+        // the next read will start from rePos, re-reading the incomplete line
+        final boolean stoppedShort = outOfBudget && (rePos < channel.size());
+        this.spend(rePos - startPos, stoppedShort);
         return rePos;
     }
 
+    /**
+     * Read whatever is new in the file, regardless of the read budget, right
+     * away. Will wait for the reading currently in progress, if any, and then
+     * read again.
+     */
+    public void readToEnd() {
+        this.read(false);
+    }
+
+    /**
+     * Read whatever is new in the file. Runs may be requested from several
+     * threads at once, such as when the periodic check coincides with a
+     * notification of a change; only one of them will read at a time. Runs
+     * requested while the reading is in progress will be merged into a single
+     * subsequent run.
+     */
     @Override
     public void run() {
+        this.pending.set(true);
+        while (this.pending.get() && this.running.compareAndSet(false, true)) {
+            try {
+                this.pending.set(false);
+                this.read(true);
+            } finally {
+                this.running.set(false);
+            }
+        }
+    }
+
+    /**
+     * @param limited
+     *            False to read regardless of the read budget.
+     */
+    private synchronized void read(final boolean limited) {
+        if (this.hasFinished()) {
+            return;
+        }
+        final long previousPosition = this.position;
+        this.budgetLeft = (limited && (this.budget > 0)) ? this.budget : Long.MAX_VALUE;
+        this.throttled = false;
         try {
             this.startedOnce.set(true);
             this.listener.begin();
+            BasicFileAttributes attrs;
             // Open the file
-            if (this.reader == null) {
-                try {
-                    this.reader = new RandomAccessFile(this.file, TailerRun.RAF_MODE);
-                } catch (final FileNotFoundException e) {
+            if (this.channel == null) {
+                this.channel = this.open();
+                if (this.channel == null) {
                     this.listener.fileNotFound();
                     return;
                 }
+                // only after opening, so that the identity is that of the opened file
+                attrs = this.readAttributes();
                 // The current position in the file
-                this.position = this.end ? this.file.length() : 0;
-                this.last = this.file.lastModified();
-                this.reader.seek(this.position);
+                final long length = TailerRun.getLength(attrs);
+                if (this.opened) {
+                    // a new file in place of the one that was let go of
+                    this.position = 0;
+                } else if (this.start >= 0 && this.start <= length) {
+                    this.position = this.start;
+                } else {
+                    this.position = this.end ? length : 0;
+                }
+                this.fileKey = TailerRun.getFileKey(attrs);
+                this.last = TailerRun.getLastModified(attrs);
+                if (this.catchUp && this.position < length) {
+                    this.position = this.catchUp(this.channel, this.position);
+                    // the file may have grown during the catch-up, past the length read before it
+                    attrs = this.readAttributes();
+                }
+                this.opened = true;
+            } else {
+                attrs = this.readAttributes();
             }
-            final boolean newer = FileUtils.isFileNewer(this.file, this.last); // IO-279,
-            // must
-            // be
-            // done
-            // first
-            // Check the file length to see if it was rotated
-            final long length = this.file.length();
-            if (length < this.position) {
+            final Object currentFileKey = TailerRun.getFileKey(attrs);
+            final boolean replaced = (this.fileKey != null) && (currentFileKey != null)
+                    && !this.fileKey.equals(currentFileKey);
+            // the file is no longer under its name, yet the channel still reads it
+            final boolean renamed = this.followingRenames && ((attrs == null) || replaced);
+            // IO-279, the modification time must be determined first
+            final long lastModified = renamed ? this.last : TailerRun.getLastModified(attrs);
+            final boolean newer = lastModified > this.last;
+            final long length = renamed ? this.channel.size() : TailerRun.getLength(attrs);
+            // Check the identity and the length of the file to see if it was rotated
+            if (!renamed && (replaced || (length < this.position))) {
                 // File was rotated
                 this.listener.fileRotated();
-                // Reopen the reader after rotation
-                try {
-                    // Ensure that the old file is closed iff we re-open it
-                    // successfully
-                    final RandomAccessFile save = this.reader;
-                    this.reader = new RandomAccessFile(this.file, TailerRun.RAF_MODE);
+                // Reopen the channel after rotation
+                final FileChannel reopened = this.open();
+                if (reopened == null && !this.reOpen) {
+                    // in this case we continue to use the previous channel and
+                    // position values
+                    this.listener.fileNotFound();
+                } else {
+                    // reopened is null when the file is gone and not to be held on to
+                    final FileChannel save = this.channel;
+                    this.channel = reopened;
+                    this.fileKey = currentFileKey;
+                    // the old file will not be read again, regardless of budget
+                    this.budgetLeft = Long.MAX_VALUE;
                     // At this point, we're sure that the old file is rotated
                     // Finish scanning the old file and then we'll start with
                     // the new one
                     try {
-                        this.readLines(save);
+                        this.readLines(save, this.position);
                     } catch (final IOException ioe) {
                         this.listener.handle(ioe);
                     }
                     this.position = 0;
                     // close old file explicitly rather than relying on GC
-                    // picking up previous RAF
                     IOUtils.closeQuietly(save);
-                } catch (final FileNotFoundException e) {
-                    // in this case we continue to use the previous reader and
-                    // position values
-                    this.listener.fileNotFound();
                 }
             } else {
                 // File was not rotated
                 // See if the file needs to be read again
                 if (length > this.position) {
                     // The file has more content than it did last time
-                    this.position = this.readLines(this.reader);
-                    this.last = this.file.lastModified();
+                    this.position = this.readLines(this.channel, this.position);
+                    this.last = this.getLastModifiedAfterReading(lastModified, length);
                 } else if (newer) {
                     /*
                      * This can happen if the file is truncated or overwritten
                      * with the exact same length of information. In cases like
                      * this, the file position needs to be reset
                      */
-                    this.position = 0;
-                    this.reader.seek(this.position); // cannot be null here
-
-                    // Now we can read new lines
-                    this.position = this.readLines(this.reader);
-                    this.last = this.file.lastModified();
+                    this.position = this.readLines(this.channel, 0);
+                    this.last = this.getLastModifiedAfterReading(lastModified, length);
                 }
             }
-            if (this.reOpen) {
-                IOUtils.closeQuietly(this.reader);
-                this.reader = new RandomAccessFile(this.file, TailerRun.RAF_MODE);
-                this.reader.seek(this.position);
-            }
         } catch (final Exception e) {
             this.listener.handle(e);
         } finally {
+            this.foundNewContent = this.position != previousPosition;
+            if (this.throttled) {
+                this.throttledCount++;
+            }
             this.listener.commit();
         }
     }
 
+    /**
+     * Account for bytes read in the current run.
+     *
+     * @param bytes
+     *            How many bytes were read.
+     * @param stoppedShort
+     *            Whether the reading stopped before the end of the file.
+     */
+    private void spend(final long bytes, final boolean stoppedShort) {
+        this.budgetLeft = Math.max(0, this.budgetLeft - bytes);
+        this.throttled |= stoppedShort;
+    }
+
 }
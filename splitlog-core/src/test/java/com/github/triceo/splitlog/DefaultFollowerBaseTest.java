@@ -54,7 +54,11 @@ public abstract class DefaultFollowerBaseTest extends AbstractSplitlogTest {
                             .ignoringPreexistingContent() },
                             { LogWatchBuilder.getDefault().watchedFile(LogWriter.createTempFile()).closingAfterReading() },
                             { LogWatchBuilder.getDefault().watchedFile(LogWriter.createTempFile())
-                                .ignoringPreexistingContent() } });
+                                .ignoringPreexistingContent() },
+                            { LogWatchBuilder.getDefault().watchedFile(LogWriter.createTempFile())
+                                .readingThroughFileChannel() },
+                            { LogWatchBuilder.getDefault().watchedFile(LogWriter.createTempFile())
+                                .tailingOnSharedThreads(2) } });
     }
 
     public static Message wrapWaiting(final Future<Message> message) {
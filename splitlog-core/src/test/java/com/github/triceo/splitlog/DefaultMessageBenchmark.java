@@ -0,0 +1,88 @@
+package com.github.triceo.splitlog;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.triceo.splitlog.api.TailSplitter;
+import com.github.triceo.splitlog.splitters.JBossServerLogTailSplitter;
+
+/**
+ * Compares inferring all the metadata of a {@link DefaultMessage} up front,
+ * as was always done previously, with only inferring its severity, as most
+ * consumers do, and with inferring everything but the exception. Run with
+ * <code>-prof gc</code> to also compare allocations.
+ *
+ * Not run as part of the build. Run {@link #main(String[])} from the test
+ * classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DefaultMessageBenchmark {
+
+    private static final List<String> LINES = Arrays.asList(
+            "12:34:56,789 ERROR [org.jboss.as.controller] (Controller Boot Thread) "
+                    + "JBAS014612: Operation (\"add\") failed - address: ([(\"subsystem\" => \"datasources\")])",
+            "java.lang.IllegalStateException: Datasource not available",
+            "\tat org.jboss.as.connector.subsystems.datasources.DataSourcesAdd.execute(DataSourcesAdd.java:95)",
+            "\tat org.jboss.as.controller.AbstractOperationContext.executeStep(AbstractOperationContext.java:440)",
+            "\tat org.jboss.as.controller.AbstractOperationContext.doCompleteStep(AbstractOperationContext.java:322)",
+            "\tat org.jboss.as.controller.AbstractOperationContext.completeStepInternal(AbstractOperationContext.java:229)",
+            "\tat org.jboss.as.controller.ModelControllerImpl.boot(ModelControllerImpl.java:301)",
+            "\tat java.lang.Thread.run(Thread.java:745)",
+            "Caused by: java.net.ConnectException: Connection refused",
+            "\tat java.net.PlainSocketImpl.socketConnect(Native Method)",
+            "\tat java.net.Socket.connect(Socket.java:589)",
+            "\t... 6 more");
+    private static final TailSplitter SPLITTER = new JBossServerLogTailSplitter();
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DefaultMessageBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private long id = 0;
+
+    @Benchmark
+    public void eager(final Blackhole bh) {
+        final DefaultMessage msg = new DefaultMessage(this.id++, DefaultMessageBenchmark.LINES, 0,
+                DefaultMessageBenchmark.SPLITTER, null).determineMetadata();
+        bh.consume(msg.getSeverity());
+    }
+
+    @Benchmark
+    public void everythingButException(final Blackhole bh) {
+        final DefaultMessage msg = new DefaultMessage(this.id++, DefaultMessageBenchmark.LINES, 0,
+                DefaultMessageBenchmark.SPLITTER, null);
+        bh.consume(msg.getDate());
+        bh.consume(msg.getLogger());
+        bh.consume(msg.getSeverity());
+        bh.consume(msg.getType());
+        bh.consume(msg.getLinesWithoutMetadata());
+    }
+
+    @Benchmark
+    public void lazy(final Blackhole bh) {
+        final DefaultMessage msg = new DefaultMessage(this.id++, DefaultMessageBenchmark.LINES, 0,
+                DefaultMessageBenchmark.SPLITTER, null);
+        bh.consume(msg.getSeverity());
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.github.triceo.splitlog;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.github.triceo.splitlog.api.ExceptionOccurrences;
+import com.github.triceo.splitlog.api.Follower;
+import com.github.triceo.splitlog.api.LogWatchBuilder;
+import com.github.triceo.splitlog.api.Message;
+
+public class ExceptionOccurrencesTest extends AbstractSplitlogTest {
+
+    private static Message buildException(final String className) {
+        return new MessageBuilder(className + ": x").add("\tat " + className + ".run(A.java:1)").buildFinal();
+    }
+
+    @Test
+    public void testFollowers() {
+        final DefaultLogWatch watch = (DefaultLogWatch) LogWatchBuilder.getDefault()
+                .watchedFile(LogWriter.createTempFile()).build();
+        final Follower first = watch.startFollowing();
+        final Message a1 = ExceptionOccurrencesTest.buildException("x.A");
+        watch.messageArrived(a1);
+        final Follower second = watch.startFollowing();
+        final Message b = ExceptionOccurrencesTest.buildException("x.B");
+        watch.messageArrived(b);
+        watch.messageArrived(new MessageBuilder("test").buildFinal());
+        final Message a2 = ExceptionOccurrencesTest.buildException("x.A");
+        watch.messageArrived(a2);
+        first.stop();
+        final Message a3 = ExceptionOccurrencesTest.buildException("x.A");
+        watch.messageArrived(a3);
+        final String fingerprintA = a1.getExceptionDescriptor().getFingerprint();
+        final String fingerprintB = b.getExceptionDescriptor().getFingerprint();
+        // the log watch has all the messages
+        Assertions.assertThat(watch.getExceptionOccurrences().keySet()).containsExactly(fingerprintA, fingerprintB);
+        ExceptionOccurrences occurrences = watch.getExceptionOccurrences(fingerprintA);
+        Assertions.assertThat(occurrences.getCount()).isEqualTo(3);
+        Assertions.assertThat(occurrences.getFirstMessage()).isSameAs(a1);
+        Assertions.assertThat(occurrences.getLastMessage()).isSameAs(a3);
+        // the first follower stopped before the last message
+        Assertions.assertThat(first.getExceptionOccurrences().keySet()).containsExactly(fingerprintA, fingerprintB);
+        occurrences = first.getExceptionOccurrences(fingerprintA);
+        Assertions.assertThat(occurrences.getCount()).isEqualTo(2);
+        Assertions.assertThat(occurrences.getFirstMessage()).isSameAs(a1);
+        Assertions.assertThat(occurrences.getLastMessage()).isSameAs(a2);
+        // the second follower started after the first message
+        Assertions.assertThat(second.getExceptionOccurrences().keySet()).containsExactly(fingerprintB, fingerprintA);
+        occurrences = second.getExceptionOccurrences(fingerprintA);
+        Assertions.assertThat(occurrences.getCount()).isEqualTo(2);
+        Assertions.assertThat(occurrences.getFirstMessage()).isSameAs(a2);
+        Assertions.assertThat(occurrences.getLastMessage()).isSameAs(a3);
+        Assertions.assertThat(second.getExceptionOccurrences(fingerprintB).getCount()).isEqualTo(1);
+        Assertions.assertThat(second.getExceptionOccurrences("x.C")).isNull();
+        watch.stop();
+    }
+
+}
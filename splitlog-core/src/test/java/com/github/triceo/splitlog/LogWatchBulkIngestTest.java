@@ -0,0 +1,222 @@
+package com.github.triceo.splitlog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.io.FileUtils;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.github.triceo.splitlog.api.ExceptionDescriptor;
+import com.github.triceo.splitlog.api.Follower;
+import com.github.triceo.splitlog.api.LogWatch;
+import com.github.triceo.splitlog.api.LogWatchBuilder;
+import com.github.triceo.splitlog.api.Message;
+import com.github.triceo.splitlog.api.MessageSeverity;
+import com.github.triceo.splitlog.api.MessageType;
+import com.github.triceo.splitlog.api.TailSplitter;
+import com.github.triceo.splitlog.splitters.JBossServerLogTailSplitter;
+
+public class LogWatchBulkIngestTest extends AbstractSplitlogTest {
+
+    /**
+     * Fails the first time that it is asked about a given line.
+     */
+    private static final class FailingTailSplitter implements TailSplitter {
+
+        private final TailSplitter delegate = new JBossServerLogTailSplitter();
+        private final AtomicBoolean hasFailed = new AtomicBoolean(false);
+        private final String failingLine;
+
+        public FailingTailSplitter(final String failingLine) {
+            this.failingLine = failingLine;
+        }
+
+        @Override
+        public Date determineDate(final List<String> raw) {
+            return this.delegate.determineDate(raw);
+        }
+
+        @Override
+        public ExceptionDescriptor determineException(final List<String> raw) {
+            return this.delegate.determineException(raw);
+        }
+
+        @Override
+        public String determineLogger(final List<String> raw) {
+            return this.delegate.determineLogger(raw);
+        }
+
+        @Override
+        public MessageSeverity determineSeverity(final List<String> raw) {
+            return this.delegate.determineSeverity(raw);
+        }
+
+        @Override
+        public MessageType determineType(final List<String> raw) {
+            return this.delegate.determineType(raw);
+        }
+
+        @Override
+        public boolean isStartingLine(final String line) {
+            if (line.equals(this.failingLine) && this.hasFailed.compareAndSet(false, true)) {
+                throw new IllegalStateException("Failing as requested.");
+            }
+            return this.delegate.isStartingLine(line);
+        }
+
+        @Override
+        public String stripOfMetadata(final String line) {
+            return this.delegate.stripOfMetadata(line);
+        }
+
+    }
+
+    private static final int MESSAGE_COUNT = 500;
+
+    /**
+     * Ingest the file again from where the failed ingest says, and check that
+     * together, the two have handed over every message exactly once.
+     */
+    private static void assertResumable(final File file, final LogWatchBulkIngest failed,
+        final List<Message> received, final List<List<String>> expected) throws IOException {
+        final long resumePosition = failed.getResumePosition();
+        final LogWatchBulkIngest ingest = new LogWatchBulkIngest(new JBossServerLogTailSplitter(),
+                StandardCharsets.UTF_8, 4096, 1024);
+        ingest.ingest(file, resumePosition, received::add);
+        Assertions.assertThat(received).extracting(Message::getLines).isEqualTo(
+                expected.subList(0, LogWatchBulkIngestTest.MESSAGE_COUNT - 1));
+    }
+
+    /**
+     * Write a log with messages of varying length, some of them spanning
+     * several lines, and remember which lines belong together.
+     */
+    private static List<List<String>> writeLog(final File target) throws IOException {
+        final List<List<String>> messages = new ArrayList<>();
+        final StringBuilder sb = new StringBuilder();
+        sb.append("garbage before the first message\n");
+        for (int i = 0; i < LogWatchBulkIngestTest.MESSAGE_COUNT; i++) {
+            final List<String> message = new ArrayList<>();
+            message.add("12:34:56,789 INFO  [org.example.Class" + i + "] (main) Message " + i);
+            for (int j = 0; j < i % 4; j++) {
+                message.add("\tat org.example.Class" + i + ".method" + j + "(Class" + i + ".java:" + j + ")");
+            }
+            for (final String line : message) {
+                sb.append(line).append((i % 3 == 0) ? "\r\n" : "\n");
+            }
+            messages.add(message);
+        }
+        FileUtils.writeStringToFile(target, sb.toString(), StandardCharsets.UTF_8);
+        return messages;
+    }
+
+    @Test
+    public void testIngest() throws IOException {
+        final File file = LogWriter.createTempFile();
+        final List<List<String>> expected = LogWatchBulkIngestTest.writeLog(file);
+        // small ranges, so that messages are cut in many places
+        final LogWatchBulkIngest ingest = new LogWatchBulkIngest(new JBossServerLogTailSplitter(),
+                StandardCharsets.UTF_8, 4096, 1024);
+        final List<Message> received = new ArrayList<>();
+        final long position = ingest.ingest(file, 0, received::add);
+        Assertions.assertThat(position).isEqualTo(file.length());
+        // the last message may yet be continued, therefore it is not handed over
+        Assertions.assertThat(received).hasSize(LogWatchBulkIngestTest.MESSAGE_COUNT - 1);
+        for (int i = 0; i < received.size(); i++) {
+            final Message message = received.get(i);
+            Assertions.assertThat(message.getLines()).isEqualTo(expected.get(i));
+            if (i > 0) {
+                Assertions.assertThat(message.getUniqueId()).isEqualTo(received.get(i - 1).getUniqueId() + 1);
+            }
+        }
+        Assertions.assertThat(ingest.getUnfinishedMessage()).isEqualTo(
+                expected.get(LogWatchBulkIngestTest.MESSAGE_COUNT - 1));
+    }
+
+    @Test
+    public void testFailedHandover() throws IOException {
+        final File file = LogWriter.createTempFile();
+        final List<List<String>> expected = LogWatchBulkIngestTest.writeLog(file);
+        final LogWatchBulkIngest ingest = new LogWatchBulkIngest(new JBossServerLogTailSplitter(),
+                StandardCharsets.UTF_8, 4096, 1024);
+        final List<Message> received = new ArrayList<>();
+        try {
+            ingest.ingest(file, 0, message -> {
+                if (received.size() == 300) {
+                    throw new IllegalStateException("Failing as requested.");
+                }
+                received.add(message);
+            });
+            Assertions.fail("Ingest should have failed.");
+        } catch (final IllegalStateException ex) {
+            // expected
+        }
+        Assertions.assertThat(received).hasSize(300);
+        LogWatchBulkIngestTest.assertResumable(file, ingest, received, expected);
+    }
+
+    @Test
+    public void testFailedSplitting() throws IOException {
+        final File file = LogWriter.createTempFile();
+        final List<List<String>> expected = LogWatchBulkIngestTest.writeLog(file);
+        // small ranges, so that the messages before the failure have been handed over already
+        final LogWatchBulkIngest ingest = new LogWatchBulkIngest(new FailingTailSplitter(expected.get(300).get(0)),
+                StandardCharsets.UTF_8, 4096, 1024);
+        final List<Message> received = new ArrayList<>();
+        try {
+            ingest.ingest(file, 0, received::add);
+            Assertions.fail("Ingest should have failed.");
+        } catch (final IllegalStateException ex) {
+            // expected
+        }
+        // none at all when the range of the failure is in the first wave, as may be on many processors
+        Assertions.assertThat(received.size()).isLessThan(300);
+        LogWatchBulkIngestTest.assertResumable(file, ingest, received, expected);
+    }
+
+    @Test
+    public void testIngestFromOffset() throws IOException {
+        final File file = LogWriter.createTempFile();
+        final List<List<String>> expected = LogWatchBulkIngestTest.writeLog(file);
+        final LogWatchBulkIngest ingest = new LogWatchBulkIngest(new JBossServerLogTailSplitter(),
+                StandardCharsets.UTF_8, 4096, 1024);
+        final List<Message> received = new ArrayList<>();
+        // skips the garbage line, as if it had been read before
+        ingest.ingest(file, "garbage before the first message\n".length(), received::add);
+        Assertions.assertThat(received).hasSize(LogWatchBulkIngestTest.MESSAGE_COUNT - 1);
+        Assertions.assertThat(received.get(0).getLines()).isEqualTo(expected.get(0));
+    }
+
+    @Test
+    public void testIngestingThroughLogWatch() {
+        final File file = LogWriter.createTempFile();
+        for (int i = 0; i < LogWatchBulkIngestTest.MESSAGE_COUNT; i++) {
+            LogWriter.write(file, "pre-existing " + i);
+        }
+        final LogWatch watch = LogWatchBuilder.getDefault().watchedFile(file)
+                .ingestingPreexistingContentInParallel().doNotStart().build();
+        try {
+            final Follower follower = watch.startFollowing();
+            watch.start();
+            LogWriter.write(follower, "next");
+            // the new line completes the last pre-existing message, yet is incomplete itself
+            final List<Message> messages = new ArrayList<>(follower.getMessages());
+            Assertions.assertThat(messages).hasSize(LogWatchBulkIngestTest.MESSAGE_COUNT);
+            for (int i = 0; i < LogWatchBulkIngestTest.MESSAGE_COUNT; i++) {
+                Assertions.assertThat(messages.get(i).getLines()).containsExactly("pre-existing " + i);
+            }
+            for (int i = 1; i < messages.size(); i++) {
+                Assertions.assertThat(messages.get(i).getPreviousMessage()).isSameAs(messages.get(i - 1));
+            }
+        } finally {
+            watch.stop();
+        }
+    }
+
+}
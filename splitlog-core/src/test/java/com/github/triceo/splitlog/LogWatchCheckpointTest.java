@@ -0,0 +1,115 @@
+package com.github.triceo.splitlog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.triceo.splitlog.api.Follower;
+import com.github.triceo.splitlog.api.LogWatch;
+import com.github.triceo.splitlog.api.LogWatchBuilder;
+import com.github.triceo.splitlog.splitters.JBossServerLogTailSplitter;
+
+public class LogWatchCheckpointTest extends AbstractSplitlogTest {
+
+    private File checkpointFile;
+    private File watchedFile;
+
+    @Before
+    public void createFiles() {
+        this.watchedFile = LogWriter.createTempFile();
+        this.checkpointFile = new File(this.watchedFile.getPath() + ".checkpoint");
+        this.checkpointFile.deleteOnExit();
+    }
+
+    @Test
+    public void testCheckpointWhileMessageInProgress() throws InterruptedException {
+        final String first = "12:00:00,000 INFO  [x.App] First";
+        LogWriter.write(this.watchedFile, first);
+        final LogWatch watch = LogWatchBuilder.getDefault().watchedFile(this.watchedFile)
+                .checkpointingReadOffsetTo(this.checkpointFile).buildWith(new JBossServerLogTailSplitter());
+        try {
+            final Follower follower = watch.startFollowing();
+            LogWriter.write(follower, "12:00:01,000 ERROR [x.App] Second");
+            // the next save is not due before a second passes
+            Thread.sleep(1100);
+            LogWriter.write(follower, "\tat x.App.run(App.java:1)");
+            // the second message is not complete, so it must be read again from its first line
+            final long secondStart = first.length() + 1;
+            final LogWatchCheckpoint checkpoint = new LogWatchCheckpoint(this.checkpointFile, this.watchedFile);
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while ((checkpoint.load() != secondStart) && (System.nanoTime() < deadline)) {
+                Thread.sleep(100);
+            }
+            Assertions.assertThat(checkpoint.load()).isEqualTo(secondStart);
+        } finally {
+            watch.stop();
+        }
+    }
+
+    @Test
+    public void testDifferentFile() {
+        LogWriter.write(this.watchedFile, "check");
+        new LogWatchCheckpoint(this.checkpointFile, this.watchedFile).save(3);
+        final File otherFile = LogWriter.createTempFile();
+        LogWriter.write(otherFile, "check");
+        Assertions.assertThat(new LogWatchCheckpoint(this.checkpointFile, otherFile).load()).isEqualTo(-1);
+    }
+
+    @Test
+    public void testNoCheckpoint() {
+        Assertions.assertThat(new LogWatchCheckpoint(this.checkpointFile, this.watchedFile).load()).isEqualTo(-1);
+    }
+
+    @Test
+    public void testResumingAfterRestart() throws InterruptedException {
+        final LogWatch watch = LogWatchBuilder.getDefault().watchedFile(this.watchedFile)
+                .checkpointingReadOffsetTo(this.checkpointFile).build();
+        final Follower follower = watch.startFollowing();
+        LogWriter.write(follower, "check");
+        LogWriter.write(follower, "check2");
+        watch.stop();
+        // the checkpoint is stored once the tailing actually stops
+        final LogWatchCheckpoint checkpoint = new LogWatchCheckpoint(this.checkpointFile, this.watchedFile);
+        while (checkpoint.load() < this.watchedFile.length()) {
+            Thread.sleep(100);
+        }
+        // written while nobody was watching
+        LogWriter.write(this.watchedFile, "check3");
+        final LogWatch watch2 = LogWatchBuilder.getDefault().watchedFile(this.watchedFile)
+                .checkpointingReadOffsetTo(this.checkpointFile).ignoringPreexistingContent().doNotStart().build();
+        final Follower follower2 = watch2.startFollowing();
+        watch2.start();
+        LogWriter.write(follower2, "check4");
+        DefaultFollowerBaseTest.assertProperOrder(follower2.getMessages(), "check3");
+        watch2.stop();
+    }
+
+    @Test
+    public void testSaveAndLoad() {
+        LogWriter.write(this.watchedFile, "check");
+        final LogWatchCheckpoint checkpoint = new LogWatchCheckpoint(this.checkpointFile, this.watchedFile);
+        checkpoint.save(-1); // unknown position is not stored
+        Assertions.assertThat(this.checkpointFile).doesNotExist();
+        checkpoint.save(3);
+        Assertions.assertThat(new LogWatchCheckpoint(this.checkpointFile, this.watchedFile).load()).isEqualTo(3);
+        // the file growing does not invalidate the checkpoint
+        LogWriter.write(this.watchedFile, "check2");
+        Assertions.assertThat(new LogWatchCheckpoint(this.checkpointFile, this.watchedFile).load()).isEqualTo(3);
+    }
+
+    @Test
+    public void testTruncatedFile() throws IOException {
+        LogWriter.write(this.watchedFile, "check");
+        new LogWatchCheckpoint(this.checkpointFile, this.watchedFile).save(6);
+        try (RandomAccessFile raf = new RandomAccessFile(this.watchedFile, "rw")) {
+            raf.setLength(2);
+        }
+        Assertions.assertThat(new LogWatchCheckpoint(this.checkpointFile, this.watchedFile).load()).isEqualTo(-1);
+    }
+
+}
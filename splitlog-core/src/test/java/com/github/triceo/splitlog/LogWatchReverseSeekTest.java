@@ -0,0 +1,134 @@
+package com.github.triceo.splitlog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.github.triceo.splitlog.api.Follower;
+import com.github.triceo.splitlog.api.LogWatch;
+import com.github.triceo.splitlog.api.LogWatchBuilder;
+import com.github.triceo.splitlog.api.Message;
+import com.github.triceo.splitlog.splitters.JBossServerLogTailSplitter;
+import com.github.triceo.splitlog.splitters.SimpleTailSplitter;
+
+public class LogWatchReverseSeekTest extends AbstractSplitlogTest {
+
+    private static final int MESSAGE_COUNT = 50;
+
+    /**
+     * Write a log with messages of varying length, some of them spanning
+     * several lines.
+     *
+     * @return Where every message starts.
+     */
+    private static List<Long> writeLog(final File target, final boolean endWithLineFeed) throws IOException {
+        final List<Long> starts = new ArrayList<>();
+        final StringBuilder sb = new StringBuilder();
+        sb.append("garbage before the first message\n");
+        for (int i = 0; i < LogWatchReverseSeekTest.MESSAGE_COUNT; i++) {
+            starts.add((long) sb.length());
+            sb.append("12:34:56,789 INFO  [org.example.Class").append(i).append("] (main) Message ").append(i);
+            for (int j = 0; j < i % 4; j++) {
+                sb.append((i % 3 == 0) ? "\r\n" : "\n");
+                sb.append("\tat org.example.Class").append(i).append(".method").append(j).append("()");
+            }
+            sb.append((i % 3 == 0) ? "\r\n" : "\n");
+        }
+        final String content = endWithLineFeed ? sb.toString() : sb.substring(0, sb.length() - 1);
+        FileUtils.writeStringToFile(target, content, StandardCharsets.UTF_8);
+        return starts;
+    }
+
+    private void testSeek(final boolean endWithLineFeed) throws IOException {
+        final File file = LogWriter.createTempFile();
+        final List<Long> starts = LogWatchReverseSeekTest.writeLog(file, endWithLineFeed);
+        // small blocks, so that lines span several of them
+        final LogWatchReverseSeek seek = new LogWatchReverseSeek(new JBossServerLogTailSplitter(),
+                StandardCharsets.UTF_8, 16);
+        for (int i = 1; i <= LogWatchReverseSeekTest.MESSAGE_COUNT; i++) {
+            Assertions.assertThat(seek.seek(file, i)).isEqualTo(starts.get(LogWatchReverseSeekTest.MESSAGE_COUNT - i));
+        }
+        // fewer messages than requested
+        Assertions.assertThat(seek.seek(file, LogWatchReverseSeekTest.MESSAGE_COUNT + 1)).isEqualTo(0);
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        final File file = LogWriter.createTempFile();
+        final LogWatchReverseSeek seek = new LogWatchReverseSeek(new SimpleTailSplitter(), StandardCharsets.UTF_8,
+                16);
+        Assertions.assertThat(seek.seek(file, 1)).isEqualTo(0);
+    }
+
+    @Test
+    public void testEmptyLines() throws IOException {
+        final File file = LogWriter.createTempFile();
+        FileUtils.writeStringToFile(file, "a\n\nb\n", StandardCharsets.UTF_8);
+        final LogWatchReverseSeek seek = new LogWatchReverseSeek(new SimpleTailSplitter(), StandardCharsets.UTF_8,
+                16);
+        Assertions.assertThat(seek.seek(file, 1)).isEqualTo(3);
+        Assertions.assertThat(seek.seek(file, 2)).isEqualTo(2);
+        Assertions.assertThat(seek.seek(file, 3)).isEqualTo(0);
+    }
+
+    @Test
+    public void testLoneCarriageReturns() throws IOException {
+        final File file = LogWriter.createTempFile();
+        // lines "a", "b", "c\r", "d" and a non-ASCII one; a CR followed by another CR is part of the line
+        FileUtils.writeStringToFile(file, "a\rb\r\nc\r\rd\r\u00e9", StandardCharsets.UTF_8);
+        // blocks so small that every CR is looked at separately from the byte that follows it
+        final LogWatchReverseSeek seek = new LogWatchReverseSeek(new SimpleTailSplitter(), StandardCharsets.UTF_8,
+                1);
+        Assertions.assertThat(seek.seek(file, 1)).isEqualTo(10);
+        Assertions.assertThat(seek.seek(file, 2)).isEqualTo(8);
+        Assertions.assertThat(seek.seek(file, 3)).isEqualTo(5);
+        Assertions.assertThat(seek.seek(file, 4)).isEqualTo(2);
+        Assertions.assertThat(seek.seek(file, 5)).isEqualTo(0);
+    }
+
+    @Test
+    public void testSeek() throws IOException {
+        this.testSeek(true);
+    }
+
+    @Test
+    public void testSeekWithIncompleteLastLine() throws IOException {
+        this.testSeek(false);
+    }
+
+    @Test
+    public void testStartingWithLastMessages() {
+        final File file = LogWriter.createTempFile();
+        for (int i = 0; i < LogWatchReverseSeekTest.MESSAGE_COUNT; i++) {
+            LogWriter.write(file, "pre-existing " + i);
+        }
+        final LogWatch watch = LogWatchBuilder.getDefault().watchedFile(file).startingWithLastMessages(10)
+                .doNotStart().build();
+        try {
+            final Follower follower = watch.startFollowing();
+            watch.start();
+            LogWriter.write(follower, "next");
+            // the new line completes the last pre-existing message, yet is incomplete itself
+            final List<Message> messages = new ArrayList<>(follower.getMessages());
+            Assertions.assertThat(messages).hasSize(10);
+            for (int i = 0; i < 10; i++) {
+                Assertions.assertThat(messages.get(i).getLines()).containsExactly(
+                        "pre-existing " + (LogWatchReverseSeekTest.MESSAGE_COUNT - 10 + i));
+            }
+        } finally {
+            watch.stop();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedCharset() {
+        new LogWatchReverseSeek(new SimpleTailSplitter(), StandardCharsets.UTF_16, 16);
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.github.triceo.splitlog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.triceo.splitlog.api.Message;
+import com.github.triceo.splitlog.api.TailSplitter;
+import com.github.triceo.splitlog.splitters.JBossServerLogTailSplitter;
+
+/**
+ * Compares reading a message with a stack trace of 300 lines, written to the
+ * log 10 lines at a time, with an intermediate message built after every
+ * burst and all its metadata inferred right away. The builder that the message
+ * is read with infers the metadata of the new lines only; building the
+ * intermediate messages from scratch, as was done previously, infers it for
+ * all of them every time.
+ *
+ * Not run as part of the build. Run {@link #main(String[])} from the test
+ * classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageBuilderBenchmark {
+
+    private static final int BURST_SIZE = 10;
+    private static final List<String> LINES = new ArrayList<>();
+    private static final TailSplitter SPLITTER = new JBossServerLogTailSplitter();
+
+    static {
+        MessageBuilderBenchmark.LINES.add("12:34:56,789 ERROR [org.jboss.as.controller] (Controller Boot Thread) "
+                + "Operation failed");
+        MessageBuilderBenchmark.LINES.add("java.lang.IllegalStateException: Datasource not available");
+        for (int i = 0; i < 300; i++) {
+            MessageBuilderBenchmark.LINES.add("\tat org.jboss.as.controller.Step" + (i % 20) + ".execute(Step"
+                    + (i % 20) + ".java:" + (i + 1) + ")");
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MessageBuilderBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Param({ "incremental", "rebuilt" })
+    public String builder;
+
+    /**
+     * @return The message once a burst of lines has been read into it.
+     */
+    private Message read(final MessageBuilder builder, final int from, final int to) {
+        if ("incremental".equals(this.builder)) {
+            return builder.add(MessageBuilderBenchmark.LINES.subList(from, to)).buildIntermediate(
+                    MessageBuilderBenchmark.SPLITTER);
+        }
+        return new MessageBuilder(MessageBuilderBenchmark.LINES.get(0))
+                .add(MessageBuilderBenchmark.LINES.subList(1, to)).setParsingMetadataEagerly(true)
+                .buildIntermediate(MessageBuilderBenchmark.SPLITTER);
+    }
+
+    @Benchmark
+    public void readMessage(final Blackhole bh) {
+        final MessageBuilder builder = new MessageBuilder(MessageBuilderBenchmark.LINES.get(0))
+                .setParsingMetadataEagerly(true);
+        final int lineCount = MessageBuilderBenchmark.LINES.size();
+        for (int i = 1; i < lineCount; i += MessageBuilderBenchmark.BURST_SIZE) {
+            bh.consume(this.read(builder, i, Math.min(lineCount, i + MessageBuilderBenchmark.BURST_SIZE)));
+        }
+    }
+
+}
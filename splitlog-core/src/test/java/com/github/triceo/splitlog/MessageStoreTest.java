@@ -1,10 +1,15 @@
 package com.github.triceo.splitlog;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
 
+import com.github.triceo.splitlog.api.ExceptionOccurrences;
 import com.github.triceo.splitlog.api.Message;
 
 public class MessageStoreTest extends AbstractSplitlogTest {
@@ -14,6 +19,37 @@ public class MessageStoreTest extends AbstractSplitlogTest {
     private static final int MESSAGE_ID_3 = MessageStoreTest.MESSAGE_ID_2 + 1;
     private static final int NO_MESSAGE_ID = -1;
 
+    /**
+     * Compare the exceptions found in a range of messages, one by one, with
+     * those in the index.
+     */
+    private static void assertExceptionOccurrences(final MessageStore store, final int startPosition,
+        final int endPosition) {
+        final Map<String, List<Message>> expected = new LinkedHashMap<>();
+        for (final Message msg : store.getFromRange(startPosition, endPosition)) {
+            if (msg.hasException()) {
+                expected.computeIfAbsent(msg.getExceptionDescriptor().getFingerprint(), k -> new ArrayList<>())
+                        .add(msg);
+            }
+        }
+        final Map<String, ExceptionOccurrences> actual = store.getExceptionOccurrences(startPosition, endPosition);
+        Assertions.assertThat(actual.keySet()).containsExactlyElementsOf(expected.keySet());
+        for (final Map.Entry<String, List<Message>> entry : expected.entrySet()) {
+            final List<Message> messages = entry.getValue();
+            final ExceptionOccurrences occurrences = store.getExceptionOccurrences(entry.getKey(), startPosition,
+                    endPosition);
+            Assertions.assertThat(occurrences.getCount()).isEqualTo(messages.size());
+            Assertions.assertThat(occurrences.getFirstMessage()).isSameAs(messages.get(0));
+            Assertions.assertThat(occurrences.getLastMessage()).isSameAs(messages.get(messages.size() - 1));
+            Assertions.assertThat(actual.get(entry.getKey()).getCount()).isEqualTo(messages.size());
+        }
+    }
+
+    private static Message buildException(final String className, final String method) {
+        return new MessageBuilder(className + ": x").add("\tat " + className + "." + method + "(A.java:1)")
+                .buildFinal();
+    }
+
     @Test
     public void testAdditions() {
         final MessageStore store = new MessageStore();
@@ -51,6 +87,93 @@ public class MessageStoreTest extends AbstractSplitlogTest {
         Assertions.assertThat(postDiscard.get(0)).isSameAs(msg3);
     }
 
+    @Test
+    public void testExceptionOccurrences() {
+        final MessageStore store = new MessageStore();
+        final Message first = MessageStoreTest.buildException("x.A", "a");
+        store.add(first);
+        store.add(new MessageBuilder("test").buildFinal());
+        final Message other = MessageStoreTest.buildException("x.B", "b");
+        store.add(other);
+        final Message last = MessageStoreTest.buildException("x.A", "a");
+        store.add(last);
+        final String fingerprint = first.getExceptionDescriptor().getFingerprint();
+        final String otherFingerprint = other.getExceptionDescriptor().getFingerprint();
+        Assertions.assertThat(store.getExceptionOccurrences(0, 4).keySet()).containsExactly(fingerprint,
+                otherFingerprint);
+        final ExceptionOccurrences occurrences = store.getExceptionOccurrences(fingerprint, 0, 4);
+        Assertions.assertThat(occurrences.getFingerprint()).isEqualTo("x.A at x.A.a");
+        Assertions.assertThat(occurrences.getExceptionClassName()).isEqualTo("x.A");
+        Assertions.assertThat(occurrences.getCount()).isEqualTo(2);
+        Assertions.assertThat(occurrences.getFirstMessage()).isSameAs(first);
+        Assertions.assertThat(occurrences.getLastMessage()).isSameAs(last);
+        Assertions.assertThat(occurrences.getFirstTimestamp()).isEqualTo(first.getTimestamp());
+        Assertions.assertThat(occurrences.getLastTimestamp()).isEqualTo(last.getTimestamp());
+        // ranges
+        Assertions.assertThat(store.getExceptionOccurrences(1, 4).keySet()).containsExactly(otherFingerprint,
+                fingerprint);
+        Assertions.assertThat(store.getExceptionOccurrences(fingerprint, 1, 4).getFirstMessage()).isSameAs(last);
+        Assertions.assertThat(store.getExceptionOccurrences(fingerprint, 0, 3).getLastMessage()).isSameAs(first);
+        Assertions.assertThat(store.getExceptionOccurrences(otherFingerprint, 0, 2)).isNull();
+        Assertions.assertThat(store.getExceptionOccurrences("x.C", 0, 4)).isNull();
+        // discarding
+        store.discardBefore(3);
+        Assertions.assertThat(store.getExceptionOccurrences(0, 4).keySet()).containsExactly(fingerprint);
+        Assertions.assertThat(store.getExceptionOccurrences(fingerprint, 0, 4).getCount()).isEqualTo(1);
+        store.discardBefore(4);
+        Assertions.assertThat(store.getExceptionOccurrences(0, 4)).isEmpty();
+    }
+
+    @Test
+    public void testExceptionOccurrencesIndexedWhenAskedFor() {
+        final MessageTest.CountingTailSplitter splitter = new MessageTest.CountingTailSplitter();
+        final MessageStore store = new MessageStore(2);
+        store.add(new MessageBuilder("x.A: x").add("\tat x.A.a(A.java:1)").buildFinal(splitter));
+        store.add(new MessageBuilder("x.B: x").add("\tat x.B.b(B.java:1)").buildFinal(splitter));
+        final Message last = new MessageBuilder("x.C: x").add("\tat x.C.c(C.java:1)").buildFinal(splitter);
+        store.add(last);
+        // storing the messages did not parse them
+        Assertions.assertThat(splitter.getInvocations()).isEqualTo(0);
+        // the first message was discarded before it was indexed
+        Assertions.assertThat(store.getExceptionOccurrences(0, 3).keySet()).containsExactly("x.B at x.B.b",
+                "x.C at x.C.c");
+        Assertions.assertThat(splitter.getInvocations()).isEqualTo(2);
+        // only the new messages are parsed
+        store.add(new MessageBuilder("x.C: x").add("\tat x.C.c(C.java:1)").buildFinal(splitter));
+        final ExceptionOccurrences occurrences = store.getExceptionOccurrences("x.C at x.C.c", 0, 4);
+        Assertions.assertThat(splitter.getInvocations()).isEqualTo(3);
+        Assertions.assertThat(occurrences.getCount()).isEqualTo(2);
+        Assertions.assertThat(occurrences.getFirstMessage()).isSameAs(last);
+        Assertions.assertThat(store.getExceptionOccurrences("x.B at x.B.b", 0, 4)).isNull();
+    }
+
+    @Test
+    public void testExceptionOccurrencesWhileDiscarding() {
+        final Random random = new Random(0);
+        final MessageStore store = new MessageStore(50);
+        for (int i = 0; i < 5000; i++) {
+            final int dice = random.nextInt(10);
+            if (dice == 0) {
+                final int first = Math.max(store.getFirstPosition(), 0);
+                store.discardBefore(first + random.nextInt(store.getNextPosition() - first + 2));
+            } else if (dice == 1) {
+                store.add(new MessageBuilder("test").buildFinal());
+            } else {
+                // some exceptions more frequent than others
+                store.add(MessageStoreTest.buildException("x.A", "m" + random.nextInt(dice)));
+            }
+            if (store.isEmpty()) {
+                Assertions.assertThat(store.getExceptionOccurrences(0, store.getNextPosition())).isEmpty();
+                continue;
+            }
+            final int first = store.getFirstPosition();
+            final int next = store.getNextPosition();
+            MessageStoreTest.assertExceptionOccurrences(store, first, next);
+            final int start = first + random.nextInt(next - first);
+            MessageStoreTest.assertExceptionOccurrences(store, start, start + 1 + random.nextInt(next - start));
+        }
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testInvalidRange1() {
         final MessageStore store = new MessageStore();
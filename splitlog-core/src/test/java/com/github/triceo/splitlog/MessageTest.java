@@ -1,19 +1,123 @@
 package com.github.triceo.splitlog;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
 
+import com.github.triceo.splitlog.api.ExceptionDescriptor;
 import com.github.triceo.splitlog.api.Message;
+import com.github.triceo.splitlog.api.MessageMetadata;
 import com.github.triceo.splitlog.api.MessageSeverity;
 import com.github.triceo.splitlog.api.MessageType;
+import com.github.triceo.splitlog.api.TailSplitter;
+import com.github.triceo.splitlog.splitters.JBossServerLogTailSplitter;
+import com.github.triceo.splitlog.splitters.SimpleTailSplitter;
+import com.github.triceo.splitlog.splitters.exceptions.DefaultExceptionDescriptor;
 
 public class MessageTest extends AbstractSplitlogTest {
 
+    /**
+     * Counts how many times the metadata has been inferred.
+     */
+    static final class CountingTailSplitter implements TailSplitter {
+
+        private final TailSplitter delegate = new SimpleTailSplitter();
+        private final AtomicInteger invocations = new AtomicInteger(0);
+        private final AtomicInteger linesParsed = new AtomicInteger(0);
+
+        @Override
+        public Date determineDate(final List<String> raw) {
+            this.invocations.incrementAndGet();
+            return this.delegate.determineDate(raw);
+        }
+
+        @Override
+        public ExceptionDescriptor determineException(final List<String> raw) {
+            this.invocations.incrementAndGet();
+            return this.delegate.determineException(raw);
+        }
+
+        @Override
+        public String determineLogger(final List<String> raw) {
+            this.invocations.incrementAndGet();
+            return this.delegate.determineLogger(raw);
+        }
+
+        @Override
+        public MessageSeverity determineSeverity(final List<String> raw) {
+            this.invocations.incrementAndGet();
+            return this.delegate.determineSeverity(raw);
+        }
+
+        @Override
+        public MessageType determineType(final List<String> raw) {
+            this.invocations.incrementAndGet();
+            return this.delegate.determineType(raw);
+        }
+
+        public int getInvocations() {
+            return this.invocations.get();
+        }
+
+        public int getLinesParsed() {
+            return this.linesParsed.get();
+        }
+
+        @Override
+        public boolean isStartingLine(final String line) {
+            return this.delegate.isStartingLine(line);
+        }
+
+        @Override
+        public MessageMetadata parse(final List<String> raw) {
+            this.invocations.incrementAndGet();
+            this.linesParsed.addAndGet(raw.size());
+            return this.delegate.parse(raw);
+        }
+
+        @Override
+        public MessageMetadata parse(final List<String> raw, final long readTimestamp) {
+            this.invocations.incrementAndGet();
+            this.linesParsed.addAndGet(raw.size());
+            return this.delegate.parse(raw, readTimestamp);
+        }
+
+        @Override
+        public MessageMetadata parse(final List<String> raw, final long readTimestamp, final int previousLineCount,
+            final MessageMetadata previous) {
+            this.invocations.incrementAndGet();
+            this.linesParsed.addAndGet(raw.size() - previousLineCount);
+            return this.delegate.parse(raw, readTimestamp, previousLineCount, previous);
+        }
+
+        @Override
+        public String stripOfMetadata(final String line) {
+            return this.delegate.stripOfMetadata(line);
+        }
+
+    }
+
+    /**
+     * @return An exception with a stack trace of the given length.
+     */
+    private static List<String> buildStackTrace(final int frameCount) {
+        final List<String> lines = new ArrayList<>();
+        lines.add("x.B: x");
+        for (int i = 0; i < frameCount; i++) {
+            lines.add("\tat x.B.m" + i + "(B.java:" + (i + 1) + ")");
+        }
+        return lines;
+    }
+
     private Message buildMessage(final Collection<String> raw) {
         final List<String> lines = new LinkedList<>(raw);
         return new MessageBuilder(lines.get(0)).add(lines.subList(1, lines.size())).buildFinal();
@@ -44,12 +148,95 @@ public class MessageTest extends AbstractSplitlogTest {
         Assertions.assertThat(msg3).isNotEqualTo(msg1);
     }
 
+    @Test
+    public void testEagerMetadata() {
+        final CountingTailSplitter splitter = new CountingTailSplitter();
+        final Message msg = new MessageBuilder("Test").setParsingMetadataEagerly(true).buildFinal(splitter);
+        // one parse for everything but the exception
+        Assertions.assertThat(splitter.getInvocations()).isEqualTo(2);
+        Assertions.assertThat(msg.getSeverity()).isEqualTo(MessageSeverity.UNKNOWN);
+        Assertions.assertThat(msg.hasException()).isFalse();
+        Assertions.assertThat(splitter.getInvocations()).isEqualTo(2);
+    }
+
+    @Test
+    public void testIntermediateMetadata() {
+        final CountingTailSplitter splitter = new CountingTailSplitter();
+        final List<String> lines = MessageTest.buildStackTrace(300);
+        final MessageBuilder builder = new MessageBuilder(lines.get(0)).setParsingMetadataEagerly(true);
+        Message msg = builder.buildIntermediate(splitter);
+        for (int i = 1; i < lines.size(); i += 7) {
+            // the stack trace is read in bursts
+            builder.add(lines.subList(i, Math.min(lines.size(), i + 7)));
+            msg = builder.buildIntermediate(splitter);
+            Assertions.assertThat(msg.getExceptionDescriptor()).isEqualTo(
+                    DefaultExceptionDescriptor.parseStackTrace(msg.getLines()));
+        }
+        final Message finalMsg = builder.buildFinal(splitter);
+        Assertions.assertThat(finalMsg).isEqualTo(msg);
+        Assertions.assertThat(finalMsg.getLines()).isEqualTo(lines);
+        Assertions.assertThat(finalMsg.getExceptionDescriptor().getStackTrace()).hasSize(300);
+        Assertions.assertThat(finalMsg.getLinesWithoutMetadata()).isEqualTo(lines);
+        // no line was parsed twice
+        Assertions.assertThat(splitter.getLinesParsed()).isEqualTo(lines.size());
+    }
+
+    @Test
+    public void testIntermediateMetadataOutOfOrder() {
+        final List<String> lines = MessageTest.buildStackTrace(10);
+        final MessageBuilder builder = new MessageBuilder(lines.get(0)).add(lines.subList(1, 5));
+        final Message first = builder.buildIntermediate();
+        builder.add(lines.subList(5, lines.size()));
+        final Message second = builder.buildFinal();
+        // the later message asks first
+        Assertions.assertThat(second.getExceptionDescriptor().getStackTrace()).hasSize(10);
+        Assertions.assertThat(first.getExceptionDescriptor().getStackTrace()).hasSize(4);
+        Assertions.assertThat(first.getLines()).hasSize(5);
+        Assertions.assertThat(first.getType()).isEqualTo(MessageType.LOG);
+    }
+
+    @Test
+    public void testLazyMetadata() {
+        final CountingTailSplitter splitter = new CountingTailSplitter();
+        final Message msg = new MessageBuilder("Test").buildFinal(splitter);
+        Assertions.assertThat(splitter.getInvocations()).isEqualTo(0);
+        Assertions.assertThat(msg.getSeverity()).isEqualTo(MessageSeverity.UNKNOWN);
+        Assertions.assertThat(msg.getSeverity()).isEqualTo(MessageSeverity.UNKNOWN);
+        Assertions.assertThat(splitter.getInvocations()).isEqualTo(1);
+        // the copy does not infer the metadata again
+        final Message copy = new DefaultMessage((DefaultMessage) msg, null);
+        Assertions.assertThat(copy.getSeverity()).isEqualTo(MessageSeverity.UNKNOWN);
+        Assertions.assertThat(copy.getType()).isEqualTo(MessageType.LOG);
+        Assertions.assertThat(msg.getType()).isEqualTo(MessageType.LOG);
+        Assertions.assertThat(splitter.getInvocations()).isEqualTo(1);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testNullTag() {
         final String raw = null;
         new MessageBuilder(raw).buildTag();
     }
 
+    @Test
+    public void testTimestamp() {
+        final Message msg = new MessageBuilder("Test").setTimestamp(1234).buildFinal();
+        // the splitter finds no date, so the timestamp from the builder is used
+        Assertions.assertThat(msg.getTimestamp()).isEqualTo(1234);
+        Assertions.assertThat(msg.getDate().getTime()).isEqualTo(1234);
+    }
+
+    @Test
+    public void testTimestampOfTimeOfDay() {
+        // read a second after midnight, a day before the metadata is asked for
+        final LocalDate today = LocalDate.now();
+        final long read = today.minusDays(1).atStartOfDay(ZoneId.systemDefault()).plusSeconds(1).toInstant()
+                .toEpochMilli();
+        final Message msg = new MessageBuilder("23:59:59,000 INFO  [x.App] Test").setTimestamp(read)
+                .buildFinal(new JBossServerLogTailSplitter());
+        Assertions.assertThat(msg.getTimestamp()).isEqualTo(
+                today.minusDays(2).atTime(23, 59, 59).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
     @Test
     public void testTag() {
         final String line = "Test";
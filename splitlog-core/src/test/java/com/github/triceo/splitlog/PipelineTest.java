@@ -0,0 +1,114 @@
+package com.github.triceo.splitlog;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.github.triceo.splitlog.api.Follower;
+import com.github.triceo.splitlog.api.LogWatch;
+import com.github.triceo.splitlog.api.LogWatchBuilder;
+import com.github.triceo.splitlog.api.Message;
+import com.github.triceo.splitlog.api.MessageDeliveryStatus;
+import com.github.triceo.splitlog.api.PipelineWaitStrategy;
+import com.github.triceo.splitlog.api.TailingStatistics;
+
+public class PipelineTest extends AbstractSplitlogTest {
+
+    private static final int MESSAGE_COUNT = 100;
+
+    private static void testProcessing(final PipelineWaitStrategy waitStrategy) {
+        final LogWatch watch = LogWatchBuilder.getDefault().watchedFile(LogWriter.createTempFile())
+                .withDelayBetweenReads(10, TimeUnit.MILLISECONDS).processingOnSeparateThread(4, waitStrategy)
+                .build();
+        final Follower follower = watch.startFollowing();
+        for (int i = 0; i < PipelineTest.MESSAGE_COUNT; i++) {
+            LogWriter.write(follower, "Message " + i);
+        }
+        final List<Message> messages = new ArrayList<>(follower.getMessages());
+        Assertions.assertThat(messages).hasSize(PipelineTest.MESSAGE_COUNT - 1);
+        for (int i = 0; i < messages.size(); i++) {
+            Assertions.assertThat(messages.get(i).getLines()).containsExactly("Message " + i);
+        }
+        Assertions.assertThat(watch.getTailingStatistics().getPipelineOccupancy()).isBetween(0, 4);
+        watch.stop();
+    }
+
+    @Test
+    public void testBackpressure() {
+        final File file = LogWriter.createTempFile();
+        for (int i = 0; i < PipelineTest.MESSAGE_COUNT; i++) {
+            LogWriter.write(file, "Message " + i);
+        }
+        // many small reads, each of them waiting for the slow processing
+        final LogWatch watch = LogWatchBuilder.getDefault().watchedFile(file).withMaxBytesPerRead(64)
+                .processingOnSeparateThread(1, PipelineWaitStrategy.BLOCKING).doNotStart().build();
+        final TailingStatistics stats = watch.getTailingStatistics();
+        watch.startConsuming((message, status, producer) -> {
+            if (status == MessageDeliveryStatus.ACCEPTED) {
+                try {
+                    Thread.sleep(5);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        final Follower follower = watch.startFollowing();
+        watch.start();
+        LogWriter.write(follower, "Last message");
+        // nothing was lost while the reading waited
+        Assertions.assertThat(follower.getMessages()).hasSize(PipelineTest.MESSAGE_COUNT);
+        Assertions.assertThat(stats.getNumberOfPipelineStalls()).isGreaterThan(0);
+        Assertions.assertThat(stats.getPipelineOccupancy()).isBetween(0, 1);
+        watch.stop();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBusySpinAfterVirtualThreads() {
+        LogWatchBuilder.getDefault().tailingOnVirtualThreads().processingOnSeparateThread(1,
+                PipelineWaitStrategy.BUSY_SPIN);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBusySpinBeforeVirtualThreads() {
+        LogWatchBuilder.getDefault().processingOnSeparateThread(1, PipelineWaitStrategy.BUSY_SPIN)
+                .tailingOnVirtualThreads();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        LogWatchBuilder.getDefault().processingOnSeparateThread(0, PipelineWaitStrategy.BLOCKING);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWaitStrategy() {
+        LogWatchBuilder.getDefault().processingOnSeparateThread(1, null);
+    }
+
+    @Test
+    public void testNoPipeline() {
+        final LogWatch watch = LogWatchBuilder.getDefault().watchedFile(LogWriter.createTempFile()).build();
+        Assertions.assertThat(watch.getTailingStatistics().getNumberOfPipelineStalls()).isEqualTo(0);
+        Assertions.assertThat(watch.getTailingStatistics().getPipelineOccupancy()).isEqualTo(0);
+        watch.stop();
+    }
+
+    @Test
+    public void testProcessingWithBlocking() {
+        PipelineTest.testProcessing(PipelineWaitStrategy.BLOCKING);
+    }
+
+    @Test
+    public void testProcessingWithBusySpin() {
+        PipelineTest.testProcessing(PipelineWaitStrategy.BUSY_SPIN);
+    }
+
+    @Test
+    public void testProcessingWithYielding() {
+        PipelineTest.testProcessing(PipelineWaitStrategy.YIELDING);
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.github.triceo.splitlog;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.github.triceo.splitlog.api.Follower;
+import com.github.triceo.splitlog.api.LogWatch;
+import com.github.triceo.splitlog.api.LogWatchBuilder;
+import com.github.triceo.splitlog.api.TailingStatistics;
+
+public class TailingStatisticsTest extends AbstractSplitlogTest {
+
+    private static final int MAX_DELAY = 200;
+    private static final int MIN_DELAY = 10;
+
+    @Test
+    public void testAdaptiveDelay() throws InterruptedException {
+        final LogWatch watch = LogWatchBuilder.getDefault().watchedFile(LogWriter.createTempFile())
+                .withAdaptiveDelayBetweenReads(TailingStatisticsTest.MIN_DELAY, TailingStatisticsTest.MAX_DELAY,
+                        TimeUnit.MILLISECONDS).build();
+        final TailingStatistics stats = watch.getTailingStatistics();
+        // the default delay is outside the bounds
+        Assertions.assertThat(stats.getCurrentDelayBetweenReads()).as("Delay out of bounds.")
+        .isBetween((long) TailingStatisticsTest.MIN_DELAY, (long) TailingStatisticsTest.MAX_DELAY);
+        final Follower follower = watch.startFollowing();
+        for (int i = 0; i < 10; i++) {
+            LogWriter.write(follower, "Message " + i);
+        }
+        Assertions.assertThat(stats.getCurrentDelayBetweenReads()).as("Delay out of bounds.")
+        .isBetween((long) TailingStatisticsTest.MIN_DELAY, (long) TailingStatisticsTest.MAX_DELAY);
+        // nothing is being written; the delay backs off
+        Thread.sleep(TailingStatisticsTest.MAX_DELAY * 8);
+        Assertions.assertThat(stats.getCurrentDelayBetweenReads()).as("Delay did not back off.")
+        .isEqualTo(TailingStatisticsTest.MAX_DELAY);
+        watch.stop();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBounds() {
+        LogWatchBuilder.getDefault().withAdaptiveDelayBetweenReads(2, 1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxBytesPerRead() {
+        LogWatchBuilder.getDefault().withMaxBytesPerRead(0);
+    }
+
+    @Test
+    public void testThrottledReads() {
+        final File file = LogWriter.createTempFile();
+        for (int i = 0; i < 100; i++) {
+            LogWriter.write(file, "Message " + i);
+        }
+        final LogWatch watch = LogWatchBuilder.getDefault().watchedFile(file).withMaxBytesPerRead(64).doNotStart()
+                .build();
+        final TailingStatistics stats = watch.getTailingStatistics();
+        Assertions.assertThat(stats.getNumberOfThrottledReads()).isEqualTo(0);
+        final Follower follower = watch.startFollowing();
+        watch.start();
+        LogWriter.write(follower, "Last message");
+        // every message is there, even though the file could not be read at once
+        Assertions.assertThat(follower.getMessages()).hasSize(100);
+        Assertions.assertThat(stats.getNumberOfThrottledReads()).isGreaterThan(0);
+        watch.stop();
+    }
+
+}
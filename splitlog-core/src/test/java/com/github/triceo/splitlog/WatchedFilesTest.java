@@ -0,0 +1,204 @@
+package com.github.triceo.splitlog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.github.triceo.splitlog.api.Follower;
+import com.github.triceo.splitlog.api.LogWatch;
+import com.github.triceo.splitlog.api.LogWatchBuilder;
+import com.github.triceo.splitlog.api.Message;
+import com.github.triceo.splitlog.api.MessageDeliveryStatus;
+
+public class WatchedFilesTest extends AbstractSplitlogTest {
+
+    private static Future<Message> expect(final Follower follower, final String line) {
+        return follower.expect((evaluate, status, source) -> (status == MessageDeliveryStatus.ACCEPTED)
+                && evaluate.getLines().get(0).equals(line));
+    }
+
+    private static void assertReceived(final Future<Message> future, final File source)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Assertions.assertThat(future.get(10, TimeUnit.SECONDS).getSource()).isEqualTo(source);
+    }
+
+    /**
+     * Whether this process has the given file open. Only works where open
+     * files are listed in /proc; elsewhere, it is always false.
+     */
+    private static boolean isOpen(final File file) {
+        final File[] descriptors = new File("/proc/self/fd").listFiles();
+        if (descriptors == null) {
+            return false;
+        }
+        final String path = file.getAbsolutePath();
+        for (final File descriptor : descriptors) {
+            try {
+                if (Files.readSymbolicLink(descriptor.toPath()).toString().startsWith(path)) {
+                    return true;
+                }
+            } catch (final IOException ex) {
+                // closed in the meantime
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testDeletedFile() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        final File directory = Files.createTempDirectory("test-").toFile();
+        final File file = new File(directory, "app.log");
+        LogWriter.write(file, "first 1");
+        final LogWatch watch = LogWatchBuilder.getDefault().watchedFiles(directory, "*.log")
+                .withDelayBetweenReads(10, TimeUnit.MILLISECONDS).doNotStart().build();
+        try {
+            final Follower follower = watch.startFollowing();
+            final Future<Message> fromFirst = WatchedFilesTest.expect(follower, "first 1");
+            watch.start();
+            LogWriter.write(file, "first 2");
+            WatchedFilesTest.assertReceived(fromFirst, file);
+            Assertions.assertThat(WatchedFilesTest.isOpen(file)).isTrue();
+            Files.delete(file.toPath());
+            Thread.sleep(500);
+            // the tailer of the deleted file was stopped, and let go of it
+            Assertions.assertThat(WatchedFilesTest.isOpen(file)).isFalse();
+            // a new file under the same name is read from the beginning
+            final Future<Message> fromSecond = WatchedFilesTest.expect(follower, "second 1");
+            LogWriter.write(file, "second 1");
+            LogWriter.write(file, "second 2");
+            WatchedFilesTest.assertReceived(fromSecond, file);
+        } finally {
+            watch.stop();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPattern() {
+        LogWatchBuilder.getDefault().watchedFiles(new File("."), "[");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoPattern() {
+        LogWatchBuilder.getDefault().watchedFiles(new File("."), "");
+    }
+
+    @Test
+    public void testRenamedFile() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        final File directory = Files.createTempDirectory("test-").toFile();
+        final File file = new File(directory, "app.log");
+        final File rotated = new File(directory, "app.log.1");
+        LogWriter.write(file, "old 1");
+        final LogWatch watch = LogWatchBuilder.getDefault().watchedFiles(directory, "*.log*")
+                .withDelayBetweenReads(10, TimeUnit.MILLISECONDS).doNotStart().build();
+        try {
+            final Follower follower = watch.startFollowing();
+            final Future<Message> fromOld = WatchedFilesTest.expect(follower, "old 1");
+            final Future<Message> fromRotated = WatchedFilesTest.expect(follower, "old 2");
+            final Future<Message> fromNew = WatchedFilesTest.expect(follower, "new 1");
+            watch.start();
+            LogWriter.write(file, "old 2");
+            WatchedFilesTest.assertReceived(fromOld, file);
+            // rotated; the renamed file still matches the pattern
+            Files.move(file.toPath(), rotated.toPath());
+            LogWriter.write(file, "new 1");
+            LogWriter.write(file, "new 2");
+            WatchedFilesTest.assertReceived(fromNew, file);
+            // the renamed file is still read by its manager, from where it left off
+            LogWriter.write(rotated, "old 3");
+            Assertions.assertThat(fromRotated.get(10, TimeUnit.SECONDS)).isNotNull();
+            Thread.sleep(500);
+            Assertions.assertThat(follower.getMessages()).extracting(message -> message.getLines().get(0))
+                    .containsOnlyOnce("old 1", "old 2", "new 1");
+        } finally {
+            watch.stop();
+        }
+    }
+
+    @Test
+    public void testRenamedOutOfPattern() throws IOException, InterruptedException, ExecutionException,
+        TimeoutException {
+        final File directory = Files.createTempDirectory("test-").toFile();
+        final File file = new File(directory, "app.log");
+        final File rotated = new File(directory, "app.log.1");
+        LogWriter.write(file, "old 1");
+        // the file is searched for often, yet read rarely
+        final LogWatch watch = LogWatchBuilder.getDefault().watchedFiles(directory, "*.log")
+                .withDelayBetweenReads(10, TimeUnit.MILLISECONDS)
+                .withAdaptiveDelayBetweenReads(1, 1, TimeUnit.HOURS).doNotStart().build();
+        try {
+            final Follower follower = watch.startFollowing();
+            final Future<Message> read = follower.expect((evaluate, status, source) -> true);
+            final Future<Message> fromOld = WatchedFilesTest.expect(follower, "old 1");
+            final Future<Message> last = WatchedFilesTest.expect(follower, "old 3");
+            watch.start();
+            // read once, and not again for an hour
+            read.get(10, TimeUnit.SECONDS);
+            // not read yet when the file is renamed away
+            LogWriter.write(file, "old 2");
+            LogWriter.write(file, "old 3");
+            Files.move(file.toPath(), rotated.toPath());
+            WatchedFilesTest.assertReceived(fromOld, file);
+            // the message still being read when the file was gone is not lost either
+            WatchedFilesTest.assertReceived(last, file);
+            Assertions.assertThat(follower.getMessages()).extracting(message -> message.getLines().get(0))
+                    .containsExactly("old 1", "old 2", "old 3");
+        } finally {
+            watch.stop();
+        }
+    }
+
+    @Test
+    public void testSingleFileReplacesPattern() {
+        final File file = LogWriter.createTempFile();
+        final LogWatchBuilder builder = LogWatchBuilder.getDefault().watchedFiles(file.getParentFile(), "*.log")
+                .watchedFile(file);
+        Assertions.assertThat(builder.getFilePattern()).isNull();
+        Assertions.assertThat(builder.getFileToWatch()).isEqualTo(file);
+    }
+
+    @Test
+    public void testWatchingSeveralFiles() throws IOException, InterruptedException, ExecutionException,
+        TimeoutException {
+        final File directory = Files.createTempDirectory("test-").toFile();
+        final File first = new File(directory, "first.log");
+        final File second = new File(directory, "second.log");
+        final File ignored = new File(directory, "ignored.txt");
+        LogWriter.write(first, "first 1");
+        LogWriter.write(second, "second 1");
+        LogWriter.write(ignored, "ignored 1");
+        final LogWatch watch = LogWatchBuilder.getDefault().watchedFiles(directory, "*.log")
+                .withDelayBetweenReads(10, TimeUnit.MILLISECONDS).doNotStart().build();
+        Assertions.assertThat(watch.getWatchedFile()).isEqualTo(directory);
+        try {
+            final Follower follower = watch.startFollowing();
+            final Future<Message> fromFirst = WatchedFilesTest.expect(follower, "first 1");
+            final Future<Message> fromSecond = WatchedFilesTest.expect(follower, "second 1");
+            final Future<Message> fromLater = WatchedFilesTest.expect(follower, "later 1");
+            watch.start();
+            // messages are only complete once the next one starts
+            LogWriter.write(first, "first 2");
+            LogWriter.write(second, "second 2");
+            LogWriter.write(ignored, "ignored 2");
+            WatchedFilesTest.assertReceived(fromFirst, first);
+            WatchedFilesTest.assertReceived(fromSecond, second);
+            // a file that only appears once the watch is running
+            final File later = new File(directory, "later.log");
+            LogWriter.write(later, "later 1");
+            LogWriter.write(later, "later 2");
+            WatchedFilesTest.assertReceived(fromLater, later);
+            // messages from different files do not follow one another
+            Assertions.assertThat(fromSecond.get().getPreviousMessage()).isNull();
+            Assertions.assertThat(follower.getMessages()).extracting(Message::getSource).doesNotContain(ignored);
+        } finally {
+            watch.stop();
+        }
+    }
+
+}
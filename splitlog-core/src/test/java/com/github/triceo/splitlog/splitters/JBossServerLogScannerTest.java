@@ -0,0 +1,98 @@
+package com.github.triceo.splitlog.splitters;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.github.triceo.splitlog.AbstractSplitlogTest;
+import com.github.triceo.splitlog.api.MessageMetadata;
+import com.github.triceo.splitlog.api.TailSplitter;
+
+/**
+ * Compares the scanner with the regular expression that it stands in for, on
+ * lines that are mostly almost starting lines.
+ */
+public class JBossServerLogScannerTest extends AbstractSplitlogTest {
+
+    private static final String[] PARTS = { "", " ", "  ", "\t", "\n", "\r", "\u000B", "\f", "\u0085", "\u2028",
+            "\u2029", "\u0001", "\u00A0", "0", "1", "2", "3", "5", "6", "9", "12", "23", "24", "59", "60", "789",
+            ":", ",", ".", "[", "]", "INFO", "WARN", "ERROR", "DEBUG", "TRACE", "FATAL", "info", "stderr", "stdout",
+            "org", "a", "$_", "x1", "body", "(Thread-1)" };
+    private static final int LINE_COUNT = 200000;
+    private static final TailSplitter REGEX = new JBossServerLogTailSplitter(true);
+    private static final TailSplitter SCANNER = new JBossServerLogTailSplitter(false);
+
+    private static void assertSame(final String line) {
+        final boolean isStartingLine = JBossServerLogScannerTest.REGEX.isStartingLine(line);
+        Assertions.assertThat(JBossServerLogScannerTest.SCANNER.isStartingLine(line)).as(line)
+                .isEqualTo(isStartingLine);
+        Assertions.assertThat(JBossServerLogScannerTest.SCANNER.stripOfMetadata(line)).as(line).isEqualTo(
+                JBossServerLogScannerTest.REGEX.stripOfMetadata(line));
+        if (!isStartingLine) {
+            return;
+        }
+        final List<String> raw = Collections.singletonList(line);
+        final MessageMetadata expected = JBossServerLogScannerTest.REGEX.parse(raw);
+        final MessageMetadata actual = JBossServerLogScannerTest.SCANNER.parse(raw);
+        Assertions.assertThat(actual.getTimestamp()).as(line).isEqualTo(expected.getTimestamp());
+        Assertions.assertThat(actual.getLogger()).as(line).isEqualTo(expected.getLogger());
+        Assertions.assertThat(actual.getSeverity()).as(line).isEqualTo(expected.getSeverity());
+        Assertions.assertThat(actual.getType()).as(line).isEqualTo(expected.getType());
+        Assertions.assertThat(actual.getBodyStart(0)).as(line).isEqualTo(expected.getBodyStart(0));
+        Assertions.assertThat(actual.getBodyEnd(0)).as(line).isEqualTo(expected.getBodyEnd(0));
+    }
+
+    private static String part(final Random random) {
+        return JBossServerLogScannerTest.PARTS[random.nextInt(JBossServerLogScannerTest.PARTS.length)];
+    }
+
+    /**
+     * @return A starting line, some of whose parts have been replaced at
+     *         random.
+     */
+    private static String randomLine(final Random random) {
+        final String[] template = { " ", "12", ":", "34", ":", "56", ",", "789", " ", "INFO", "  ", "[", "org", ".",
+                "x1", "]", " ", "body", " " };
+        final StringBuilder sb = new StringBuilder();
+        for (final String element : template) {
+            final int dice = random.nextInt(10);
+            if (dice == 0) {
+                sb.append(JBossServerLogScannerTest.part(random));
+            } else if (dice == 1) {
+                sb.append(element).append(JBossServerLogScannerTest.part(random));
+            } else {
+                sb.append(element);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testKnownLines() {
+        final String[] lines = { "", " ", "12:34:56,789 INFO [org.jboss] x", "2:34:56,789 INFO [ab] x",
+                "23:59:59,999 INFO [ab] x", "24:00:00,000 INFO [ab] x", "123:00:00,000 INFO [ab] x",
+                "12:34:56,789 INFO [a] x", "12:34:56,789 INFO [a.b] x", "12:34:56,789 INFO [a.bc] x",
+                "12:34:56,789 INFO [a..bc] x", "12:34:56,789 INFO [1a] x", "12:34:56,789 INFO [ab]x",
+                "12:34:56,789 INFO [ab] ", "12:34:56,789 INFO [ab]  \t", "12:34:56,789 INFO [ab] x\n",
+                "12:34:56,789 INFO [ab] x\ny", "12:34:56,789 INFO [ab] \n", "12:34:56,789 INFO [ab]  \n",
+                "12:34:56,789 INFO [ab] \t\n", "12:34:56,789 INFO [ab] \u0085", "12:34:56,789 INFO [ab] x\u0085",
+                "12:34:56,789 INFO [ab] \u00A0", "12:34:56,789 INFO[ab] x", "12:34:56,789INFO [ab] x",
+                "12:34:56,789 INFO [stderr] x", "12:34:56,789 WARN [stdout]   x  ", "\n12:34:56,789 INFO [ab] x",
+                "12:34:56,78 INFO [ab] x", "12:64:56,789 INFO [ab] x", "12:34:56,789 Info [ab] x" };
+        for (final String line : lines) {
+            JBossServerLogScannerTest.assertSame(line);
+        }
+    }
+
+    @Test
+    public void testRandomLines() {
+        final Random random = new Random(0);
+        for (int i = 0; i < JBossServerLogScannerTest.LINE_COUNT; i++) {
+            JBossServerLogScannerTest.assertSame(JBossServerLogScannerTest.randomLine(random));
+        }
+    }
+
+}
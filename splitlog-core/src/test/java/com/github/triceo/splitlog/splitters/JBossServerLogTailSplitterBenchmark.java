@@ -0,0 +1,89 @@
+package com.github.triceo.splitlog.splitters;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.triceo.splitlog.api.TailSplitter;
+
+/**
+ * Compares recognizing JBoss server.log lines with the regular expression, with
+ * the scanner and with a {@link PatternLayoutTailSplitter} for the same layout.
+ * {@link JBossServerLogTailSplitter#isStartingLine(String)} runs for every line
+ * read, most of which in a log with stack traces are not starting lines.
+ *
+ * Not run as part of the build. Run {@link #main(String[])} from the test
+ * classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JBossServerLogTailSplitterBenchmark {
+
+    private static final List<String> MESSAGE = Arrays.asList(
+            "12:34:56,789 ERROR [org.jboss.as.controller] (Controller Boot Thread) "
+                    + "JBAS014612: Operation (\"add\") failed - address: ([(\"subsystem\" => \"datasources\")])",
+            "java.lang.IllegalStateException: Datasource not available",
+            "\tat org.jboss.as.connector.subsystems.datasources.DataSourcesAdd.execute(DataSourcesAdd.java:95)",
+            "\tat org.jboss.as.controller.ModelControllerImpl.boot(ModelControllerImpl.java:301)",
+            "\tat java.lang.Thread.run(Thread.java:745)");
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JBossServerLogTailSplitterBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+
+    private TailSplitter splitter;
+
+    @Param({ "regex", "scanner", "layout" })
+    public String recognizer;
+
+    @Benchmark
+    public void isStartingLine(final Blackhole bh) {
+        bh.consume(this.splitter.isStartingLine(JBossServerLogTailSplitterBenchmark.MESSAGE.get(0)));
+    }
+
+    @Benchmark
+    public void isStartingLineOfStackTrace(final Blackhole bh) {
+        bh.consume(this.splitter.isStartingLine(JBossServerLogTailSplitterBenchmark.MESSAGE.get(2)));
+    }
+
+    @Benchmark
+    public void parse(final Blackhole bh) {
+        bh.consume(this.splitter.parse(JBossServerLogTailSplitterBenchmark.MESSAGE));
+    }
+
+    @Setup
+    public void setUp() {
+        if ("layout".equals(this.recognizer)) {
+            this.splitter = PatternLayoutTailSplitter.compile("%d{HH:mm:ss,SSS} %-5p [%c] %m%n");
+        } else {
+            this.splitter = new JBossServerLogTailSplitter("regex".equals(this.recognizer));
+        }
+    }
+
+    @Benchmark
+    public void stripOfMetadata(final Blackhole bh) {
+        bh.consume(this.splitter.stripOfMetadata(JBossServerLogTailSplitterBenchmark.MESSAGE.get(0)));
+    }
+
+}
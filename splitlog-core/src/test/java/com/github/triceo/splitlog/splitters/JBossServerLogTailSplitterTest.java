@@ -0,0 +1,87 @@
+package com.github.triceo.splitlog.splitters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.github.triceo.splitlog.AbstractSplitlogTest;
+import com.github.triceo.splitlog.api.MessageMetadata;
+import com.github.triceo.splitlog.api.TailSplitter;
+
+@RunWith(Parameterized.class)
+public class JBossServerLogTailSplitterTest extends AbstractSplitlogTest {
+
+    private static final List<List<String>> MESSAGES = Arrays.asList(
+            Arrays.asList("12:34:56,789 INFO  [org.jboss.as.server] (Controller Boot Thread) Started"),
+            Arrays.asList("01:02:03,004 ERROR [stderr] (Thread-1)   Something failed  ",
+                    "\tat org.jboss.Test.run(Test.java:1)", "   "),
+            Arrays.asList("23:59:59,999 WARN [org.jboss.as]   Extra spaces before the body ",
+                    "12:00:00,000 DEBUG [stdout] Another starting line", "  continued  "),
+            Arrays.asList("  00:00:00,000 TRACE [org.jboss.as] \u0001Control characters\u0001"),
+            Arrays.asList("10:00:00,000 FATAL [org.jboss.as] Unknown severity"));
+
+    @Parameters
+    public static Collection<Object[]> getParameters() {
+        final Collection<Object[]> parameters = new ArrayList<>();
+        for (final List<String> message : JBossServerLogTailSplitterTest.MESSAGES) {
+            parameters.add(new Object[] { message, true });
+            parameters.add(new Object[] { message, false });
+        }
+        return parameters;
+    }
+
+    private final List<String> lines;
+    private final TailSplitter splitter;
+
+    public JBossServerLogTailSplitterTest(final List<String> lines, final boolean usingRegex) {
+        this.lines = lines;
+        this.splitter = new JBossServerLogTailSplitter(usingRegex);
+    }
+
+    private static void assertSameAsSeparateMethods(final TailSplitter splitter, final List<String> lines) {
+        final MessageMetadata metadata = splitter.parse(lines);
+        Assertions.assertThat(metadata.getTimestamp()).isEqualTo(splitter.determineDate(lines).getTime());
+        Assertions.assertThat(metadata.getLogger()).isEqualTo(splitter.determineLogger(lines));
+        Assertions.assertThat(metadata.getSeverity()).isEqualTo(splitter.determineSeverity(lines));
+        Assertions.assertThat(metadata.getType()).isEqualTo(splitter.determineType(lines));
+        for (int i = 0; i < lines.size(); i++) {
+            final String line = lines.get(i);
+            if (!splitter.isStartingLine(line)) {
+                // only starting lines may need to fall back to stripOfMetadata()
+                Assertions.assertThat(metadata.hasBody(i)).isTrue();
+            }
+            if (metadata.hasBody(i)) {
+                Assertions.assertThat(line.substring(metadata.getBodyStart(i), metadata.getBodyEnd(i))).isEqualTo(
+                        splitter.stripOfMetadata(line));
+            }
+        }
+    }
+
+    @Test
+    public void testParse() {
+        JBossServerLogTailSplitterTest.assertSameAsSeparateMethods(this.splitter, this.lines);
+    }
+
+    @Test
+    public void testParseIncrementally() {
+        final long read = System.currentTimeMillis();
+        final String expected = this.splitter.parse(this.lines, read).toString();
+        for (int i = 0; i <= this.lines.size(); i++) {
+            final MessageMetadata previous = (i == 0) ? null : this.splitter.parse(this.lines.subList(0, i), read);
+            Assertions.assertThat(this.splitter.parse(this.lines, read, i, previous).toString()).isEqualTo(expected);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testParseWithoutStartingLine() {
+        this.splitter.parse(Arrays.asList("\tat org.jboss.Test.run(Test.java:1)"));
+    }
+
+}
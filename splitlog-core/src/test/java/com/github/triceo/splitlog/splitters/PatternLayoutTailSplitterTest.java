@@ -0,0 +1,166 @@
+package com.github.triceo.splitlog.splitters;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.github.triceo.splitlog.AbstractSplitlogTest;
+import com.github.triceo.splitlog.api.MessageMetadata;
+import com.github.triceo.splitlog.api.MessageSeverity;
+import com.github.triceo.splitlog.api.MessageType;
+import com.github.triceo.splitlog.api.TailSplitter;
+
+public class PatternLayoutTailSplitterTest extends AbstractSplitlogTest {
+
+    private static final String LOGBACK_LAYOUT = "%d{ISO8601} %-5level [%thread] %logger - %msg%n";
+
+    private static void assertInvalid(final String layout) {
+        try {
+            PatternLayoutTailSplitter.compile(layout);
+            Assertions.fail("Layout should have been rejected: " + layout);
+        } catch (final IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    private static long timestamp(final LocalDateTime dateTime, final ZoneId zone) {
+        return dateTime.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    @Test
+    public void testBodies() {
+        final TailSplitter splitter = PatternLayoutTailSplitter.compile(PatternLayoutTailSplitterTest.LOGBACK_LAYOUT);
+        final List<String> lines = Arrays.asList("2015-06-30 12:34:56,789 ERROR [main] org.example.App - Failed: x",
+                "java.lang.IllegalStateException: x", "\tat org.example.App.main(App.java:10)");
+        final MessageMetadata metadata = splitter.parse(lines);
+        for (int i = 0; i < lines.size(); i++) {
+            final String line = lines.get(i);
+            Assertions.assertThat(metadata.hasBody(i)).isTrue();
+            Assertions.assertThat(line.substring(metadata.getBodyStart(i), metadata.getBodyEnd(i))).isEqualTo(
+                    splitter.stripOfMetadata(line));
+        }
+        Assertions.assertThat(splitter.stripOfMetadata(lines.get(0))).isEqualTo("Failed: x");
+        Assertions.assertThat(splitter.stripOfMetadata(lines.get(2))).isEqualTo(lines.get(2));
+    }
+
+    @Test
+    public void testBodiesIncrementally() {
+        final TailSplitter splitter = PatternLayoutTailSplitter.compile(PatternLayoutTailSplitterTest.LOGBACK_LAYOUT);
+        final List<String> lines = Arrays.asList("2015-06-30 12:34:56,789 ERROR [main] org.example.App - Failed: x",
+                "java.lang.IllegalStateException: x", "\tat org.example.App.main(App.java:10)",
+                "2015-06-30 12:34:57,000 INFO [main] org.example.App - Not a new message here");
+        final long read = System.currentTimeMillis();
+        final String expected = splitter.parse(lines, read).toString();
+        for (int i = 0; i <= lines.size(); i++) {
+            final MessageMetadata previous = (i == 0) ? null : splitter.parse(lines.subList(0, i), read);
+            Assertions.assertThat(splitter.parse(lines, read, i, previous).toString()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testDateWithMonthName() {
+        final TailSplitter splitter = PatternLayoutTailSplitter.compile("%d{DATE, UTC} %p %c: %m");
+        final List<String> lines = Collections.singletonList("29 Feb 2016 23:59:59,999 WARN a.B: leap");
+        Assertions.assertThat(splitter.parse(lines).getTimestamp()).isEqualTo(
+                PatternLayoutTailSplitterTest.timestamp(LocalDateTime.of(2016, 2, 29, 23, 59, 59, 999000000),
+                        ZoneOffset.UTC));
+        Assertions.assertThat(splitter.isStartingLine("29 Feb 2015 23:59:59,999 WARN a.B: no leap")).isFalse();
+        Assertions.assertThat(splitter.isStartingLine("01 Foo 2015 23:59:59,999 WARN a.B: no month")).isFalse();
+    }
+
+    @Test
+    public void testInvalidLayouts() {
+        PatternLayoutTailSplitterTest.assertInvalid("");
+        PatternLayoutTailSplitterTest.assertInvalid("%n");
+        PatternLayoutTailSplitterTest.assertInvalid("%thread%msg");
+        PatternLayoutTailSplitterTest.assertInvalid("%highlight(%level) %msg");
+        PatternLayoutTailSplitterTest.assertInvalid("%d{yy-MM-dd} %msg");
+        PatternLayoutTailSplitterTest.assertInvalid("%d{MM-dd HH:mm} %msg");
+        PatternLayoutTailSplitterTest.assertInvalid("%d{mm:ss} %msg");
+        PatternLayoutTailSplitterTest.assertInvalid("%d{HH:mm %msg");
+        PatternLayoutTailSplitterTest.assertInvalid("% %msg");
+    }
+
+    @Test
+    public void testLogback() {
+        final TailSplitter splitter = PatternLayoutTailSplitter.compile(PatternLayoutTailSplitterTest.LOGBACK_LAYOUT);
+        final List<String> lines = Collections
+                .singletonList("2015-06-30 12:34:56,789 INFO  [pool-1-thread-2] org.example.App - Hello - world ");
+        Assertions.assertThat(splitter.isStartingLine(lines.get(0))).isTrue();
+        final MessageMetadata metadata = splitter.parse(lines);
+        Assertions.assertThat(metadata.getTimestamp()).isEqualTo(
+                PatternLayoutTailSplitterTest.timestamp(LocalDateTime.of(2015, 6, 30, 12, 34, 56, 789000000),
+                        ZoneId.systemDefault()));
+        Assertions.assertThat(metadata.getTimestamp()).isEqualTo(splitter.determineDate(lines).getTime());
+        Assertions.assertThat(metadata.getLogger()).isEqualTo("org.example.App").isEqualTo(
+                splitter.determineLogger(lines));
+        Assertions.assertThat(metadata.getSeverity()).isEqualTo(MessageSeverity.INFO).isEqualTo(
+                splitter.determineSeverity(lines));
+        Assertions.assertThat(metadata.getType()).isEqualTo(MessageType.LOG).isEqualTo(splitter.determineType(lines));
+        Assertions.assertThat(splitter.stripOfMetadata(lines.get(0))).isEqualTo("Hello - world ");
+        // not starting lines
+        Assertions.assertThat(splitter.isStartingLine("2015-06-30 12:34:56,789 INFO  [main] org.example.App"))
+                .isFalse();
+        Assertions.assertThat(splitter.isStartingLine("2015-13-30 12:34:56,789 INFO [main] a - b")).isFalse();
+        Assertions.assertThat(splitter.isStartingLine("2015-06-30 12:34:56 INFO [main] a - b")).isFalse();
+        Assertions.assertThat(splitter.isStartingLine("\tat org.example.App.main(App.java:10)")).isFalse();
+    }
+
+    /**
+     * The layout that JBoss server.log is written with, recognized the same as
+     * by the dedicated splitter.
+     */
+    @Test
+    public void testSameAsJBossServerLog() {
+        final TailSplitter jboss = new JBossServerLogTailSplitter();
+        final TailSplitter splitter = PatternLayoutTailSplitter.compile("%d{HH:mm:ss,SSS} %-5p [%c] %m%n");
+        final String[] lines = { "12:34:56,789 INFO  [org.jboss.as.server] (Controller Boot Thread) Started",
+                "23:59:59,999 ERROR [org.jboss.as] Failed", "00:00:00,000 DEBUG [a.bc] x",
+                "\tat org.jboss.Test.run(Test.java:1)", "12:34:56,789 INFO [org.jboss" };
+        for (final String line : lines) {
+            Assertions.assertThat(splitter.isStartingLine(line)).as(line).isEqualTo(jboss.isStartingLine(line));
+            if (!jboss.isStartingLine(line)) {
+                continue;
+            }
+            final List<String> raw = Collections.singletonList(line);
+            final MessageMetadata expected = jboss.parse(raw);
+            final MessageMetadata actual = splitter.parse(raw);
+            Assertions.assertThat(actual.getTimestamp()).as(line).isEqualTo(expected.getTimestamp());
+            Assertions.assertThat(actual.getLogger()).as(line).isEqualTo(expected.getLogger());
+            Assertions.assertThat(actual.getSeverity()).as(line).isEqualTo(expected.getSeverity());
+        }
+    }
+
+    @Test
+    public void testWithoutDate() {
+        final TailSplitter splitter = PatternLayoutTailSplitter.compile("[%15.15thread] %-5level: %msg");
+        final List<String> lines = Collections.singletonList("[           main] DEBUG: 100%");
+        final MessageMetadata metadata = splitter.parse(lines);
+        Assertions.assertThat(metadata.getTimestamp()).isEqualTo(MessageMetadata.NO_TIMESTAMP);
+        Assertions.assertThat(splitter.determineDate(lines)).isNull();
+        Assertions.assertThat(metadata.getLogger()).isNull();
+        Assertions.assertThat(metadata.getSeverity()).isEqualTo(MessageSeverity.DEBUG);
+        Assertions.assertThat(splitter.stripOfMetadata(lines.get(0))).isEqualTo("100%");
+    }
+
+    @Test
+    public void testWithQuotedDate() {
+        final TailSplitter splitter = PatternLayoutTailSplitter
+                .compile("%date{\"yyyy-MM-dd'T'HH:mm:ss.SSS\", UTC} %% %level %logger %message");
+        final List<String> lines = Collections.singletonList("2015-06-30T12:34:56.789 % TRACE a.b c");
+        final MessageMetadata metadata = splitter.parse(lines);
+        Assertions.assertThat(metadata.getTimestamp()).isEqualTo(
+                PatternLayoutTailSplitterTest.timestamp(LocalDate.of(2015, 6, 30).atTime(12, 34, 56, 789000000),
+                        ZoneOffset.UTC));
+        Assertions.assertThat(metadata.getLogger()).isEqualTo("a.b");
+        Assertions.assertThat(metadata.getSeverity()).isEqualTo(MessageSeverity.TRACE);
+    }
+
+}
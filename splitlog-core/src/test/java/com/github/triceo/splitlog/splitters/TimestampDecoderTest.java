@@ -0,0 +1,158 @@
+package com.github.triceo.splitlog.splitters;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.github.triceo.splitlog.AbstractSplitlogTest;
+
+public class TimestampDecoderTest extends AbstractSplitlogTest {
+
+    /**
+     * Clock whose time can be moved.
+     */
+    private static final class MovingClock extends Clock {
+
+        private volatile Instant instant;
+        private final ZoneId zone;
+
+        public MovingClock(final LocalDateTime dateTime, final ZoneId zone) {
+            this.zone = zone;
+            this.moveTo(dateTime);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return this.zone;
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+
+        public void moveTo(final LocalDateTime dateTime) {
+            this.instant = dateTime.atZone(this.zone).toInstant();
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Prague");
+
+    private static long expected(final LocalDate date, final int hours, final int minutes, final int seconds,
+        final int millis) {
+        return LocalDateTime.of(date, LocalTime.of(hours, minutes, seconds, millis * 1000000))
+                .atZone(TimestampDecoderTest.ZONE).toInstant().toEpochMilli();
+    }
+
+    @Test
+    public void testDaylightSavingTimeEnd() {
+        // clocks go from 03:00 back to 02:00
+        final LocalDate date = LocalDate.of(2015, 10, 25);
+        final TimestampDecoder decoder = new TimestampDecoder(new MovingClock(date.atTime(LocalTime.MAX),
+                TimestampDecoderTest.ZONE));
+        Assertions.assertThat(decoder.decode(1, 0, 0, 0)).isEqualTo(TimestampDecoderTest.expected(date, 1, 0, 0, 0));
+        Assertions.assertThat(decoder.decode(4, 0, 0, 0)).isEqualTo(TimestampDecoderTest.expected(date, 4, 0, 0, 0));
+    }
+
+    @Test
+    public void testDaylightSavingTimeStart() {
+        // clocks go from 02:00 forward to 03:00
+        final LocalDate date = LocalDate.of(2015, 3, 29);
+        final TimestampDecoder decoder = new TimestampDecoder(new MovingClock(date.atTime(LocalTime.MAX),
+                TimestampDecoderTest.ZONE));
+        Assertions.assertThat(decoder.decode(1, 59, 59, 999)).isEqualTo(
+                TimestampDecoderTest.expected(date, 1, 59, 59, 999));
+        Assertions.assertThat(decoder.decode(23, 0, 0, 0)).isEqualTo(TimestampDecoderTest.expected(date, 23, 0, 0, 0));
+    }
+
+    @Test
+    public void testDate() {
+        final TimestampDecoder decoder = new TimestampDecoder(new MovingClock(LocalDateTime.of(2015, 6, 30, 12, 0),
+                TimestampDecoderTest.ZONE));
+        final LocalDate date = LocalDate.of(2015, 10, 25);
+        Assertions.assertThat(decoder.decode(2015, 10, 25, 1, 0, 0, 0)).isEqualTo(
+                TimestampDecoderTest.expected(date, 1, 0, 0, 0));
+        Assertions.assertThat(decoder.decode(2015, 10, 25, 4, 0, 0, 0)).isEqualTo(
+                TimestampDecoderTest.expected(date, 4, 0, 0, 0));
+        final LocalDate otherDate = LocalDate.of(2012, 2, 29);
+        Assertions.assertThat(decoder.decode(2012, 2, 29, 12, 34, 56, 789)).isEqualTo(
+                TimestampDecoderTest.expected(otherDate, 12, 34, 56, 789));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidDate() {
+        new TimestampDecoder().decode(2015, 2, 29, 0, 0, 0, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidTime() {
+        new TimestampDecoder().decode(24, 0, 0, 0);
+    }
+
+    @Test
+    public void testLineFromBeforeMidnight() {
+        final LocalDate date = LocalDate.of(2015, 6, 30);
+        final MovingClock clock = new MovingClock(date.plusDays(1).atTime(0, 0, 1), TimestampDecoderTest.ZONE);
+        final TimestampDecoder decoder = new TimestampDecoder(clock);
+        // the time of day has not come yet today, so the line is from yesterday
+        Assertions.assertThat(decoder.decode(23, 59, 59, 0)).isEqualTo(
+                TimestampDecoderTest.expected(date, 23, 59, 59, 0));
+        Assertions.assertThat(decoder.decode(0, 0, 1, 0)).isEqualTo(
+                TimestampDecoderTest.expected(date.plusDays(1), 0, 0, 1, 0));
+        Assertions.assertThat(decoder.decode(0, 0, 1, 1)).isEqualTo(TimestampDecoderTest.expected(date, 0, 0, 1, 1));
+    }
+
+    @Test
+    public void testMidnightRollover() {
+        final LocalDate date = LocalDate.of(2015, 6, 30);
+        final MovingClock clock = new MovingClock(date.atTime(23, 59, 59, 999000000), TimestampDecoderTest.ZONE);
+        final TimestampDecoder decoder = new TimestampDecoder(clock);
+        Assertions.assertThat(decoder.decode(23, 59, 59, 999)).isEqualTo(
+                TimestampDecoderTest.expected(date, 23, 59, 59, 999));
+        clock.moveTo(date.plusDays(1).atStartOfDay());
+        Assertions.assertThat(decoder.decode(0, 0, 0, 0)).isEqualTo(
+                TimestampDecoderTest.expected(date.plusDays(1), 0, 0, 0, 0));
+    }
+
+    @Test
+    public void testReference() {
+        final LocalDate date = LocalDate.of(2015, 6, 30);
+        final TimestampDecoder decoder = new TimestampDecoder(new MovingClock(date.plusDays(5).atTime(12, 0),
+                TimestampDecoderTest.ZONE));
+        // read just before midnight, decoded days later
+        final long read = TimestampDecoderTest.expected(date, 23, 59, 59, 500);
+        Assertions.assertThat(decoder.decode(read, 23, 59, 59, 0)).isEqualTo(
+                TimestampDecoderTest.expected(date, 23, 59, 59, 0));
+        // read just after midnight
+        final long readAfterMidnight = TimestampDecoderTest.expected(date.plusDays(1), 0, 0, 1, 0);
+        Assertions.assertThat(decoder.decode(readAfterMidnight, 23, 59, 59, 0)).isEqualTo(
+                TimestampDecoderTest.expected(date, 23, 59, 59, 0));
+        Assertions.assertThat(decoder.decode(readAfterMidnight, 0, 0, 0, 0)).isEqualTo(
+                TimestampDecoderTest.expected(date.plusDays(1), 0, 0, 0, 0));
+    }
+
+    @Test
+    public void testRegularDay() {
+        final LocalDate date = LocalDate.of(2015, 6, 30);
+        final TimestampDecoder decoder = new TimestampDecoder(new MovingClock(date.atTime(LocalTime.MAX),
+                TimestampDecoderTest.ZONE));
+        Assertions.assertThat(decoder.decode(0, 0, 0, 0)).isEqualTo(TimestampDecoderTest.expected(date, 0, 0, 0, 0));
+        Assertions.assertThat(decoder.decode(12, 34, 56, 789)).isEqualTo(
+                TimestampDecoderTest.expected(date, 12, 34, 56, 789));
+        Assertions.assertThat(decoder.decode(23, 59, 59, 999)).isEqualTo(
+                TimestampDecoderTest.expected(date, 23, 59, 59, 999));
+    }
+
+}
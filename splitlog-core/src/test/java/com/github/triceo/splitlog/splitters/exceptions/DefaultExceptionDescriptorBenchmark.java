@@ -0,0 +1,67 @@
+package com.github.triceo.splitlog.splitters.exceptions;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares parsing a stack trace of 48 lines, with a cause, with the regular
+ * expressions and with the scanner, both with its frames shared through
+ * {@link StackFrameInterner} and without.
+ *
+ * Not run as part of the build. Run {@link #main(String[])} from the test
+ * classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DefaultExceptionDescriptorBenchmark {
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DefaultExceptionDescriptorBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+
+    private final StackFrameInterner uninterned = new StackFrameInterner(0);
+    private Collection<String> lines;
+
+    @Param({ "regex", "scanner", "uninterned" })
+    public String parser;
+
+    @Benchmark
+    public void parseStackTrace(final Blackhole bh) {
+        if ("regex".equals(this.parser)) {
+            bh.consume(DefaultExceptionDescriptor.parseStackTraceWithRegex(this.lines));
+        } else if ("uninterned".equals(this.parser)) {
+            bh.consume(StackTraceScanner.scan(this.lines, this.uninterned));
+        } else {
+            bh.consume(DefaultExceptionDescriptor.parseStackTrace(this.lines));
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        // JMH runs a generated subclass, which is in a different package
+        this.lines = ExceptionParserTest.parseIntoLines(DefaultExceptionDescriptorBenchmark.class
+                .getResourceAsStream("exception-with-causes.txt"));
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.github.triceo.splitlog.splitters.exceptions;
 
 import java.net.ConnectException;
+import java.util.Arrays;
 
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
@@ -17,6 +18,20 @@ public class DefaultExceptionDescriptorTest extends AbstractSplitlogTest {
         Assertions.assertThat(ex.getMessage()).isEqualTo(expectedMessage);
     }
 
+    @Test
+    public void testFingerprint() {
+        final ExceptionDescriptor ex = DefaultExceptionDescriptor.parseStackTrace(Arrays.asList("x.B: x",
+                "at x.B.c(B.java:1)", "at x.B.d(Native Method)", "at x.C.e(C.java:3)", "at x.C.f(C.java:4)",
+                "at x.C.g(C.java:5)", "at x.C.h(C.java:6)", "Caused by: c.D", "at c.D.e(D.java:2)"));
+        Assertions.assertThat(ex.getFingerprint()).isEqualTo("x.B at x.B.c at x.B.d at x.C.e at x.C.f at x.C.g");
+        Assertions.assertThat(ex.getCause().getFingerprint()).isEqualTo("c.D at c.D.e");
+        // messages, line numbers, frames deeper down and causes do not matter
+        final ExceptionDescriptor other = DefaultExceptionDescriptor.parseStackTrace(Arrays.asList("x.B: y",
+                "at x.B.c(B.java:10)", "at x.B.d(B.java:20)", "at x.C.e(C.java:3)", "at x.C.f(C.java:4)",
+                "at x.C.g(C.java:5)", "at x.C.i(C.java:6)"));
+        Assertions.assertThat(other.getFingerprint()).isEqualTo(ex.getFingerprint());
+    }
+
     @Test
     public void testMaven() {
         final ExceptionDescriptor ex = DefaultExceptionDescriptor.parseStackTrace((ExceptionParserTest
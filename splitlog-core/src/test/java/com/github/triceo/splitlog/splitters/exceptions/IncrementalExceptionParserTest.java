@@ -0,0 +1,76 @@
+package com.github.triceo.splitlog.splitters.exceptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.github.triceo.splitlog.AbstractSplitlogTest;
+
+/**
+ * Compares the parser, given the lines in bursts of random sizes, with
+ * {@link DefaultExceptionDescriptor#parseStackTrace(java.util.Collection)}
+ * given all the lines read so far.
+ */
+public class IncrementalExceptionParserTest extends AbstractSplitlogTest {
+
+    private static final int TRACE_COUNT = 2000;
+
+    private static void assertSame(final List<String> lines, final Random random) {
+        final IncrementalExceptionParser parser = new IncrementalExceptionParser();
+        final List<String> read = new ArrayList<>();
+        int lineCount = 0;
+        while (lineCount < lines.size()) {
+            lineCount = Math.min(lines.size(), lineCount + 1 + random.nextInt(4));
+            read.addAll(lines.subList(read.size(), lineCount));
+            Assertions.assertThat(parser.parse(read)).as(String.join("\n", read))
+                    .isEqualTo(DefaultExceptionDescriptor.parseStackTrace(read));
+        }
+    }
+
+    @Test
+    public void testFiles() {
+        final Random random = new Random(0);
+        for (final List<String> trace : StackTraceScannerTest.readTraces()) {
+            IncrementalExceptionParserTest.assertSame(trace, random);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLinesRemoved() {
+        final IncrementalExceptionParser parser = new IncrementalExceptionParser();
+        parser.parse(Arrays.asList("x.B: x", "at x.B.c(B.java:1)"));
+        parser.parse(Arrays.asList("x.B: x"));
+    }
+
+    @Test
+    public void testNoNewLines() {
+        final IncrementalExceptionParser parser = new IncrementalExceptionParser();
+        final List<String> lines = Arrays.asList("x.B: x", "at x.B.c(B.java:1)");
+        Assertions.assertThat(parser.parse(lines)).isNotNull();
+        Assertions.assertThat(parser.parse(lines)).isEqualTo(DefaultExceptionDescriptor.parseStackTrace(lines));
+    }
+
+    @Test
+    public void testPrefixChanging() {
+        final Random random = new Random(0);
+        // every line has the prefix in common with the first, until the last one
+        IncrementalExceptionParserTest.assertSame(Arrays.asList("  [x] x.B: x  ", "  [x] at x.B.c(B.java:1)",
+                "  [x] at x.B.c(B.java:2) ", "  [x] at x.B.d(B.java:3)", "  [y] at x.B.e(B.java:4)"), random);
+        IncrementalExceptionParserTest.assertSame(Arrays.asList("[x] x.B: x", "[x] at x.B.c(B.java:1)",
+                "[x] x.B.c", "[x] at x.B.c(B.java:1)", "junk"), random);
+    }
+
+    @Test
+    public void testRandomTraces() {
+        final Random random = new Random(0);
+        final List<List<String>> traces = StackTraceScannerTest.readTraces();
+        for (int i = 0; i < IncrementalExceptionParserTest.TRACE_COUNT; i++) {
+            IncrementalExceptionParserTest.assertSame(StackTraceScannerTest.randomTrace(traces, random), random);
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.github.triceo.splitlog.splitters.exceptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.github.triceo.splitlog.AbstractSplitlogTest;
+import com.github.triceo.splitlog.api.ExceptionDescriptor;
+
+public class StackFrameInternerTest extends AbstractSplitlogTest {
+
+    private static final List<String> OTHER_TRACE = Arrays.asList("c.D: y", "at c.D.e(D.java:2)");
+    private static final List<String> TRACE = Arrays.asList("a.B: x", "at a.B.c(B.java:1) [b.jar:1.0]",
+            "at a.B.d(Native Method)", "Caused by: c.D", "at c.D.e(D.java:2)");
+
+    private static void assertSameFrames(final ExceptionDescriptor first, final ExceptionDescriptor second) {
+        final List<StackTraceElement> firstFrames = first.getStackTrace();
+        final List<StackTraceElement> secondFrames = second.getStackTrace();
+        Assertions.assertThat(secondFrames).hasSameSizeAs(firstFrames);
+        for (int i = 0; i < firstFrames.size(); i++) {
+            Assertions.assertThat(secondFrames.get(i)).isSameAs(firstFrames.get(i));
+        }
+    }
+
+    @Test
+    public void testBounded() {
+        final StackFrameInterner interner = new StackFrameInterner(1);
+        Assertions.assertThat(interner.getCapacity()).isEqualTo(1);
+        final ExceptionDescriptor first = StackTraceScanner.scan(StackFrameInternerTest.TRACE, interner);
+        final ExceptionDescriptor other = StackTraceScanner.scan(StackFrameInternerTest.OTHER_TRACE, interner);
+        final ExceptionDescriptor second = StackTraceScanner.scan(StackFrameInternerTest.TRACE, interner);
+        // frames keep taking each other's place, yet the exceptions are parsed the same
+        Assertions.assertThat(second).isEqualTo(first);
+        Assertions.assertThat(other).isEqualTo(StackTraceScanner.scan(StackFrameInternerTest.OTHER_TRACE,
+                new StackFrameInterner(0)));
+        Assertions.assertThat(new StackFrameInterner(3).getCapacity()).isEqualTo(4);
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        final StackFrameInterner interner = new StackFrameInterner(16);
+        final ExceptionDescriptor expected = StackTraceScanner.scan(StackFrameInternerTest.TRACE,
+                new StackFrameInterner(0));
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<ExceptionDescriptor>> results = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                final List<String> trace = (i % 2 == 0) ? StackFrameInternerTest.TRACE
+                        : StackFrameInternerTest.OTHER_TRACE;
+                results.add(executor.submit(() -> StackTraceScanner.scan(trace, interner)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                final ExceptionDescriptor result = results.get(i).get();
+                if (i % 2 == 0) {
+                    Assertions.assertThat(result).isEqualTo(expected);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertThat(interner.getFrameHits() + interner.getFrameMisses()).isEqualTo(2000);
+        Assertions.assertThat(interner.getFrameHitRate()).isGreaterThan(0.5);
+    }
+
+    @Test
+    public void testDisabled() {
+        final StackFrameInterner interner = new StackFrameInterner(0);
+        Assertions.assertThat(interner.getCapacity()).isEqualTo(0);
+        final ExceptionDescriptor first = StackTraceScanner.scan(StackFrameInternerTest.TRACE, interner);
+        final ExceptionDescriptor second = StackTraceScanner.scan(StackFrameInternerTest.TRACE, interner);
+        Assertions.assertThat(second).isEqualTo(first);
+        Assertions.assertThat(second.getStackTrace().get(0)).isNotSameAs(first.getStackTrace().get(0));
+        Assertions.assertThat(interner.getFrameHits()).isEqualTo(0);
+        Assertions.assertThat(interner.getFrameMisses()).isEqualTo(6);
+        Assertions.assertThat(interner.getFrameHitRate()).isEqualTo(0);
+        Assertions.assertThat(interner.getBytesSaved()).isEqualTo(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new StackFrameInterner(-1);
+    }
+
+    @Test
+    public void testShared() {
+        final StackFrameInterner interner = new StackFrameInterner(16);
+        final ExceptionDescriptor first = StackTraceScanner.scan(StackFrameInternerTest.TRACE, interner);
+        Assertions.assertThat(interner.getFrameHits()).isEqualTo(0);
+        Assertions.assertThat(interner.getFrameMisses()).isEqualTo(3);
+        Assertions.assertThat(interner.getStackTraceMisses()).isEqualTo(2);
+        // the same frames, regardless of the JAR
+        final List<String> trace = new ArrayList<>(StackFrameInternerTest.TRACE);
+        trace.set(1, "at a.B.c(B.java:1)");
+        final ExceptionDescriptor second = StackTraceScanner.scan(trace, interner);
+        Assertions.assertThat(second).isEqualTo(first);
+        StackFrameInternerTest.assertSameFrames(first, second);
+        StackFrameInternerTest.assertSameFrames(first.getCause(), second.getCause());
+        Assertions.assertThat(interner.getFrameHits()).isEqualTo(3);
+        Assertions.assertThat(interner.getFrameMisses()).isEqualTo(3);
+        Assertions.assertThat(interner.getFrameHitRate()).isEqualTo(0.5);
+        Assertions.assertThat(interner.getStackTraceHits()).isEqualTo(2);
+        Assertions.assertThat(interner.getStackTraceMisses()).isEqualTo(2);
+        /*
+         * 48 for each frame; 24 + 24 for each of "a.B" (twice), "c", "d",
+         * "B.java", "c.D", "e" and "D.java"; 24 for the array of two frames
+         * and 24 for the array of one.
+         */
+        Assertions.assertThat(interner.getBytesSaved()).isEqualTo((3 * 48) + (8 * 48) + 24 + 24);
+    }
+
+}
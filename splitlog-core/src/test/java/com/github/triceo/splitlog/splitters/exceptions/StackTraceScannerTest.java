@@ -0,0 +1,124 @@
+package com.github.triceo.splitlog.splitters.exceptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.github.triceo.splitlog.AbstractSplitlogTest;
+import com.github.triceo.splitlog.api.ExceptionDescriptor;
+
+/**
+ * Compares the scanner with the regular expressions that it stands in for, on
+ * stack traces that have been tampered with.
+ */
+public class StackTraceScannerTest extends AbstractSplitlogTest {
+
+    private static final String[] FILES = { "exception-maven.txt", "exception-with-causes.txt",
+            "exception-with-causes2.txt", "exception-with-line-prefix.txt", "issue-57_1.txt", "issue-57_2.txt" };
+    private static final String[] PARTS = { "", " ", "\t", "\n", "\u2028", "\u00E9", "\uD835\uDC00", "0", "1", "12",
+            "99999999999", ":", "::", ".", "(", ")", " [", " ~[", "]", "$", "_", "a", "at ", "Caused by: ",
+            "... 3 more", "... 12 common frames omitted", "Unknown Source", "Native Method", "Foo.java:12",
+            "rt.jar:1.8.0_45", "a.B", "a.B: x", "[ERROR] " };
+    private static final int TRACE_COUNT = 20000;
+
+    private static void assertSame(final Collection<String> lines) {
+        final ExceptionDescriptor expected;
+        try {
+            expected = DefaultExceptionDescriptor.parseStackTraceWithRegex(lines);
+        } catch (final RuntimeException ex) {
+            // the scanner does not fail where the regular expressions do
+            DefaultExceptionDescriptor.parseStackTrace(lines);
+            return;
+        }
+        Assertions.assertThat(DefaultExceptionDescriptor.parseStackTrace(lines)).as(String.join("\n", lines))
+                .isEqualTo(expected);
+    }
+
+    private static String mutate(final String line, final Random random) {
+        final String part = StackTraceScannerTest.PARTS[random.nextInt(StackTraceScannerTest.PARTS.length)];
+        final int index = random.nextInt(line.length() + 1);
+        switch (random.nextInt(4)) {
+            case 0:
+                return part;
+            case 1:
+                return line.substring(0, index) + part + line.substring(index);
+            case 2:
+                return line.substring(0, index) + part;
+            default:
+                return line.substring(0, index / 2) + line.substring(index);
+        }
+    }
+
+    static List<String> randomTrace(final List<List<String>> traces, final Random random) {
+        final List<String> trace = traces.get(random.nextInt(traces.size()));
+        final String prefix = random.nextInt(4) == 0 ? "[ERROR] " : "";
+        final List<String> result = new ArrayList<>();
+        for (final String line : trace) {
+            final int dice = random.nextInt(20);
+            if (dice == 0) {
+                // dropped
+                continue;
+            } else if (dice == 1) {
+                result.add(prefix + StackTraceScannerTest.mutate(line, random));
+            } else {
+                result.add(prefix + line);
+            }
+        }
+        return result.isEmpty() ? Arrays.asList("a.B: x", "at a.B.c(B.java:1)") : result;
+    }
+
+    static List<List<String>> readTraces() {
+        final List<List<String>> traces = new ArrayList<>();
+        for (final String file : StackTraceScannerTest.FILES) {
+            traces.add(new ArrayList<>(ExceptionParserTest.parseIntoLines(StackTraceScannerTest.class
+                    .getResourceAsStream(file))));
+        }
+        return traces;
+    }
+
+    @Test
+    public void testFiles() {
+        for (final List<String> trace : StackTraceScannerTest.readTraces()) {
+            Assertions.assertThat(DefaultExceptionDescriptor.parseStackTrace(trace)).isNotNull();
+            StackTraceScannerTest.assertSame(trace);
+        }
+    }
+
+    @Test
+    public void testKnownTraces() {
+        final List<List<String>> traces = Arrays.asList(
+                Arrays.asList("a.B: x", "at a.B.c(B.java:1)"),
+                Arrays.asList("a.B: x", "at a.B.c(B.java:1) [rt.jar:1.8]", "at a.B.d(Native Method) ~[x:y:]",
+                        "at a.B.e(Unknown Source)", "... 3 more", "Caused by: c.D", "at c.D.e(D.java:2)"),
+                Arrays.asList("a.B: x", "second line", "at a.B.c(B.java:1)", "... 1 common frames omitted", "junk"),
+                Arrays.asList("text: a.B: x: y:", "at a.B.c(B.java:1)"),
+                Arrays.asList("a.B", "at a.B.c(B.java:1)"),
+                Arrays.asList("a.B: x", "at a.B.c(B.java:0)"),
+                Arrays.asList("a.B: x", "at c(B.java:1)"),
+                Arrays.asList("a.B: x", "at a.B.c(B.java:1) (x) [a:b]"),
+                Arrays.asList("a.B: x", "at a.B.c(B.java:1) [a:b:c]"),
+                Arrays.asList("a.B: x", "at a.B.c(:1)"),
+                Arrays.asList("a.B: x", "at a.B.c(B.java:1)", "Caused by: c.D:", "at c.D.e(D.java:2)"),
+                Arrays.asList("a.B: x", "at a.B.c(B.java:1)", "Caused by: c.D", "more text", "at c.D.e(D.java:2)"),
+                Arrays.asList("  [x] a.B: x  ", "  [x] at a.B.c(B.java:1)", "  [x] at a.B.c(B.java:2) "),
+                Arrays.asList("x", "a.B: x", "at a.B.c(B.java:1)", "at a.B.c(B.java:1\n)"));
+        for (final List<String> trace : traces) {
+            StackTraceScannerTest.assertSame(trace);
+        }
+    }
+
+    @Test
+    public void testRandomTraces() {
+        final Random random = new Random(0);
+        final List<List<String>> traces = StackTraceScannerTest.readTraces();
+        for (int i = 0; i < StackTraceScannerTest.TRACE_COUNT; i++) {
+            StackTraceScannerTest.assertSame(StackTraceScannerTest.randomTrace(traces, random));
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.github.triceo.splitlog.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import com.github.triceo.splitlog.AbstractSplitlogTest;
+import com.github.triceo.splitlog.LogWriter;
+import com.github.triceo.splitlog.api.Follower;
+import com.github.triceo.splitlog.api.LogWatch;
+import com.github.triceo.splitlog.api.LogWatchBuilder;
+import com.github.triceo.splitlog.api.PipelineWaitStrategy;
+
+public class SplitlogThreadFactoryTest extends AbstractSplitlogTest {
+
+    private static void assertRuns(final SplitlogThreadFactory factory) throws InterruptedException {
+        final AtomicBoolean hasRun = new AtomicBoolean(false);
+        final Thread thread = factory.newThread(() -> hasRun.set(true));
+        Assertions.assertThat(thread.getName()).startsWith("test-");
+        Assertions.assertThat(thread.isDaemon()).isTrue();
+        thread.start();
+        thread.join();
+        Assertions.assertThat(hasRun.get()).isTrue();
+    }
+
+    /**
+     * {@link Thread#isVirtual()} through reflection, as it does not exist
+     * before Java 21.
+     */
+    private static boolean isVirtual(final Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (final ReflectiveOperationException ex) {
+            return false;
+        }
+    }
+
+    @Test
+    public void testPlatformThreads() throws InterruptedException {
+        final SplitlogThreadFactory factory = new SplitlogThreadFactory("test");
+        Assertions.assertThat(factory.isVirtual()).isFalse();
+        SplitlogThreadFactoryTest.assertRuns(factory);
+    }
+
+    @Test
+    public void testReadingOnVirtualThreads() throws InterruptedException {
+        final LogWatch watch = LogWatchBuilder.getDefault().watchedFile(LogWriter.createTempFile())
+                .withDelayBetweenReads(10, TimeUnit.MILLISECONDS).tailingOnVirtualThreads().build();
+        final AtomicReference<Thread> readingThread = new AtomicReference<>();
+        // without a pipeline, messages are delivered on the thread that read them
+        watch.startConsuming((message, status, source) -> readingThread.compareAndSet(null, Thread.currentThread()));
+        final Follower follower = watch.startFollowing();
+        LogWriter.write(follower, "Message 1");
+        watch.stop();
+        final Thread thread = readingThread.get();
+        // platform threads of the same name where virtual ones are not supported
+        Assertions.assertThat(thread.getName()).startsWith("virtual-tail-reads-");
+        Assertions.assertThat(SplitlogThreadFactoryTest.isVirtual(thread)).isEqualTo(
+                SplitlogThreadFactory.isVirtualSupported());
+    }
+
+    @Test
+    public void testTailingOnVirtualThreads() {
+        final LogWatch watch = LogWatchBuilder.getDefault().watchedFile(LogWriter.createTempFile())
+                .withDelayBetweenReads(10, TimeUnit.MILLISECONDS).tailingOnVirtualThreads()
+                .processingOnSeparateThread(4, PipelineWaitStrategy.BLOCKING).build();
+        final Follower follower = watch.startFollowing();
+        LogWriter.write(follower, "Message 1");
+        LogWriter.write(follower, "Message 2");
+        Assertions.assertThat(follower.getMessages()).hasSize(1);
+        watch.stop();
+    }
+
+    @Test
+    public void testVirtualThreadsRequestedGlobally() throws InterruptedException {
+        final SplitlogThreadFactory factory = new SplitlogThreadFactory("test");
+        System.setProperty(SplitlogThreadFactory.THREADS_PROPERTY_NAME, SplitlogThreadFactory.VIRTUAL_STATE);
+        try {
+            Assertions.assertThat(SplitlogThreadFactory.isVirtualRequestedGlobally()).isTrue();
+            // platform threads where virtual ones are not supported
+            Assertions.assertThat(factory.isVirtual()).isEqualTo(SplitlogThreadFactory.isVirtualSupported());
+            SplitlogThreadFactoryTest.assertRuns(factory);
+        } finally {
+            System.clearProperty(SplitlogThreadFactory.THREADS_PROPERTY_NAME);
+        }
+        Assertions.assertThat(factory.isVirtual()).isFalse();
+    }
+
+    @Test
+    public void testVirtualThreadsRequestedLocally() throws InterruptedException {
+        final SplitlogThreadFactory factory = new SplitlogThreadFactory("test", true);
+        Assertions.assertThat(factory.isVirtual()).isEqualTo(SplitlogThreadFactory.isVirtualSupported());
+        SplitlogThreadFactoryTest.assertRuns(factory);
+    }
+
+}
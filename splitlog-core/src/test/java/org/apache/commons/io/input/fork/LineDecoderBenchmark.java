@@ -0,0 +1,75 @@
+package org.apache.commons.io.input.fork;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link LineDecoder} with the previous way of decoding lines,
+ * {@link String#String(byte[], Charset)} over a copy of the line's bytes.
+ *
+ * Not run as part of the build. Run {@link #main(String[])} from the test
+ * classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LineDecoderBenchmark {
+
+    private static final String ASCII_LINE = "12:34:56,789 INFO  [org.jboss.as.server] (Controller Boot Thread) "
+            + "JBAS015961: Http management interface listening on http://127.0.0.1:9990/management";
+    private static final String UTF8_LINE = "12:34:56,789 INFO  [org.jboss.as.server] (Controller Boot Thread) "
+            + "Přihlášení uživatele Žluťoučký kůň se nezdařilo; Пользователь не найден";
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LineDecoderBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private Charset charset;
+    private LineDecoder decoder;
+    private byte[] line;
+
+    @Param({ "ascii", "utf8" })
+    public String corpus;
+
+    @Benchmark
+    public void lineDecoder(final Blackhole bh) {
+        bh.consume(this.decoder.decode(this.line, 0, this.line.length));
+    }
+
+    @Benchmark
+    public void newString(final Blackhole bh) {
+        // the previous code copied the bytes out of a ByteArrayOutputStream first
+        final byte[] copy = new byte[this.line.length];
+        System.arraycopy(this.line, 0, copy, 0, copy.length);
+        bh.consume(new String(copy, this.charset));
+    }
+
+    @Setup
+    public void setUp() {
+        this.charset = StandardCharsets.UTF_8;
+        this.decoder = new LineDecoder(this.charset);
+        this.line = ("ascii".equals(this.corpus) ? LineDecoderBenchmark.ASCII_LINE : LineDecoderBenchmark.UTF8_LINE)
+                .getBytes(this.charset);
+    }
+
+}
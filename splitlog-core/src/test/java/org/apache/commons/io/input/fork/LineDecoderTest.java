@@ -0,0 +1,86 @@
+package org.apache.commons.io.input.fork;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.github.triceo.splitlog.AbstractSplitlogTest;
+
+/**
+ * Makes sure that {@link LineDecoder} decodes exactly like
+ * {@link String#String(byte[], Charset)} does.
+ */
+@RunWith(Parameterized.class)
+public class LineDecoderTest extends AbstractSplitlogTest {
+
+    private static final byte[][] LINES = new byte[][] {
+        "plain ASCII line".getBytes(StandardCharsets.US_ASCII),
+        new byte[0],
+        "Special chars: áéí жзи €".getBytes(StandardCharsets.UTF_8),
+        "short".getBytes(StandardCharsets.US_ASCII),
+        // malformed UTF-8: truncated sequence, lone continuation byte
+        new byte[] { 'a', (byte) 0xE2, (byte) 0x82, 'b', (byte) 0x80, 'c' },
+        "áéí in Latin-1".getBytes(StandardCharsets.ISO_8859_1),
+        "a much longer line than any of the previous ones, so that the buffers need to grow; жзи"
+            .getBytes(StandardCharsets.UTF_8) };
+
+    @Parameters(name = "{index}: {0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] { { StandardCharsets.UTF_8 }, { StandardCharsets.US_ASCII },
+            { StandardCharsets.ISO_8859_1 }, { StandardCharsets.UTF_16BE }, { Charset.forName("windows-1250") } });
+    }
+
+    private final Charset charset;
+
+    @Test
+    public void testBufferShared() {
+        // lines that follow each other in the same buffer, decoded in order
+        final int size = Arrays.stream(LineDecoderTest.LINES).mapToInt(line -> line.length).sum();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        Arrays.stream(LineDecoderTest.LINES).forEach(buffer::put);
+        final LineDecoder decoder = new LineDecoder(this.charset);
+        int start = 0;
+        for (final byte[] line : LineDecoderTest.LINES) {
+            final int end = start + line.length;
+            Assertions.assertThat(decoder.decode(buffer, start, end)).isEqualTo(new String(line, this.charset));
+            start = end;
+        }
+    }
+
+    public LineDecoderTest(final Charset charset) {
+        this.charset = charset;
+    }
+
+    @Test
+    public void testByteArray() {
+        final LineDecoder decoder = new LineDecoder(this.charset);
+        for (final byte[] line : LineDecoderTest.LINES) {
+            // surround the line with other content, to check that offsets are respected
+            final byte[] padded = new byte[line.length + 4];
+            Arrays.fill(padded, (byte) 0xFF);
+            System.arraycopy(line, 0, padded, 2, line.length);
+            Assertions.assertThat(decoder.decode(padded, 2, line.length)).isEqualTo(
+                    new String(line, this.charset));
+        }
+    }
+
+    @Test
+    public void testByteBuffer() {
+        final LineDecoder decoder = new LineDecoder(this.charset);
+        for (final byte[] line : LineDecoderTest.LINES) {
+            final ByteBuffer padded = ByteBuffer.allocateDirect(line.length + 4);
+            padded.put((byte) 0xFF).put((byte) 0xFF).put(line).put((byte) 0xFF).put((byte) 0xFF);
+            Assertions.assertThat(decoder.decode(padded, 2, line.length + 2)).isEqualTo(
+                    new String(line, this.charset));
+        }
+    }
+
+}
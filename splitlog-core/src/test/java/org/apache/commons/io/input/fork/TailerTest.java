@@ -31,6 +31,7 @@ import java.io.RandomAccessFile;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Executor;
@@ -52,6 +53,30 @@ import org.apache.commons.io.testtools.FileBasedTestCase;
  */
 public class TailerTest extends FileBasedTestCase {
 
+    /**
+     * Test {@link BatchingTailerListener} implementation, remembering the
+     * sizes of the batches.
+     */
+    private static class TestBatchingTailerListener extends TestTailerListener implements BatchingTailerListener {
+
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        public List<Integer> getBatchSizes() {
+            return this.batchSizes;
+        }
+
+        @Override
+        public void handle(final List<String> lines) {
+            this.batchSizes.add(lines.size());
+            this.getLines().addAll(lines);
+        }
+
+        @Override
+        public void handle(final String line) {
+            throw new IllegalStateException("Lines must be delivered in batches.");
+        }
+    }
+
     /**
      * Test {@link TailerListener} implementation.
      */
@@ -158,6 +183,81 @@ public class TailerTest extends FileBasedTestCase {
         Thread.sleep(1000);
     }
 
+    public void testAdaptiveDelay() throws Exception {
+        final File file = new File(FileBasedTestCase.getTestDirectory(), "tailer-adaptive.txt");
+        this.createFile(file, 0);
+        final TestTailerListener listener = new TestTailerListener();
+        this.tailer = new Tailer.Builder(file, listener).withDelay(1000).withAdaptiveDelay(10, 160).build();
+        TestCase.assertEquals("delay starts within bounds", 160, this.tailer.getCurrentDelay());
+        final Thread thread = new Thread(this.tailer);
+        thread.start();
+
+        // busy file; the delay goes down
+        for (int i = 0; i < 50; i++) {
+            this.write(file, "Line " + i);
+            Thread.sleep(20);
+        }
+        TestCase.assertTrue("delay shortened", this.tailer.getCurrentDelay() < 160);
+        final long timeout = System.currentTimeMillis() + 5000;
+        while (listener.getLines().size() < 50 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(20);
+        }
+        TestCase.assertEquals("line count", 50, listener.getLines().size());
+
+        // quiet file; the delay backs off to the maximum
+        Thread.sleep(1000);
+        TestCase.assertEquals("delay at maximum", 160, this.tailer.getCurrentDelay());
+        TestCase.assertEquals("configured delay", 1000, this.tailer.getDelay());
+    }
+
+    public void testAdaptiveDelayBounds() {
+        final Tailer.Builder builder = new Tailer.Builder(new File("tailer-bounds.txt"), new TestTailerListener());
+        try {
+            builder.withAdaptiveDelay(0, 160);
+            TestCase.fail("shortest delay of 0 accepted");
+        } catch (final IllegalArgumentException ex) {
+            // expected
+        }
+        try {
+            builder.withAdaptiveDelay(20, 10);
+            TestCase.fail("longest delay shorter than the shortest accepted");
+        } catch (final IllegalArgumentException ex) {
+            // expected
+        }
+        builder.withAdaptiveDelay(10, 10);
+    }
+
+    public void testBatches() throws Exception {
+        this.assertBatches(false);
+    }
+
+    public void testBatchesThroughChannel() throws Exception {
+        this.assertBatches(true);
+    }
+
+    private void assertBatches(final boolean throughChannel) throws Exception {
+        final long delayMillis = 50;
+        final File file = new File(FileBasedTestCase.getTestDirectory(), "tailer-batches.txt");
+        this.createFile(file, 0);
+        this.writeString(file, "one\n", "two\r\n", "three\n", "unfinished");
+        final TestBatchingTailerListener listener = new TestBatchingTailerListener();
+        this.tailer = new Tailer.Builder(file, listener).withDelay(delayMillis).withBufferSize(4)
+                .readingThroughChannel(throughChannel).build();
+        final Thread thread = new Thread(this.tailer);
+        thread.start();
+        final long testDelayMillis = delayMillis * 10;
+        Thread.sleep(testDelayMillis);
+        // a single read, even though the buffer had to be refilled many times
+        TestCase.assertEquals("first batch", Arrays.asList("one", "two", "three"), listener.getLines());
+        TestCase.assertEquals("batches after first read", Collections.singletonList(3), listener.getBatchSizes());
+        this.writeString(file, "\n", "four\n");
+        Thread.sleep(testDelayMillis);
+        TestCase.assertEquals("all lines", Arrays.asList("one", "two", "three", "unfinished", "four"),
+                listener.getLines());
+        TestCase.assertEquals("batches after second read", Arrays.asList(3, 2), listener.getBatchSizes());
+        TestCase.assertNull("exception", listener.exception);
+    }
+
     public void testBufferBreak() throws Exception {
         final long delay = 50;
 
@@ -179,6 +279,90 @@ public class TailerTest extends FileBasedTestCase {
         listener.clear();
     }
 
+    public void testBufferBreakThroughChannel() throws Exception {
+        final long delay = 50;
+
+        final File file = new File(FileBasedTestCase.getTestDirectory(), "testBufferBreakThroughChannel.txt");
+        this.createFile(file, 0);
+        this.writeString(file, "SBTOURIST\n");
+
+        final TestTailerListener listener = new TestTailerListener();
+        this.tailer = new Tailer.Builder(file, listener).withDelay(delay).withBufferSize(1).readingThroughChannel(true)
+                .build();
+
+        final Thread thread = new Thread(this.tailer);
+        thread.start();
+
+        List<String> lines = listener.getLines();
+        while (lines.isEmpty() || !lines.get(lines.size() - 1).equals("SBTOURIST")) {
+            lines = listener.getLines();
+        }
+        TestCase.assertEquals("line count", 1, lines.size());
+
+        listener.clear();
+    }
+
+    public void testCatchUpThroughMapping() throws Exception {
+        final long delayMillis = 50;
+        final File file = new File(FileBasedTestCase.getTestDirectory(), "tailer-catchup.txt");
+        this.createFile(file, 0);
+        this.writeString(file, "one\n", "two\r\n", "thr");
+
+        final TestTailerListener listener = new TestTailerListener();
+        this.tailer = new Tailer.Builder(file, listener).withDelay(delayMillis).catchingUpThroughMapping(true)
+                .build();
+        final Thread thread = new Thread(this.tailer);
+        thread.start();
+        final long testDelayMillis = delayMillis * 10;
+        Thread.sleep(testDelayMillis);
+        TestCase.assertEquals("lines before catch-up end", Arrays.asList("one", "two"), listener.getLines());
+
+        // the incomplete line is finished by the regular reading
+        this.writeString(file, "ee\n", "four\n");
+        Thread.sleep(testDelayMillis);
+        TestCase.assertEquals("lines after catch-up end", Arrays.asList("one", "two", "three", "four"),
+                listener.getLines());
+    }
+
+    public void testMappedWindows() throws Exception {
+        final File file = new File(FileBasedTestCase.getTestDirectory(), "tailer-mapped-windows.txt");
+        this.createFile(file, 0);
+        this.writeString(file, "a\r\n", "bb\r", "a-line-longer-than-the-window\n", "c\r\r", "d\n", "unfinished");
+        final TestTailerListener listener = new TestTailerListener();
+        final ChannelLineReader reader = new ChannelLineReader(Charsets.UTF_8, listener, 1);
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final long length = raf.length();
+            final long rePos = reader.readMapped(raf.getChannel(), 0, length, 4);
+            TestCase.assertEquals("position to continue from", length - "unfinished".length(), rePos);
+        } finally {
+            IOUtils.closeQuietly(raf);
+        }
+        TestCase.assertEquals("lines", Arrays.asList("a", "bb", "a-line-longer-than-the-window", "c\r", "d"),
+                listener.getLines());
+    }
+
+    public void testCRAtBufferEndThroughChannel() throws Exception {
+        final long delayMillis = 50;
+        final File file = new File(FileBasedTestCase.getTestDirectory(), "tailer-cr-channel.txt");
+        this.createFile(file, 0);
+        final TestTailerListener listener = new TestTailerListener();
+        this.tailer = new Tailer.Builder(file, listener).withDelay(delayMillis).readingThroughChannel(true).build();
+        final Thread thread = new Thread(this.tailer);
+        thread.start();
+
+        // the line after the CR is only started when the tailer reads
+        this.writeString(file, "first\rs");
+        final long testDelayMillis = delayMillis * 10;
+        Thread.sleep(testDelayMillis);
+        this.writeString(file, "econd\n");
+        Thread.sleep(testDelayMillis);
+        final List<String> lines = listener.getLines();
+        TestCase.assertEquals("line count", 2, lines.size());
+        TestCase.assertEquals("line 1", "first", lines.get(0));
+        TestCase.assertEquals("line 2", "second", lines.get(1));
+    }
+
     /**
      * Tests [IO-357][Tailer] InterruptedException while the thead is sleeping is silently ignored.
      *
@@ -234,6 +418,116 @@ public class TailerTest extends FileBasedTestCase {
         Thread.sleep(testDelayMillis);
     }
 
+    public void testFileSystemNotifications() throws Exception {
+        // polling alone would not pick up the change in time
+        final long delayMillis = 60000;
+        final File file = new File(FileBasedTestCase.getTestDirectory(), "tailer-notifications.txt");
+        this.createFile(file, 0);
+        final TestTailerListener listener = new TestTailerListener();
+        this.tailer = new Tailer.Builder(file, listener).withDelay(delayMillis).usingFileSystemNotifications(true)
+                .build();
+        final Thread thread = new Thread(this.tailer);
+        thread.start();
+        this.tailer.waitUntilStarted();
+
+        this.write(file, "Line one", "Line two");
+        final long timeout = System.currentTimeMillis() + 30000;
+        while (listener.getLines().size() < 2 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(50);
+        }
+        TestCase.assertEquals("lines", Arrays.asList("Line one", "Line two"), listener.getLines());
+    }
+
+    public void testIO335ThroughChannel() throws Exception { // test CR behaviour
+        final long delayMillis = 50;
+        final File file = new File(FileBasedTestCase.getTestDirectory(), "tailer-testio334-channel.txt");
+        this.createFile(file, 0);
+        final TestTailerListener listener = new TestTailerListener();
+        this.tailer = new Tailer.Builder(file, listener).withDelay(delayMillis).readingThroughChannel(true).build();
+        final Thread thread = new Thread(this.tailer);
+        thread.start();
+
+        this.writeString(file, "CRLF\r\n", "LF\n", "CR\r", "CRCR\r\r", "trail");
+        final long testDelayMillis = delayMillis * 10;
+        Thread.sleep(testDelayMillis);
+        final List<String> lines = listener.getLines();
+        TestCase.assertEquals("line count", 4, lines.size());
+        TestCase.assertEquals("line 1", "CRLF", lines.get(0));
+        TestCase.assertEquals("line 2", "LF", lines.get(1));
+        TestCase.assertEquals("line 3", "CR", lines.get(2));
+        TestCase.assertEquals("line 4", "CRCR\r", lines.get(3));
+    }
+
+    public void testFollowingRenames() throws Exception {
+        final long delayMillis = 50;
+        final File file = new File(FileBasedTestCase.getTestDirectory(), "tailer-renames.txt");
+        final File renamed = new File(FileBasedTestCase.getTestDirectory(), "tailer-renames.txt.1");
+        this.createFile(file, 0);
+        this.writeString(file, "one\n", "two\n");
+        final TestTailerListener listener = new TestTailerListener();
+        this.tailer = new Tailer.Builder(file, listener).withDelay(delayMillis).followingRenames(true).build();
+        final Thread thread = new Thread(this.tailer);
+        thread.start();
+        final long testDelayMillis = delayMillis * 10;
+        Thread.sleep(testDelayMillis);
+        TestCase.assertEquals("lines before rename", Arrays.asList("one", "two"), listener.getLines());
+        TestCase.assertTrue("renamed", file.renameTo(renamed));
+        this.writeString(renamed, "three\n");
+        Thread.sleep(testDelayMillis);
+        // a new file under the old name is not read
+        this.writeString(file, "new one\n");
+        this.writeString(renamed, "four\n");
+        Thread.sleep(testDelayMillis);
+        TestCase.assertEquals("lines after rename", Arrays.asList("one", "two", "three", "four"),
+                listener.getLines());
+        TestCase.assertEquals("rename should not be reported as rotation", 0, listener.rotated);
+        TestCase.assertNull("exception", listener.exception);
+    }
+
+    public void testLettingGoOfDeletedFile() throws Exception {
+        final long delayMillis = 50;
+        final File file = new File(FileBasedTestCase.getTestDirectory(), "tailer-let-go.txt");
+        this.createFile(file, 0);
+        this.writeString(file, "one\n", "two\n");
+        final TestTailerListener listener = new TestTailerListener();
+        this.tailer = new Tailer.Builder(file, listener).withDelay(delayMillis).reopeningBetweenReads(true).build();
+        final Thread thread = new Thread(this.tailer);
+        thread.start();
+        final long testDelayMillis = delayMillis * 10;
+        Thread.sleep(testDelayMillis);
+        TestCase.assertEquals("lines before deletion", Arrays.asList("one", "two"), listener.getLines());
+        TestCase.assertTrue("deleted", file.delete());
+        Thread.sleep(testDelayMillis);
+        TestCase.assertTrue("deletion not reported", listener.rotated > 0);
+        TestCase.assertFalse("deleted file still open", this.isOpen(file));
+        this.writeString(file, "three\n");
+        Thread.sleep(testDelayMillis);
+        TestCase.assertEquals("lines after deletion", Arrays.asList("one", "two", "three"), listener.getLines());
+        TestCase.assertNull("exception", listener.exception);
+    }
+
+    /**
+     * Whether this process has the given file open. Only works where open
+     * files are listed in /proc; elsewhere, it is always false.
+     */
+    private boolean isOpen(final File file) throws IOException {
+        final File[] descriptors = new File("/proc/self/fd").listFiles();
+        if (descriptors == null) {
+            return false;
+        }
+        final String path = file.getAbsolutePath();
+        for (final File descriptor : descriptors) {
+            try {
+                if (java.nio.file.Files.readSymbolicLink(descriptor.toPath()).toString().startsWith(path)) {
+                    return true;
+                }
+            } catch (final IOException ex) {
+                // closed in the meantime
+            }
+        }
+        return false;
+    }
+
     public void testLongFile() throws Exception {
         final long delay = 50;
 
@@ -311,6 +605,161 @@ public class TailerTest extends FileBasedTestCase {
         }
     }
 
+    public void testMultiByteBreakThroughChannel() throws Exception {
+        final long delay = 50;
+        final File origin = new File(this.getClass().getResource("/test-file-utf8.bin").toURI());
+        final File file = new File(FileBasedTestCase.getTestDirectory(), "testMultiByteBreakThroughChannel.txt");
+        this.createFile(file, 0);
+        final TestTailerListener listener = new TestTailerListener();
+        final Charset charsetUTF8 = Charsets.UTF_8;
+        // small buffer to make sure that multi-byte characters are split between reads
+        this.tailer = new Tailer.Builder(file, listener).withCharset(charsetUTF8).withDelay(delay).withBufferSize(7)
+                .readingThroughChannel(true).build();
+        final Thread thread = new Thread(this.tailer);
+        thread.start();
+
+        final List<String> lines = FileUtils.readLines(origin, charsetUTF8);
+        FileUtils.writeLines(file, charsetUTF8.name(), lines, "\n");
+        Thread.sleep(delay * 10);
+        TestCase.assertEquals("lines", lines, listener.getLines());
+    }
+
+    public void testReadBudget() throws Exception {
+        this.assertReadBudget(false, false);
+    }
+
+    public void testReadBudgetThroughChannel() throws Exception {
+        this.assertReadBudget(true, false);
+    }
+
+    public void testReadBudgetThroughMapping() throws Exception {
+        this.assertReadBudget(false, true);
+    }
+
+    private void assertReadBudget(final boolean throughChannel, final boolean catchUp) throws Exception {
+        final File file = new File(FileBasedTestCase.getTestDirectory(), "tailer-read-budget.txt");
+        this.createFile(file, 0);
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final String line = String.format("line %03d", i);
+            this.writeString(file, line + "\n");
+            expected.add(line);
+        }
+        final TestBatchingTailerListener listener = new TestBatchingTailerListener();
+        // the delay is far too long for the file to be read in time by the periodic checks alone
+        this.tailer = new Tailer.Builder(file, listener).withDelay(60000).withBufferSize(16).withReadBudget(100)
+                .readingThroughChannel(throughChannel).catchingUpThroughMapping(catchUp).build();
+        final Thread thread = new Thread(this.tailer);
+        thread.start();
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (listener.getLines().size() < expected.size() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        TestCase.assertEquals("lines", expected, listener.getLines());
+        for (final int batchSize : listener.getBatchSizes()) {
+            // 100 bytes, up to the end of the line that was being read
+            TestCase.assertTrue("batch too large: " + batchSize, batchSize <= 12);
+        }
+        TestCase.assertTrue("throttling not reported", this.tailer.getThrottledReadCount() > 0);
+        TestCase.assertNull("exception", listener.exception);
+    }
+
+    public void testRotationToLongerFile() throws Exception {
+        this.assertRotationToLongerFile(false);
+    }
+
+    public void testRotationToLongerFileThroughChannel() throws Exception {
+        this.assertRotationToLongerFile(true);
+    }
+
+    private void assertRotationToLongerFile(final boolean throughChannel) throws Exception {
+        final long delayMillis = 50;
+        final File file = new File(FileBasedTestCase.getTestDirectory(), "tailer-rotation.txt");
+        final File rotated = new File(FileBasedTestCase.getTestDirectory(), "tailer-rotation.txt.1");
+        final File replacement = new File(FileBasedTestCase.getTestDirectory(), "tailer-rotation.txt.new");
+        this.createFile(file, 0);
+        this.writeString(file, "one\n", "two\n");
+        final TestTailerListener listener = new TestTailerListener();
+        this.tailer = new Tailer.Builder(file, listener).withDelay(delayMillis)
+                .readingThroughChannel(throughChannel).build();
+        final Thread thread = new Thread(this.tailer);
+        thread.start();
+        final long testDelayMillis = delayMillis * 10;
+        Thread.sleep(testDelayMillis);
+        TestCase.assertEquals("lines before rotation", Arrays.asList("one", "two"), listener.getLines());
+        // the new file is already longer than the position in the old one
+        this.writeString(replacement, "three, which is longer\n", "four\n");
+        TestCase.assertTrue("rotated away", file.renameTo(rotated));
+        TestCase.assertTrue("replaced", replacement.renameTo(file));
+        Thread.sleep(testDelayMillis);
+        TestCase.assertEquals("lines after rotation", Arrays.asList("one", "two", "three, which is longer", "four"),
+                listener.getLines());
+        TestCase.assertTrue("rotation not reported", listener.rotated > 0);
+    }
+
+    public void testSharedExecutor() throws Exception {
+        final long delayMillis = 50;
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        try {
+            final File file1 = new File(FileBasedTestCase.getTestDirectory(), "tailer-shared1.txt");
+            final File file2 = new File(FileBasedTestCase.getTestDirectory(), "tailer-shared2.txt");
+            this.createFile(file1, 0);
+            this.createFile(file2, 0);
+            final TestTailerListener listener1 = new TestTailerListener();
+            final TestTailerListener listener2 = new TestTailerListener();
+            final Tailer tailer1 = new Tailer.Builder(file1, listener1).withDelay(delayMillis).schedulingOn(executor)
+                    .build();
+            final Tailer tailer2 = new Tailer.Builder(file2, listener2).withDelay(delayMillis).schedulingOn(executor)
+                    .build();
+            TestCase.assertTrue("first start", tailer1.start());
+            TestCase.assertFalse("second start", tailer1.start());
+            TestCase.assertTrue("other tailer start", tailer2.start());
+
+            this.write(file1, "Line one");
+            this.write(file2, "Line two");
+            final long testDelayMillis = delayMillis * 10;
+            Thread.sleep(testDelayMillis);
+            TestCase.assertEquals("first tailer", Collections.singletonList("Line one"), listener1.getLines());
+            TestCase.assertEquals("second tailer", Collections.singletonList("Line two"), listener2.getLines());
+
+            // stopping one does not affect the other
+            tailer1.stop();
+            Thread.sleep(testDelayMillis);
+            this.write(file1, "Line three");
+            this.write(file2, "Line four");
+            Thread.sleep(testDelayMillis);
+            TestCase.assertEquals("first tailer stopped", Collections.singletonList("Line one"),
+                    listener1.getLines());
+            TestCase.assertEquals("second tailer running", Arrays.asList("Line two", "Line four"),
+                    listener2.getLines());
+            tailer2.stop();
+            TestCase.assertFalse("executor not shut down", executor.isShutdown());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testStartingAt() throws Exception {
+        final long delayMillis = 50;
+        final File file = new File(FileBasedTestCase.getTestDirectory(), "tailer-starting-at.txt");
+        this.createFile(file, 0);
+        this.writeString(file, "one\n", "two\n", "thr");
+        final TestTailerListener listener = new TestTailerListener();
+        this.tailer = new Tailer.Builder(file, listener).withDelay(delayMillis).readingFromEnd(true).startingAt(4)
+                .build();
+        TestCase.assertEquals("position before opening", -1, this.tailer.getPosition());
+        final Thread thread = new Thread(this.tailer);
+        thread.start();
+        final long testDelayMillis = delayMillis * 10;
+        Thread.sleep(testDelayMillis);
+        TestCase.assertEquals("lines", Collections.singletonList("two"), listener.getLines());
+        TestCase.assertEquals("position after last complete line", 8, this.tailer.getPosition());
+        this.writeString(file, "ee\n");
+        Thread.sleep(testDelayMillis);
+        TestCase.assertEquals("lines", Arrays.asList("two", "three"), listener.getLines());
+        TestCase.assertEquals("position at the end", file.length(), this.tailer.getPosition());
+    }
+
     public void testStopWithNoFile() throws Exception {
         final File file = new File(FileBasedTestCase.getTestDirectory(),"nosuchfile");
         TestCase.assertFalse("nosuchfile should not exist", file.exists());
@@ -448,6 +897,27 @@ public class TailerTest extends FileBasedTestCase {
         }
     }
 
+    public void testTailerEofThroughChannel() throws Exception {
+        final long delay = 50;
+        final File file = new File(FileBasedTestCase.getTestDirectory(), "tailer2-test-channel.txt");
+        this.createFile(file, 0);
+        final TestTailerListener listener = new TestTailerListener();
+        this.tailer = new Tailer.Builder(file, listener).withDelay(delay).readingThroughChannel(true).build();
+        final Thread thread = new Thread(this.tailer);
+        thread.start();
+
+        this.writeString(file, "Line");
+        Thread.sleep(delay * 2);
+        List<String> lines = listener.getLines();
+        TestCase.assertEquals("1 line count", 0, lines.size());
+
+        this.writeString(file, " one\n");
+        Thread.sleep(delay * 2);
+        lines = listener.getLines();
+        TestCase.assertEquals("1 line count", 1, lines.size());
+        TestCase.assertEquals("1 line 1", "Line one", lines.get(0));
+    }
+
     /** Append some lines to a file */
     private void write(final File file, final String... lines) throws Exception {
         FileWriter writer = null;